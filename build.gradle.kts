@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.byt"
@@ -9,6 +10,13 @@ repositories {
     mavenCentral()
 }
 
+// virtual threads and the sequenced collection methods need Java 21
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
 dependencies {
     implementation("com.google.code.gson:gson:2.13.2")
 
@@ -25,4 +33,34 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
+}
+
+// benchmarks live in src/jmh/java, run them with `gradle jmh`
+jmh {
+    jmhVersion = "1.37"
+    includes = listOf(providers.gradleProperty("jmhIncludes").getOrElse(".*"))
+    // e.g. -PjmhProfilers=gc for allocation rates
+    profilers = providers.gradleProperty("jmhProfilers").map { it.split(",") }.getOrElse(listOf())
+    // e.g. -PjmhParams=key=STUDENTS,LESSONS;entityCount=1000 to run only some of the params
+    providers.gradleProperty("jmhParams").orNull?.split(";")?.forEach { param ->
+        val (name, values) = param.split("=", limit = 2)
+        benchmarkParameters.put(name, objects.listProperty<String>().value(values.split(",")))
+    }
+    resultFormat = "JSON"
+    // keep the results of a run to compare the next ones with, see jmhDiff
+    resultsFile = providers.gradleProperty("jmhResults").map { layout.projectDirectory.file(it) }
+        .orElse(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// compares two runs: gradle jmhDiff -PjmhBaseline=baseline.json [-PjmhCurrent=...] [-PjmhThreshold=10]
+tasks.register<JavaExec>("jmhDiff") {
+    group = "benchmark"
+    description = "Compares the JSON results of two jmh runs"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.byt.benchmark.ResultsDiff"
+    args = listOf(
+        providers.gradleProperty("jmhBaseline").orNull ?: "build/results/jmh/baseline.json",
+        providers.gradleProperty("jmhCurrent").orNull ?: "build/results/jmh/results.json",
+        providers.gradleProperty("jmhThreshold").orNull ?: "10"
+    )
 }
\ No newline at end of file
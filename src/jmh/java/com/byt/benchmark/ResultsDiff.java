@@ -0,0 +1,109 @@
+package com.byt.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compares two JSON result files of `gradle jmh` benchmark by benchmark, matched on the name and the
+// params. A benchmark counts as slower or faster when its score moved by more than the threshold
+// (in percent) and by more than the errors of both runs together. Exits with 1 when something
+// got slower, so it can fail a build.
+//
+//   gradle jmhDiff -PjmhBaseline=baseline.json [-PjmhCurrent=results.json] [-PjmhThreshold=10]
+public final class ResultsDiff {
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private record Score(String mode, double value, double error, String unit) {
+        // throughput is the only mode where more is better
+        boolean isBetterThan(Score other) {
+            return mode.equals("thrpt") ? value > other.value : value < other.value;
+        }
+    }
+
+    private ResultsDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ResultsDiff <baseline.json> <current.json> [threshold percent]");
+            System.exit(2);
+        }
+
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int slower = 0;
+        for (Map.Entry<String, Score> result : current.entrySet()) {
+            Score before = baseline.get(result.getKey());
+            Score after = result.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s -> %10.3f %s  (new)%n", result.getKey(), "", after.value, after.unit);
+                continue;
+            }
+
+            double change = 100 * (after.value - before.value) / before.value;
+            boolean significant = Math.abs(change) > threshold
+                    && Math.abs(after.value - before.value) > before.error + after.error;
+            String verdict = "";
+            if (significant && after.isBetterThan(before)) {
+                verdict = "faster";
+            } else if (significant) {
+                verdict = "SLOWER";
+                slower++;
+            }
+
+            System.out.printf("%-90s %10.3f -> %10.3f %s  %+7.1f%%  %s%n",
+                    result.getKey(), before.value, after.value, after.unit, change, verdict);
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed))
+                System.out.printf("%-90s (not run)%n", removed);
+        }
+
+        System.out.printf("%d of %d benchmarks slower by more than %.1f%%%n", slower, current.size(), threshold);
+        if (slower > 0)
+            System.exit(1);
+    }
+
+    // _________________________________________________________
+
+    // "benchmark.method {param=value, ...} mode" -> score, in the order of the file
+    private static Map<String, Score> read(Path resultsFile) throws IOException {
+        JsonArray results;
+        try (Reader reader = Files.newBufferedReader(resultsFile)) {
+            results = JsonParser.parseReader(reader).getAsJsonArray();
+        }
+
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonElement element : results) {
+            JsonObject result = element.getAsJsonObject();
+            JsonObject metric = result.getAsJsonObject("primaryMetric");
+
+            // the order of the params is up to JMH, sorted they match between runs
+            Map<String, String> params = new TreeMap<>();
+            if (result.has("params"))
+                result.getAsJsonObject("params").entrySet()
+                        .forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+
+            String name = result.get("benchmark").getAsString();
+            String mode = result.get("mode").getAsString();
+            // scoreError is "NaN" with a single measurement
+            JsonElement scoreError = metric.get("scoreError");
+            double error = scoreError.getAsJsonPrimitive().isNumber() ? scoreError.getAsDouble() : 0;
+
+            scores.put(name + (params.isEmpty() ? "" : " " + params) + " " + mode,
+                    new Score(mode, metric.get("score").getAsDouble(), error, metric.get("scoreUnit").getAsString()));
+        }
+        return scores;
+    }
+}
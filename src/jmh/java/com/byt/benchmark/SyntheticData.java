@@ -0,0 +1,395 @@
+package com.byt.benchmark;
+
+import com.byt.data.reporting.IssueReport;
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.scheduling.Specialization;
+import com.byt.data.scheduling.StudyProgram;
+import com.byt.data.scheduling.Subject;
+import com.byt.data.user_system.Admin;
+import com.byt.data.user_system.FreeListener;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.StudyProgramLevel;
+import com.byt.enums.scheduling.SubjectType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+// Valid entities of every DataSaveKeys collection for the benchmarks. The same seed and index give
+// the same entity, so two runs work on the same data and their results can be compared.
+// The key of an entity (name, email, email|title) depends on the index alone: an entity made with
+// another seed is a different version of the same entity, ready to be passed to update().
+public final class SyntheticData {
+    public static final long DEFAULT_SEED = 0x5EED;
+
+    // entities linked to one entity of another collection, e.g. students per group
+    public static final int LINKS_PER_ENTITY = Group.MAX_CAPACITY;
+
+    private static final Map<DataSaveKeys, Class<?>> ENTITY_CLASSES = new EnumMap<>(DataSaveKeys.class);
+
+    static {
+        ENTITY_CLASSES.put(DataSaveKeys.STUDENTS, Student.class);
+        ENTITY_CLASSES.put(DataSaveKeys.FREE_LISTENERS, FreeListener.class);
+        ENTITY_CLASSES.put(DataSaveKeys.TEACHERS, Teacher.class);
+        ENTITY_CLASSES.put(DataSaveKeys.ADMINS, Admin.class);
+        ENTITY_CLASSES.put(DataSaveKeys.BUILDINGS, Building.class);
+        ENTITY_CLASSES.put(DataSaveKeys.CLASSROOMS, ClassRoom.class);
+        ENTITY_CLASSES.put(DataSaveKeys.SPECIALIZATIONS, Specialization.class);
+        ENTITY_CLASSES.put(DataSaveKeys.STUDY_PROGRAMS, StudyProgram.class);
+        ENTITY_CLASSES.put(DataSaveKeys.SEMESTERS, Semester.class);
+        ENTITY_CLASSES.put(DataSaveKeys.SUBJECTS, Subject.class);
+        ENTITY_CLASSES.put(DataSaveKeys.LESSONS, Lesson.class);
+        ENTITY_CLASSES.put(DataSaveKeys.GROUPS, Group.class);
+        ENTITY_CLASSES.put(DataSaveKeys.ISSUE_REPORTS, IssueReport.class);
+    }
+
+    // letters only, see UserValidator
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Jan", "Ewa", "Piotr", "Olga", "Marek", "Zofia", "Tomasz", "Maria", "Pawel",
+            "Julia", "Adam", "Alicja", "Karol", "Natalia", "Igor"
+    };
+    private static final String[] LAST_NAMES = {
+            "Nowak", "Kowalski", "Wisniewski", "Lis", "Kaminska", "Lewandowski", "Zielinska", "Szymanski",
+            "Wozniak", "Dabrowski", "Kozlowska", "Jankowski"
+    };
+    private static final String[] TITLES = {"Dr", "Prof", "Mgr", "Inz"};
+    private static final String[] POSITIONS = {"Lecturer", "Assistant", "Professor", "Researcher"};
+    private static final String[] STREETS = {"Koszykowa", "Marszalkowska", "Pulawska", "Grojecka", "Nowy Swiat"};
+
+    // far enough in the past for the validators whatever day the benchmarks run
+    private static final LocalDate EARLIEST_BIRTH = LocalDate.of(1950, 1, 1);
+    private static final LocalDate FIRST_SEMESTER = LocalDate.of(2015, 10, 1);
+    private static final LocalDateTime FIRST_REPORT = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+    private final long seed;
+
+    public SyntheticData(long seed) {
+        this.seed = seed;
+    }
+
+    public SyntheticData() {
+        this(DEFAULT_SEED);
+    }
+
+    public static Class<?> entityClass(DataSaveKeys key) {
+        return ENTITY_CLASSES.get(key);
+    }
+
+    // The type to load the collection with
+    public static Type listType(DataSaveKeys key) {
+        return TypeToken.getParameterized(List.class, entityClass(key)).getType();
+    }
+
+    // One entity of the collection with no links to others
+    public Object entity(DataSaveKeys key, int index) {
+        return switch (key) {
+            case STUDENTS -> student(index);
+            case FREE_LISTENERS -> freeListener(index);
+            case TEACHERS -> teacher(index);
+            case ADMINS -> admin(index);
+            case BUILDINGS -> building(index);
+            case CLASSROOMS -> classRoom(index);
+            case SPECIALIZATIONS -> specialization(index);
+            case STUDY_PROGRAMS -> studyProgram(index);
+            case SEMESTERS -> semester(index);
+            case SUBJECTS -> subject(index);
+            case LESSONS -> lesson(index);
+            case GROUPS -> group(index);
+            case ISSUE_REPORTS -> issueReport(index);
+        };
+    }
+
+    // Entities from..from+count-1 of the collection, with no links to others
+    public List<Object> entities(DataSaveKeys key, int from, int count) {
+        List<Object> entities = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++)
+            entities.add(entity(key, i));
+        return entities;
+    }
+
+    // The first count entities of the collection, linked to other entities the way the application
+    // links them: every LINKS_PER_ENTITY students share a group, lessons share groups, teachers,
+    // subjects and classrooms, every building has its classrooms... The linked entities are made
+    // for the collection and not returned themselves.
+    public List<Object> collection(DataSaveKeys key, int count) {
+        List<Object> entities = entities(key, 0, count);
+
+        switch (key) {
+            case STUDENTS -> {
+                List<Group> groups = shared(count, this::group);
+                for (int i = 0; i < count; i++)
+                    groups.get(i / LINKS_PER_ENTITY).addStudent((Student) entities.get(i));
+            }
+            case FREE_LISTENERS -> {
+                List<Group> groups = shared(count, this::group);
+                for (int i = 0; i < count; i++)
+                    groups.get(i / LINKS_PER_ENTITY).addFreeListener((FreeListener) entities.get(i));
+            }
+            case TEACHERS -> {
+                for (int i = 0; i < count; i++)
+                    lesson(i).addTeacher((Teacher) entities.get(i));
+            }
+            case ADMINS -> {
+                // the first admin of every LINKS_PER_ENTITY supervises the others
+                for (int i = 0; i < count; i++) {
+                    int supervisor = i / LINKS_PER_ENTITY * LINKS_PER_ENTITY;
+                    if (supervisor != i)
+                        ((Admin) entities.get(i)).addSuperAdmin((Admin) entities.get(supervisor));
+                }
+            }
+            case BUILDINGS -> {
+                for (int i = 0; i < count; i++)
+                    classRoom(i).addBuilding((Building) entities.get(i));
+            }
+            case CLASSROOMS -> {
+                List<Building> buildings = shared(count, this::building);
+                for (int i = 0; i < count; i++)
+                    ((ClassRoom) entities.get(i)).addBuilding(buildings.get(i / LINKS_PER_ENTITY));
+            }
+            case SPECIALIZATIONS -> {
+                for (int i = 0; i < count; i++) {
+                    Specialization specialization = (Specialization) entities.get(i);
+                    specialization.addSubject(subject(i));
+                    specialization.addStudyProgram(studyProgram(i));
+                }
+            }
+            case STUDY_PROGRAMS -> {
+                for (int i = 0; i < count; i++)
+                    ((StudyProgram) entities.get(i)).addSpecialization(specialization(i));
+            }
+            case SEMESTERS -> {
+                for (int i = 0; i < count; i++)
+                    lesson(i).addSemester((Semester) entities.get(i));
+            }
+            case SUBJECTS -> {
+                for (int i = 0; i < count; i++)
+                    lesson(i).addSubject((Subject) entities.get(i));
+            }
+            case LESSONS -> {
+                List<Group> groups = shared(count, this::group);
+                List<Teacher> teachers = shared(count, this::teacher);
+                List<Subject> subjects = shared(count, this::subject);
+                List<ClassRoom> classRooms = shared(count, this::classRoom);
+                List<Semester> semesters = shared(count, this::semester);
+                for (int i = 0; i < count; i++) {
+                    Lesson lesson = (Lesson) entities.get(i);
+                    int shared = i / LINKS_PER_ENTITY;
+                    lesson.addGroup(groups.get(shared));
+                    lesson.addTeacher(teachers.get(shared));
+                    lesson.addSubject(subjects.get(shared));
+                    lesson.addClassRoom(classRooms.get(shared));
+                    lesson.addSemester(semesters.get(shared));
+                }
+            }
+            case GROUPS -> {
+                for (int i = 0; i < count; i++) {
+                    Group group = (Group) entities.get(i);
+                    lesson(i).addGroup(group);
+                    group.addStudent(student(i));
+                }
+            }
+            case ISSUE_REPORTS -> {
+                // reports refer to their authors by email only
+            }
+        }
+        return entities;
+    }
+
+    public Student student(int index) {
+        SplittableRandom random = random(DataSaveKeys.STUDENTS, index);
+        return new Student(
+                pick(random, FIRST_NAMES), pick(random, LAST_NAMES), familyName(random),
+                dateOfBirth(random), phoneNumber(index), "student" + index + "@school.edu",
+                languages(random), pick(random, StudyStatus.values())
+        );
+    }
+
+    public FreeListener freeListener(int index) {
+        SplittableRandom random = random(DataSaveKeys.FREE_LISTENERS, index);
+        return new FreeListener(
+                pick(random, FIRST_NAMES), pick(random, LAST_NAMES), familyName(random),
+                dateOfBirth(random), phoneNumber(index), "listener" + index + "@school.edu",
+                languages(random), random.nextBoolean() ? null : "Attends evening lectures " + random.nextInt(100)
+        );
+    }
+
+    public Teacher teacher(int index) {
+        SplittableRandom random = random(DataSaveKeys.TEACHERS, index);
+        LocalDate dateOfBirth = dateOfBirth(random);
+        return new Teacher(
+                pick(random, FIRST_NAMES), pick(random, LAST_NAMES), familyName(random),
+                dateOfBirth, phoneNumber(index), "teacher" + index + "@school.edu",
+                hireDate(random, dateOfBirth), pick(random, TITLES), pick(random, POSITIONS)
+        );
+    }
+
+    public Admin admin(int index) {
+        SplittableRandom random = random(DataSaveKeys.ADMINS, index);
+        LocalDate dateOfBirth = dateOfBirth(random);
+        LocalDate hireDate = hireDate(random, dateOfBirth);
+        return new Admin(
+                pick(random, FIRST_NAMES), pick(random, LAST_NAMES), familyName(random),
+                dateOfBirth, phoneNumber(index), "admin" + index + "@school.edu",
+                hireDate, hireDate.atTime(8, 0).plusMinutes(random.nextInt(500_000)), null
+        );
+    }
+
+    public Building building(int index) {
+        SplittableRandom random = random(DataSaveKeys.BUILDINGS, index);
+        return Building.builder()
+                .name("Building " + index)
+                .address(pick(random, STREETS) + " " + (1 + random.nextInt(200)) + ", Warsaw")
+                .description(random.nextBoolean() ? null : "Lecture halls and labs")
+                .build();
+    }
+
+    public ClassRoom classRoom(int index) {
+        SplittableRandom random = random(DataSaveKeys.CLASSROOMS, index);
+        return ClassRoom.builder()
+                .name("Room " + index)
+                .floor(random.nextInt(10))
+                .capacity(10 + random.nextInt(200))
+                .build();
+    }
+
+    public Specialization specialization(int index) {
+        SplittableRandom random = random(DataSaveKeys.SPECIALIZATIONS, index);
+        return Specialization.builder()
+                .name("Specialization " + index)
+                .description(random.nextBoolean() ? null : "Track number " + random.nextInt(100))
+                .build();
+    }
+
+    public StudyProgram studyProgram(int index) {
+        SplittableRandom random = random(DataSaveKeys.STUDY_PROGRAMS, index);
+        return StudyProgram.builder()
+                .name("Program " + index)
+                .level(pick(random, StudyProgramLevel.values()))
+                .build();
+    }
+
+    public Semester semester(int index) {
+        SplittableRandom random = random(DataSaveKeys.SEMESTERS, index);
+        LocalDate startDate = FIRST_SEMESTER.plusMonths(6L * random.nextInt(20));
+        return Semester.builder()
+                .name("Semester " + index)
+                .startDate(startDate)
+                .endDate(startDate.plusMonths(4))
+                .academicYear(startDate.getYear())
+                .build();
+    }
+
+    public Subject subject(int index) {
+        SplittableRandom random = random(DataSaveKeys.SUBJECTS, index);
+        return Subject.builder()
+                .name("Subject " + index)
+                .hours(Subject.HOURS_PER_ECTS * (1 + random.nextInt(8)))
+                .types(new ArrayList<>(List.of(pick(random, SubjectType.values()))))
+                .build();
+    }
+
+    public Lesson lesson(int index) {
+        SplittableRandom random = random(DataSaveKeys.LESSONS, index);
+        LocalTime startTime = LocalTime.of(8 + random.nextInt(10), 15 * random.nextInt(4));
+        return Lesson.builder()
+                .name("Lesson " + index)
+                .type(pick(random, LessonType.values()))
+                .mode(pick(random, LessonMode.values()))
+                .note(random.nextBoolean() ? null : "Bring the lab notebook")
+                .dayOfWeek(DayOfWeek.values()[random.nextInt(5)])
+                .startTime(startTime)
+                .endTime(startTime.plusMinutes(90))
+                .language(pick(random, StudyLanguage.values()))
+                .weekPattern(pick(random, WeekPattern.values()))
+                .build();
+    }
+
+    public Group group(int index) {
+        SplittableRandom random = random(DataSaveKeys.GROUPS, index);
+        return Group.builder()
+                .name("Group " + index)
+                .language(pick(random, StudyLanguage.values()))
+                .maxCapacity(Group.MAX_CAPACITY)
+                .yearOfStudy(1 + random.nextInt(5))
+                .notes(random.nextBoolean() ? null : new ArrayList<>(List.of("Morning lessons only")))
+                .build();
+    }
+
+    public IssueReport issueReport(int index) {
+        SplittableRandom random = random(DataSaveKeys.ISSUE_REPORTS, index);
+        return new IssueReport(
+                "student" + index / 4 + "@school.edu",
+                "Issue " + index,
+                "The projector in room " + random.nextInt(500) + " does not turn on",
+                FIRST_REPORT.plusMinutes(random.nextInt(2_000_000))
+        );
+    }
+
+    // _________________________________________________________
+
+    private SplittableRandom random(DataSaveKeys key, int index) {
+        return new SplittableRandom(seed * 1_000_003L + key.ordinal() * 0x9E3779B97F4A7C15L + index);
+    }
+
+    // Entities shared by LINKS_PER_ENTITY entities each, enough of them for count entities
+    private static <T> List<T> shared(int count, IntFunction<T> factory) {
+        int sharedCount = (count + LINKS_PER_ENTITY - 1) / LINKS_PER_ENTITY;
+        List<T> shared = new ArrayList<>(sharedCount);
+        for (int i = 0; i < sharedCount; i++)
+            shared.add(factory.apply(i));
+        return shared;
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String familyName(SplittableRandom random) {
+        return random.nextInt(4) == 0 ? pick(random, LAST_NAMES) : null;
+    }
+
+    // between 1950 and 1989
+    private static LocalDate dateOfBirth(SplittableRandom random) {
+        return EARLIEST_BIRTH.plusDays(random.nextInt(40 * 365));
+    }
+
+    // at 22 to 31, so before 2021 at the latest
+    private static LocalDate hireDate(SplittableRandom random, LocalDate dateOfBirth) {
+        return dateOfBirth.plusYears(22 + random.nextInt(10));
+    }
+
+    // unique per index, 9 digits
+    private static String phoneNumber(int index) {
+        return String.valueOf(500_000_000 + index);
+    }
+
+    private static Set<StudyLanguage> languages(SplittableRandom random) {
+        Set<StudyLanguage> languages = new HashSet<>();
+        languages.add(pick(random, StudyLanguage.values()));
+        if (random.nextInt(3) == 0)
+            languages.add(pick(random, StudyLanguage.values()));
+        return languages;
+    }
+}
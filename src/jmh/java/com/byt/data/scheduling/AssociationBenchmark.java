@@ -0,0 +1,57 @@
+package com.byt.data.scheduling;
+
+import com.byt.benchmark.SyntheticData;
+import com.byt.data.user_system.Student;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Wiring both ends of an association, with the validation every add/remove does on the way.
+// The entities on the other end already hold linkedCount links, to see what the link sets cost:
+// moving a lesson between two groups and putting a student in a group and taking them out again.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssociationBenchmark {
+
+    @Param({"20", "2000"})
+    private int linkedCount;
+
+    private Group[] groups;
+    private Lesson movingLesson;
+    private Student joiningStudent;
+    private int moves;
+
+    @Setup(Level.Trial)
+    public void linkEntities() {
+        SyntheticData data = new SyntheticData();
+
+        groups = new Group[]{data.group(0), data.group(1)};
+        for (int i = 0; i < linkedCount; i++) {
+            Group group = groups[i % 2];
+            data.lesson(i).addGroup(group);
+            group.addStudent(data.student(i));
+        }
+
+        movingLesson = data.lesson(linkedCount);
+        joiningStudent = data.student(linkedCount);
+    }
+
+    @Benchmark
+    public Group lessonAddGroup() {
+        Group group = groups[moves++ & 1];
+        movingLesson.addGroup(group);
+        return group;
+    }
+
+    @Benchmark
+    public Group groupAddStudent() {
+        Group group = groups[0];
+        group.addStudent(joiningStudent);
+        group.removeStudent(joiningStudent);
+        return group;
+    }
+}
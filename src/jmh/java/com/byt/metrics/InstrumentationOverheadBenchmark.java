@@ -0,0 +1,86 @@
+package com.byt.metrics;
+
+import com.byt.benchmark.SyntheticData;
+import com.byt.data.user_system.Student;
+import com.byt.persistence.DataRepository;
+import com.byt.persistence.DataSerializer;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.InstrumentedDataRepository;
+import com.byt.persistence.InstrumentedDataSerializer;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.CRUDService;
+import com.byt.services.InstrumentedCRUDService;
+import com.byt.services.user_system.StudentService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// What measuring costs: the same student operations with everything wrapped and measured into an
+// InMemoryMetricsRegistry and without any of it. get is the cheapest operation there is, so the
+// timing around it weighs the most; update also rewrites the collection through every layer.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean measured;
+
+    @Param({"1000"})
+    private int studentCount;
+
+    private CRUDService<Student> service;
+    private List<Object> students;
+    private String[] emails;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fillService() throws IOException {
+        students = new SyntheticData().entities(DataSaveKeys.STUDENTS, 0, studentCount);
+        emails = students.stream().map(student -> ((Student) student).getEmail()).toArray(String[]::new);
+
+        DataSerializer serializer = new JsonDataSerializer();
+        DataRepository repository = new InMemoryDataRepository();
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        if (measured) {
+            serializer = InstrumentedDataSerializer.wrap(serializer, metrics);
+            repository = new InstrumentedDataRepository(repository, metrics);
+        }
+
+        SaveLoadService saveLoadService = new SaveLoadService(serializer, repository);
+        saveLoadService.save(DataSaveKeys.STUDENTS, students);
+
+        service = new StudentService(saveLoadService);
+        if (measured) {
+            saveLoadService.setMetrics(metrics);
+            service = new InstrumentedCRUDService<>(service, "Student", metrics);
+        }
+        service.initialize();
+    }
+
+    @Benchmark
+    public Object get() throws IOException {
+        return service.get(emails[nextIndex()]).orElseThrow();
+    }
+
+    @Benchmark
+    public void update() throws IOException {
+        int index = nextIndex();
+        service.update(emails[index], (Student) students.get(index));
+    }
+
+    // _________________________________________________________
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == studentCount ? 0 : index + 1;
+        return index;
+    }
+}
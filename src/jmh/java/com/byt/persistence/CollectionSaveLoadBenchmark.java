@@ -0,0 +1,53 @@
+package com.byt.persistence;
+
+import com.byt.benchmark.SyntheticData;
+import com.byt.persistence.util.DataSaveKeys;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Saving and loading every DataSaveKeys collection whole through SaveLoadService, with the entities
+// linked the way SyntheticData links them. The repository is kept in memory so that the times are
+// those of serializing and parsing, not of the disk.
+// All 78 combinations take a while, pick some with e.g. -PjmhParams=key=LESSONS,STUDENTS;entityCount=1000
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollectionSaveLoadBenchmark {
+
+    @Param({"STUDENTS", "FREE_LISTENERS", "TEACHERS", "ADMINS", "BUILDINGS", "CLASSROOMS", "SPECIALIZATIONS",
+            "STUDY_PROGRAMS", "SEMESTERS", "SUBJECTS", "LESSONS", "GROUPS", "ISSUE_REPORTS"})
+    private DataSaveKeys key;
+
+    @Param({"1000", "10000", "100000"})
+    private int entityCount;
+
+    private SaveLoadService saveLoadService;
+    private List<Object> entities;
+    private Type listType;
+
+    @Setup(Level.Trial)
+    public void saveCollection() throws IOException {
+        entities = new SyntheticData().collection(key, entityCount);
+        listType = SyntheticData.listType(key);
+
+        saveLoadService = new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository());
+        saveLoadService.save(key, entities);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        saveLoadService.save(key, entities);
+    }
+
+    @Benchmark
+    public Object load() throws IOException {
+        return saveLoadService.load(key, listType);
+    }
+}
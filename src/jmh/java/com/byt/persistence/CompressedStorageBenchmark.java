@@ -0,0 +1,112 @@
+package com.byt.persistence;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Save and load of the lesson history stored plain against GZIP at its fastest and its default
+// level. The stored size of each is printed once the trial is set up.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressedStorageBenchmark {
+    private static final Type LESSON_LIST_TYPE = new TypeToken<List<Lesson>>() {}.getType();
+    private static final String KEY = "Lessons";
+
+    @Param({"20000"})
+    private int lessonCount;
+
+    @Param({"none", "gzip-1", "gzip-6"})
+    private String codec;
+
+    private Path savesPath;
+    private SaveLoadService service;
+    private List<Lesson> lessons;
+
+    @Setup(Level.Trial)
+    public void writeLessons() throws IOException {
+        Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak",
+                LocalDate.of(1980, 1, 1), "123456789", "anna@school.com",
+                LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+        Semester semester = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build();
+
+        lessons = new ArrayList<>(lessonCount);
+        for (int i = 0; i < lessonCount; i++) {
+            lessons.add(Lesson.builder()
+                    .name("Lesson " + i)
+                    .type(LessonType.values()[i % LessonType.values().length])
+                    .mode(LessonMode.OFFLINE)
+                    .note("Bring the lab notebook")
+                    .dayOfWeek(DayOfWeek.values()[i % 5])
+                    .startTime(LocalTime.of(8 + i % 8, 0))
+                    .endTime(LocalTime.of(9 + i % 8, 30))
+                    .language(StudyLanguage.ENGLISH)
+                    .weekPattern(WeekPattern.NORMAL)
+                    .group(Group.builder().name("Group " + i % 500).maxCapacity(20).language(StudyLanguage.ENGLISH).build())
+                    .teacher(teacher)
+                    .classRooms(new HashSet<>(Set.of(ClassRoom.builder().name("Room " + i % 120).floor(1).capacity(30).build())))
+                    .semesters(new HashSet<>(Set.of(semester)))
+                    .build());
+        }
+
+        savesPath = Files.createTempDirectory("compressed-storage-benchmark");
+        LocalDataRepository repository = switch (codec) {
+            case "none" -> new LocalDataRepository(savesPath);
+            case "gzip-1" -> new LocalDataRepository(savesPath, new GzipCodec(1));
+            case "gzip-6" -> new LocalDataRepository(savesPath, new GzipCodec(6));
+            default -> throw new IllegalArgumentException("Unknown codec " + codec);
+        };
+        service = new SaveLoadService(new JsonDataSerializer(), repository);
+        service.save(KEY, lessons);
+
+        try (Stream<Path> files = Files.list(savesPath)) {
+            long bytes = files.mapToLong(file -> file.toFile().length()).sum();
+            System.out.printf("%n%s: %d lessons stored in %d bytes%n", codec, lessonCount, bytes);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLessons() throws IOException {
+        try (Stream<Path> files = Files.walk(savesPath)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        service.save(KEY, lessons);
+    }
+
+    @Benchmark
+    public Object load() throws IOException {
+        return service.load(KEY, LESSON_LIST_TYPE);
+    }
+}
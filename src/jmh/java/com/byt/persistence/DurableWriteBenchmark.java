@@ -0,0 +1,75 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// What durable saves cost: every DataSaveKeys collection written as its own atomic file (fsync of
+// the file and of its directory per key) against all of them in one group commit, where the files
+// are forced one after another but the commit record and directory syncs are paid once.
+// "inPlace" is the old unsafe write for reference - no fsync at all.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DurableWriteBenchmark {
+
+    @Param({"16384"})
+    private int bytesPerCollection;
+
+    @Param({"false", "true"})
+    private boolean checksums;
+
+    private Path savesPath;
+    private LocalDataRepository repository;
+    private final Map<String, String> collections = new LinkedHashMap<>();
+
+    @Setup(Level.Trial)
+    public void createRepository() throws IOException {
+        savesPath = Files.createTempDirectory("durable-write-benchmark");
+        repository = checksums
+                ? new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS)
+                : new LocalDataRepository(savesPath);
+
+        String value = "[" + "\"x\",".repeat(bytesPerCollection / 4) + "\"x\"]";
+        for (DataSaveKeys key : DataSaveKeys.values()) {
+            collections.put(key.repositoryKey, value);
+            Files.createDirectories(savesPath.resolve(key.repositoryKey).getParent());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRepository() throws IOException {
+        try (Stream<Path> files = Files.walk(savesPath)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public void inPlace() throws IOException {
+        for (Map.Entry<String, String> collection : collections.entrySet())
+            Files.writeString(savesPath.resolve(collection.getKey() + ".json"), collection.getValue());
+    }
+
+    @Benchmark
+    public void atomicPerKey() throws IOException {
+        for (Map.Entry<String, String> collection : collections.entrySet())
+            repository.write(collection.getKey(), collection.getValue());
+    }
+
+    @Benchmark
+    public void groupCommit() throws IOException {
+        repository.writeAll(collections);
+    }
+}
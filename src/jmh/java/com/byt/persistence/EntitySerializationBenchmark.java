@@ -0,0 +1,115 @@
+package com.byt.persistence;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.scheduling.Subject;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// The hand-written entity adapters against Gson's reflective ones, on the two largest collections:
+// lessons, which are mostly enums, times and links, and students, mostly strings and dates
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntitySerializationBenchmark {
+    private static final Type LESSON_LIST_TYPE = new TypeToken<List<Lesson>>() {}.getType();
+    private static final Type STUDENT_LIST_TYPE = new TypeToken<List<Student>>() {}.getType();
+
+    @Param({"compiled", "reflective"})
+    private String adapters;
+
+    @Param({"2000"})
+    private int entityCount;
+
+    private JsonDataSerializer serializer;
+    private List<Lesson> lessons;
+    private List<Student> students;
+    private String lessonsJson;
+    private String studentsJson;
+
+    @Setup(Level.Trial)
+    public void createEntities() {
+        serializer = adapters.equals("compiled") ? new JsonDataSerializer() : JsonDataSerializer.reflective();
+
+        Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak",
+                LocalDate.of(1980, 1, 1), "123456789", "anna@school.com",
+                LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+        Semester semester = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build();
+        Subject subject = Subject.builder().name("Databases").hours(60).build();
+
+        lessons = new ArrayList<>(entityCount);
+        students = new ArrayList<>(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            Group group = Group.builder().name("Group " + i % 100).maxCapacity(20).language(StudyLanguage.ENGLISH).build();
+
+            lessons.add(Lesson.builder()
+                    .name("Lesson " + i)
+                    .type(LessonType.values()[i % LessonType.values().length])
+                    .mode(LessonMode.OFFLINE)
+                    .note("Bring the lab notebook")
+                    .dayOfWeek(DayOfWeek.values()[i % 5])
+                    .startTime(LocalTime.of(8 + i % 8, 0))
+                    .endTime(LocalTime.of(9 + i % 8, 30))
+                    .language(StudyLanguage.ENGLISH)
+                    .weekPattern(WeekPattern.NORMAL)
+                    .subject(subject)
+                    .group(group)
+                    .teacher(teacher)
+                    .classRooms(new HashSet<>(Set.of(ClassRoom.builder().name("Room " + i % 120).floor(1).capacity(30).build())))
+                    .semesters(new HashSet<>(Set.of(semester)))
+                    .build());
+
+            Student student = new Student("Jan", "Nowak", "Kowalski", LocalDate.of(2000, 1, 1).plusDays(i),
+                    "600" + (100000 + i), "student" + i + "@school.com",
+                    new HashSet<>(Set.of(StudyLanguage.ENGLISH)), StudyStatus.ACTIVE);
+            student.addGroup(group);
+            students.add(student);
+        }
+
+        lessonsJson = serializer.serialize(lessons);
+        studentsJson = serializer.serialize(students);
+    }
+
+    @Benchmark
+    public String writeLessons() {
+        return serializer.serialize(lessons);
+    }
+
+    @Benchmark
+    public Object readLessons() {
+        return serializer.deserialize(lessonsJson, LESSON_LIST_TYPE);
+    }
+
+    @Benchmark
+    public String writeStudents() {
+        return serializer.serialize(students);
+    }
+
+    @Benchmark
+    public Object readStudents() {
+        return serializer.deserialize(studentsJson, STUDENT_LIST_TYPE);
+    }
+}
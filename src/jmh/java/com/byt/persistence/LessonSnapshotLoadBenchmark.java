@@ -0,0 +1,115 @@
+package com.byt.persistence;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Cold load of the lesson history from disk: JSON files parsed with Gson against binary
+// snapshots mapped from disk. "Touch" variants decode every lesson, "first" ones only the
+// first - the cost a lazy consumer pays before it can start working.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LessonSnapshotLoadBenchmark {
+    private static final Type LESSON_LIST_TYPE = new TypeToken<List<Lesson>>() {}.getType();
+    private static final String KEY = "Lessons";
+
+    @Param({"100000"})
+    private int lessonCount;
+
+    private Path savesPath;
+    private SaveLoadService json;
+    private SaveLoadService binary;
+
+    @Setup(Level.Trial)
+    public void writeSnapshots() throws IOException {
+        Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak",
+                LocalDate.of(1980, 1, 1), "123456789", "anna@school.com",
+                LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+        Semester semester = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build();
+
+        List<Lesson> lessons = new ArrayList<>(lessonCount);
+        for (int i = 0; i < lessonCount; i++) {
+            lessons.add(Lesson.builder()
+                    .name("Lesson " + i)
+                    .type(LessonType.values()[i % LessonType.values().length])
+                    .mode(LessonMode.OFFLINE)
+                    .note("Bring the lab notebook")
+                    .dayOfWeek(DayOfWeek.values()[i % 5])
+                    .startTime(LocalTime.of(8 + i % 8, 0))
+                    .endTime(LocalTime.of(9 + i % 8, 30))
+                    .language(StudyLanguage.ENGLISH)
+                    .weekPattern(WeekPattern.NORMAL)
+                    .group(Group.builder().name("Group " + i % 500).maxCapacity(20).language(StudyLanguage.ENGLISH).build())
+                    .teacher(teacher)
+                    .classRooms(new HashSet<>(Set.of(ClassRoom.builder().name("Room " + i % 120).floor(1).capacity(30).build())))
+                    .semesters(new HashSet<>(Set.of(semester)))
+                    .build());
+        }
+
+        savesPath = Files.createTempDirectory("snapshot-benchmark");
+        json = new SaveLoadService(new JsonDataSerializer(), new LocalDataRepository(savesPath));
+        binary = new SaveLoadService(new BinarySnapshotSerializer(), new MappedFileDataRepository(savesPath));
+
+        json.save(KEY, lessons);
+        binary.save(KEY, lessons);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshots() throws IOException {
+        try (Stream<Path> files = Files.walk(savesPath)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public void jsonTouchAll(Blackhole blackhole) throws IOException {
+        for (Object lesson : (List<?>) json.load(KEY, LESSON_LIST_TYPE))
+            blackhole.consume(lesson);
+    }
+
+    @Benchmark
+    public void binaryTouchAll(Blackhole blackhole) throws IOException {
+        for (Object lesson : (List<?>) binary.load(KEY, LESSON_LIST_TYPE))
+            blackhole.consume(lesson);
+    }
+
+    @Benchmark
+    public Object jsonFirst() throws IOException {
+        return ((List<?>) json.load(KEY, LESSON_LIST_TYPE)).getFirst();
+    }
+
+    @Benchmark
+    public Object binaryFirst() throws IOException {
+        return ((List<?>) binary.load(KEY, LESSON_LIST_TYPE)).getFirst();
+    }
+}
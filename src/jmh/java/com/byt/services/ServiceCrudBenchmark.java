@@ -0,0 +1,130 @@
+package com.byt.services;
+
+import com.byt.benchmark.SyntheticData;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.reporting.IssueReportService;
+import com.byt.services.scheduling.BuildingService;
+import com.byt.services.scheduling.ClassRoomService;
+import com.byt.services.scheduling.GroupService;
+import com.byt.services.scheduling.LessonService;
+import com.byt.services.scheduling.SemesterService;
+import com.byt.services.scheduling.SpecializationService;
+import com.byt.services.scheduling.StudyProgramService;
+import com.byt.services.scheduling.SubjectService;
+import com.byt.services.user_system.AdminService;
+import com.byt.services.user_system.FreeListenerService;
+import com.byt.services.user_system.StudentService;
+import com.byt.services.user_system.TeacherService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// The CRUD operations of every service on a collection of entityCount entities, each one saving the
+// collection the way the service does it without a write-ahead log. The collection keeps its size:
+// update switches an entity between two versions of it and createAndDelete removes what it added.
+// Pick services with e.g. -PjmhParams=key=STUDENTS,LESSONS
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceCrudBenchmark {
+    private static final Map<DataSaveKeys, Function<SaveLoadService, CRUDService<?>>> SERVICES =
+            new EnumMap<>(DataSaveKeys.class);
+
+    static {
+        SERVICES.put(DataSaveKeys.STUDENTS, StudentService::new);
+        SERVICES.put(DataSaveKeys.FREE_LISTENERS, FreeListenerService::new);
+        SERVICES.put(DataSaveKeys.TEACHERS, TeacherService::new);
+        SERVICES.put(DataSaveKeys.ADMINS, AdminService::new);
+        SERVICES.put(DataSaveKeys.BUILDINGS, BuildingService::new);
+        SERVICES.put(DataSaveKeys.CLASSROOMS, ClassRoomService::new);
+        SERVICES.put(DataSaveKeys.SPECIALIZATIONS, SpecializationService::new);
+        SERVICES.put(DataSaveKeys.STUDY_PROGRAMS, StudyProgramService::new);
+        SERVICES.put(DataSaveKeys.SEMESTERS, SemesterService::new);
+        SERVICES.put(DataSaveKeys.SUBJECTS, SubjectService::new);
+        SERVICES.put(DataSaveKeys.LESSONS, LessonService::new);
+        SERVICES.put(DataSaveKeys.GROUPS, GroupService::new);
+        SERVICES.put(DataSaveKeys.ISSUE_REPORTS, IssueReportService::new);
+    }
+
+    @Param({"STUDENTS", "FREE_LISTENERS", "TEACHERS", "ADMINS", "BUILDINGS", "CLASSROOMS", "SPECIALIZATIONS",
+            "STUDY_PROGRAMS", "SEMESTERS", "SUBJECTS", "LESSONS", "GROUPS", "ISSUE_REPORTS"})
+    private DataSaveKeys key;
+
+    @Param({"1000", "10000"})
+    private int entityCount;
+
+    private CRUDService<Object> service;
+    private String[] ids;
+    // the stored entities and another version of each, for update
+    private List<Object> originals;
+    private List<Object> changed;
+    private Object created;
+    private int next;
+    private boolean changedStored;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void fillService() throws IOException {
+        SyntheticData data = new SyntheticData();
+        originals = data.entities(key, 0, entityCount);
+        changed = new SyntheticData(SyntheticData.DEFAULT_SEED + 1).entities(key, 0, entityCount);
+
+        SaveLoadService saveLoadService = new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository());
+        saveLoadService.save(key, originals);
+
+        service = (CRUDService<Object>) SERVICES.get(key).apply(saveLoadService);
+        service.initialize();
+
+        ids = originals.stream().map(service::keyOf).toArray(String[]::new);
+        created = data.entity(key, entityCount);
+    }
+
+    @Benchmark
+    public Object get() throws IOException {
+        return service.get(ids[nextIndex()]).orElseThrow();
+    }
+
+    @Benchmark
+    public boolean exists() throws IOException {
+        return service.exists(ids[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<Object> getAll() throws IOException {
+        return service.getAll();
+    }
+
+    @Benchmark
+    public void update() throws IOException {
+        int index = nextIndex();
+        if (index == 0)
+            changedStored = !changedStored;
+
+        service.update(ids[index], (changedStored ? changed : originals).get(index));
+    }
+
+    @Benchmark
+    public void createAndDelete() throws IOException {
+        service.create(created);
+        service.delete(service.keyOf(created));
+    }
+
+    // _________________________________________________________
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == entityCount ? 0 : index + 1;
+        return index;
+    }
+}
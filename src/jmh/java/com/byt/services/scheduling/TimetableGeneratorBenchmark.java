@@ -0,0 +1,100 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.scheduling.Subject;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.user_system.StudyLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time to a conflict-free timetable for a synthetic faculty: 500 groups with three
+// courses each - 23 hours (a weekly lesson), 34 hours (a weekly plus a biweekly one) and
+// 12 hours (a biweekly one) - which makes 2,000 lessons for 250 teachers in 120 classrooms
+// spread over 6 buildings.
+// Run with different worker counts to see how the search scales across cores.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimetableGeneratorBenchmark {
+    private static final int GROUPS = 500;
+    private static final int TEACHERS = 250;
+    private static final int BUILDINGS = 6;
+    private static final int ROOMS_PER_BUILDING = 20;
+
+    @Param({"1", "4"})
+    private int workers;
+
+    private Semester semester;
+    private List<TimetableGenerator.Course> courses;
+    private List<ClassRoom> classRooms;
+    private TimetableGenerator generator;
+
+    @Setup(Level.Trial)
+    public void generateFaculty() {
+        semester = Semester.builder()
+                .name("Winter")
+                .startDate(LocalDate.of(2025, 10, 1))
+                .endDate(LocalDate.of(2026, 1, 14))
+                .build();
+
+        classRooms = new ArrayList<>();
+        for (int b = 0; b < BUILDINGS; b++) {
+            Building building = Building.builder().name("Building " + b).build();
+            for (int r = 0; r < ROOMS_PER_BUILDING; r++)
+                classRooms.add(ClassRoom.builder().name("B" + b + "-" + r).floor(r / 5).capacity(30).building(building).build());
+        }
+
+        List<Teacher> teachers = new ArrayList<>();
+        for (int t = 0; t < TEACHERS; t++) {
+            teachers.add(new Teacher("Teacher", "No" + t, "Bench",
+                    LocalDate.of(1980, 1, 1), String.format("%09d", t), "teacher" + t + "@bench.com",
+                    LocalDate.of(2010, 9, 1), "Dr", "Lecturer"));
+        }
+
+        Subject weekly = Subject.builder().name("Algebra").hours(23).build();
+        Subject withBiweekly = Subject.builder().name("Physics").hours(34).build();
+        Subject biweekly = Subject.builder().name("Ethics").hours(12).build();
+
+        courses = new ArrayList<>();
+        for (int g = 0; g < GROUPS; g++) {
+            Group group = Group.builder()
+                    .name("Group " + g)
+                    .language(g % 3 == 0 ? StudyLanguage.POLISH : StudyLanguage.ENGLISH)
+                    .maxCapacity(20)
+                    .build();
+
+            courses.add(new TimetableGenerator.Course(weekly, group, teachers.get(g % TEACHERS),
+                    LessonType.LECTURE, g % 4 == 0 ? LessonMode.ONLINE : LessonMode.OFFLINE));
+            courses.add(new TimetableGenerator.Course(withBiweekly, group, teachers.get((g * 7 + 3) % TEACHERS),
+                    LessonType.EXERCISE, LessonMode.OFFLINE));
+            courses.add(new TimetableGenerator.Course(biweekly, group, teachers.get((g * 13 + 5) % TEACHERS),
+                    LessonType.SEMINAR, LessonMode.OFFLINE));
+        }
+
+        generator = new TimetableGenerator(TimetableGenerator.Settings.builder()
+                .timeBudget(Duration.ofSeconds(60))
+                .workers(workers)
+                .build());
+    }
+
+    @Benchmark
+    public TimetableGenerator.Result generate() {
+        TimetableGenerator.Result result = generator.generate(semester, courses, classRooms);
+        if (!result.isFeasible())
+            throw new IllegalStateException(result.hardConflicts() + " conflicts left");
+        return result;
+    }
+}
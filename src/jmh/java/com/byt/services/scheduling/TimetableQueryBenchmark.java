@@ -0,0 +1,113 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.services.scheduling.TimetableQueryEngine.Resource;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// "My schedule this week" lookups against a fully loaded timetable: a random teacher, group,
+// classroom or student and a random week per call. Sample mode reports the percentiles, p0.99
+// is the figure to watch - it should stay well below a millisecond.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableQueryBenchmark {
+    private static final int LESSONS_PER_GROUP = 25;
+    private static final int STUDENTS_PER_GROUP = 15;
+
+    @Param({"50000"})
+    private int lessonCount;
+
+    private TimetableQueryEngine engine;
+    private Semester semester;
+    private int weeks;
+
+    private final List<Resource> resources = new ArrayList<>();
+    private final List<String> resourceIds = new ArrayList<>();
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void buildTimetable() {
+        semester = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build();
+        weeks = TimetableQueryEngine.weekCount(semester);
+
+        int groupCount = lessonCount / LESSONS_PER_GROUP;
+        List<Group> groups = new ArrayList<>();
+        for (int g = 0; g < groupCount; g++) {
+            Group group = Group.builder().name("Group " + g).maxCapacity(STUDENTS_PER_GROUP).language(StudyLanguage.ENGLISH).build();
+            for (int s = 0; s < STUDENTS_PER_GROUP; s++) {
+                String email = "student" + g + "_" + s + "@bench.com";
+                new Student("Student", "Bench", "Mark", LocalDate.of(2002, 3, 14), "123456789", email,
+                        Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE).addGroup(group);
+                addResource(Resource.STUDENT, email);
+            }
+            groups.add(group);
+            addResource(Resource.GROUP, group.getName());
+        }
+
+        List<Teacher> teachers = new ArrayList<>();
+        for (int t = 0; t < groupCount / 2; t++) {
+            Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak", LocalDate.of(1980, 1, 1), "123456789",
+                    "teacher" + t + "@bench.com", LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+            teachers.add(teacher);
+            addResource(Resource.TEACHER, teacher.getEmail());
+        }
+
+        List<ClassRoom> rooms = new ArrayList<>();
+        for (int r = 0; r < groupCount / 3; r++) {
+            rooms.add(ClassRoom.builder().name("Room " + r).floor(1).capacity(30).build());
+            addResource(Resource.CLASSROOM, "Room " + r);
+        }
+
+        List<Lesson> lessons = new ArrayList<>(lessonCount);
+        for (int i = 0; i < lessonCount; i++) {
+            lessons.add(Lesson.builder()
+                    .name("Lesson " + i)
+                    .type(LessonType.LECTURE)
+                    .mode(LessonMode.OFFLINE)
+                    .dayOfWeek(DayOfWeek.values()[i % 5])
+                    .startTime(LocalTime.of(8 + (i / 5) % 7, 0))
+                    .endTime(LocalTime.of(9 + (i / 5) % 7, 30))
+                    .language(StudyLanguage.ENGLISH)
+                    .weekPattern(WeekPattern.values()[i % 3])
+                    .group(groups.get(i / LESSONS_PER_GROUP))
+                    .teacher(teachers.get(i % teachers.size()))
+                    .classRooms(new HashSet<>(Set.of(rooms.get(i % rooms.size()))))
+                    .semesters(new HashSet<>(Set.of(semester)))
+                    .build());
+        }
+
+        engine = new TimetableQueryEngine(lessons);
+        random = new SplittableRandom(42);
+    }
+
+    private void addResource(Resource resource, String id) {
+        resources.add(resource);
+        resourceIds.add(id);
+    }
+
+    @Benchmark
+    public TimetableQueryEngine.WeekSchedule weekLookup() {
+        int pick = random.nextInt(resources.size());
+        return engine.weekSchedule(resources.get(pick), resourceIds.get(pick), semester, 1 + random.nextInt(weeks));
+    }
+}
@@ -0,0 +1,84 @@
+package com.byt.services.user_system;
+
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Imports studentCount students one create() at a time into an empty service.
+// With keyed lookups every create is O(1), so the score should roughly double
+// with every doubling of studentCount - anything steeper means a linear scan crept back in.
+// batchImport does the same through createAll(): validation runs in parallel and the log gets
+// one append for the whole batch instead of one per student.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StudentBulkImportBenchmark {
+
+    @Param({"25000", "50000", "100000"})
+    private int studentCount;
+
+    private List<Student> prototypes;
+    private WriteAheadLog writeAheadLog;
+    private StudentService service;
+
+    @Setup(Level.Trial)
+    public void generateStudents() {
+        prototypes = new ArrayList<>(studentCount);
+        LocalDate dateOfBirth = LocalDate.of(2002, 3, 14);
+
+        for (int i = 0; i < studentCount; i++) {
+            prototypes.add(new Student(
+                    "Student", "Bench", "Mark",
+                    dateOfBirth, String.format("%09d", i), "student" + i + "@bench.com",
+                    Set.of(StudyLanguage.ENGLISH),
+                    StudyStatus.ACTIVE
+            ));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createEmptyService() throws IOException {
+        JsonDataSerializer serializer = new JsonDataSerializer();
+        InMemoryDataRepository repository = new InMemoryDataRepository();
+
+        // the log keeps persistence at one appended record per create;
+        // compaction is pushed past the import so it doesn't skew the timing
+        writeAheadLog = new WriteAheadLog(serializer, repository, Integer.MAX_VALUE);
+        service = new StudentService(new SaveLoadService(serializer, repository, writeAheadLog));
+        service.initialize();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeLog() {
+        writeAheadLog.close();
+    }
+
+    @Benchmark
+    public StudentService bulkImport() throws IOException {
+        for (Student prototype : prototypes) {
+            service.create(prototype);
+        }
+        return service;
+    }
+
+    @Benchmark
+    public StudentService batchImport() throws IOException {
+        service.createAll(prototypes);
+        return service;
+    }
+}
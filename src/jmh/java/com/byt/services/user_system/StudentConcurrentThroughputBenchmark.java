@@ -0,0 +1,99 @@
+package com.byt.services.user_system;
+
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// One StudentService shared by several threads: readers look up random students while writers
+// update random ones through the write-ahead log. "mixed" runs 6 readers next to 2 writers,
+// "writesOnly" 8 writers - writes to different students should scale with the threads as they
+// only wait for each other when they hash onto the same lock stripe.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentConcurrentThroughputBenchmark {
+
+    @Param({"10000"})
+    private int studentCount;
+
+    private WriteAheadLog writeAheadLog;
+    private StudentService service;
+    private final List<String> emails = new ArrayList<>();
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+    }
+
+    @Setup(Level.Trial)
+    public void fillService() {
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int i = 0; i < studentCount; i++) {
+            students.add(student("student" + i + "@bench.com", i));
+            emails.add("student" + i + "@bench.com");
+        }
+
+        JsonDataSerializer serializer = new JsonDataSerializer();
+        InMemoryDataRepository repository = new InMemoryDataRepository();
+        writeAheadLog = new WriteAheadLog(serializer, repository);
+
+        service = new StudentService(new SaveLoadService(serializer, repository, writeAheadLog), students, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeLog() {
+        writeAheadLog.close();
+    }
+
+    private static Student student(String email, int phone) {
+        return new Student("Student", "Bench", "Mark", LocalDate.of(2002, 3, 14),
+                String.format("%09d", phone), email, Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+    }
+
+    private Optional<Student> read(ThreadRandom thread) {
+        return service.view(emails.get(thread.random.nextInt(emails.size())));
+    }
+
+    private void write(ThreadRandom thread) throws IOException {
+        String email = emails.get(thread.random.nextInt(emails.size()));
+        service.update(email, student(email, thread.random.nextInt(1_000_000_000)));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Optional<Student> mixedRead(ThreadRandom thread) {
+        return read(thread);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedWrite(ThreadRandom thread) throws IOException {
+        write(thread);
+    }
+
+    @Benchmark
+    @Group("writesOnly")
+    @GroupThreads(8)
+    public void writesOnly(ThreadRandom thread) throws IOException {
+        write(thread);
+    }
+}
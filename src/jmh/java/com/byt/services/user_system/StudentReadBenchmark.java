@@ -0,0 +1,100 @@
+package com.byt.services.user_system;
+
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Listing all students through getAll(), which deep copies every student on each call, against
+// the shared snapshot(). The "AfterUpdate" pair changes one student before listing: the snapshot has
+// to be rebuilt then, but only that student gets copied again. Updates go through the write-ahead
+// log so that persisting them doesn't drown out the reads.
+// Run with -PjmhProfilers=gc to see the allocated bytes per call next to the times.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentReadBenchmark {
+
+    @Param({"30000"})
+    private int studentCount;
+
+    private WriteAheadLog writeAheadLog;
+    private StudentService service;
+    private Student changing;
+    private int updates;
+
+    @Setup(Level.Trial)
+    public void fillService() {
+        List<Student> students = new ArrayList<>(studentCount);
+        LocalDate dateOfBirth = LocalDate.of(2002, 3, 14);
+
+        for (int i = 0; i < studentCount; i++) {
+            students.add(new Student(
+                    "Student", "Bench", "Mark",
+                    dateOfBirth, String.format("%09d", i), "student" + i + "@bench.com",
+                    Set.of(StudyLanguage.ENGLISH),
+                    StudyStatus.ACTIVE
+            ));
+        }
+
+        JsonDataSerializer serializer = new JsonDataSerializer();
+        InMemoryDataRepository repository = new InMemoryDataRepository();
+        writeAheadLog = new WriteAheadLog(serializer, repository);
+
+        service = new StudentService(new SaveLoadService(serializer, repository, writeAheadLog), students, null);
+        changing = Student.copy(students.getFirst());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeLog() {
+        writeAheadLog.close();
+    }
+
+    @Benchmark
+    public void getAll(Blackhole blackhole) throws IOException {
+        for (Student student : service.getAll())
+            blackhole.consume(student.getEmail());
+    }
+
+    @Benchmark
+    public void snapshot(Blackhole blackhole) throws IOException {
+        for (Student student : service.snapshot())
+            blackhole.consume(student.getEmail());
+    }
+
+    @Benchmark
+    public void getAllAfterUpdate(Blackhole blackhole) throws IOException {
+        updateOne();
+
+        for (Student student : service.getAll())
+            blackhole.consume(student.getEmail());
+    }
+
+    @Benchmark
+    public void snapshotAfterUpdate(Blackhole blackhole) throws IOException {
+        updateOne();
+
+        for (Student student : service.snapshot())
+            blackhole.consume(student.getEmail());
+    }
+
+    private void updateOne() throws IOException {
+        changing.setFirstName((updates++ & 1) == 0 ? "Student" : "Renamed");
+        service.update(changing.getEmail(), changing);
+    }
+}
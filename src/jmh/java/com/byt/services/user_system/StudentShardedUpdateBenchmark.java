@@ -0,0 +1,68 @@
+package com.byt.services.user_system;
+
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.ShardedLayout;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Cost of updating one student among studentCount: the plain layout rewrites the whole collection,
+// the sharded one only the shard the student hashes onto - roughly 1/shardCount of it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentShardedUpdateBenchmark {
+
+    @Param({"10000"})
+    private int studentCount;
+
+    @Param({"1", "16", "64"})
+    private int shardCount;
+
+    private StudentService service;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fillService() throws IOException {
+        JsonDataSerializer serializer = new JsonDataSerializer();
+        InMemoryDataRepository repository = new InMemoryDataRepository();
+
+        // one shard is the plain layout: a single value rewritten on every change
+        SaveLoadService saveLoadService = shardCount == 1
+                ? new SaveLoadService(serializer, repository)
+                : new SaveLoadService(serializer, repository, new ShardedLayout(serializer, repository, shardCount));
+
+        service = new StudentService(saveLoadService);
+        service.initialize();
+
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int i = 0; i < studentCount; i++)
+            students.add(student(i, i));
+        service.createAll(students);
+    }
+
+    private static Student student(int index, int phone) {
+        return new Student("Student", "Bench", "Mark", LocalDate.of(2002, 3, 14),
+                String.format("%09d", phone), "student" + index + "@bench.com",
+                Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+    }
+
+    @Benchmark
+    public void updateOne() throws IOException {
+        int index = next++ % studentCount;
+        service.update("student" + index + "@bench.com", student(index, next));
+    }
+}
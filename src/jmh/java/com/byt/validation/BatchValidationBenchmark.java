@@ -0,0 +1,68 @@
+package com.byt.validation;
+
+import com.byt.benchmark.SyntheticData;
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.validation.rules.CompiledRules;
+import com.byt.validation.scheduling.SchedulingRules;
+import com.byt.validation.user_system.UserRules;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Validating a whole batch of valid prototypes with the compiled rules: one after the other on this
+// thread, in parallel the way the batches of CRUDService do, and in parallel collecting violations
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchValidationBenchmark {
+    private static final Map<DataSaveKeys, CompiledRules<?>> RULES = new EnumMap<>(DataSaveKeys.class);
+
+    static {
+        RULES.put(DataSaveKeys.STUDENTS, UserRules.STUDENT);
+        RULES.put(DataSaveKeys.FREE_LISTENERS, UserRules.FREE_LISTENER);
+        RULES.put(DataSaveKeys.TEACHERS, UserRules.TEACHER);
+        RULES.put(DataSaveKeys.ADMINS, UserRules.ADMIN);
+        RULES.put(DataSaveKeys.LESSONS, SchedulingRules.LESSON);
+        RULES.put(DataSaveKeys.GROUPS, SchedulingRules.GROUP);
+    }
+
+    @Param({"STUDENTS", "FREE_LISTENERS", "TEACHERS", "ADMINS", "LESSONS", "GROUPS"})
+    private DataSaveKeys key;
+
+    @Param({"100000"})
+    private int prototypeCount;
+
+    private CompiledRules<Object> rules;
+    private List<Object> prototypes;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void createPrototypes() {
+        rules = (CompiledRules<Object>) RULES.get(key);
+        prototypes = new SyntheticData().entities(key, 0, prototypeCount);
+    }
+
+    @Benchmark
+    public int checkEach() {
+        for (Object prototype : prototypes)
+            rules.check(prototype);
+        return prototypes.size();
+    }
+
+    @Benchmark
+    public int checkAll() {
+        rules.checkAll(prototypes);
+        return prototypes.size();
+    }
+
+    @Benchmark
+    public Object validateAll() {
+        return rules.validateAll(prototypes);
+    }
+}
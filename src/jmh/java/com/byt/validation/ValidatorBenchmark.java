@@ -0,0 +1,80 @@
+package com.byt.validation;
+
+import com.byt.benchmark.SyntheticData;
+import com.byt.data.reporting.IssueReport;
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.scheduling.Specialization;
+import com.byt.data.scheduling.StudyProgram;
+import com.byt.data.scheduling.Subject;
+import com.byt.data.user_system.Admin;
+import com.byt.data.user_system.FreeListener;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.validation.reporting.IssueReportValidator;
+import com.byt.validation.scheduling.Validator;
+import com.byt.validation.user_system.AdminValidator;
+import com.byt.validation.user_system.FreeListenerValidator;
+import com.byt.validation.user_system.StudentValidator;
+import com.byt.validation.user_system.TeacherValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// The validator every service runs on create and update, on valid entities, one per call
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+    private static final int ENTITY_COUNT = 1024;
+
+    private static final Map<DataSaveKeys, Consumer<Object>> VALIDATORS = new EnumMap<>(DataSaveKeys.class);
+
+    static {
+        VALIDATORS.put(DataSaveKeys.STUDENTS, entity -> StudentValidator.validateStudent((Student) entity));
+        VALIDATORS.put(DataSaveKeys.FREE_LISTENERS, entity -> FreeListenerValidator.validateFreeListener((FreeListener) entity));
+        VALIDATORS.put(DataSaveKeys.TEACHERS, entity -> TeacherValidator.validateTeacher((Teacher) entity));
+        VALIDATORS.put(DataSaveKeys.ADMINS, entity -> AdminValidator.validateAdmin((Admin) entity));
+        VALIDATORS.put(DataSaveKeys.BUILDINGS, entity -> Validator.validateBuilding((Building) entity));
+        VALIDATORS.put(DataSaveKeys.CLASSROOMS, entity -> Validator.validateClassRoom((ClassRoom) entity));
+        VALIDATORS.put(DataSaveKeys.SPECIALIZATIONS, entity -> Validator.validateSpecialization((Specialization) entity));
+        VALIDATORS.put(DataSaveKeys.STUDY_PROGRAMS, entity -> Validator.validateStudyProgram((StudyProgram) entity));
+        VALIDATORS.put(DataSaveKeys.SEMESTERS, entity -> Validator.validateSemester((Semester) entity));
+        VALIDATORS.put(DataSaveKeys.SUBJECTS, entity -> Validator.validateSubject((Subject) entity));
+        VALIDATORS.put(DataSaveKeys.LESSONS, entity -> Validator.validateLesson((Lesson) entity));
+        VALIDATORS.put(DataSaveKeys.GROUPS, entity -> Validator.validateGroup((Group) entity));
+        VALIDATORS.put(DataSaveKeys.ISSUE_REPORTS, entity -> IssueReportValidator.validatePrototype((IssueReport) entity));
+    }
+
+    @Param({"STUDENTS", "FREE_LISTENERS", "TEACHERS", "ADMINS", "BUILDINGS", "CLASSROOMS", "SPECIALIZATIONS",
+            "STUDY_PROGRAMS", "SEMESTERS", "SUBJECTS", "LESSONS", "GROUPS", "ISSUE_REPORTS"})
+    private DataSaveKeys key;
+
+    private Consumer<Object> validator;
+    private List<Object> entities;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createEntities() {
+        validator = VALIDATORS.get(key);
+        entities = new SyntheticData().entities(key, 0, ENTITY_COUNT);
+    }
+
+    @Benchmark
+    public Object validate() {
+        Object entity = entities.get(next++ & ENTITY_COUNT - 1);
+        validator.accept(entity);
+        return entity;
+    }
+}
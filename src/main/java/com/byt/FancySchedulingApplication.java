@@ -1,8 +1,10 @@
 package com.byt;
 
 import com.byt.data.scheduling.*;
+import com.byt.metrics.InMemoryMetricsRegistry;
 import com.byt.persistence.*;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.persistence.util.EntityReferences;
 import com.byt.data.reporting.IssueReport;
 import com.byt.services.reporting.IssueReportService;
 import com.byt.data.user_system.Admin;
@@ -11,13 +13,16 @@ import com.byt.data.user_system.Student;
 import com.byt.data.user_system.Teacher;
 import com.byt.enums.user_system.StudyLanguage;
 import com.byt.enums.user_system.StudyStatus;
+import com.byt.services.StartupOrchestrator;
 import com.byt.services.scheduling.*;
 import com.byt.services.user_system.AdminService;
+import com.byt.services.user_system.EmailIdentityIndex;
 import com.byt.services.user_system.FreeListenerService;
 import com.byt.services.user_system.StudentService;
 import com.byt.services.user_system.TeacherService;
 import com.byt.services.reporting.IssueReportService;
 
+import javax.management.JMException;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -25,6 +30,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class FancySchedulingApplication {
     public static void main(String[] args) {
@@ -40,7 +46,23 @@ public class FancySchedulingApplication {
     private static SaveLoadService generatePersistenceService() throws IOException {
         DataSerializer serializer = new JsonDataSerializer();
         DataRepository repository = new InMemoryDataRepository();
+
+        // -Dbyt.metrics=true measures the persistence, readable over JMX and printed on exit
+        InMemoryMetricsRegistry metrics = Boolean.getBoolean("byt.metrics") ? new InMemoryMetricsRegistry() : null;
+        if (metrics != null) {
+            serializer = InstrumentedDataSerializer.wrap(serializer, metrics);
+            repository = new InstrumentedDataRepository(repository, metrics);
+            try {
+                metrics.registerMBean();
+            } catch (JMException e) {
+                System.out.println("Metrics are not available over JMX: " + e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(metrics.dump())));
+        }
+
         SaveLoadService database = new SaveLoadService(serializer, repository);
+        database.setReferenceResolver(new ReferenceResolver(EntityReferences.ID_FIELDS));
+        database.setMetrics(metrics);
 
         database.save(DataSaveKeys.STUDENTS, new ArrayList<Student>());
         database.save(DataSaveKeys.FREE_LISTENERS, new ArrayList<FreeListener>());
@@ -62,16 +84,21 @@ public class FancySchedulingApplication {
     }
 
     private static void demonstrateApp(SaveLoadService database) throws IOException {
+        // Services load concurrently, each one as soon as the services it depends on are ready
+        IssueReportService issueReportService = new IssueReportService(database);
+
         // User
         AdminService adminService = new AdminService(database);
         TeacherService teacherService = new TeacherService(database);
-        StudentService studentService = new StudentService(database);
+        StudentService studentService = new StudentService(database, null, issueReportService);
         FreeListenerService freeListenerService = new FreeListenerService(database);
 
-        adminService.initialize();
-        teacherService.initialize();
-        studentService.initialize();
-        freeListenerService.initialize();
+        // one email, one user, whichever service they are in
+        EmailIdentityIndex identities = new EmailIdentityIndex();
+        adminService.setIdentityIndex(identities);
+        teacherService.setIdentityIndex(identities);
+        studentService.setIdentityIndex(identities);
+        freeListenerService.setIdentityIndex(identities);
 
         // Scheduling
         GroupService groupService = new GroupService(database);
@@ -82,18 +109,29 @@ public class FancySchedulingApplication {
         SemesterService semesterService = new SemesterService(database);
         StudyProgramService studyProgramService = new StudyProgramService(database);
 
-        groupService.initialize();
-        lessonService.initialize();
-        classRoomService.initialize();
-        buildingService.initialize();
-        subjectService.initialize();
-        semesterService.initialize();
-        studyProgramService.initialize();
-
-        // Service stuff
-        IssueReportService issueReportService = new IssueReportService(database);
+        try (StartupOrchestrator startup = new StartupOrchestrator()) {
+            CompletableFuture<IssueReportService> reports = startup.register("IssueReportService", issueReportService);
+
+            startup.register("AdminService", adminService);
+            startup.register("TeacherService", teacherService);
+            startup.register("StudentService", studentService, reports); // moves reports along with changed emails
+            startup.register("FreeListenerService", freeListenerService);
 
-        issueReportService.initialize();
+            startup.register("GroupService", groupService);
+            startup.register("LessonService", lessonService);
+            startup.register("ClassRoomService", classRoomService);
+            startup.register("BuildingService", buildingService);
+            startup.register("SubjectService", subjectService);
+            startup.register("SemesterService", semesterService);
+            startup.register("StudyProgramService", studyProgramService);
+
+            startup.awaitReady();
+            // every collection is in, links between them can be restored
+            database.resolveReferences();
+
+            for (StartupOrchestrator.ServiceTiming timing : startup.timings())
+                System.out.printf("%s loaded in %d ms%n", timing.name(), timing.loadTime().toMillis());
+        }
 
         // -- GO! --
         System.out.println("DEMO STARTS HERE!");
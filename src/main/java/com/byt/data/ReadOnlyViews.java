@@ -0,0 +1,28 @@
+package com.byt.data;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.function.UnaryOperator;
+
+// Helpers for the read-only views the entities hand out through their readOnly() factories.
+// A view is a copy of the entity whose setters and link methods throw, and whose getters lead to
+// read-only views of the linked entities too. Copying a view with the entity's copy() gives an
+// ordinary entity linked to the stored ones, the same as copying the stored entity would.
+public final class ReadOnlyViews {
+
+    private ReadOnlyViews() {
+    }
+
+    // What every changing method of a view throws
+    public static UnsupportedOperationException rejected(String entity) {
+        return new UnsupportedOperationException(entity + " is a read-only view");
+    }
+
+    // Read-only views of the linked entities, in a set of their own
+    public static <T> HashSet<T> all(Collection<T> entities, UnaryOperator<T> readOnly) {
+        HashSet<T> views = HashSet.newHashSet(entities.size());
+        for (T entity : entities)
+            views.add(readOnly.apply(entity));
+        return views;
+    }
+}
@@ -1,5 +1,6 @@
 package com.byt.data.reporting;
 
+import com.byt.data.ReadOnlyViews;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -42,4 +43,24 @@ public class IssueReport {
                 r.getCreatedAt()
         );
     }
+
+    // What the service's snapshot()/view() share between readers, see ReadOnlyViews
+    public static IssueReport readOnly(IssueReport report) {
+        return report == null || report instanceof ReadOnly ? report : new ReadOnly(report);
+    }
+
+    private static final class ReadOnly extends IssueReport {
+        private ReadOnly(IssueReport source) {
+            super(source.email, source.title, source.description, source.createdAt);
+        }
+
+        @Override public void setEmail(String email) { throw rejected(); }
+        @Override public void setTitle(String title) { throw rejected(); }
+        @Override public void setDescription(String description) { throw rejected(); }
+        @Override public void setCreatedAt(LocalDateTime createdAt) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("IssueReport");
+        }
+    }
 }
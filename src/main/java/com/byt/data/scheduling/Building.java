@@ -1,5 +1,6 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.validation.scheduling.Validator;
 import lombok.*;
 
@@ -43,7 +44,33 @@ public class Building {
                 .name(building.getName())
                 .address(building.getAddress())
                 .description(building.getDescription())
-                .classRooms(new HashSet<>(building.getClassRooms()))
+                .classRooms(new HashSet<>(building.classRooms))
                 .build();
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Building readOnly(Building building) {
+        return building == null || building instanceof ReadOnly ? building : new ReadOnly(building);
+    }
+
+    private static final class ReadOnly extends Building {
+        private ReadOnly(Building source) {
+            super(source.name, source.address, source.description, new HashSet<>(source.classRooms));
+        }
+
+        @Override
+        public HashSet<ClassRoom> getClassRooms() {
+            return ReadOnlyViews.all(super.getClassRooms(), ClassRoom::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setAddress(String address) { throw rejected(); }
+        @Override public void setDescription(String description) { throw rejected(); }
+        @Override public void addClassRoom(ClassRoom classRoom) { throw rejected(); }
+        @Override public void removeClassRoom(ClassRoom classRoom) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Building");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.validation.scheduling.Validator;
 import com.byt.validation.user_system.AdminValidator;
 import lombok.*;
@@ -76,7 +77,40 @@ public class ClassRoom {
                 .name(original.getName())
                 .floor(original.getFloor())
                 .capacity(original.getCapacity())
-                .building(original.getBuilding())
+                .building(original.building)
                 .build();
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static ClassRoom readOnly(ClassRoom classRoom) {
+        return classRoom == null || classRoom instanceof ReadOnly ? classRoom : new ReadOnly(classRoom);
+    }
+
+    private static final class ReadOnly extends ClassRoom {
+        private ReadOnly(ClassRoom source) {
+            super(source.name, source.floor, source.capacity, source.building, new HashSet<>(source.lessons));
+        }
+
+        @Override
+        public Building getBuilding() {
+            return Building.readOnly(building);
+        }
+
+        @Override
+        public HashSet<Lesson> getLessons() {
+            return ReadOnlyViews.all(lessons, Lesson::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setFloor(int floor) { throw rejected(); }
+        @Override public void setCapacity(int capacity) { throw rejected(); }
+        @Override public void addBuilding(Building building) { throw rejected(); }
+        @Override public void removeBuilding(Building building) { throw rejected(); }
+        @Override public void addLesson(Lesson lesson) { throw rejected(); }
+        @Override public void removeLesson(Lesson lesson) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("ClassRoom");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.data.user_system.FreeListener;
 import com.byt.data.user_system.Student;
 import com.byt.enums.user_system.StudyLanguage;
@@ -12,6 +13,7 @@ import com.byt.validation.user_system.UserValidator;
 import lombok.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -72,6 +74,11 @@ public class Group {
         return new HashSet<>(students);
     }
 
+    // Read-only view for callers that only look, saves the copy getStudents() makes
+    public Set<Student> getStudentsView() {
+        return Collections.unmodifiableSet(students);
+    }
+
     public void addStudent(Student student) {
         StudentValidator.validateStudent(student);
 
@@ -151,4 +158,54 @@ public class Group {
         freeListeners.remove(freeListener);
         freeListener.removeGroup(this);
     }
-}
\ No newline at end of file
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Group readOnly(Group group) {
+        return group == null || group instanceof ReadOnly ? group : new ReadOnly(group);
+    }
+
+    private static final class ReadOnly extends Group {
+        private ReadOnly(Group source) {
+            super(source.name, source.language, source.maxCapacity, source.yearOfStudy,
+                    source.notes == null ? null : Collections.unmodifiableList(new ArrayList<>(source.notes)),
+                    new HashSet<>(source.students), new HashSet<>(source.lessons),
+                    new HashSet<>(source.freeListeners));
+        }
+
+        @Override
+        public Set<Student> getStudents() {
+            return ReadOnlyViews.all(super.getStudentsView(), Student::readOnly);
+        }
+
+        @Override
+        public Set<Student> getStudentsView() {
+            return Collections.unmodifiableSet(getStudents());
+        }
+
+        @Override
+        public Set<Lesson> getLessons() {
+            return ReadOnlyViews.all(super.getLessons(), Lesson::readOnly);
+        }
+
+        @Override
+        public Set<FreeListener> getFreeListeners() {
+            return ReadOnlyViews.all(super.getFreeListeners(), FreeListener::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setLanguage(StudyLanguage language) { throw rejected(); }
+        @Override public void setMaxCapacity(int maxCapacity) { throw rejected(); }
+        @Override public void setYearOfStudy(int yearOfStudy) { throw rejected(); }
+        @Override public void setNotes(List<String> notes) { throw rejected(); }
+        @Override public void addStudent(Student student) { throw rejected(); }
+        @Override public void removeStudent(Student student) { throw rejected(); }
+        @Override public void addLesson(Lesson lesson) { throw rejected(); }
+        @Override public void removeLesson(Lesson lesson) { throw rejected(); }
+        @Override public void addFreeListener(FreeListener freeListener) { throw rejected(); }
+        @Override public void removeFreeListener(FreeListener freeListener) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Group");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.data.user_system.Teacher;
 import com.byt.enums.scheduling.DayOfWeek;
 import com.byt.enums.scheduling.LessonMode;
@@ -11,7 +12,9 @@ import com.byt.validation.user_system.TeacherValidator;
 import lombok.*;
 
 import java.time.LocalTime;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Set;
 
 @Data
 @Builder
@@ -153,6 +156,11 @@ public class Lesson {
         return new HashSet<>(classRooms);
     }
 
+    // Read-only view for callers that only look, saves the copy getClassRooms() makes
+    public Set<ClassRoom> getClassRoomsView() {
+        return Collections.unmodifiableSet(classRooms);
+    }
+
     public HashSet<Semester> getSemesters() {
         return new HashSet<>(semesters);
     }
@@ -180,12 +188,78 @@ public class Lesson {
                 .endTime(lesson.getEndTime())
                 .language(lesson.getLanguage())
                 .weekPattern(lesson.getWeekPattern())
-                .group(lesson.getGroup())
-                .semesters(new HashSet<>(lesson.getSemesters()))
-                .classRooms(new HashSet<>(lesson.getClassRooms()))
-                .teacher(lesson.getTeacher())
-                .subject(lesson.getSubject())
-                .group(lesson.getGroup())
+                .group(lesson.group)
+                .semesters(new HashSet<>(lesson.semesters))
+                .classRooms(new HashSet<>(lesson.classRooms))
+                .teacher(lesson.teacher)
+                .subject(lesson.subject)
                 .build();
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Lesson readOnly(Lesson lesson) {
+        return lesson == null || lesson instanceof ReadOnly ? lesson : new ReadOnly(lesson);
+    }
+
+    private static final class ReadOnly extends Lesson {
+        private ReadOnly(Lesson source) {
+            super(source.name, source.type, source.mode, source.note, source.dayOfWeek, source.startTime,
+                    source.endTime, source.language, source.weekPattern, source.subject, source.group,
+                    source.teacher, new HashSet<>(source.classRooms), new HashSet<>(source.semesters));
+        }
+
+        @Override
+        public Subject getSubject() {
+            return Subject.readOnly(subject);
+        }
+
+        @Override
+        public Group getGroup() {
+            return Group.readOnly(group);
+        }
+
+        @Override
+        public Teacher getTeacher() {
+            return Teacher.readOnly(teacher);
+        }
+
+        @Override
+        public HashSet<ClassRoom> getClassRooms() {
+            return ReadOnlyViews.all(classRooms, ClassRoom::readOnly);
+        }
+
+        @Override
+        public Set<ClassRoom> getClassRoomsView() {
+            return Collections.unmodifiableSet(getClassRooms());
+        }
+
+        @Override
+        public HashSet<Semester> getSemesters() {
+            return ReadOnlyViews.all(semesters, Semester::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setType(LessonType type) { throw rejected(); }
+        @Override public void setMode(LessonMode mode) { throw rejected(); }
+        @Override public void setNote(String note) { throw rejected(); }
+        @Override public void setDayOfWeek(DayOfWeek dayOfWeek) { throw rejected(); }
+        @Override public void setStartTime(LocalTime startTime) { throw rejected(); }
+        @Override public void setEndTime(LocalTime endTime) { throw rejected(); }
+        @Override public void setLanguage(StudyLanguage language) { throw rejected(); }
+        @Override public void setWeekPattern(WeekPattern weekPattern) { throw rejected(); }
+        @Override public void addSubject(Subject subject) { throw rejected(); }
+        @Override public void removeSubject(Subject subject) { throw rejected(); }
+        @Override public void addGroup(Group group) { throw rejected(); }
+        @Override public void removeGroup(Group group) { throw rejected(); }
+        @Override public void addTeacher(Teacher teacher) { throw rejected(); }
+        @Override public void removeTeacher(Teacher teacher) { throw rejected(); }
+        @Override public void addSemester(Semester semester) { throw rejected(); }
+        @Override public void removeSemester(Semester semester) { throw rejected(); }
+        @Override public void addClassRoom(ClassRoom classRoom) { throw rejected(); }
+        @Override public void removeClassRoom(ClassRoom classRoom) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Lesson");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.validation.scheduling.Validator;
 import lombok.*;
 
@@ -58,4 +59,31 @@ public class Semester {
         lessons.remove(lesson);
         lesson.removeSemester(this);
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Semester readOnly(Semester semester) {
+        return semester == null || semester instanceof ReadOnly ? semester : new ReadOnly(semester);
+    }
+
+    private static final class ReadOnly extends Semester {
+        private ReadOnly(Semester source) {
+            super(source.name, source.startDate, source.endDate, source.academicYear, new HashSet<>(source.lessons));
+        }
+
+        @Override
+        public Set<Lesson> getLessons() {
+            return ReadOnlyViews.all(super.getLessons(), Lesson::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setStartDate(LocalDate startDate) { throw rejected(); }
+        @Override public void setEndDate(LocalDate endDate) { throw rejected(); }
+        @Override public void setAcademicYear(int academicYear) { throw rejected(); }
+        @Override public void addLesson(Lesson lesson) { throw rejected(); }
+        @Override public void removeLesson(Lesson lesson) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Semester");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.data.user_system.Student;
 import com.byt.validation.scheduling.Validator;
 import com.byt.validation.user_system.StudentValidator;
@@ -40,9 +41,9 @@ public class Specialization {
                 .description(specialization.getDescription())
                 .build();
 
-        copy.subjects = new HashSet<>(specialization.getSubjects());
-        copy.studyPrograms = new HashSet<>(specialization.getStudyPrograms());
-        copy.students = new HashSet<>(specialization.getStudents());
+        copy.subjects = new HashSet<>(specialization.subjects);
+        copy.studyPrograms = new HashSet<>(specialization.studyPrograms);
+        copy.students = new HashSet<>(specialization.students);
         return copy;
     }
 
@@ -117,4 +118,46 @@ public class Specialization {
         subjects.remove(subject);
         subject.removeSpecialization(this);
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Specialization readOnly(Specialization specialization) {
+        return specialization == null || specialization instanceof ReadOnly
+                ? specialization
+                : new ReadOnly(specialization);
+    }
+
+    private static final class ReadOnly extends Specialization {
+        private ReadOnly(Specialization source) {
+            super(source.name, source.description, new HashSet<>(source.subjects),
+                    new HashSet<>(source.studyPrograms), new HashSet<>(source.students));
+        }
+
+        @Override
+        public Set<Subject> getSubjects() {
+            return ReadOnlyViews.all(super.getSubjects(), Subject::readOnly);
+        }
+
+        @Override
+        public Set<StudyProgram> getStudyPrograms() {
+            return ReadOnlyViews.all(super.getStudyPrograms(), StudyProgram::readOnly);
+        }
+
+        @Override
+        public Set<Student> getStudents() {
+            return ReadOnlyViews.all(super.getStudents(), Student::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setDescription(String description) { throw rejected(); }
+        @Override public void addStudyProgram(StudyProgram studyProgram) { throw rejected(); }
+        @Override public void removeStudyProgram(StudyProgram studyProgram) { throw rejected(); }
+        @Override public void addStudent(Student student) { throw rejected(); }
+        @Override public void removeStudent(Student student) { throw rejected(); }
+        @Override public void addSubject(Subject subject) { throw rejected(); }
+        @Override public void removeSubject(Subject subject) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Specialization");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.enums.scheduling.StudyProgramLevel;
 import com.byt.validation.scheduling.Validator;
 import com.byt.validation.user_system.UserValidator;
@@ -25,7 +26,7 @@ public class StudyProgram {
         return StudyProgram.builder()
                 .name(program.getName())
                 .level(program.getLevel())
-                .specializations(new HashSet<>(program.getSpecializations()))
+                .specializations(new HashSet<>(program.specializations))
                 .build();
     }
 
@@ -52,4 +53,29 @@ public class StudyProgram {
         specializations.remove(specialization);
         specialization.removeStudyProgram(this);
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static StudyProgram readOnly(StudyProgram program) {
+        return program == null || program instanceof ReadOnly ? program : new ReadOnly(program);
+    }
+
+    private static final class ReadOnly extends StudyProgram {
+        private ReadOnly(StudyProgram source) {
+            super(source.name, source.level, new HashSet<>(source.specializations));
+        }
+
+        @Override
+        public Set<Specialization> getSpecializations() {
+            return ReadOnlyViews.all(super.getSpecializations(), Specialization::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setLevel(StudyProgramLevel level) { throw rejected(); }
+        @Override public void addSpecialization(Specialization specialization) { throw rejected(); }
+        @Override public void removeSpecialization(Specialization specialization) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("StudyProgram");
+        }
+    }
 }
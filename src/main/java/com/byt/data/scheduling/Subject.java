@@ -1,10 +1,12 @@
 package com.byt.data.scheduling;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.enums.scheduling.SubjectType;
 import com.byt.validation.scheduling.Validator;
 import lombok.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,8 +44,8 @@ public class Subject {
                         ? new ArrayList<>(subject.getTypes())
                         : new ArrayList<>())
                 .hours(subject.getHours())
-                .lessons(new HashSet<>(subject.getLessons()))
-                .specializations(new HashSet<>(subject.getSpecializations()))
+                .lessons(new HashSet<>(subject.lessons))
+                .specializations(new HashSet<>(subject.specializations))
                 .build();
     }
 
@@ -94,4 +96,39 @@ public class Subject {
         lessons.remove(lesson);
         lesson.removeSubject(this);
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Subject readOnly(Subject subject) {
+        return subject == null || subject instanceof ReadOnly ? subject : new ReadOnly(subject);
+    }
+
+    private static final class ReadOnly extends Subject {
+        private ReadOnly(Subject source) {
+            super(source.name, source.hours,
+                    source.types == null ? null : Collections.unmodifiableList(new ArrayList<>(source.types)),
+                    new HashSet<>(source.lessons), new HashSet<>(source.specializations));
+        }
+
+        @Override
+        public Set<Lesson> getLessons() {
+            return ReadOnlyViews.all(super.getLessons(), Lesson::readOnly);
+        }
+
+        @Override
+        public Set<Specialization> getSpecializations() {
+            return ReadOnlyViews.all(super.getSpecializations(), Specialization::readOnly);
+        }
+
+        @Override public void setName(String name) { throw rejected(); }
+        @Override public void setHours(int hours) { throw rejected(); }
+        @Override public void setTypes(List<SubjectType> types) { throw rejected(); }
+        @Override public void addSpecialization(Specialization specialization) { throw rejected(); }
+        @Override public void removeSpecialization(Specialization specialization) { throw rejected(); }
+        @Override public void addLesson(Lesson lesson) { throw rejected(); }
+        @Override public void removeLesson(Lesson lesson) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Subject");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.byt.data.user_system;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.validation.scheduling.Validator;
 import com.byt.validation.user_system.AdminValidator;
 import lombok.*;
@@ -129,4 +130,49 @@ public class Admin extends Staff {
 
         return out;
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Admin readOnly(Admin admin) {
+        return admin == null || admin instanceof ReadOnly ? admin : new ReadOnly(admin);
+    }
+
+    private static final class ReadOnly extends Admin {
+        private ReadOnly(Admin source) {
+            super(source.getFirstName(), source.getLastName(), source.getFamilyName(), source.getDateOfBirth(),
+                    source.getPhoneNumber(), source.getEmail(), source.getHireDate(), source.lastLoginTime, null);
+            // the link fields are private to Admin
+            Admin self = this;
+            self.superAdminEmail = source.superAdminEmail;
+            self.supervisedAdminEmails = new HashSet<>(source.supervisedAdminEmails);
+            self.superAdmin = source.superAdmin;
+            self.supervisedAdmins = new HashSet<>(source.supervisedAdmins);
+        }
+
+        @Override
+        public Admin getSuperAdmin() {
+            return Admin.readOnly(super.getSuperAdmin());
+        }
+
+        @Override
+        public Set<Admin> getSupervisedAdmins() {
+            return ReadOnlyViews.all(super.getSupervisedAdmins(), Admin::readOnly);
+        }
+
+        @Override public void setFirstName(String firstName) { throw rejected(); }
+        @Override public void setLastName(String lastName) { throw rejected(); }
+        @Override public void setFamilyName(String familyName) { throw rejected(); }
+        @Override public void setDateOfBirth(LocalDate dateOfBirth) { throw rejected(); }
+        @Override public void setPhoneNumber(String phoneNumber) { throw rejected(); }
+        @Override public void setEmail(String email) { throw rejected(); }
+        @Override public void setHireDate(LocalDate hireDate) { throw rejected(); }
+        @Override public void setLastLoginTime(LocalDateTime lastLoginTime) { throw rejected(); }
+        @Override public void addSuperAdmin(Admin newSuperAdmin) { throw rejected(); }
+        @Override public void removeSuperAdmin() { throw rejected(); }
+        @Override public void addSupervisedAdmin(Admin admin) { throw rejected(); }
+        @Override public void removeSupervisedAdmin(Admin admin) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Admin");
+        }
+    }
 }
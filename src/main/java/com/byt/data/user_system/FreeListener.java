@@ -1,5 +1,6 @@
 package com.byt.data.user_system;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.data.scheduling.Group;
 import com.byt.enums.user_system.StudyLanguage;
 import com.byt.validation.scheduling.Validator;
@@ -82,4 +83,40 @@ public class FreeListener extends Attendee {
         groups.remove(group);
         group.removeFreeListener(this);
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static FreeListener readOnly(FreeListener freeListener) {
+        return freeListener == null || freeListener instanceof ReadOnly ? freeListener : new ReadOnly(freeListener);
+    }
+
+    private static final class ReadOnly extends FreeListener {
+        private ReadOnly(FreeListener source) {
+            super(source.getFirstName(), source.getLastName(), source.getFamilyName(), source.getDateOfBirth(),
+                    source.getPhoneNumber(), source.getEmail(), source.getLanguagesOfStudies(), source.getNotes());
+            // the link fields are private to FreeListener
+            FreeListener self = this;
+            self.groups = new HashSet<>(source.groups);
+        }
+
+        @Override
+        public Set<Group> getGroups() {
+            return ReadOnlyViews.all(super.getGroups(), Group::readOnly);
+        }
+
+        @Override public void setFirstName(String firstName) { throw rejected(); }
+        @Override public void setLastName(String lastName) { throw rejected(); }
+        @Override public void setFamilyName(String familyName) { throw rejected(); }
+        @Override public void setDateOfBirth(LocalDate dateOfBirth) { throw rejected(); }
+        @Override public void setPhoneNumber(String phoneNumber) { throw rejected(); }
+        @Override public void setEmail(String email) { throw rejected(); }
+        @Override public void addLanguageOfStudy(StudyLanguage language) { throw rejected(); }
+        @Override public void removeLanguageOfStudy(StudyLanguage language) { throw rejected(); }
+        @Override public void setNotes(String notes) { throw rejected(); }
+        @Override public void addGroup(Group group) { throw rejected(); }
+        @Override public void removeGroup(Group group) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("FreeListener");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.byt.data.user_system;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.data.scheduling.Group;
 import com.byt.data.scheduling.Specialization;
 import com.byt.enums.user_system.StudyLanguage;
@@ -114,4 +115,48 @@ public class Student extends Attendee {
         group.removeStudent(this);
     }
 
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Student readOnly(Student student) {
+        return student == null || student instanceof ReadOnly ? student : new ReadOnly(student);
+    }
+
+    private static final class ReadOnly extends Student {
+        private ReadOnly(Student source) {
+            super(source.getFirstName(), source.getLastName(), source.getFamilyName(), source.getDateOfBirth(),
+                    source.getPhoneNumber(), source.getEmail(), source.getLanguagesOfStudies(),
+                    source.getStudiesStatus());
+            // the link fields are private to Student
+            Student self = this;
+            self.specializations = new HashSet<>(source.specializations);
+            self.groups = new HashSet<>(source.groups);
+        }
+
+        @Override
+        public Set<Specialization> getSpecializations() {
+            return ReadOnlyViews.all(super.getSpecializations(), Specialization::readOnly);
+        }
+
+        @Override
+        public Set<Group> getGroups() {
+            return ReadOnlyViews.all(super.getGroups(), Group::readOnly);
+        }
+
+        @Override public void setFirstName(String firstName) { throw rejected(); }
+        @Override public void setLastName(String lastName) { throw rejected(); }
+        @Override public void setFamilyName(String familyName) { throw rejected(); }
+        @Override public void setDateOfBirth(LocalDate dateOfBirth) { throw rejected(); }
+        @Override public void setPhoneNumber(String phoneNumber) { throw rejected(); }
+        @Override public void setEmail(String email) { throw rejected(); }
+        @Override public void addLanguageOfStudy(StudyLanguage language) { throw rejected(); }
+        @Override public void removeLanguageOfStudy(StudyLanguage language) { throw rejected(); }
+        @Override public void setStudiesStatus(StudyStatus studiesStatus) { throw rejected(); }
+        @Override public void addSpecialization(Specialization specialization) { throw rejected(); }
+        @Override public void removeSpecialization(Specialization specialization) { throw rejected(); }
+        @Override public void addGroup(Group group) { throw rejected(); }
+        @Override public void removeGroup(Group group) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Student");
+        }
+    }
 }
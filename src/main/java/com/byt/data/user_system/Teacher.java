@@ -1,5 +1,6 @@
 package com.byt.data.user_system;
 
+import com.byt.data.ReadOnlyViews;
 import com.byt.data.scheduling.Lesson;
 import com.byt.validation.scheduling.Validator;
 import lombok.AccessLevel;
@@ -79,4 +80,40 @@ public class Teacher extends Staff {
         t.lessons = new HashSet<>(teacher.lessons);
         return t;
     }
+
+    // What the services' snapshot()/view() share between readers, see ReadOnlyViews
+    public static Teacher readOnly(Teacher teacher) {
+        return teacher == null || teacher instanceof ReadOnly ? teacher : new ReadOnly(teacher);
+    }
+
+    private static final class ReadOnly extends Teacher {
+        private ReadOnly(Teacher source) {
+            super(source.getFirstName(), source.getLastName(), source.getFamilyName(), source.getDateOfBirth(),
+                    source.getPhoneNumber(), source.getEmail(), source.getHireDate(), source.title, source.position);
+            // the link fields are private to Teacher
+            Teacher self = this;
+            self.lessons = new HashSet<>(source.lessons);
+        }
+
+        @Override
+        public Set<Lesson> getLessons() {
+            return ReadOnlyViews.all(super.getLessons(), Lesson::readOnly);
+        }
+
+        @Override public void setFirstName(String firstName) { throw rejected(); }
+        @Override public void setLastName(String lastName) { throw rejected(); }
+        @Override public void setFamilyName(String familyName) { throw rejected(); }
+        @Override public void setDateOfBirth(LocalDate dateOfBirth) { throw rejected(); }
+        @Override public void setPhoneNumber(String phoneNumber) { throw rejected(); }
+        @Override public void setEmail(String email) { throw rejected(); }
+        @Override public void setHireDate(LocalDate hireDate) { throw rejected(); }
+        @Override public void setTitle(String title) { throw rejected(); }
+        @Override public void setPosition(String position) { throw rejected(); }
+        @Override public void addLesson(Lesson lesson) { throw rejected(); }
+        @Override public void removeLesson(Lesson lesson) { throw rejected(); }
+
+        private static UnsupportedOperationException rejected() {
+            return ReadOnlyViews.rejected("Teacher");
+        }
+    }
 }
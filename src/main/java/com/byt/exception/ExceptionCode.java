@@ -11,7 +11,8 @@ public enum ExceptionCode {
     LENGTH_TOO_LONG("Field length is longer than allowed"),
     INVALID_FORMAT("Field format is invalid"),
     NO_DUPLICATES_VIOLATION("The collection contains duplicate elements"),
-    MULTIPLICITY_VIOLATION("Incorrect multiplicity"),;
+    MULTIPLICITY_VIOLATION("Incorrect multiplicity"),
+    SCHEDULE_CONFLICT("Teacher, group or classroom is already booked at this time"),;
     private final String message;
     ExceptionCode(String message) {
         this.message = message;
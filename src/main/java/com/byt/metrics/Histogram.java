@@ -0,0 +1,122 @@
+package com.byt.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts of the recorded values in buckets that get wider as the values grow, the way HdrHistogram
+// keeps them: below 128 every value has a bucket of its own, above that every power of two is split
+// into 64 buckets. A percentile is the highest value of its bucket, so it is at most 1.6% above the
+// exact one. Recording takes no locks and allocates nothing. Negative values count as 0.
+//
+// A snapshot taken while others record may miss some of the values recorded meanwhile, or have a
+// value in its count but not yet in its mean, min or max.
+public final class Histogram implements Recorder {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+    // linear ones, then SUB_BUCKETS for every power of two from 2^7 to 2^62
+    private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 2 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    public record Snapshot(long count, long min, long max, double mean, long p50, long p90, long p99, long p999) {}
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    @Override
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+
+        counts.incrementAndGet(bucketOf(value));
+        sum.add(value);
+        if (value < min.get())
+            min.accumulateAndGet(value, Math::min);
+        if (value > max.get())
+            max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return totalOf(bucketCounts());
+    }
+
+    // The value the given percentage of the recorded values are at or below, 0 when there are none
+    public long percentile(double percent) {
+        if (percent < 0 || percent > 100)
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+
+        long[] snapshot = bucketCounts();
+        return percentile(snapshot, totalOf(snapshot), percent);
+    }
+
+    public Snapshot snapshot() {
+        long[] snapshot = bucketCounts();
+        long total = totalOf(snapshot);
+        if (total == 0)
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0, 0);
+
+        return new Snapshot(total, min.get(), max.get(), (double) sum.sum() / total,
+                percentile(snapshot, total, 50), percentile(snapshot, total, 90),
+                percentile(snapshot, total, 99), percentile(snapshot, total, 99.9));
+    }
+
+    // Not atomic: values recorded while it runs may be partly kept
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    // _________________________________________________________
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS)
+            return (int) value;
+
+        // the values of [2^(e+6), 2^(e+7)) are split into 64 buckets 2^e wide
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> exponent) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (exponent - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS)
+            return bucket;
+
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+
+    private long[] bucketCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            snapshot[i] = counts.get(i);
+        return snapshot;
+    }
+
+    private static long totalOf(long[] snapshot) {
+        long total = 0;
+        for (long bucketCount : snapshot)
+            total += bucketCount;
+        return total;
+    }
+
+    private long percentile(long[] snapshot, long total, double percent) {
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(highestValueOf(i), max.get());
+        }
+        return max.get();
+    }
+}
@@ -0,0 +1,115 @@
+package com.byt.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Keeps every metric in the process: latencies and distributions as Histograms, gauges as their
+// last value. Readable through JMX once registerMBean() is called, or as text from dump().
+public final class InMemoryMetricsRegistry implements MetricsRegistry, MetricsMXBean {
+    public static final String OBJECT_NAME = "com.byt:type=Metrics";
+
+    private final ConcurrentMap<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> distributions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public Recorder latency(String name) {
+        return latencies.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    @Override
+    public Recorder distribution(String name) {
+        return distributions.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    @Override
+    public Recorder gauge(String name) {
+        return gauges.computeIfAbsent(name, n -> new AtomicLong())::set;
+    }
+
+    @Override
+    public Map<String, Histogram.Snapshot> getLatencies() {
+        return snapshots(latencies);
+    }
+
+    @Override
+    public Map<String, Histogram.Snapshot> getDistributions() {
+        return snapshots(distributions);
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, value) -> values.put(name, value.get()));
+        return values;
+    }
+
+    // Every metric as a line, latencies in microseconds
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        dump(out, "Latencies (us)", getLatencies(), nanos -> String.format("%.1f", nanos / 1_000.0));
+        dump(out, "Distributions", getDistributions(), value -> String.format("%.0f", value));
+
+        out.append("Gauges\n");
+        getGauges().forEach((name, value) -> out.append(String.format("  %-60s %12d%n", name, value)));
+        return out.toString();
+    }
+
+    // Metrics already handed out keep working and start over from nothing
+    @Override
+    public void reset() {
+        latencies.values().forEach(Histogram::reset);
+        distributions.values().forEach(Histogram::reset);
+        gauges.values().forEach(gauge -> gauge.set(0));
+    }
+
+    public ObjectName registerMBean() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException ex) {
+            // the registry of whoever ran before gives way to this one
+            server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+        return name;
+    }
+
+    public void unregisterMBean() throws JMException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (InstanceNotFoundException ex) {
+            // not registered, nothing to do
+        }
+    }
+
+    // _________________________________________________________
+
+    private static Map<String, Histogram.Snapshot> snapshots(Map<String, Histogram> histograms) {
+        Map<String, Histogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    private static void dump(StringBuilder out, String title, Map<String, Histogram.Snapshot> snapshots,
+                             Function<Double, String> format)
+    {
+        out.append(String.format("%-62s %10s %10s %10s %10s %10s %10s %10s%n",
+                title, "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        snapshots.forEach((name, s) -> out.append(String.format("  %-60s %10d %10s %10s %10s %10s %10s %10s%n",
+                name, s.count(), format.apply(s.mean()), format.apply((double) s.p50()), format.apply((double) s.p90()),
+                format.apply((double) s.p99()), format.apply((double) s.p999()), format.apply((double) s.max()))));
+    }
+}
@@ -0,0 +1,26 @@
+package com.byt.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// The recorders of one metric split per repository key, named "<metric>:<key>". Each is asked from
+// the registry the first time its key shows up and looked up without building the name again after.
+public final class KeyedRecorders {
+    private final String metric;
+    private final Function<String, Recorder> registry;
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    // e.g. new KeyedRecorders("repository.read", registry::latency)
+    public KeyedRecorders(String metric, Function<String, Recorder> registry) {
+        this.metric = metric;
+        this.registry = registry;
+    }
+
+    public Recorder of(String key) {
+        Recorder recorder = recorders.get(key);
+        if (recorder == null)
+            recorder = recorders.computeIfAbsent(key, k -> registry.apply(metric + ":" + k));
+        return recorder;
+    }
+}
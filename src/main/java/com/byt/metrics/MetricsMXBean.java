@@ -0,0 +1,17 @@
+package com.byt.metrics;
+
+import java.util.Map;
+
+// What InMemoryMetricsRegistry shows through JMX, under InMemoryMetricsRegistry.OBJECT_NAME.
+// Latencies are in nanoseconds.
+public interface MetricsMXBean {
+    Map<String, Histogram.Snapshot> getLatencies();
+
+    Map<String, Histogram.Snapshot> getDistributions();
+
+    Map<String, Long> getGauges();
+
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,18 @@
+package com.byt.metrics;
+
+// What the instrumented services and persistence classes report to. InMemoryMetricsRegistry keeps
+// histograms in the process and shows them through JMX and dump(); another implementation can pass
+// the values on to whatever monitoring is in use.
+//
+// Instrumentation asks for its recorders once, when it is set up, and records through them
+// afterwards. Without a registry nothing gets wrapped and nothing is measured.
+public interface MetricsRegistry {
+    // Durations of an operation, in nanoseconds
+    Recorder latency(String name);
+
+    // Values whose distribution matters, like the sizes of what gets written
+    Recorder distribution(String name);
+
+    // Only the last value counts, like the size of a collection
+    Recorder gauge(String name);
+}
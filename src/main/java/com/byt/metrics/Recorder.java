@@ -0,0 +1,8 @@
+package com.byt.metrics;
+
+// Where the values of one metric go, handed out by a MetricsRegistry once and then called on every
+// operation. Must be cheap and safe to call from several threads at once.
+@FunctionalInterface
+public interface Recorder {
+    void record(long value);
+}
@@ -0,0 +1,17 @@
+package com.byt.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+
+// Serializers whose native format is bytes rather than text. SaveLoadService hands them
+// output streams and (possibly memory-mapped) buffers instead of writers and readers.
+// Their String methods still have to work - the write-ahead log stores records as text.
+public interface BinaryDataSerializer extends DataSerializer {
+    public void serialize(Object object, OutputStream output) throws IOException;
+
+    // The buffer must stay valid for as long as the returned object is used,
+    // implementations are free to decode lazily out of it.
+    public Object deserialize(ByteBuffer buffer, Type type) throws IOException;
+}
@@ -0,0 +1,887 @@
+package com.byt.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Compact binary snapshot format, an alternative to JSON for large collections.
+//
+// Layout: magic, version, then a header with
+//   - a dictionary holding every distinct string (values, class, field and enum constant names) once,
+//   - a table of the enum types used, with their constant names, so values can be stored as ordinals,
+//   - one schema per entity class - its fields, in the order their values follow in a record,
+//   - the root: a single value, or a list with the offset of every element's record,
+// followed by the records themselves.
+//
+// Entities are read by reflection over their fields just like Gson does. Records nest, so an object
+// may appear more than once but never inside itself: reference cycles are rejected. Fields are matched by name
+// when reading, so fields that were added or removed since the snapshot was written are tolerated.
+// A list root comes back as a read-only list that decodes each element from the buffer on first access;
+// with a memory-mapped buffer from MappedFileDataRepository nothing is copied onto the heap up front.
+public final class BinarySnapshotSerializer implements BinaryDataSerializer {
+    private static final int MAGIC = 0x46535342; // "FSSB"
+    private static final byte VERSION = 1;
+
+    private static final byte ROOT_NULL = 0;
+    private static final byte ROOT_VALUE = 1;
+    private static final byte ROOT_LIST = 2;
+
+    // value kinds, also the tags used in schemas
+    private static final byte BOOLEAN = 1;
+    private static final byte INTEGER = 2;
+    private static final byte DECIMAL = 3;
+    private static final byte STRING = 4;
+    private static final byte ENUM = 5;
+    private static final byte LOCAL_DATE = 6;
+    private static final byte LOCAL_TIME = 7;
+    private static final byte LOCAL_DATE_TIME = 8;
+    private static final byte COLLECTION = 9;
+    private static final byte ARRAY = 10;
+    private static final byte OBJECT = 11;
+
+    // How values of a Java type are written. type is the enum class for ENUM, the collection class
+    // for COLLECTION, the component class for ARRAY and the primitive/boxed class for numbers.
+    private record Descriptor(byte kind, Class<?> type, Descriptor element) {}
+
+    private record ClassSchema(Class<?> type, Field[] fields, Descriptor[] descriptors) {}
+
+    private final Map<Class<?>, ClassSchema> classSchemas = new ConcurrentHashMap<>();
+
+    // _________________________________________________________
+
+    @Override
+    public String serialize(Object object) {
+        return Base64.getEncoder().encodeToString(toBytes(object));
+    }
+
+    @Override
+    public Object deserialize(String serializedObject, Type type) {
+        if (serializedObject == null || serializedObject.isEmpty())
+            return null;
+
+        try {
+            return deserialize(ByteBuffer.wrap(Base64.getDecoder().decode(serializedObject)), type);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Not a binary snapshot", ex);
+        }
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream output) throws IOException {
+        new Encoder().write(object, output);
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer buffer, Type type) throws IOException {
+        if (!buffer.hasRemaining())
+            return null;
+
+        Snapshot snapshot = new Snapshot(buffer.slice().asReadOnlyBuffer());
+
+        return switch (snapshot.rootKind) {
+            case ROOT_NULL -> null;
+            case ROOT_LIST -> new LazyList(snapshot, targetElementDescriptor(type, snapshot.root));
+            default -> snapshot.readValue(new Cursor(snapshot.bodyStart), snapshot.root,
+                    compatible(snapshot.root, type) ? describe(type) : null);
+        };
+    }
+
+    public byte[] toBytes(Object object) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            serialize(object, output);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // a byte array stream doesn't throw
+        }
+        return output.toByteArray();
+    }
+
+    // _________________________________________________________
+    // Schemas of the current classes
+
+    private ClassSchema schemaOf(Class<?> type) {
+        return classSchemas.computeIfAbsent(type, BinarySnapshotSerializer::buildSchema);
+    }
+
+    private static ClassSchema buildSchema(Class<?> type) {
+        if (type.getName().startsWith("java.") || type.isInterface())
+            throw new IllegalArgumentException("Type " + type.getName() + " can't be stored in a binary snapshot");
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic())
+                    continue;
+
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+
+        Descriptor[] descriptors = new Descriptor[fields.size()];
+        for (int i = 0; i < descriptors.length; i++)
+            descriptors[i] = describe(fields.get(i).getGenericType());
+
+        return new ClassSchema(type, fields.toArray(Field[]::new), descriptors);
+    }
+
+    private static Descriptor describe(Type type) {
+        Class<?> raw = rawClass(type);
+
+        if (raw == boolean.class || raw == Boolean.class)
+            return new Descriptor(BOOLEAN, raw, null);
+        if (raw == int.class || raw == long.class || raw == short.class || raw == byte.class || raw == char.class
+                || raw == Integer.class || raw == Long.class || raw == Short.class || raw == Byte.class || raw == Character.class)
+            return new Descriptor(INTEGER, raw, null);
+        if (raw == double.class || raw == float.class || raw == Double.class || raw == Float.class)
+            return new Descriptor(DECIMAL, raw, null);
+        if (raw == String.class)
+            return new Descriptor(STRING, raw, null);
+        if (raw.isEnum())
+            return new Descriptor(ENUM, raw, null);
+        if (raw.getSuperclass() != null && raw.getSuperclass().isEnum())
+            return new Descriptor(ENUM, raw.getSuperclass(), null); // constant with a body
+        if (raw == LocalDate.class)
+            return new Descriptor(LOCAL_DATE, raw, null);
+        if (raw == LocalTime.class)
+            return new Descriptor(LOCAL_TIME, raw, null);
+        if (raw == LocalDateTime.class)
+            return new Descriptor(LOCAL_DATE_TIME, raw, null);
+        if (raw.isArray())
+            return new Descriptor(ARRAY, raw.getComponentType(), describe(raw.getComponentType()));
+        if (Collection.class.isAssignableFrom(raw)) {
+            if (!(type instanceof ParameterizedType parameterized))
+                throw new IllegalArgumentException("Collection type " + type + " needs an element type");
+            return new Descriptor(COLLECTION, raw, describe(parameterized.getActualTypeArguments()[0]));
+        }
+        if (raw.getName().startsWith("java.") || raw.isInterface())
+            throw new IllegalArgumentException("Type " + type + " can't be stored in a binary snapshot");
+
+        return new Descriptor(OBJECT, raw, null);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c)
+            return c;
+        if (type instanceof ParameterizedType parameterized)
+            return rawClass(parameterized.getRawType());
+        if (type instanceof WildcardType wildcard)
+            return rawClass(wildcard.getUpperBounds()[0]);
+        if (type instanceof GenericArrayType array)
+            return Array.newInstance(rawClass(array.getGenericComponentType()), 0).getClass();
+        if (type instanceof TypeVariable<?> variable)
+            return rawClass(variable.getBounds()[0]);
+
+        throw new IllegalArgumentException("Unsupported type " + type);
+    }
+
+    // the current descriptor of the elements of a list type, null when it doesn't match the file
+    private Descriptor targetElementDescriptor(Type listType, FileDescriptor fileElement) {
+        if (!(listType instanceof ParameterizedType parameterized))
+            return null;
+
+        Type elementType = parameterized.getActualTypeArguments()[0];
+        return compatible(fileElement, elementType) ? describe(elementType) : null;
+    }
+
+    private static boolean compatible(FileDescriptor file, Type type) {
+        try {
+            return compatible(file, describe(type));
+        } catch (IllegalArgumentException unsupported) {
+            return false;
+        }
+    }
+
+    private static boolean compatible(FileDescriptor file, Descriptor current) {
+        if (file == null || current == null || file.kind != current.kind())
+            return false;
+        if (file.element == null)
+            return true;
+
+        return compatible(file.element, current.element());
+    }
+
+    // _________________________________________________________
+    // Writing
+
+    private final class Encoder {
+        private final ByteSink body = new ByteSink();
+
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final Map<Class<?>, Integer> enumIds = new HashMap<>();
+        private final List<Class<?>> enums = new ArrayList<>();
+        private final Map<Class<?>, Integer> schemaIds = new HashMap<>();
+        private final List<ClassSchema> schemas = new ArrayList<>();
+        // objects being written right now, from the root down to the current one
+        private final Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        void write(Object root, OutputStream output) throws IOException {
+            byte rootKind;
+            Descriptor rootDescriptor = null;
+            int[] offsets = null;
+
+            if (root == null) {
+                rootKind = ROOT_NULL;
+            } else if (root instanceof Collection<?> elements) {
+                rootKind = ROOT_LIST;
+                rootDescriptor = elementDescriptor(elements);
+                offsets = new int[elements.size()];
+
+                int i = 0;
+                for (Object element : elements) {
+                    offsets[i++] = body.size();
+                    writeValue(rootDescriptor, element);
+                }
+            } else {
+                rootKind = ROOT_VALUE;
+                rootDescriptor = describe(root.getClass());
+                register(rootDescriptor);
+                writeValue(rootDescriptor, root);
+            }
+
+            ByteSink header = new ByteSink();
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+
+            header.writeVarLong(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                header.writeVarLong(bytes.length);
+                header.writeBytes(bytes);
+            }
+
+            header.writeVarLong(enums.size());
+            for (Class<?> enumType : enums) {
+                header.writeVarLong(stringIds.get(enumType.getName()));
+                Object[] constants = enumType.getEnumConstants();
+                header.writeVarLong(constants.length);
+                for (Object constant : constants)
+                    header.writeVarLong(stringIds.get(((Enum<?>) constant).name()));
+            }
+
+            header.writeVarLong(schemas.size());
+            for (ClassSchema schema : schemas) {
+                header.writeVarLong(stringIds.get(schema.type().getName()));
+                header.writeVarLong(schema.fields().length);
+                for (int i = 0; i < schema.fields().length; i++) {
+                    header.writeVarLong(stringIds.get(schema.fields()[i].getName()));
+                    writeDescriptor(header, schema.descriptors()[i]);
+                }
+            }
+
+            header.writeByte(rootKind);
+            if (rootDescriptor != null)
+                writeDescriptor(header, rootDescriptor);
+            if (offsets != null) {
+                header.writeVarLong(offsets.length);
+                for (int offset : offsets)
+                    header.writeInt(offset);
+            }
+
+            header.writeTo(output);
+            body.writeTo(output);
+            output.flush();
+        }
+
+        // elements of a root list are described by their runtime class
+        private Descriptor elementDescriptor(Collection<?> elements) {
+            Descriptor descriptor = null;
+            for (Object element : elements) {
+                if (element == null)
+                    continue;
+
+                Descriptor current = describe(element.getClass());
+                if (descriptor == null) {
+                    descriptor = current;
+                } else if (descriptor.kind() != current.kind()) {
+                    throw new IllegalArgumentException("A binary snapshot list can't mix "
+                            + descriptor.type().getName() + " and " + current.type().getName());
+                }
+            }
+
+            if (descriptor == null)
+                descriptor = new Descriptor(OBJECT, Object.class, null); // nothing but nulls
+
+            register(descriptor);
+            return descriptor;
+        }
+
+        private void writeDescriptor(ByteSink sink, Descriptor descriptor) {
+            sink.writeByte(descriptor.kind());
+            if (descriptor.kind() == ENUM)
+                sink.writeVarLong(enumIds.get(descriptor.type()));
+            if (descriptor.element() != null)
+                writeDescriptor(sink, descriptor.element());
+        }
+
+        // makes sure everything a descriptor refers to ends up in the header
+        private void register(Descriptor descriptor) {
+            if (descriptor.kind() == ENUM)
+                enumId(descriptor.type());
+            if (descriptor.element() != null)
+                register(descriptor.element());
+        }
+
+        private int stringId(String string) {
+            Integer id = stringIds.get(string);
+            if (id == null) {
+                id = strings.size();
+                stringIds.put(string, id);
+                strings.add(string);
+            }
+            return id;
+        }
+
+        private int enumId(Class<?> enumType) {
+            Integer id = enumIds.get(enumType);
+            if (id == null) {
+                id = enums.size();
+                enumIds.put(enumType, id);
+                enums.add(enumType);
+
+                stringId(enumType.getName());
+                for (Object constant : enumType.getEnumConstants())
+                    stringId(((Enum<?>) constant).name());
+            }
+            return id;
+        }
+
+        private int schemaId(Class<?> type) {
+            Integer id = schemaIds.get(type);
+            if (id == null) {
+                ClassSchema schema = schemaOf(type);
+                id = schemas.size();
+                schemaIds.put(type, id);
+                schemas.add(schema);
+
+                stringId(type.getName());
+                for (int i = 0; i < schema.fields().length; i++) {
+                    stringId(schema.fields()[i].getName());
+                    register(schema.descriptors()[i]);
+                }
+            }
+            return id;
+        }
+
+        private void writeValue(Descriptor descriptor, Object value) {
+            switch (descriptor.kind()) {
+                case BOOLEAN -> body.writeByte(value == null ? 2 : (Boolean) value ? 1 : 0);
+                case INTEGER -> {
+                    if (writePresence(value))
+                        body.writeVarLong(zigZag(value instanceof Character c ? c : ((Number) value).longValue()));
+                }
+                case DECIMAL -> {
+                    if (writePresence(value))
+                        body.writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+                }
+                case STRING -> body.writeVarLong(value == null ? 0 : stringId((String) value) + 1L);
+                case ENUM -> body.writeVarLong(value == null ? 0 : ((Enum<?>) value).ordinal() + 1L);
+                case LOCAL_DATE -> {
+                    if (writePresence(value))
+                        body.writeVarLong(zigZag(((LocalDate) value).toEpochDay()));
+                }
+                case LOCAL_TIME -> {
+                    if (writePresence(value))
+                        body.writeVarLong(((LocalTime) value).toNanoOfDay());
+                }
+                case LOCAL_DATE_TIME -> {
+                    if (writePresence(value)) {
+                        body.writeVarLong(zigZag(((LocalDateTime) value).toLocalDate().toEpochDay()));
+                        body.writeVarLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+                    }
+                }
+                case COLLECTION -> {
+                    if (value == null) {
+                        body.writeVarLong(0);
+                        return;
+                    }
+                    Collection<?> elements = (Collection<?>) value;
+                    body.writeVarLong(elements.size() + 1L);
+                    for (Object element : elements)
+                        writeValue(descriptor.element(), element);
+                }
+                case ARRAY -> {
+                    if (value == null) {
+                        body.writeVarLong(0);
+                        return;
+                    }
+                    int length = Array.getLength(value);
+                    body.writeVarLong(length + 1L);
+                    for (int i = 0; i < length; i++)
+                        writeValue(descriptor.element(), Array.get(value, i));
+                }
+                default -> writeObject(value);
+            }
+        }
+
+        private void writeObject(Object value) {
+            if (value == null) {
+                body.writeVarLong(0);
+                return;
+            }
+
+            // records nest, so an object reachable from itself would never end
+            if (!path.add(value))
+                throw new IllegalArgumentException("Can't write " + value.getClass().getName()
+                        + " into a binary snapshot, it refers back to itself through its fields");
+
+            int id = schemaId(value.getClass());
+            ClassSchema schema = schemas.get(id);
+            body.writeVarLong(id + 1L);
+
+            try {
+                for (int i = 0; i < schema.fields().length; i++)
+                    writeValue(schema.descriptors()[i], schema.fields()[i].get(value));
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException("Can't read fields of " + schema.type().getName(), ex);
+            } finally {
+                path.remove(value);
+            }
+        }
+
+        private boolean writePresence(Object value) {
+            body.writeByte(value == null ? 0 : 1);
+            return value != null;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Growable byte array with the few encodings the format needs
+    private static final class ByteSink {
+        private byte[] bytes = new byte[256];
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] values) {
+            ensureCapacity(values.length);
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            for (int shift = 24; shift >= 0; shift -= 8)
+                bytes[size++] = (byte) (value >>> shift);
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                bytes[size++] = (byte) (value >>> shift);
+        }
+
+        // unsigned LEB128
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeTo(OutputStream output) throws IOException {
+            output.write(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+
+    // _________________________________________________________
+    // Reading
+
+    private record FileDescriptor(byte kind, int enumId, FileDescriptor element) {}
+
+    // a field of a schema in the file, matched to the current class where possible
+    private record FieldSlot(FileDescriptor file, Field field, Descriptor target) {}
+
+    private record FileSchema(Class<?> type, Constructor<?> constructor, FieldSlot[] fields) {}
+
+    // Reads are absolute on a shared buffer, every decode walks its own cursor
+    private static final class Cursor {
+        int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+    }
+
+    private final class Snapshot {
+        final ByteBuffer buffer;
+        final int[] stringOffsets;
+        final String[] strings;
+        final Object[][] enumConstants;
+        final FileSchema[] schemas;
+        final byte rootKind;
+        final FileDescriptor root;
+        final int[] elementOffsets;
+        final int bodyStart;
+
+        Snapshot(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+
+            try {
+                Cursor cursor = new Cursor(0);
+                if (buffer.remaining() < 5 || readInt(cursor) != MAGIC)
+                    throw new IOException("Not a binary snapshot");
+                if (readByte(cursor) != VERSION)
+                    throw new IOException("Unsupported binary snapshot version");
+
+                // strings are only located here and decoded on first use
+                stringOffsets = new int[(int) readVarLong(cursor)];
+                strings = new String[stringOffsets.length];
+                for (int i = 0; i < stringOffsets.length; i++) {
+                    stringOffsets[i] = cursor.position;
+                    int length = (int) readVarLong(cursor);
+                    cursor.position += length;
+                }
+
+                enumConstants = new Object[(int) readVarLong(cursor)][];
+                for (int i = 0; i < enumConstants.length; i++)
+                    enumConstants[i] = readEnumConstants(cursor);
+
+                schemas = new FileSchema[(int) readVarLong(cursor)];
+                for (int i = 0; i < schemas.length; i++)
+                    schemas[i] = readSchema(cursor);
+
+                rootKind = readByte(cursor);
+                root = rootKind == ROOT_NULL ? null : readDescriptor(cursor);
+
+                if (rootKind == ROOT_LIST) {
+                    elementOffsets = new int[(int) readVarLong(cursor)];
+                    for (int i = 0; i < elementOffsets.length; i++)
+                        elementOffsets[i] = readInt(cursor);
+                } else {
+                    elementOffsets = null;
+                }
+
+                bodyStart = cursor.position;
+            } catch (IndexOutOfBoundsException | java.nio.BufferUnderflowException ex) {
+                throw new IOException("Binary snapshot is truncated", ex);
+            }
+        }
+
+        private Object[] readEnumConstants(Cursor cursor) throws IOException {
+            Class<?> enumType = classNamed(string((int) readVarLong(cursor)));
+            Object[] constants = new Object[(int) readVarLong(cursor)];
+
+            for (int i = 0; i < constants.length; i++) {
+                String name = string((int) readVarLong(cursor));
+                for (Object constant : enumType.getEnumConstants()) {
+                    if (((Enum<?>) constant).name().equals(name))
+                        constants[i] = constant; // constants removed since then read as null
+                }
+            }
+            return constants;
+        }
+
+        private FileSchema readSchema(Cursor cursor) throws IOException {
+            Class<?> type = classNamed(string((int) readVarLong(cursor)));
+            ClassSchema current = schemaOf(type);
+
+            FieldSlot[] fields = new FieldSlot[(int) readVarLong(cursor)];
+            for (int i = 0; i < fields.length; i++) {
+                String name = string((int) readVarLong(cursor));
+                FileDescriptor file = readDescriptor(cursor);
+
+                Field field = null;
+                Descriptor target = null;
+                for (int f = 0; f < current.fields().length; f++) {
+                    if (current.fields()[f].getName().equals(name) && compatible(file, current.descriptors()[f])) {
+                        field = current.fields()[f];
+                        target = current.descriptors()[f];
+                        break;
+                    }
+                }
+                fields[i] = new FieldSlot(file, field, target);
+            }
+
+            return new FileSchema(type, noArgsConstructor(type), fields);
+        }
+
+        private FileDescriptor readDescriptor(Cursor cursor) {
+            byte kind = readByte(cursor);
+            int enumId = kind == ENUM ? (int) readVarLong(cursor) : -1;
+            FileDescriptor element = kind == COLLECTION || kind == ARRAY ? readDescriptor(cursor) : null;
+
+            return new FileDescriptor(kind, enumId, element);
+        }
+
+        String string(int id) {
+            String string = strings[id];
+            if (string == null) {
+                Cursor cursor = new Cursor(stringOffsets[id]);
+                byte[] bytes = new byte[(int) readVarLong(cursor)];
+                buffer.get(cursor.position, bytes);
+
+                string = new String(bytes, StandardCharsets.UTF_8);
+                strings[id] = string; // Strings are immutable, a racing decode just does the work twice
+            }
+            return string;
+        }
+
+        // target is the current descriptor of where the value goes, null when it's read only to be skipped
+        Object readValue(Cursor cursor, FileDescriptor file, Descriptor target) {
+            return switch (file.kind) {
+                case BOOLEAN -> {
+                    byte value = readByte(cursor);
+                    yield value == 2 ? null : value == 1;
+                }
+                case INTEGER -> readByte(cursor) == 0 ? null
+                        : toIntegerType(unZigZag(readVarLong(cursor)), target == null ? Long.class : target.type());
+                case DECIMAL -> {
+                    if (readByte(cursor) == 0)
+                        yield null;
+                    double value = Double.longBitsToDouble(readLong(cursor));
+                    yield target != null && (target.type() == float.class || target.type() == Float.class) ? (Object) (float) value : value;
+                }
+                case STRING -> {
+                    long id = readVarLong(cursor);
+                    yield id == 0 ? null : string((int) id - 1);
+                }
+                case ENUM -> {
+                    long ordinal = readVarLong(cursor);
+                    Object[] constants = enumConstants[file.enumId];
+                    yield ordinal == 0 || ordinal > constants.length ? null : constants[(int) ordinal - 1];
+                }
+                case LOCAL_DATE -> readByte(cursor) == 0 ? null : LocalDate.ofEpochDay(unZigZag(readVarLong(cursor)));
+                case LOCAL_TIME -> readByte(cursor) == 0 ? null : LocalTime.ofNanoOfDay(readVarLong(cursor));
+                case LOCAL_DATE_TIME -> {
+                    if (readByte(cursor) == 0)
+                        yield null;
+                    LocalDate date = LocalDate.ofEpochDay(unZigZag(readVarLong(cursor)));
+                    yield LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong(cursor)));
+                }
+                case COLLECTION -> {
+                    long size = readVarLong(cursor);
+                    if (size == 0)
+                        yield null;
+
+                    Collection<Object> elements = newCollection(target == null ? ArrayList.class : target.type());
+                    for (long i = 1; i < size; i++)
+                        elements.add(readValue(cursor, file.element, target == null ? null : target.element()));
+                    yield elements;
+                }
+                case ARRAY -> {
+                    long length = readVarLong(cursor);
+                    if (length == 0)
+                        yield null;
+
+                    Object array = Array.newInstance(target == null ? Object.class : target.type(), (int) length - 1);
+                    for (int i = 0; i < length - 1; i++) {
+                        Object element = readValue(cursor, file.element, target == null ? null : target.element());
+                        if (element != null || !array.getClass().getComponentType().isPrimitive())
+                            Array.set(array, i, element);
+                    }
+                    yield array;
+                }
+                case OBJECT -> readObject(cursor, target);
+                default -> throw new IllegalStateException("Unknown value kind " + file.kind + " in binary snapshot");
+            };
+        }
+
+        private Object readObject(Cursor cursor, Descriptor target) {
+            long id = readVarLong(cursor);
+            if (id == 0)
+                return null;
+
+            FileSchema schema = schemas[(int) id - 1];
+            Object object = newInstance(schema);
+
+            for (FieldSlot slot : schema.fields()) {
+                Object value = readValue(cursor, slot.file(), slot.target());
+                if (slot.field() == null || (value == null && slot.field().getType().isPrimitive()))
+                    continue;
+
+                try {
+                    slot.field().set(object, value);
+                } catch (IllegalAccessException | IllegalArgumentException ex) {
+                    throw new IllegalStateException("Can't set " + schema.type().getName() + "." + slot.field().getName(), ex);
+                }
+            }
+
+            // an object of an unrelated class is of no use to the caller
+            if (target != null && target.kind() == OBJECT && !target.type().isInstance(object))
+                return null;
+            return object;
+        }
+
+        // _____ primitive reads
+
+        byte readByte(Cursor cursor) {
+            return buffer.get(cursor.position++);
+        }
+
+        int readInt(Cursor cursor) {
+            int value = buffer.getInt(cursor.position);
+            cursor.position += 4;
+            return value;
+        }
+
+        long readLong(Cursor cursor) {
+            long value = buffer.getLong(cursor.position);
+            cursor.position += 8;
+            return value;
+        }
+
+        long readVarLong(Cursor cursor) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte current = buffer.get(cursor.position++);
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0)
+                    return value;
+            }
+        }
+    }
+
+    // Root lists: elements are decoded from the buffer the first time they are asked for
+    private static final class LazyList extends AbstractList<Object> implements RandomAccess {
+        private static final Object NOT_DECODED = new Object();
+
+        private final Snapshot snapshot;
+        private final Descriptor elementTarget;
+        private final AtomicReferenceArray<Object> decoded;
+
+        LazyList(Snapshot snapshot, Descriptor elementTarget) {
+            this.snapshot = snapshot;
+            this.elementTarget = elementTarget;
+            this.decoded = new AtomicReferenceArray<>(snapshot.elementOffsets.length);
+            for (int i = 0; i < snapshot.elementOffsets.length; i++)
+                decoded.setPlain(i, NOT_DECODED);
+        }
+
+        @Override
+        public Object get(int index) {
+            Objects.checkIndex(index, size());
+
+            Object element = decoded.get(index);
+            if (element != NOT_DECODED)
+                return element;
+
+            element = snapshot.readValue(
+                    new Cursor(snapshot.bodyStart + snapshot.elementOffsets[index]), snapshot.root, elementTarget);
+
+            // two threads may decode the same element, only one copy gets published
+            return decoded.compareAndSet(index, NOT_DECODED, element) ? element : decoded.get(index);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.elementOffsets.length;
+        }
+    }
+
+    // _________________________________________________________
+
+    private static Class<?> classNamed(String name) throws IOException {
+        try {
+            return Class.forName(name, false, BinarySnapshotSerializer.class.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Binary snapshot refers to unknown class " + name, ex);
+        }
+    }
+
+    private static Object toIntegerType(long value, Class<?> type) {
+        if (type == int.class || type == Integer.class)
+            return (int) value;
+        if (type == short.class || type == Short.class)
+            return (short) value;
+        if (type == byte.class || type == Byte.class)
+            return (byte) value;
+        if (type == char.class || type == Character.class)
+            return (char) value;
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Class<?> type) {
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            try {
+                return (Collection<Object>) type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException ignored) {
+                // fall back to a general purpose collection below
+            }
+        }
+
+        if (SortedSet.class.isAssignableFrom(type))
+            return new TreeSet<>();
+        if (Set.class.isAssignableFrom(type))
+            return new LinkedHashSet<>();
+        if (Queue.class.isAssignableFrom(type))
+            return new ArrayDeque<>();
+        return new ArrayList<>();
+    }
+
+    private static Constructor<?> noArgsConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    // Like Gson: the no-args constructor if there is one, otherwise an instance without running any
+    private static Object newInstance(FileSchema schema) {
+        try {
+            if (schema.constructor() != null)
+                return schema.constructor().newInstance();
+            if (UNSAFE_ALLOCATE_INSTANCE != null)
+                return UNSAFE_ALLOCATE_INSTANCE.invoke(UNSAFE, schema.type());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Can't create an instance of " + schema.type().getName(), ex);
+        }
+
+        throw new IllegalStateException(schema.type().getName() + " has no no-args constructor");
+    }
+
+    private static final Object UNSAFE;
+    private static final Method UNSAFE_ALLOCATE_INSTANCE;
+
+    static {
+        Object unsafe = null;
+        Method allocateInstance = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // classes without a no-args constructor just can't be read then
+        }
+        UNSAFE = unsafe;
+        UNSAFE_ALLOCATE_INSTANCE = allocateInstance;
+    }
+}
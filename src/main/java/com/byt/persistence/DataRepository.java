@@ -1,6 +1,13 @@
 package com.byt.persistence;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Map;
 
 public interface DataRepository {
     public String read(String key) throws IOException;
@@ -10,5 +17,63 @@ public interface DataRepository {
     public void remove(String key) throws IOException;
 
     public boolean exists(String key);
-}
 
+    // Replaces several values together. Repositories that can make that one durable transaction
+    // should override this, the default writes them one after another.
+    public default void writeAll(Map<String, String> keyToSerializedData) throws IOException {
+        for (Map.Entry<String, String> value : keyToSerializedData.entrySet())
+            write(value.getKey(), value.getValue());
+    }
+
+    // Repositories that can extend a value in place should override this
+    public default void append(String key, String serializedData) throws IOException {
+        String current = exists(key) ? read(key) : "";
+        write(key, current + serializedData);
+    }
+
+    // Streaming access to a value. The defaults buffer through read/write,
+    // repositories backed by real storage should stream instead.
+
+    public default Reader openReader(String key) throws IOException {
+        return new StringReader(read(key));
+    }
+
+    // The value is replaced once the returned writer is committed
+    public default PendingWriter openWriter(String key) throws IOException {
+        DataRepository repository = this;
+
+        return new PendingWriter(new StringWriter()) {
+            @Override
+            protected void onCommit() throws IOException {
+                repository.write(key, out.toString());
+            }
+
+            @Override
+            protected void onAbort() {
+            }
+        };
+    }
+
+    // Binary access for BinaryDataSerializer. The defaults keep binary values as Base64 text,
+    // repositories backed by files should store the raw bytes and map them instead.
+
+    public default ByteBuffer readBuffer(String key) throws IOException {
+        return ByteBuffer.wrap(Base64.getDecoder().decode(read(key))).asReadOnlyBuffer();
+    }
+
+    // The value is replaced once the returned stream is committed
+    public default PendingOutputStream openOutputStream(String key) throws IOException {
+        DataRepository repository = this;
+
+        return new PendingOutputStream(new ByteArrayOutputStream()) {
+            @Override
+            protected void onCommit() throws IOException {
+                repository.write(key, Base64.getEncoder().encodeToString(((ByteArrayOutputStream) out).toByteArray()));
+            }
+
+            @Override
+            protected void onAbort() {
+            }
+        };
+    }
+}
@@ -1,9 +1,27 @@
 package com.byt.persistence;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
 
 public interface DataSerializer {
     public String serialize(Object object);
 
     public Object deserialize(String serializedObject, Type type);
+
+    // Streaming variants, used for whole collections so that a save or a load never holds
+    // the full serialized text in memory. The defaults go through the String methods.
+
+    public default void serialize(Object object, Writer writer) throws IOException {
+        writer.write(serialize(object));
+        writer.flush();
+    }
+
+    public default Object deserialize(Reader reader, Type type) throws IOException {
+        StringWriter buffer = new StringWriter();
+        reader.transferTo(buffer);
+        return deserialize(buffer.toString(), type);
+    }
 }
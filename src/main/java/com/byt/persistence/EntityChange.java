@@ -0,0 +1,22 @@
+package com.byt.persistence;
+
+// One change to one entity of a saved collection, identified by the entity's key
+public record EntityChange(Operation operation, String id, Object entity) {
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    public static EntityChange created(String id, Object entity) {
+        return new EntityChange(Operation.CREATE, id, entity);
+    }
+
+    public static EntityChange updated(String id, Object entity) {
+        return new EntityChange(Operation.UPDATE, id, entity);
+    }
+
+    public static EntityChange deleted(String id) {
+        return new EntityChange(Operation.DELETE, id, null);
+    }
+}
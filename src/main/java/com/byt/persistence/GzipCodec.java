@@ -0,0 +1,52 @@
+package com.byt.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// GZIP from the JDK. The saves repeat the same field names and enum constants for every entity,
+// which compresses very well; BEST_SPEED already gets most of it at a fraction of the CPU.
+public final class GzipCodec implements StorageCodec {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int level;
+
+    public GzipCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public GzipCodec(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION))
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+
+        this.level = level;
+    }
+
+    @Override
+    public String name() {
+        return "gzip";
+    }
+
+    @Override
+    public String extension() {
+        return ".gz";
+    }
+
+    @Override
+    public OutputStream encode(OutputStream output) throws IOException {
+        return new GZIPOutputStream(output, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    // GZIPInputStream reads concatenated members as one stream
+    @Override
+    public InputStream decode(InputStream input) throws IOException {
+        return new GZIPInputStream(input, BUFFER_SIZE);
+    }
+}
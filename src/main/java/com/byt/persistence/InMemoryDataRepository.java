@@ -1,42 +1,51 @@
 package com.byt.persistence;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Safe to share between threads: a builder is only ever touched inside compute() for its key
 public final class InMemoryDataRepository implements DataRepository {
-    private final Map<String, String> keyToSerializedData;
+    // builders instead of strings so that appends don't copy the whole value
+    private final Map<String, StringBuilder> keyToSerializedData;
 
     public InMemoryDataRepository() {
-        keyToSerializedData = new HashMap<>();
+        keyToSerializedData = new ConcurrentHashMap<>();
     }
 
     public InMemoryDataRepository(Map<String, String> preMadeContents) {
-        keyToSerializedData = new HashMap<>(preMadeContents);
+        keyToSerializedData = new ConcurrentHashMap<>();
+        preMadeContents.forEach((key, value) -> keyToSerializedData.put(key, new StringBuilder(value)));
     }
 
     @Override
     public String read(String key) throws IOException {
-        if (!exists(key))
+        String[] value = new String[1];
+        keyToSerializedData.computeIfPresent(key, (k, data) -> {
+            value[0] = data.toString();
+            return data;
+        });
+
+        if (value[0] == null)
             throw new IOException("The repository doesn't contain key '" + key + "'");
 
-        return keyToSerializedData.get(key);
+        return value[0];
     }
 
     @Override
     public void write(String key, String serializedData) throws IOException {
-        if (exists(key))
-            remove(key);
+        keyToSerializedData.put(key, new StringBuilder(serializedData));
+    }
 
-        keyToSerializedData.put(key, serializedData);
+    @Override
+    public void append(String key, String serializedData) throws IOException {
+        keyToSerializedData.compute(key, (k, data) -> (data == null ? new StringBuilder() : data).append(serializedData));
     }
 
     @Override
     public void remove(String key) throws IOException {
-        if (!exists(key))
+        if (keyToSerializedData.remove(key) == null)
             throw new IOException("The repository doesn't contain key '" + key + "'");
-
-        keyToSerializedData.remove(key);
     }
 
     @Override
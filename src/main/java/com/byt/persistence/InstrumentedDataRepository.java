@@ -0,0 +1,197 @@
+package com.byt.persistence;
+
+import com.byt.metrics.KeyedRecorders;
+import com.byt.metrics.MetricsRegistry;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+// Times the reads and writes of the repository it wraps and records the size of what they move,
+// per repository key: repository.read:<key> and repository.write:<key> in nanoseconds,
+// payload.read:<key> and payload.written:<key> in characters (bytes for binary values).
+// Streamed reads and writes are timed from opening to closing the stream, so they include the
+// serializer working on the stream.
+public final class InstrumentedDataRepository implements DataRepository {
+    private final DataRepository repository;
+    private final KeyedRecorders readTime;
+    private final KeyedRecorders writeTime;
+    private final KeyedRecorders readSize;
+    private final KeyedRecorders writtenSize;
+
+    public InstrumentedDataRepository(DataRepository repository, MetricsRegistry metrics) {
+        this.repository = repository;
+        this.readTime = new KeyedRecorders("repository.read", metrics::latency);
+        this.writeTime = new KeyedRecorders("repository.write", metrics::latency);
+        this.readSize = new KeyedRecorders("payload.read", metrics::distribution);
+        this.writtenSize = new KeyedRecorders("payload.written", metrics::distribution);
+    }
+
+    @Override
+    public String read(String key) throws IOException {
+        long start = System.nanoTime();
+        String serializedData = repository.read(key);
+        readTime.of(key).record(System.nanoTime() - start);
+        readSize.of(key).record(serializedData.length());
+        return serializedData;
+    }
+
+    @Override
+    public void write(String key, String serializedData) throws IOException {
+        long start = System.nanoTime();
+        repository.write(key, serializedData);
+        writeTime.of(key).record(System.nanoTime() - start);
+        writtenSize.of(key).record(serializedData.length());
+    }
+
+    @Override
+    public void remove(String key) throws IOException {
+        repository.remove(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return repository.exists(key);
+    }
+
+    // The values are written together, each one is counted with the time of the whole
+    @Override
+    public void writeAll(Map<String, String> keyToSerializedData) throws IOException {
+        long start = System.nanoTime();
+        repository.writeAll(keyToSerializedData);
+        long time = System.nanoTime() - start;
+
+        for (Map.Entry<String, String> value : keyToSerializedData.entrySet()) {
+            writeTime.of(value.getKey()).record(time);
+            writtenSize.of(value.getKey()).record(value.getValue().length());
+        }
+    }
+
+    @Override
+    public void append(String key, String serializedData) throws IOException {
+        long start = System.nanoTime();
+        repository.append(key, serializedData);
+        writeTime.of(key).record(System.nanoTime() - start);
+        writtenSize.of(key).record(serializedData.length());
+    }
+
+    @Override
+    public Reader openReader(String key) throws IOException {
+        long start = System.nanoTime();
+        return new FilterReader(repository.openReader(key)) {
+            private long size;
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                int c = super.read();
+                if (c >= 0)
+                    size++;
+                return c;
+            }
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0)
+                    size += read;
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                if (closed)
+                    return;
+
+                closed = true;
+                readTime.of(key).record(System.nanoTime() - start);
+                readSize.of(key).record(size);
+            }
+        };
+    }
+
+    // Only committed writes are counted
+    @Override
+    public PendingWriter openWriter(String key) throws IOException {
+        long start = System.nanoTime();
+        PendingWriter writer = repository.openWriter(key);
+        return new PendingWriter(writer) {
+            private long size;
+
+            @Override
+            public void write(int c) throws IOException {
+                super.write(c);
+                size++;
+            }
+
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                super.write(buffer, offset, length);
+                size += length;
+            }
+
+            @Override
+            public void write(String text, int offset, int length) throws IOException {
+                super.write(text, offset, length);
+                size += length;
+            }
+
+            @Override
+            protected void onCommit() throws IOException {
+                writer.commit();
+                writeTime.of(key).record(System.nanoTime() - start);
+                writtenSize.of(key).record(size);
+            }
+
+            @Override
+            protected void onAbort() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    @Override
+    public ByteBuffer readBuffer(String key) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer buffer = repository.readBuffer(key);
+        readTime.of(key).record(System.nanoTime() - start);
+        readSize.of(key).record(buffer.remaining());
+        return buffer;
+    }
+
+    @Override
+    public PendingOutputStream openOutputStream(String key) throws IOException {
+        long start = System.nanoTime();
+        PendingOutputStream output = repository.openOutputStream(key);
+        return new PendingOutputStream(output) {
+            private long size;
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                size++;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+                size += length;
+            }
+
+            @Override
+            protected void onCommit() throws IOException {
+                output.commit();
+                writeTime.of(key).record(System.nanoTime() - start);
+                writtenSize.of(key).record(size);
+            }
+
+            @Override
+            protected void onAbort() throws IOException {
+                output.close();
+            }
+        };
+    }
+}
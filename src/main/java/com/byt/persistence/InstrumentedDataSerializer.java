@@ -0,0 +1,102 @@
+package com.byt.persistence;
+
+import com.byt.metrics.MetricsRegistry;
+import com.byt.metrics.Recorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+
+// Times every call of the serializer it wraps as serializer.serialize / serializer.deserialize.
+// Binary serializers stay binary, so SaveLoadService still hands them streams and buffers.
+public class InstrumentedDataSerializer implements DataSerializer {
+    private final DataSerializer serializer;
+    private final Recorder serializeTime;
+    private final Recorder deserializeTime;
+
+    public static DataSerializer wrap(DataSerializer serializer, MetricsRegistry metrics) {
+        if (serializer instanceof BinaryDataSerializer binarySerializer)
+            return new Binary(binarySerializer, metrics);
+        return new InstrumentedDataSerializer(serializer, metrics);
+    }
+
+    private InstrumentedDataSerializer(DataSerializer serializer, MetricsRegistry metrics) {
+        this.serializer = serializer;
+        this.serializeTime = metrics.latency("serializer.serialize");
+        this.deserializeTime = metrics.latency("serializer.deserialize");
+    }
+
+    @Override
+    public String serialize(Object object) {
+        long start = System.nanoTime();
+        try {
+            return serializer.serialize(object);
+        } finally {
+            serializeTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Object deserialize(String serializedObject, Type type) {
+        long start = System.nanoTime();
+        try {
+            return serializer.deserialize(serializedObject, type);
+        } finally {
+            deserializeTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void serialize(Object object, Writer writer) throws IOException {
+        long start = System.nanoTime();
+        try {
+            serializer.serialize(object, writer);
+        } finally {
+            serializeTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Object deserialize(Reader reader, Type type) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return serializer.deserialize(reader, type);
+        } finally {
+            deserializeTime.record(System.nanoTime() - start);
+        }
+    }
+
+    // _________________________________________________________
+
+    private static final class Binary extends InstrumentedDataSerializer implements BinaryDataSerializer {
+        private final BinaryDataSerializer serializer;
+
+        private Binary(BinaryDataSerializer serializer, MetricsRegistry metrics) {
+            super(serializer, metrics);
+            this.serializer = serializer;
+        }
+
+        @Override
+        public void serialize(Object object, OutputStream output) throws IOException {
+            long start = System.nanoTime();
+            try {
+                serializer.serialize(object, output);
+            } finally {
+                super.serializeTime.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public Object deserialize(ByteBuffer buffer, Type type) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return serializer.deserialize(buffer, type);
+            } finally {
+                super.deserializeTime.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -1,37 +1,136 @@
 package com.byt.persistence;
 
+import com.byt.persistence.gson_adapters.EntityReferenceAdapterFactory;
 import com.byt.persistence.gson_adapters.LocalDateAdapter;
 import com.byt.persistence.gson_adapters.LocalDateTimeAdapter;
 import com.byt.persistence.gson_adapters.LocalTimeAdapter;
+import com.byt.persistence.gson_adapters.entities.EntityAdapters;
+import com.byt.persistence.util.EntityReferences;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
+// Entities are read and written with the hand-written adapters of EntityAdapters, links between
+// them as ids
 public final class JsonDataSerializer implements DataSerializer {
-    private final Gson gsonSerializer = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .registerTypeAdapter(LocalTime.class, new LocalTimeAdapter())
-            .create();
+    private final Gson gsonSerializer;
+
+    public JsonDataSerializer() {
+        this(new EntityAdapters());
+    }
+
+    // Gson's reflective adapters for the entities, with links written as ids by EntityReferenceAdapterFactory.
+    // Each of the two reads what the other writes; this one is only slower, kept to compare against.
+    public static JsonDataSerializer reflective() {
+        return new JsonDataSerializer(new EntityReferenceAdapterFactory(EntityReferences.ID_FIELDS));
+    }
+
+    private JsonDataSerializer(TypeAdapterFactory entityAdapters) {
+        gsonSerializer = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(LocalTime.class, new LocalTimeAdapter())
+                .registerTypeAdapterFactory(entityAdapters)
+                .create();
+    }
 
     @Override
     public String serialize(Object object) {
-        return gsonSerializer.toJson(object);
+        StringBuilder out = new StringBuilder();
+        gsonSerializer.toJson(object, out);
+        return out.toString();
     }
 
     @Override
     public Object deserialize(String serializedObject, Type type) {
         return gsonSerializer.fromJson(serializedObject, type);
     }
-}
 
+    // Collections are written one element at a time, so the output is the same as
+    // serialize(object) without the whole document ever existing as a String
+    @Override
+    public void serialize(Object object, Writer writer) throws IOException {
+        JsonWriter jsonWriter = gsonSerializer.newJsonWriter(writer);
+
+        if (object instanceof Collection<?> elements) {
+            jsonWriter.beginArray();
+            for (Object element : elements)
+                writeValue(element, jsonWriter);
+            jsonWriter.endArray();
+        } else {
+            writeValue(object, jsonWriter);
+        }
+
+        jsonWriter.flush();
+    }
+
+    // List types are read element by element straight into the result list
+    @Override
+    public Object deserialize(Reader reader, Type type) throws IOException {
+        JsonReader jsonReader = gsonSerializer.newJsonReader(reader);
+
+        JsonToken firstToken;
+        try {
+            firstToken = jsonReader.peek();
+        } catch (EOFException emptyDocument) {
+            return null; // same as fromJson on an empty string
+        }
+
+        Type elementType = listElementTypeOf(type);
+        if (elementType == null || firstToken != JsonToken.BEGIN_ARRAY)
+            return gsonSerializer.fromJson(jsonReader, type);
+
+        TypeAdapter<?> elementAdapter = gsonSerializer.getAdapter(TypeToken.get(elementType));
+        List<Object> result = new ArrayList<>();
+
+        jsonReader.beginArray();
+        while (jsonReader.hasNext())
+            result.add(elementAdapter.read(jsonReader));
+        jsonReader.endArray();
+
+        if (jsonReader.peek() != JsonToken.END_DOCUMENT)
+            throw new JsonSyntaxException("JSON document was not fully consumed");
+
+        return result;
+    }
+
+    private void writeValue(Object value, JsonWriter jsonWriter) throws IOException {
+        if (value == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+
+        gsonSerializer.toJson(value, value.getClass(), jsonWriter);
+    }
+
+    // Element type of types an ArrayList can stand in for (List<T>, Collection<T>, ...), null otherwise
+    private static Type listElementTypeOf(Type type) {
+        if (!(type instanceof ParameterizedType parameterized) || parameterized.getActualTypeArguments().length != 1)
+            return null;
+
+        Class<?> rawType = TypeToken.get(type).getRawType();
+        return rawType.isAssignableFrom(ArrayList.class)
+                ? parameterized.getActualTypeArguments()[0]
+                : null;
+    }
+}
@@ -0,0 +1,180 @@
+package com.byt.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Where each entity of a collection saved as one JSON array sits in the saved text.
+// Indexing streams the array once, decoding one element at a time to learn its id; a fetch skips
+// to the element and decodes just that. Every rewrite of the collection moves the elements, so
+// the index is rebuilt on the first fetch after the save generation of the key changed.
+final class JsonOffsetIndex<T> implements LazyCollection.Source<T> {
+    private final DataSerializer serializer;
+    private final DataRepository repository;
+    private final String key;
+    private final Type elementType;
+    private final Function<T, String> idOf;
+    private final LongSupplier generation;
+
+    private record Span(long start, int length) {}
+
+    private Map<String, Span> spans;
+    private long indexedGeneration = -1;
+
+    JsonOffsetIndex(DataSerializer serializer, DataRepository repository, String key, Type elementType,
+                    Function<T, String> idOf, LongSupplier generation)
+    {
+        this.serializer = serializer;
+        this.repository = repository;
+        this.key = key;
+        this.elementType = elementType;
+        this.idOf = idOf;
+        this.generation = generation;
+    }
+
+    @Override
+    public synchronized List<String> ids() throws IOException {
+        List<String> ids = new ArrayList<>();
+        index(ids);
+        return ids;
+    }
+
+    // A save racing with the read can move the element under it; that shows as text that doesn't
+    // decode to the entity asked for, and the fetch is retried on a fresh index
+    @Override
+    public T fetch(String id) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Span span;
+            synchronized (this) {
+                if (attempt > 0 || indexedGeneration != generation.getAsLong())
+                    index(null);
+                span = spans.get(id);
+            }
+
+            if (span == null)
+                return null;
+
+            T entity = decode(readSpan(span));
+            if (entity != null && id.equals(idOf.apply(entity)))
+                return entity;
+            if (attempt > 0)
+                throw new IOException("Entity '" + id + "' of collection '" + key + "' could not be read");
+        }
+    }
+
+    // _________________________________________________________
+
+    private String readSpan(Span span) throws IOException {
+        char[] element = new char[span.length()];
+        try (Reader reader = repository.openReader(key)) {
+            long toSkip = span.start();
+            while (toSkip > 0) {
+                long skipped = reader.skip(toSkip);
+                if (skipped <= 0)
+                    return "";
+                toSkip -= skipped;
+            }
+
+            int read = 0;
+            while (read < element.length) {
+                int count = reader.read(element, read, element.length - read);
+                if (count < 0)
+                    return "";
+                read += count;
+            }
+        }
+        return new String(element);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T decodeElement(String element) {
+        return (T) serializer.deserialize(element, elementType);
+    }
+
+    private T decode(String element) {
+        try {
+            return decodeElement(element);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    // A small scanner over the array: elements are split at the commas on its own level,
+    // anything nested or inside a string is copied through
+    private void index(List<String> ids) throws IOException {
+        long indexing = generation.getAsLong();
+        Map<String, Span> found = new HashMap<>();
+
+        try (Reader reader = new BufferedReader(repository.openReader(key))) {
+            StringBuilder element = null;
+            long position = 0;
+            long start = 0;
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+
+            int read;
+            while ((read = reader.read()) != -1) {
+                char c = (char) read;
+                long index = position++;
+
+                if (inString) {
+                    element.append(c);
+                    if (escaped)
+                        escaped = false;
+                    else if (c == '\\')
+                        escaped = true;
+                    else if (c == '"')
+                        inString = false;
+                    continue;
+                }
+
+                if (depth == 0) {
+                    if (c == '[')
+                        depth = 1;
+                    continue;
+                }
+
+                if (depth == 1 && (c == ',' || c == ']')) {
+                    if (element != null) {
+                        String text = element.toString().stripTrailing();
+                        String id = idOf.apply(decodeElement(text));
+                        found.put(id, new Span(start, text.length()));
+                        if (ids != null)
+                            ids.add(id);
+                    }
+
+                    element = null;
+                    if (c == ']')
+                        depth = 0;
+                    continue;
+                }
+
+                if (element == null) {
+                    if (Character.isWhitespace(c))
+                        continue;
+                    element = new StringBuilder();
+                    start = index;
+                }
+
+                element.append(c);
+                if (c == '"')
+                    inString = true;
+                else if (c == '[' || c == '{')
+                    depth++;
+                else if (c == ']' || c == '}')
+                    depth--;
+            }
+        }
+
+        spans = found;
+        indexedGeneration = indexing;
+    }
+}
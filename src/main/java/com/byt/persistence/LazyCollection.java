@@ -0,0 +1,109 @@
+package com.byt.persistence;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+
+// Entities of one saved collection, decoded when they are first asked for. Loading only gathers
+// the ids, which is all exists-checks need. Decoded entities are kept in a bounded LRU cache;
+// an evicted one is decoded from the repository again the next time, so memory follows the
+// entities in use rather than the size of the collection.
+//
+// Entities handed out are shared with the cache and must not be modified. The ids are the ones
+// the collection had when loaded - whoever writes to it keeps track of the changes itself.
+public final class LazyCollection<T> {
+    // Finds and decodes single records of the stored collection
+    interface Source<T> {
+        List<String> ids() throws IOException;
+
+        // null if the collection has no record with that id
+        T fetch(String id) throws IOException;
+    }
+
+    public record Stats(int cached, long hits, long misses, long evictions) {}
+
+    private final Source<T> source;
+    private final List<String> ids;
+    private final Set<String> idSet;
+    private final Map<String, T> cache;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    LazyCollection(Source<T> source, int cacheSize) throws IOException {
+        if (cacheSize < 0)
+            throw new IllegalArgumentException("Cache size must not be negative");
+
+        this.source = source;
+        this.ids = Collections.unmodifiableList(source.ids());
+        this.idSet = new HashSet<>(ids);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                if (size() <= cacheSize)
+                    return false;
+
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    // For layouts that can't read single records: everything is decoded up front and stays resident
+    static <T> LazyCollection<T> resident(List<T> entities, Function<T, String> idOf) throws IOException {
+        Map<String, T> byId = new LinkedHashMap<>();
+        for (T entity : entities)
+            byId.put(idOf.apply(entity), entity);
+
+        return new LazyCollection<>(new Source<>() {
+            @Override
+            public List<String> ids() {
+                return new ArrayList<>(byId.keySet());
+            }
+
+            @Override
+            public T fetch(String id) {
+                return byId.get(id);
+            }
+        }, 0);
+    }
+
+    // In the stored order
+    public List<String> ids() {
+        return ids;
+    }
+
+    public boolean contains(String id) {
+        return idSet.contains(id);
+    }
+
+    public T get(String id) throws IOException {
+        if (!idSet.contains(id))
+            return null;
+
+        synchronized (cache) {
+            T cached = cache.get(id);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        // decoded outside the lock, two threads missing on the same id both decode it
+        T entity = source.fetch(id);
+        if (entity != null) {
+            synchronized (cache) {
+                cache.put(id, entity);
+            }
+        }
+        return entity;
+    }
+
+    public Stats stats() {
+        synchronized (cache) {
+            return new Stats(cache.size(), hits, misses, evictions);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.byt.persistence;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Deserialized results of SaveLoadService.load, per repository key and type, so tooling that loads
+// the same collection again and again doesn't re-read and re-parse it every time. Every save
+// through the service drops the entries of its key before it returns.
+//
+// At most maxEntries results are kept, the least recently used goes first. With TINY_LFU a new
+// result only gets in by pushing out one that was asked for less often - a one-off load of a big
+// collection can't flush the ones in steady use. Access frequencies are estimated with a small
+// count-min sketch that halves itself periodically, so old popularity fades.
+//
+// Cached objects are handed to every caller loading them and must be treated as read-only.
+public final class LoadCache {
+    public enum Policy {
+        LRU,
+        TINY_LFU
+    }
+
+    public record Stats(int size, long hits, long misses, long evictions, long rejections, long invalidations) {}
+
+    private record Entry(String key, Type type) {}
+
+    private final int maxEntries;
+    private final Map<Entry, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // bumped by invalidate, a load that started before can't put its then outdated result
+    private final Map<String, Long> versions = new HashMap<>();
+    private final FrequencySketch frequencies;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+    private long invalidations;
+
+    public LoadCache(int maxEntries) {
+        this(maxEntries, Policy.LRU);
+    }
+
+    public LoadCache(int maxEntries, Policy policy) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("Load cache must hold at least one entry");
+
+        this.maxEntries = maxEntries;
+        this.frequencies = policy == Policy.TINY_LFU ? new FrequencySketch(maxEntries) : null;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), hits, misses, evictions, rejections, invalidations);
+    }
+
+    public synchronized void clear() {
+        entries.keySet().forEach(entry -> versions.merge(entry.key(), 1L, Long::sum));
+        entries.clear();
+    }
+
+    // For whoever changes the repository behind the service's back, saves through it invalidate on their own
+    public synchronized void invalidate(String key) {
+        versions.merge(key, 1L, Long::sum);
+        if (entries.keySet().removeIf(entry -> entry.key().equals(key)))
+            invalidations++;
+    }
+
+    // _________________________________________________________
+
+    synchronized Object get(String key, Type type) {
+        Entry entry = new Entry(key, type);
+        if (frequencies != null)
+            frequencies.increment(entry);
+
+        Object cached = entries.get(entry);
+        if (cached == null)
+            misses++;
+        else
+            hits++;
+        return cached;
+    }
+
+    synchronized long version(String key) {
+        return versions.getOrDefault(key, 0L);
+    }
+
+    synchronized void put(String key, Type type, Object value, long version) {
+        if (value == null || version != version(key))
+            return;
+
+        Entry entry = new Entry(key, type);
+        if (entries.containsKey(entry) || entries.size() < maxEntries) {
+            entries.put(entry, value);
+            return;
+        }
+
+        Iterator<Entry> leastRecent = entries.keySet().iterator();
+        Entry victim = leastRecent.next();
+        if (frequencies != null && frequencies.estimate(entry) <= frequencies.estimate(victim)) {
+            rejections++;
+            return;
+        }
+
+        leastRecent.remove();
+        evictions++;
+        entries.put(entry, value);
+    }
+
+    // Count-min sketch, counters saturate at 15 and all of them are halved every so many increments
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final long[] SEEDS = {0x97CB3127L, 0xC3A5C85CL, 0x2D358DCCL, 0x8EBC6AF1L};
+
+        private final int[][] counters;
+        private final int mask;
+        private final int resetAfter;
+        private int additions;
+
+        FrequencySketch(int maxEntries) {
+            int width = Integer.highestOneBit(Math.max(16, maxEntries * 4 - 1)) << 1;
+            counters = new int[DEPTH][width];
+            mask = width - 1;
+            resetAfter = width * 10;
+        }
+
+        void increment(Object item) {
+            int hash = item.hashCode();
+            for (int row = 0; row < DEPTH; row++) {
+                int index = indexOf(hash, row);
+                if (counters[row][index] < MAX_COUNT)
+                    counters[row][index]++;
+            }
+
+            if (++additions >= resetAfter)
+                halve();
+        }
+
+        int estimate(Object item) {
+            int hash = item.hashCode();
+            int estimate = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++)
+                estimate = Math.min(estimate, counters[row][indexOf(hash, row)]);
+            return estimate;
+        }
+
+        private void halve() {
+            for (int[] row : counters) {
+                for (int i = 0; i < row.length; i++)
+                    row[i] >>>= 1;
+            }
+            additions /= 2;
+        }
+
+        // the high half of a 64-bit multiply, seeded differently per row so the rows don't collide together
+        private int indexOf(int hash, int row) {
+            long mixed = (hash + SEEDS[row]) * 0x9E3779B97F4A7C15L;
+            mixed ^= mixed >>> 29;
+            mixed *= 0xBF58476D1CE4E5B9L;
+            return (int) (mixed >>> 32) & mask;
+        }
+    }
+}
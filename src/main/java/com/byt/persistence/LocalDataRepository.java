@@ -1,40 +1,519 @@
 package com.byt.persistence;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
 
+// File repository, one .json file per key.
+// Writes never touch the live file: the value goes to a temporary file next to it, is forced to disk
+// and then atomically moved over the old one, so a crash leaves either the old or the new value -
+// never a truncated one. writeAll() does the same for several keys as one transaction.
+//
+// With CHECKSUMS every written file starts with a header carrying the CRC32C and length of the value,
+// reads verify it. Files without a header (older saves, logs created by append) are read as they are.
+// With RECOVERY the replaced file is kept as the previous generation and reads fall back to it when
+// the current one is missing or damaged.
+//
+// With a StorageCodec values are stored encoded (e.g. GZIP, under <key>.json.gz), streaming both
+// ways so the plain JSON never sits whole in memory. Checksums cover the stored bytes, an append is
+// encoded on its own and goes after the rest.
 public final class LocalDataRepository implements DataRepository {
+    public enum Option {
+        CHECKSUMS,
+        RECOVERY
+    }
+
+    private static final String EXTENSION = ".json";
+    private static final String PREVIOUS_SUFFIX = ".prev";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String TRANSACTION_FILE = "transaction.commit";
+
+    // fixed width, so it can be filled in once the value has been streamed out
+    private static final String HEADER_MAGIC = "#fsss ";
+    private static final String HEADER_FORMAT = HEADER_MAGIC + "crc32c=%08x length=%016d\n";
+    private static final int HEADER_LENGTH = header(0, 0).length;
+
     private final Path savesPath;
+    private final boolean checksums;
+    private final boolean recovery;
+    // null stores values as they are
+    private final StorageCodec codec;
+
+    public LocalDataRepository(Path savesPath, Option... options) {
+        this(savesPath, null, options);
+    }
 
-    public LocalDataRepository(Path savesPath) {
+    public LocalDataRepository(Path savesPath, StorageCodec codec, Option... options) {
         this.savesPath = savesPath;
+        this.codec = codec;
+
+        Set<Option> enabled = EnumSet.noneOf(Option.class);
+        enabled.addAll(Arrays.asList(options));
+        this.checksums = enabled.contains(Option.CHECKSUMS);
+        this.recovery = enabled.contains(Option.RECOVERY);
+    }
+
+    // Finishes a writeAll() that was interrupted after its commit point and deletes temporary files
+    // of writes that never got there. Meant to run once, before the repository is used.
+    public synchronized void recover() throws IOException {
+        Path transaction = savesPath.resolve(TRANSACTION_FILE);
+        if (Files.exists(transaction)) {
+            Set<Path> directories = new HashSet<>();
+            for (String line : Files.readAllLines(transaction, StandardCharsets.UTF_8)) {
+                String[] keyAndFile = line.split("\t", 2);
+                Path temporary = savesPath.resolve(keyAndFile[1]);
+
+                // already moved into place before the crash
+                if (Files.exists(temporary))
+                    install(keyAndFile[0], temporary);
+                directories.add(temporary.getParent());
+            }
+
+            for (Path directory : directories)
+                syncDirectory(directory);
+            Files.delete(transaction);
+        }
+
+        if (!Files.isDirectory(savesPath))
+            return;
+
+        try (Stream<Path> files = Files.walk(savesPath)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(TEMPORARY_SUFFIX)).toList())
+                Files.deleteIfExists(file);
+        }
     }
 
     @Override
     public String read(String key) throws IOException {
-        return Files.readString(getSaveFilePath(key));
+        return fromIntactGeneration(key, file -> {
+            byte[] bytes = Files.readAllBytes(file);
+            int start = verify(file, bytes);
+            if (codec == null)
+                return new String(bytes, start, bytes.length - start, StandardCharsets.UTF_8);
+
+            try (InputStream decoded = codec.decode(new ByteArrayInputStream(bytes, start, bytes.length - start))) {
+                return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        });
     }
 
     @Override
     public void write(String key, String serializedData) throws IOException {
-        if (!exists(key))
-            Files.createFile(getSaveFilePath(key));
+        PendingFile file = new PendingFile(key);
+        try {
+            writeEncoded(file, serializedData.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException ex) {
+            file.abort();
+            throw ex;
+        }
+        file.commit();
+    }
+
+    // Replaces all values as one durable transaction: every file is forced to disk first, then the
+    // transaction file naming them is - from there on recover() completes the moves after a crash.
+    // One directory sync covers all of them instead of one per key.
+    @Override
+    public synchronized void writeAll(Map<String, String> keyToSerializedData) throws IOException {
+        List<PendingFile> files = new ArrayList<>(keyToSerializedData.size());
+        try {
+            for (Map.Entry<String, String> value : keyToSerializedData.entrySet()) {
+                PendingFile file = new PendingFile(value.getKey());
+                files.add(file);
+                writeEncoded(file, value.getValue().getBytes(StandardCharsets.UTF_8));
+                file.force();
+            }
+        } catch (IOException | RuntimeException ex) {
+            for (PendingFile file : files)
+                file.abort();
+            throw ex;
+        }
+
+        StringBuilder transaction = new StringBuilder();
+        for (PendingFile file : files)
+            transaction.append(file.key).append('\t').append(savesPath.relativize(file.temporary)).append('\n');
+        writeTransaction(transaction.toString());
+
+        Set<Path> directories = new HashSet<>();
+        for (PendingFile file : files) {
+            install(file.key, file.temporary);
+            directories.add(file.temporary.getParent());
+        }
+        for (Path directory : directories)
+            syncDirectory(directory);
+
+        Files.delete(savesPath.resolve(TRANSACTION_FILE));
+    }
+
+    // Appended data is forced to disk before returning. It lands after the checksummed part of a
+    // file, so a header only ever vouches for what was written as a whole.
+    @Override
+    public void append(String key, String serializedData) throws IOException {
+        Path file = getSaveFilePath(key);
+        Files.createDirectories(file.getParent());
+        boolean created = !Files.exists(file);
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(encode(serializedData.getBytes(StandardCharsets.UTF_8)));
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        }
 
-        Files.write(getSaveFilePath(key), serializedData.getBytes());
+        if (created)
+            syncDirectory(file.getParent());
+    }
+
+    @Override
+    public Reader openReader(String key) throws IOException {
+        return fromIntactGeneration(key, file -> {
+            long start = verify(file);
+            InputStream input = Files.newInputStream(file);
+            try {
+                input.skipNBytes(start);
+                if (codec != null)
+                    input = codec.decode(input);
+            } catch (IOException ex) {
+                input.close();
+                throw ex;
+            }
+            return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        });
+    }
+
+    // Nothing is visible until the writer is committed, then the new file replaces the old one at once
+    @Override
+    public PendingWriter openWriter(String key) throws IOException {
+        PendingFile file = new PendingFile(key);
+        OutputStream encoded;
+        try {
+            encoded = codec == null ? keepOpen(file) : codec.encode(keepOpen(file));
+        } catch (IOException | RuntimeException ex) {
+            file.abort();
+            throw ex;
+        }
+
+        return new PendingWriter(new OutputStreamWriter(encoded, StandardCharsets.UTF_8)) {
+            @Override
+            protected void onCommit() throws IOException {
+                // finishes the encoding, the file itself stays open for the commit
+                try {
+                    out.close();
+                } catch (IOException | RuntimeException ex) {
+                    file.abort();
+                    throw ex;
+                }
+                file.commit();
+            }
+
+            @Override
+            protected void onAbort() {
+                file.abort();
+            }
+        };
     }
 
     @Override
     public void remove(String key) throws IOException {
-        Files.delete(getSaveFilePath(key));
+        boolean removed = Files.deleteIfExists(getSaveFilePath(key));
+        removed |= Files.deleteIfExists(getPreviousFilePath(key));
+
+        if (!removed)
+            throw new NoSuchFileException(getSaveFilePath(key).toString());
     }
 
     @Override
     public boolean exists(String key) {
-        return Files.exists(getSaveFilePath(key));
+        return Files.exists(getSaveFilePath(key)) || (recovery && Files.exists(getPreviousFilePath(key)));
     }
 
     private Path getSaveFilePath(String key) {
-        return Path.of(savesPath.toString(), key + ".json");
+        return Path.of(savesPath.toString(), key + EXTENSION + (codec == null ? "" : codec.extension()));
+    }
+
+    private Path getPreviousFilePath(String key) {
+        return Path.of(savesPath.toString(), key + EXTENSION + (codec == null ? "" : codec.extension()) + PREVIOUS_SUFFIX);
+    }
+
+    // _________________________________________________________
+
+    // Leaves the file open, committing it is up to the caller
+    private void writeEncoded(PendingFile file, byte[] bytes) throws IOException {
+        if (codec == null) {
+            file.write(bytes);
+            return;
+        }
+
+        try (OutputStream encoded = codec.encode(keepOpen(file))) {
+            encoded.write(bytes);
+        }
+    }
+
+    // Lets an encoder be closed to finish its output without closing the file under it
+    private static OutputStream keepOpen(OutputStream file) {
+        return new FilterOutputStream(file) {
+            @Override
+            public void write(byte[] chunk, int offset, int length) throws IOException {
+                out.write(chunk, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    private byte[] encode(byte[] bytes) throws IOException {
+        if (codec == null)
+            return bytes;
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream output = codec.encode(encoded)) {
+            output.write(bytes);
+        }
+        return encoded.toByteArray();
+    }
+
+    private interface FileReading<T> {
+        T read(Path file) throws IOException;
+    }
+
+    // Reads the current generation, or with RECOVERY the previous one if the current can't be read
+    private <T> T fromIntactGeneration(String key, FileReading<T> reading) throws IOException {
+        try {
+            return reading.read(getSaveFilePath(key));
+        } catch (IOException current) {
+            if (!recovery || !Files.exists(getPreviousFilePath(key)))
+                throw current;
+
+            try {
+                return reading.read(getPreviousFilePath(key));
+            } catch (IOException previous) {
+                current.addSuppressed(previous);
+                throw current;
+            }
+        }
+    }
+
+    // Where the value starts in the file: after the header if there is one, which then has to match
+    private static int verify(Path file, byte[] bytes) throws IOException {
+        if (!hasHeader(bytes))
+            return 0;
+
+        long[] crcAndLength = parseHeader(file, bytes);
+        if (bytes.length - HEADER_LENGTH < crcAndLength[1])
+            throw damaged(file, "it is shorter than its header says");
+
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, HEADER_LENGTH, (int) crcAndLength[1]);
+        if (crc.getValue() != crcAndLength[0])
+            throw damaged(file, "its checksum doesn't match");
+
+        return HEADER_LENGTH;
+    }
+
+    // Same as above without loading the whole file
+    private static long verify(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            byte[] header = input.readNBytes(HEADER_LENGTH);
+            if (!hasHeader(header))
+                return 0;
+
+            long[] crcAndLength = parseHeader(file, header);
+            CRC32C crc = new CRC32C();
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = crcAndLength[1];
+            while (remaining > 0) {
+                int read = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0)
+                    throw damaged(file, "it is shorter than its header says");
+
+                crc.update(buffer, 0, read);
+                remaining -= read;
+            }
+
+            if (crc.getValue() != crcAndLength[0])
+                throw damaged(file, "its checksum doesn't match");
+        }
+
+        return HEADER_LENGTH;
+    }
+
+    private static boolean hasHeader(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH || bytes[HEADER_LENGTH - 1] != '\n')
+            return false;
+
+        for (int i = 0; i < HEADER_MAGIC.length(); i++) {
+            if (bytes[i] != HEADER_MAGIC.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static long[] parseHeader(Path file, byte[] bytes) throws IOException {
+        String header = new String(bytes, 0, HEADER_LENGTH, StandardCharsets.US_ASCII);
+        try {
+            long crc = Long.parseLong(header.substring(header.indexOf("crc32c=") + 7, header.indexOf(" length=")), 16);
+            long length = Long.parseLong(header.substring(header.indexOf("length=") + 7, HEADER_LENGTH - 1));
+            return new long[]{crc, length};
+        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+            throw damaged(file, "its header can't be parsed");
+        }
+    }
+
+    private static byte[] header(long crc, long length) {
+        return String.format(HEADER_FORMAT, crc, length).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static IOException damaged(Path file, String reason) {
+        return new IOException("Save file '" + file + "' is damaged: " + reason);
+    }
+
+    // Moves a finished temporary file into place, keeping what it replaces as the previous generation
+    private void install(String key, Path temporary) throws IOException {
+        Path target = getSaveFilePath(key);
+        if (recovery && Files.exists(target))
+            Files.move(target, getPreviousFilePath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeTransaction(String contents) throws IOException {
+        Files.createDirectories(savesPath);
+        Path temporary = savesPath.resolve(TRANSACTION_FILE + TEMPORARY_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+
+        Files.move(temporary, savesPath.resolve(TRANSACTION_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(savesPath);
+    }
+
+    // Makes renames in the directory durable
+    private static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // not every platform lets a directory be opened (Windows doesn't), the rename is as durable as it gets there
+        }
+    }
+
+    // The next version of one file, written under a temporary name. Committing it forces it to disk and
+    // moves it into place, closing it without a commit deletes it.
+    private final class PendingFile extends OutputStream {
+        final String key;
+        final Path temporary;
+
+        private final FileChannel channel;
+        private final OutputStream output;
+        private final CRC32C crc = new CRC32C();
+        private long length;
+        private boolean forced;
+        private boolean closed;
+
+        PendingFile(String key) throws IOException {
+            this.key = key;
+
+            Path target = getSaveFilePath(key);
+            Files.createDirectories(target.getParent());
+            temporary = Files.createTempFile(target.getParent(), target.getFileName() + ".", TEMPORARY_SUFFIX);
+
+            channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+            if (checksums)
+                channel.position(HEADER_LENGTH);
+            output = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            output.write(b);
+            crc.update(b);
+            length++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) throws IOException {
+            output.write(bytes, offset, count);
+            crc.update(bytes, offset, count);
+            length += count;
+        }
+
+        // Durable, though still under the temporary name
+        void force() throws IOException {
+            if (forced)
+                return;
+            forced = true;
+
+            output.flush();
+            if (checksums) {
+                ByteBuffer header = ByteBuffer.wrap(header(crc.getValue(), length));
+                long position = 0;
+                while (header.hasRemaining())
+                    position += channel.write(header, position);
+            }
+            channel.force(true);
+            channel.close();
+        }
+
+        void abort() {
+            try {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // a leftover temporary file is removed by recover()
+            }
+        }
+
+        void commit() throws IOException {
+            if (closed)
+                throw new IOException("Save file for '" + key + "' is already closed");
+            closed = true;
+
+            try {
+                force();
+                install(key, temporary);
+            } catch (IOException | RuntimeException ex) {
+                abort();
+                throw ex;
+            }
+            syncDirectory(temporary.getParent());
+        }
+
+        @Override
+        public void close() {
+            if (closed)
+                return;
+            closed = true;
+
+            abort();
+        }
     }
 }
@@ -0,0 +1,97 @@
+package com.byt.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// File repository for binary snapshots, one .bin file per key.
+// Reads map the file read-only instead of copying it onto the heap. Writes go to a temporary
+// file that is then moved over the old one, so a buffer mapped from the previous version keeps
+// pointing at intact data - truncating a mapped file in place would crash whoever still reads it.
+public final class MappedFileDataRepository implements DataRepository {
+    private static final String EXTENSION = ".bin";
+    private static final String TEMPORARY_EXTENSION = ".bin.tmp";
+
+    private final Path savesPath;
+
+    public MappedFileDataRepository(Path savesPath) {
+        this.savesPath = savesPath;
+    }
+
+    @Override
+    public String read(String key) throws IOException {
+        return Files.readString(getSaveFilePath(key), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void write(String key, String serializedData) throws IOException {
+        try (PendingOutputStream output = openOutputStream(key)) {
+            output.write(serializedData.getBytes(StandardCharsets.UTF_8));
+            output.commit();
+        }
+    }
+
+    @Override
+    public void append(String key, String serializedData) throws IOException {
+        Files.createDirectories(getSaveFilePath(key).getParent());
+        Files.writeString(getSaveFilePath(key), serializedData, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public ByteBuffer readBuffer(String key) throws IOException {
+        try (FileChannel channel = FileChannel.open(getSaveFilePath(key), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Nothing replaces the snapshot until the stream is committed, an abandoned temporary file is deleted
+    @Override
+    public PendingOutputStream openOutputStream(String key) throws IOException {
+        Path target = getSaveFilePath(key);
+        Path temporary = Path.of(savesPath.toString(), key + TEMPORARY_EXTENSION);
+        Files.createDirectories(target.getParent());
+
+        return new PendingOutputStream(Files.newOutputStream(temporary)) {
+            @Override
+            protected void onCommit() throws IOException {
+                try {
+                    out.close();
+                } catch (IOException ex) {
+                    Files.deleteIfExists(temporary);
+                    throw ex;
+                }
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            @Override
+            protected void onAbort() throws IOException {
+                try {
+                    out.close();
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void remove(String key) throws IOException {
+        Files.delete(getSaveFilePath(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(getSaveFilePath(key));
+    }
+
+    private Path getSaveFilePath(String key) {
+        return Path.of(savesPath.toString(), key + EXTENSION);
+    }
+}
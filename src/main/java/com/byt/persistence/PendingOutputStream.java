@@ -0,0 +1,45 @@
+package com.byt.persistence;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// The binary counterpart of PendingWriter, handed out by DataRepository.openOutputStream: the written
+// bytes replace the stored value only on commit(), closing the stream without committing discards them.
+public abstract class PendingOutputStream extends FilterOutputStream {
+    private boolean done = false;
+
+    protected PendingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    // FilterOutputStream would write the array a byte at a time
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    // Stores what was written and closes the stream
+    public final void commit() throws IOException {
+        if (done)
+            throw new IOException("Stream is already closed");
+
+        done = true;
+        onCommit();
+    }
+
+    // Without a commit before it, what was written is discarded
+    @Override
+    public final void close() throws IOException {
+        if (done)
+            return;
+
+        done = true;
+        onAbort();
+    }
+
+    // out is still open here, it's up to the implementation to finish and close it
+    protected abstract void onCommit() throws IOException;
+
+    protected abstract void onAbort() throws IOException;
+}
@@ -0,0 +1,40 @@
+package com.byt.persistence;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+// What DataRepository.openWriter hands out. The written value replaces the stored one only on
+// commit(); closing the writer without committing throws it away, so a serializer failing halfway
+// through a try-with-resources leaves the stored value as it was.
+public abstract class PendingWriter extends FilterWriter {
+    private boolean done = false;
+
+    protected PendingWriter(Writer out) {
+        super(out);
+    }
+
+    // Stores what was written and closes the writer
+    public final void commit() throws IOException {
+        if (done)
+            throw new IOException("Writer is already closed");
+
+        done = true;
+        onCommit();
+    }
+
+    // Without a commit before it, what was written is discarded
+    @Override
+    public final void close() throws IOException {
+        if (done)
+            return;
+
+        done = true;
+        onAbort();
+    }
+
+    // out is still open here, it's up to the implementation to finish and close it
+    protected abstract void onCommit() throws IOException;
+
+    protected abstract void onAbort() throws IOException;
+}
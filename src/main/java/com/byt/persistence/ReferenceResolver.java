@@ -0,0 +1,206 @@
+package com.byt.persistence;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Links the collections loaded on their own back into one graph. Links between entities are saved
+// as ids (see EntityReferenceAdapterFactory) and come back as stubs carrying just the id; once every
+// collection is registered, resolve() indexes the entities by class and id and swaps each stub for
+// the entity it stands for - one pass over all links with a hash lookup each, so both ends of a
+// link end up pointing at the very instances the services hold.
+//
+// Links are the non-transient fields typed as one of the entity classes, or as a collection of one.
+// A stub nothing was registered for stays as it is: it still names the entity it links to.
+public final class ReferenceResolver {
+    public record Stats(int entities, int links, int unresolved) {}
+
+    private record Link(Field field, Class<?> target, boolean many) {}
+
+    // entity class -> name of the field holding its id
+    private final Map<Class<?>, String> idFields;
+    private final Map<Class<?>, Field> resolvedIdFields = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Link>> linksByClass = new ConcurrentHashMap<>();
+
+    private final List<Collection<?>> registered = new ArrayList<>();
+
+    public ReferenceResolver(Map<Class<?>, String> idFields) {
+        this.idFields = Map.copyOf(idFields);
+    }
+
+    // The instances that stay in use - stubs are replaced by these
+    public synchronized void register(Collection<?> entities) {
+        if (entities != null)
+            registered.add(entities);
+    }
+
+    // Registered collections are let go of afterwards, each load is resolved once
+    public synchronized Stats resolve() {
+        Map<Class<?>, Map<String, Object>> byId = new HashMap<>();
+        for (Collection<?> collection : registered) {
+            for (Object entity : collection) {
+                if (entity == null || !isEntity(entity.getClass()))
+                    continue;
+
+                for (Class<?> type = entity.getClass(); type != null; type = type.getSuperclass()) {
+                    if (idFields.containsKey(type))
+                        byId.computeIfAbsent(type, k -> new HashMap<>()).put(idOf(entity), entity);
+                }
+            }
+        }
+
+        // Entities hash over their links, so no hashed collection is filled before every link is
+        // in place: single links are set and linked collections emptied first, then filled, and
+        // then filled once more now that the hashes of what they hold are final
+        int links = 0;
+        int unresolved = 0;
+        Map<Collection<Object>, List<Object>> refills = new IdentityHashMap<>();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Collection<?> collection : registered) {
+            for (Object entity : collection) {
+                // the same collection may have been loaded more than once, e.g. from a LoadCache
+                if (entity == null || !visited.add(entity))
+                    continue;
+
+                for (Link link : linksOf(entity.getClass())) {
+                    Map<String, Object> targets = byId.getOrDefault(link.target(), Map.of());
+                    Object value = get(link.field(), entity);
+                    if (value == null)
+                        continue;
+
+                    if (!link.many()) {
+                        links++;
+                        Object target = targets.get(idOf(value));
+                        if (target == null)
+                            unresolved++;
+                        else if (target != value)
+                            set(link.field(), entity, target);
+                        continue;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    Collection<Object> linked = (Collection<Object>) value;
+                    List<Object> resolved = new ArrayList<>(linked.size());
+                    for (Object stub : linked) {
+                        links++;
+                        Object target = stub == null ? null : targets.get(idOf(stub));
+                        if (target == null)
+                            unresolved++;
+                        resolved.add(target == null ? stub : target);
+                    }
+
+                    linked.clear();
+                    refills.put(linked, resolved);
+                }
+            }
+        }
+
+        refills.forEach(Collection::addAll);
+        for (Collection<Object> linked : refills.keySet()) {
+            if (linked instanceof List<?>)
+                continue;
+
+            List<Object> elements = new ArrayList<>(linked);
+            linked.clear();
+            linked.addAll(elements);
+        }
+
+        registered.clear();
+        return new Stats(visited.size(), links, unresolved);
+    }
+
+    // _________________________________________________________
+
+    private boolean isEntity(Class<?> type) {
+        for (Class<?> candidate = type; candidate != null; candidate = candidate.getSuperclass()) {
+            if (idFields.containsKey(candidate))
+                return true;
+        }
+        return false;
+    }
+
+    private List<Link> linksOf(Class<?> type) {
+        return linksByClass.computeIfAbsent(type, this::findLinks);
+    }
+
+    private List<Link> findLinks(Class<?> type) {
+        List<Link> links = new ArrayList<>();
+        for (Class<?> declaring = type; declaring != null; declaring = declaring.getSuperclass()) {
+            for (Field field : declaring.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()))
+                    continue;
+
+                if (idFields.containsKey(field.getType())) {
+                    field.setAccessible(true);
+                    links.add(new Link(field, field.getType(), false));
+                    continue;
+                }
+
+                Class<?> element = collectionElementOf(field);
+                if (element != null && idFields.containsKey(element)) {
+                    field.setAccessible(true);
+                    links.add(new Link(field, element, true));
+                }
+            }
+        }
+        return links;
+    }
+
+    private static Class<?> collectionElementOf(Field field) {
+        if (!Collection.class.isAssignableFrom(field.getType()))
+            return null;
+
+        Type generic = field.getGenericType();
+        if (generic instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments().length == 1
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element)
+            return element;
+
+        return null;
+    }
+
+    private String idOf(Object entity) {
+        Field field = resolvedIdFields.computeIfAbsent(entity.getClass(), this::findIdField);
+        Object id = get(field, entity);
+        return id == null ? null : id.toString();
+    }
+
+    private Field findIdField(Class<?> entityClass) {
+        for (Class<?> type = entityClass; type != null; type = type.getSuperclass()) {
+            String idField = idFields.get(type);
+            if (idField == null)
+                continue;
+
+            for (Class<?> declaring = entityClass; declaring != null; declaring = declaring.getSuperclass()) {
+                try {
+                    Field field = declaring.getDeclaredField(idField);
+                    field.setAccessible(true);
+                    return field;
+                } catch (NoSuchFieldException ignored) {
+                    // declared further up
+                }
+            }
+        }
+
+        throw new IllegalArgumentException(entityClass.getName() + " has no id field");
+    }
+
+    private static Object get(Field field, Object entity) {
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void set(Field field, Object entity, Object value) {
+        try {
+            field.set(entity, value);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
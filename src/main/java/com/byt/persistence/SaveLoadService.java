@@ -1,20 +1,155 @@
 package com.byt.persistence;
 
+import com.byt.metrics.KeyedRecorders;
+import com.byt.metrics.MetricsRegistry;
 import com.byt.persistence.util.DataSaveKeys;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+// Can be shared by services writing from several threads. Whole-collection saves of one key are
+// serialized, so a save never overwrites one that saw more recent changes; the write-ahead log
+// synchronizes its appends itself.
+//
+// With a ShardedLayout every collection is split over hash-partitioned shards and a per-entity save
+// rewrites only the shards it touched; load/loadAll/save keep working on whole collections.
+//
+// With a WriteBehindFlusher, per-entity saves only mark the collection dirty and it gets written
+// in the background; explicit save() calls still write right away.
+//
+// With a LoadCache, load() hands out deserialized results from memory until the key is saved again.
+//
+// With a ReferenceResolver, whatever loadAll() returns is registered with it, and
+// resolveReferences() links the loaded collections to each other once all of them are in.
+//
+// With a MetricsRegistry, saves and loads are timed per key (saveLoad.save, saveLoad.saveChanges and
+// saveLoad.load) and the size of every collection saved or loaded goes to the gauge collection:<key>.
+//
+// A batch opened with openBatch(key) holds back the per-entity saves of that key made on the same
+// thread and writes them in one go when it is closed: one log append, or one rewrite of the collection.
 public final class SaveLoadService {
     private final DataSerializer serializer;
     private final DataRepository repository;
 
+    // null means every change rewrites the whole collection
+    private final WriteAheadLog writeAheadLog;
+    // null means the rewrite happens before the change returns
+    private final WriteBehindFlusher writeBehind;
+    // null means every collection is stored as one value
+    private final ShardedLayout shardedLayout;
+
+    private final Map<String, Object> saveLocks = new ConcurrentHashMap<>();
+    // null means every load reads the repository
+    private volatile LoadCache loadCache;
+    // null leaves links between loaded entities as the stubs they were read as
+    private volatile ReferenceResolver referenceResolver;
+    // null means nothing is measured
+    private volatile SaveLoadMetrics metrics;
+    // bumped on every rewrite of a key, tells lazy collections their offsets moved
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // repository key -> batch open on the thread
+    private final ThreadLocal<Map<String, PendingBatch>> batches = ThreadLocal.withInitial(HashMap::new);
+
+    private static final class SaveLoadMetrics {
+        final KeyedRecorders saveTime;
+        final KeyedRecorders saveChangesTime;
+        final KeyedRecorders loadTime;
+        final KeyedRecorders collectionSize;
+
+        SaveLoadMetrics(MetricsRegistry registry) {
+            saveTime = new KeyedRecorders("saveLoad.save", registry::latency);
+            saveChangesTime = new KeyedRecorders("saveLoad.saveChanges", registry::latency);
+            loadTime = new KeyedRecorders("saveLoad.load", registry::latency);
+            collectionSize = new KeyedRecorders("collection", registry::gauge);
+        }
+
+        void record(KeyedRecorders time, String key, Object data, long start) {
+            time.of(key).record(System.nanoTime() - start);
+            if (data instanceof Collection<?> collection)
+                collectionSize.of(key).record(collection.size());
+        }
+    }
+
+    private static final class PendingBatch {
+        final List<EntityChange> changes = new ArrayList<>();
+        Collection<?> allEntities;
+        int depth;
+        boolean discarded;
+    }
+
+    // Closing writes what was collected. Batches of the same key nest, the outermost one writes.
+    public final class Batch implements AutoCloseable {
+        private final DataSaveKeys key;
+        private final PendingBatch pending;
+        private boolean closed;
+
+        private Batch(DataSaveKeys key, PendingBatch pending) {
+            this.key = key;
+            this.pending = pending;
+        }
+
+        // Nothing of the batch gets written, for when its changes were rolled back. Too late once closed
+        public void discard() {
+            if (!closed)
+                pending.discarded = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            closed = true;
+
+            if (--pending.depth > 0)
+                return;
+
+            batches.get().remove(key.repositoryKey);
+            if (pending.discarded || pending.changes.isEmpty())
+                return;
+
+            writeChanges(key, pending.changes, pending.allEntities);
+        }
+    }
+
     public SaveLoadService(DataSerializer serializer, DataRepository repository) {
+        this(serializer, repository, null, null, null);
+    }
+
+    public SaveLoadService(DataSerializer serializer, DataRepository repository, WriteAheadLog writeAheadLog) {
+        this(serializer, repository, writeAheadLog, null, null);
+    }
+
+    public SaveLoadService(DataSerializer serializer, DataRepository repository, WriteBehindFlusher writeBehind) {
+        this(serializer, repository, null, writeBehind, null);
+        writeBehind.bind(this::writeCollection);
+    }
+
+    public SaveLoadService(DataSerializer serializer, DataRepository repository, ShardedLayout shardedLayout) {
+        this(serializer, repository, null, null, shardedLayout);
+    }
+
+    private SaveLoadService(DataSerializer serializer, DataRepository repository, WriteAheadLog writeAheadLog,
+                            WriteBehindFlusher writeBehind, ShardedLayout shardedLayout)
+    {
         this.serializer = serializer;
         this.repository = repository;
+        this.writeAheadLog = writeAheadLog;
+        this.writeBehind = writeBehind;
+        this.shardedLayout = shardedLayout;
     }
 
     public boolean canLoad(String key) {
+        if (writeAheadLog != null)
+            return writeAheadLog.canLoad(key);
+        if (shardedLayout != null)
+            return shardedLayout.canLoad(key);
+
         return repository.exists(key);
     }
 
@@ -22,15 +157,109 @@ public final class SaveLoadService {
         return canLoad(key.repositoryKey);
     }
 
+    public void setReferenceResolver(ReferenceResolver referenceResolver) {
+        this.referenceResolver = referenceResolver;
+    }
+
+    // Call once every service has loaded; null without a resolver
+    public ReferenceResolver.Stats resolveReferences() {
+        ReferenceResolver resolver = referenceResolver;
+        return resolver == null ? null : resolver.resolve();
+    }
+
+    public void setMetrics(MetricsRegistry registry) {
+        this.metrics = registry == null ? null : new SaveLoadMetrics(registry);
+    }
+
+    public void setLoadCache(LoadCache loadCache) {
+        this.loadCache = loadCache;
+    }
+
     public Object load(String key, Type type) throws IOException {
-        String serializedObject = repository.read(key);
-        return serializer.deserialize(serializedObject, type);
+        SaveLoadMetrics measured = metrics;
+        long start = measured == null ? 0 : System.nanoTime();
+
+        Object loaded = loadCached(key, type);
+        if (measured != null)
+            measured.record(measured.loadTime, key, loaded, start);
+        return loaded;
+    }
+
+    private Object loadCached(String key, Type type) throws IOException {
+        LoadCache cache = loadCache;
+        if (cache == null)
+            return read(key, type);
+
+        Object cached = cache.get(key, type);
+        if (cached != null)
+            return cached;
+
+        long version = cache.version(key);
+        Object loaded = read(key, type);
+        cache.put(key, type, loaded, version);
+        return loaded;
+    }
+
+    private Object read(String key, Type type) throws IOException {
+        if (writeAheadLog != null)
+            return writeAheadLog.load(key, type);
+        if (shardedLayout != null)
+            return shardedLayout.load(key, type);
+
+        if (serializer instanceof BinaryDataSerializer binarySerializer)
+            return binarySerializer.deserialize(repository.readBuffer(key), type);
+
+        try (Reader reader = repository.openReader(key)) {
+            return serializer.deserialize(reader, type);
+        }
     }
 
     public Object load(DataSaveKeys key, Type type) throws IOException {
         return load(key.repositoryKey, type);
     }
 
+    // Loads a collection of entities that are saved one by one through saveCreated/saveUpdated/saveDeleted
+    @SuppressWarnings("unchecked")
+    public <T> List<T> loadAll(DataSaveKeys key, Type listType, Function<T, String> idOf) throws IOException {
+        SaveLoadMetrics measured = metrics;
+        long start = measured == null ? 0 : System.nanoTime();
+
+        List<T> loaded;
+        if (writeAheadLog != null)
+            loaded = writeAheadLog.replay(key.repositoryKey, listType, idOf);
+        else if (shardedLayout != null)
+            loaded = shardedLayout.loadAll(key.repositoryKey, listType, idOf);
+        else
+            loaded = (List<T>) load(key, listType);
+
+        // load() measured itself
+        if (measured != null && (writeAheadLog != null || shardedLayout != null))
+            measured.record(measured.loadTime, key.repositoryKey, loaded, start);
+
+        ReferenceResolver resolver = referenceResolver;
+        if (resolver != null)
+            resolver.register(loaded);
+        return loaded;
+    }
+
+    // Only the ids are read now, entities are decoded on first get and at most cacheSize of them
+    // stay decoded. The write-ahead log and binary snapshots can't read single entities, with them
+    // the collection is loaded whole behind the same interface.
+    public <T> LazyCollection<T> loadLazily(DataSaveKeys key, Type listType, Function<T, String> idOf, int cacheSize)
+            throws IOException
+    {
+        if (shardedLayout != null)
+            return shardedLayout.loadLazily(key.repositoryKey, listType, idOf, cacheSize);
+
+        if (writeAheadLog != null || serializer instanceof BinaryDataSerializer)
+            return LazyCollection.resident(loadAll(key, listType, idOf), idOf);
+
+        String repositoryKey = key.repositoryKey;
+        AtomicLong generation = generations.computeIfAbsent(repositoryKey, k -> new AtomicLong());
+        return new LazyCollection<>(new JsonOffsetIndex<>(serializer, repository, repositoryKey,
+                ShardedLayout.elementTypeOf(listType), idOf, generation::get), cacheSize);
+    }
+
     public boolean trySave(String key, Object data) {
         try {
             save(key, data);
@@ -46,11 +275,159 @@ public final class SaveLoadService {
     }
 
     public void save(String key, Object data) throws IOException {
-        String serializedObject = serializer.serialize(data);
-        repository.write(key, serializedObject);
+        SaveLoadMetrics measured = metrics;
+        long start = measured == null ? 0 : System.nanoTime();
+
+        invalidate(key);
+        try {
+            if (writeAheadLog != null)
+                writeAheadLog.writeSnapshot(key, data);
+            else if (shardedLayout != null)
+                shardedLayout.writeCollection(key, data);
+            else
+                writeCollection(key, data);
+        } finally {
+            // again: a load racing with the write may have cached what was there before
+            invalidate(key);
+        }
+
+        if (measured != null)
+            measured.record(measured.saveTime, key, data, start);
+    }
+
+    private void writeCollection(String key, Object data) throws IOException {
+        // collections are serialized under the lock too: whoever writes last has seen every change before it
+        synchronized (saveLocks.computeIfAbsent(key, k -> new Object())) {
+            if (serializer instanceof BinaryDataSerializer binarySerializer) {
+                try (PendingOutputStream output = repository.openOutputStream(key)) {
+                    binarySerializer.serialize(data, output);
+                    output.commit();
+                }
+                return;
+            }
+
+            // a serializer failing halfway leaves the stored collection as it was
+            try (PendingWriter writer = repository.openWriter(key)) {
+                serializer.serialize(data, writer);
+                writer.commit();
+            }
+            generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        }
+        // written in the background too, so not only through save()
+        invalidate(key);
     }
 
     public void save(DataSaveKeys key, Object data) throws IOException {
         save(key.repositoryKey, data);
     }
+
+    // Saves several collections as one write to the repository, a single durable transaction where
+    // the repository supports it. The write-ahead log, shards and binary snapshots save them one by one.
+    public void saveAll(Map<DataSaveKeys, ?> keyToData) throws IOException {
+        if (writeAheadLog != null || shardedLayout != null || serializer instanceof BinaryDataSerializer) {
+            for (Map.Entry<DataSaveKeys, ?> collection : keyToData.entrySet())
+                save(collection.getKey(), collection.getValue());
+            return;
+        }
+
+        // every save lock is held until the transaction is written, taken in key order against deadlocks
+        List<DataSaveKeys> keys = new ArrayList<>(keyToData.keySet());
+        Collections.sort(keys);
+        SaveLoadMetrics measured = metrics;
+        long start = measured == null ? 0 : System.nanoTime();
+
+        keys.forEach(key -> invalidate(key.repositoryKey));
+        try {
+            writeAllLocked(keys, 0, keyToData, new LinkedHashMap<>());
+        } finally {
+            keys.forEach(key -> invalidate(key.repositoryKey));
+        }
+
+        // saved together, each one is counted with the time of the whole
+        if (measured != null)
+            keys.forEach(key -> measured.record(measured.saveTime, key.repositoryKey, keyToData.get(key), start));
+    }
+
+    private void writeAllLocked(List<DataSaveKeys> keys, int next, Map<DataSaveKeys, ?> keyToData,
+                                Map<String, String> serialized) throws IOException
+    {
+        if (next == keys.size()) {
+            repository.writeAll(serialized);
+            return;
+        }
+
+        DataSaveKeys key = keys.get(next);
+        synchronized (saveLocks.computeIfAbsent(key.repositoryKey, k -> new Object())) {
+            serialized.put(key.repositoryKey, serializer.serialize(keyToData.get(key)));
+            writeAllLocked(keys, next + 1, keyToData, serialized);
+        }
+    }
+
+    // Per-entity saves. Without a write-ahead log or shards they fall back to rewriting allEntities,
+    // so callers always pass the collection the entities live in.
+
+    public void saveChanges(DataSaveKeys key, List<EntityChange> changes, Collection<?> allEntities) throws IOException {
+        PendingBatch pending = batches.get().get(key.repositoryKey);
+        if (pending != null) {
+            pending.changes.addAll(changes);
+            pending.allEntities = allEntities;
+            return;
+        }
+
+        writeChanges(key, changes, allEntities);
+    }
+
+    public void saveCreated(DataSaveKeys key, String id, Object entity, Collection<?> allEntities) throws IOException {
+        saveChanges(key, List.of(EntityChange.created(id, entity)), allEntities);
+    }
+
+    public void saveUpdated(DataSaveKeys key, String previousId, String id, Object entity, Collection<?> allEntities)
+            throws IOException
+    {
+        if (Objects.equals(previousId, id)) {
+            saveChanges(key, List.of(EntityChange.updated(id, entity)), allEntities);
+            return;
+        }
+
+        // the key itself changed - the old record goes away and the entity is re-created under the new one
+        saveChanges(key, List.of(EntityChange.deleted(previousId), EntityChange.created(id, entity)), allEntities);
+    }
+
+    public void saveDeleted(DataSaveKeys key, String id, Collection<?> allEntities) throws IOException {
+        saveChanges(key, List.of(EntityChange.deleted(id)), allEntities);
+    }
+
+    public Batch openBatch(DataSaveKeys key) {
+        PendingBatch pending = batches.get().computeIfAbsent(key.repositoryKey, k -> new PendingBatch());
+        pending.depth++;
+        return new Batch(key, pending);
+    }
+
+    private void writeChanges(DataSaveKeys key, List<EntityChange> changes, Collection<?> allEntities) throws IOException {
+        SaveLoadMetrics measured = metrics;
+        long start = measured == null ? 0 : System.nanoTime();
+
+        invalidate(key.repositoryKey);
+        try {
+            if (writeBehind != null)
+                writeBehind.markDirty(key.repositoryKey, allEntities);
+            else if (shardedLayout != null)
+                shardedLayout.apply(key.repositoryKey, changes);
+            else if (writeAheadLog == null)
+                save(key, allEntities);
+            else
+                writeAheadLog.appendAll(key.repositoryKey, changes);
+        } finally {
+            invalidate(key.repositoryKey);
+        }
+
+        if (measured != null)
+            measured.record(measured.saveChangesTime, key.repositoryKey, allEntities, start);
+    }
+
+    private void invalidate(String key) {
+        LoadCache cache = loadCache;
+        if (cache != null)
+            cache.invalidate(key);
+    }
 }
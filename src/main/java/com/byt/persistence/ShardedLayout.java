@@ -0,0 +1,262 @@
+package com.byt.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+// Stores each collection split over hash partitions instead of as one value.
+// A collection lives under several repository keys:
+//   <key>/shards     - how many shards the collection was written with
+//   <key>/shard-NNN  - the entities whose id hashes onto that shard, one "<id>\t<entity>" record per line
+// A per-entity change rewrites only the shards of the entities it touched, in one writeAll() of the
+// repository; loading reads and decodes the shards in parallel. Shards are rewritten from their
+// records as they are stored, so that needs no entity type. A loaded collection is ordered by
+// shard, then by insertion.
+public final class ShardedLayout {
+    public static final int DEFAULT_SHARD_COUNT = 16;
+    private static final String SHARD_COUNT_SUFFIX = "/shards";
+    private static final String SHARD_SUFFIX = "/shard-";
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char RECORD_SEPARATOR = '\n';
+
+    private final DataSerializer serializer;
+    private final DataRepository repository;
+    private final int shardCount;
+    private final Map<String, KeyState> keyStates = new ConcurrentHashMap<>();
+
+    private static final class KeyState {
+        // 0 until read from the repository or written for the first time
+        int shardCount;
+        // learned from loadAll, only needed to shard a whole collection handed to save()
+        volatile Function<Object, String> idOf;
+    }
+
+    public ShardedLayout(DataSerializer serializer, DataRepository repository) {
+        this(serializer, repository, DEFAULT_SHARD_COUNT);
+    }
+
+    // Collections that already exist keep the shard count they were written with
+    public ShardedLayout(DataSerializer serializer, DataRepository repository, int shardCount) {
+        if (shardCount < 1 || shardCount > 1000)
+            throw new IllegalArgumentException("Shard count must be between 1 and 1000");
+
+        this.serializer = serializer;
+        this.repository = repository;
+        this.shardCount = shardCount;
+    }
+
+    public boolean canLoad(String key) {
+        return repository.exists(shardCountKey(key));
+    }
+
+    public Object load(String key, Type listType) throws IOException {
+        Type elementType = elementTypeOf(listType);
+        int count;
+        KeyState state = stateOf(key);
+        synchronized (state) {
+            count = shardCountOf(key, state);
+        }
+
+        List<List<Object>> shards;
+        try {
+            shards = IntStream.range(0, count).parallel()
+                    .mapToObj(shard -> decodeShard(key, shard, elementType))
+                    .toList();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        List<Object> entities = new ArrayList<>();
+        for (List<Object> shard : shards)
+            entities.addAll(shard);
+        return entities;
+    }
+
+    // Same as load; the identity function is remembered so whole collections of the key can be saved
+    @SuppressWarnings("unchecked")
+    public <T> List<T> loadAll(String key, Type listType, Function<T, String> idOf) throws IOException {
+        stateOf(key).idOf = (Function<Object, String>) idOf;
+        return (List<T>) load(key, listType);
+    }
+
+    // The ids are read from the shards, an entity is decoded from its shard when asked for
+    @SuppressWarnings("unchecked")
+    public <T> LazyCollection<T> loadLazily(String key, Type listType, Function<T, String> idOf, int cacheSize)
+            throws IOException
+    {
+        Type elementType = elementTypeOf(listType);
+        KeyState state = stateOf(key);
+        state.idOf = (Function<Object, String>) idOf;
+
+        return new LazyCollection<>(new LazyCollection.Source<>() {
+            @Override
+            public List<String> ids() throws IOException {
+                int count;
+                synchronized (state) {
+                    count = shardCountOf(key, state);
+                }
+
+                List<String> ids = new ArrayList<>();
+                for (int shard = 0; shard < count; shard++) {
+                    for (String id : readShard(key, shard).keySet())
+                        ids.add((String) serializer.deserialize(id, String.class));
+                }
+                return ids;
+            }
+
+            @Override
+            public T fetch(String id) throws IOException {
+                int count;
+                synchronized (state) {
+                    count = shardCountOf(key, state);
+                }
+
+                String entity = readShard(key, shardOf(id, count)).get(serializer.serialize(id));
+                return entity == null ? null : (T) serializer.deserialize(entity, elementType);
+            }
+        }, cacheSize);
+    }
+
+    public void apply(String key, Collection<EntityChange> changes) throws IOException {
+        if (changes.isEmpty())
+            return;
+
+        KeyState state = stateOf(key);
+        synchronized (state) {
+            boolean created = state.shardCount == 0 && !canLoad(key);
+            int count = shardCountOf(key, state);
+
+            Map<Integer, LinkedHashMap<String, String>> touched = new TreeMap<>();
+            for (EntityChange change : changes) {
+                int shard = shardOf(change.id(), count);
+                LinkedHashMap<String, String> records = touched.get(shard);
+                if (records == null) {
+                    records = readShard(key, shard);
+                    touched.put(shard, records);
+                }
+
+                String id = serializer.serialize(change.id());
+                if (change.operation() == EntityChange.Operation.DELETE)
+                    records.remove(id);
+                else
+                    records.put(id, serializer.serialize(change.entity()));
+            }
+
+            Map<String, String> writes = new LinkedHashMap<>();
+            touched.forEach((shard, records) -> writes.put(shardKey(key, shard), encode(records)));
+            if (created)
+                writes.put(shardCountKey(key), Integer.toString(count));
+
+            repository.writeAll(writes);
+        }
+    }
+
+    // Whole-collection save: every shard is rewritten
+    public void writeCollection(String key, Object data) throws IOException {
+        KeyState state = stateOf(key);
+        Function<Object, String> idOf = state.idOf;
+        if (idOf == null)
+            throw new IOException("Key '" + key + "' is sharded by entity id, load it through loadAll first");
+
+        synchronized (state) {
+            boolean created = state.shardCount == 0 && !canLoad(key);
+            int count = shardCountOf(key, state);
+
+            List<LinkedHashMap<String, String>> shards = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                shards.add(new LinkedHashMap<>());
+
+            for (Object entity : (Collection<?>) data) {
+                String id = idOf.apply(entity);
+                shards.get(shardOf(id, count)).put(serializer.serialize(id), serializer.serialize(entity));
+            }
+
+            Map<String, String> writes = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++)
+                writes.put(shardKey(key, i), encode(shards.get(i)));
+            if (created)
+                writes.put(shardCountKey(key), Integer.toString(count));
+
+            repository.writeAll(writes);
+        }
+    }
+
+    // _________________________________________________________
+
+    private int shardCountOf(String key, KeyState state) throws IOException {
+        if (state.shardCount == 0) {
+            state.shardCount = canLoad(key)
+                    ? Integer.parseInt(repository.read(shardCountKey(key)).trim())
+                    : shardCount;
+        }
+        return state.shardCount;
+    }
+
+    private LinkedHashMap<String, String> readShard(String key, int shard) throws IOException {
+        LinkedHashMap<String, String> records = new LinkedHashMap<>();
+        String shardKey = shardKey(key, shard);
+        if (!repository.exists(shardKey))
+            return records;
+
+        String stored = repository.read(shardKey);
+        int start = 0;
+        while (start < stored.length()) {
+            int end = stored.indexOf(RECORD_SEPARATOR, start);
+            if (end == -1)
+                end = stored.length();
+
+            int separator = stored.indexOf(FIELD_SEPARATOR, start);
+            if (separator != -1 && separator < end)
+                records.put(stored.substring(start, separator), stored.substring(separator + 1, end));
+
+            start = end + 1;
+        }
+        return records;
+    }
+
+    private List<Object> decodeShard(String key, int shard, Type elementType) {
+        try {
+            LinkedHashMap<String, String> records = readShard(key, shard);
+            List<Object> entities = new ArrayList<>(records.size());
+            for (String entity : records.values())
+                entities.add(serializer.deserialize(entity, elementType));
+            return entities;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String encode(Map<String, String> records) {
+        StringBuilder out = new StringBuilder();
+        records.forEach((id, entity) -> out.append(id).append(FIELD_SEPARATOR).append(entity).append(RECORD_SEPARATOR));
+        return out.toString();
+    }
+
+    private static int shardOf(String id, int count) {
+        return Math.floorMod(Objects.hashCode(id), count);
+    }
+
+    private KeyState stateOf(String key) {
+        return keyStates.computeIfAbsent(key, k -> new KeyState());
+    }
+
+    static Type elementTypeOf(Type listType) {
+        if (listType instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments().length == 1)
+            return parameterized.getActualTypeArguments()[0];
+
+        throw new IllegalArgumentException("Collections load entity by entity only as a parameterized list type, got " + listType);
+    }
+
+    private static String shardCountKey(String key) {
+        return key + SHARD_COUNT_SUFFIX;
+    }
+
+    private static String shardKey(String key, int shard) {
+        return key + SHARD_SUFFIX + String.format("%03d", shard);
+    }
+}
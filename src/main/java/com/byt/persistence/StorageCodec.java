@@ -0,0 +1,35 @@
+package com.byt.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ServiceLoader;
+
+// How LocalDataRepository encodes the bytes it stores, e.g. compressed. Both directions stream,
+// a value never has to be held whole in either form.
+//
+// Codecs are found by name through ServiceLoader: implementations are listed in
+// META-INF/services/com.byt.persistence.StorageCodec and need a public no-argument constructor.
+public interface StorageCodec {
+    // What the codec is looked up by, e.g. "gzip"
+    public String name();
+
+    // Appended to the file names of values stored with it, e.g. ".gz"
+    public String extension();
+
+    // Closing the returned stream finishes the encoding and closes output
+    public OutputStream encode(OutputStream output) throws IOException;
+
+    // Has to read several encoded streams written one after the other as one value,
+    // that is what appending to a stored value produces
+    public InputStream decode(InputStream input) throws IOException;
+
+    public static StorageCodec named(String name) {
+        for (StorageCodec codec : ServiceLoader.load(StorageCodec.class)) {
+            if (codec.name().equals(name))
+                return codec;
+        }
+
+        throw new IllegalArgumentException("No storage codec named '" + name + "'");
+    }
+}
@@ -0,0 +1,314 @@
+package com.byt.persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// Append-only log of per-entity changes that sits in front of a collection snapshot.
+// A collection lives under two repository keys:
+//   <key>      - the last snapshot, same list format SaveLoadService always wrote
+//   <key>_log  - records appended since that snapshot, one per line
+// Loading replays the log on top of the snapshot, and once a log grows past the
+// compaction threshold it is folded back into the snapshot on a background thread.
+public final class WriteAheadLog {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    private static final String LOG_KEY_SUFFIX = "_log";
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char RECORD_SEPARATOR = '\n';
+
+    private final DataSerializer serializer;
+    private final DataRepository repository;
+    private final int compactionThreshold;
+    private final Map<String, KeyState> keyStates = new HashMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Everything compaction needs to rebuild a snapshot, learned from the first replay of the key
+    private record Identity(Type listType, Type elementType, Function<Object, String> idOf) {}
+
+    private static final class KeyState {
+        int pendingRecords;
+        boolean compactionScheduled;
+        Identity identity;
+        // bumped whenever the snapshot and log are rewritten, so a compaction can tell its read went stale
+        long generation;
+        // a crash may have left a torn record at the end of the log, appends only start after a clean one
+        boolean tailChecked;
+    }
+
+    public WriteAheadLog(DataSerializer serializer, DataRepository repository) {
+        this(serializer, repository, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public WriteAheadLog(DataSerializer serializer, DataRepository repository, int compactionThreshold) {
+        if (compactionThreshold < 1)
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+
+        this.serializer = serializer;
+        this.repository = repository;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public void append(String key, EntityChange change) throws IOException {
+        appendAll(key, List.of(change));
+    }
+
+    public void appendAll(String key, Collection<EntityChange> changes) throws IOException {
+        if (changes.isEmpty())
+            return;
+
+        StringBuilder lines = new StringBuilder();
+        for (EntityChange change : changes)
+            encode(change, lines);
+
+        synchronized (this) {
+            KeyState state = stateOf(key);
+            if (!state.tailChecked) {
+                if (dropTornRecord(key))
+                    state.generation++;
+                state.tailChecked = true;
+            }
+
+            repository.append(logKey(key), lines.toString());
+
+            state.pendingRecords += changes.size();
+            scheduleCompactionIfNeeded(key, state);
+        }
+    }
+
+    public boolean hasPendingRecords(String key) {
+        return repository.exists(logKey(key));
+    }
+
+    public boolean canLoad(String key) {
+        return repository.exists(key) || hasPendingRecords(key);
+    }
+
+    // Rebuilds the collection as snapshot + log. The identity function is remembered
+    // so that later compactions and plain loads of the same key can replay too.
+    @SuppressWarnings("unchecked")
+    public <T> List<T> replay(String key, Type listType, Function<T, String> idOf) throws IOException {
+        Identity identity = new Identity(listType, elementTypeOf(listType), (Function<Object, String>) idOf);
+        List<?> snapshot;
+        String log;
+
+        synchronized (this) {
+            stateOf(key).identity = identity;
+            snapshot = readSnapshot(key, listType);
+            log = hasPendingRecords(key) ? repository.read(logKey(key)) : "";
+        }
+
+        return (List<T>) merge(snapshot, log, identity);
+    }
+
+    // Plain load used by SaveLoadService.load - only possible with a pending log if the key was replayed before
+    public Object load(String key, Type type) throws IOException {
+        Identity identity;
+        synchronized (this) {
+            identity = stateOf(key).identity;
+        }
+
+        if (hasPendingRecords(key)) {
+            if (identity == null)
+                throw new IOException("Key '" + key + "' has pending log records, load it through loadAll first");
+
+            return merge(readSnapshot(key, identity.listType()), repository.read(logKey(key)), identity);
+        }
+
+        try (Reader reader = repository.openReader(key)) {
+            return serializer.deserialize(reader, type);
+        }
+    }
+
+    // Whole-collection save: becomes the new snapshot and makes the log obsolete
+    public synchronized void writeSnapshot(String key, Object data) throws IOException {
+        try (PendingWriter writer = repository.openWriter(key)) {
+            serializer.serialize(data, writer);
+            writer.commit();
+        }
+
+        if (hasPendingRecords(key))
+            repository.remove(logKey(key));
+
+        KeyState state = stateOf(key);
+        state.pendingRecords = 0;
+        state.generation++;
+    }
+
+    public void compact(String key) throws IOException {
+        Identity identity;
+        List<?> snapshot;
+        String log;
+        long generation;
+
+        synchronized (this) {
+            KeyState state = stateOf(key);
+            identity = state.identity;
+            if (identity == null || !hasPendingRecords(key))
+                return;
+
+            snapshot = readSnapshot(key, identity.listType());
+            log = repository.read(logKey(key));
+            generation = state.generation;
+        }
+
+        // the expensive part runs without holding the lock, so appends keep flowing meanwhile
+        String compacted = serializer.serialize(merge(snapshot, log, identity));
+
+        synchronized (this) {
+            // a snapshot saved meanwhile is newer than what was merged, the log it started is not ours to cut
+            KeyState state = stateOf(key);
+            if (state.generation != generation)
+                return;
+
+            // appends only ever extend the log while the generation stays the same
+            String currentLog = repository.read(logKey(key));
+            String tail = currentLog.substring(log.length());
+
+            repository.write(key, compacted);
+            if (tail.isEmpty())
+                repository.remove(logKey(key));
+            else
+                repository.write(logKey(key), tail);
+
+            state.pendingRecords = countRecords(tail);
+            state.generation++;
+        }
+    }
+
+    public void close() {
+        compactor.shutdown();
+    }
+
+    // _________________________________________________________
+
+    // Cuts the log back to its last complete record, the next one would otherwise be glued onto the fragment.
+    // Returns whether there was anything to cut.
+    private boolean dropTornRecord(String key) throws IOException {
+        if (!hasPendingRecords(key))
+            return false;
+
+        String log = repository.read(logKey(key));
+        int end = log.lastIndexOf(RECORD_SEPARATOR) + 1;
+        if (end == log.length())
+            return false;
+
+        if (end == 0)
+            repository.remove(logKey(key));
+        else
+            repository.write(logKey(key), log.substring(0, end));
+        return true;
+    }
+
+    private List<?> readSnapshot(String key, Type listType) throws IOException {
+        if (!repository.exists(key))
+            return null;
+
+        try (Reader reader = repository.openReader(key)) {
+            return (List<?>) serializer.deserialize(reader, listType);
+        }
+    }
+
+    private List<Object> merge(List<?> snapshot, String log, Identity identity) {
+        Map<String, Object> byId = new LinkedHashMap<>();
+
+        if (snapshot != null) {
+            for (Object entity : snapshot)
+                byId.put(identity.idOf().apply(entity), entity);
+        }
+
+        int start = 0;
+        while (start < log.length()) {
+            int end = log.indexOf(RECORD_SEPARATOR, start);
+            if (end == -1)
+                break; // every complete record ends with a separator, a torn last one is ignored
+
+            String line = log.substring(start, end);
+            start = end + 1;
+
+            int firstSeparator = line.indexOf(FIELD_SEPARATOR);
+            int secondSeparator = line.indexOf(FIELD_SEPARATOR, firstSeparator + 1);
+            if (firstSeparator == -1 || secondSeparator == -1)
+                continue;
+
+            EntityChange.Operation operation = EntityChange.Operation.valueOf(line.substring(0, firstSeparator));
+            String id = (String) serializer.deserialize(line.substring(firstSeparator + 1, secondSeparator), String.class);
+
+            if (operation == EntityChange.Operation.DELETE) {
+                byId.remove(id);
+            } else {
+                Object entity = serializer.deserialize(line.substring(secondSeparator + 1), identity.elementType());
+                byId.put(id, entity);
+            }
+        }
+
+        return new ArrayList<>(byId.values());
+    }
+
+    private void encode(EntityChange change, StringBuilder out) {
+        out.append(change.operation().name())
+                .append(FIELD_SEPARATOR)
+                .append(serializer.serialize(change.id()))
+                .append(FIELD_SEPARATOR);
+
+        if (change.operation() != EntityChange.Operation.DELETE)
+            out.append(serializer.serialize(change.entity()));
+
+        out.append(RECORD_SEPARATOR);
+    }
+
+    private void scheduleCompactionIfNeeded(String key, KeyState state) {
+        if (state.pendingRecords < compactionThreshold || state.compactionScheduled || state.identity == null)
+            return;
+
+        state.compactionScheduled = true;
+        compactor.execute(() -> {
+            try {
+                compact(key);
+            } catch (IOException ignored) {
+                // the log is still intact, the next threshold hit will try again
+            } finally {
+                synchronized (this) {
+                    state.compactionScheduled = false;
+                }
+            }
+        });
+    }
+
+    private KeyState stateOf(String key) {
+        return keyStates.computeIfAbsent(key, k -> new KeyState());
+    }
+
+    private static int countRecords(String log) {
+        int count = 0;
+        for (int i = 0; i < log.length(); i++) {
+            if (log.charAt(i) == RECORD_SEPARATOR)
+                count++;
+        }
+        return count;
+    }
+
+    private static Type elementTypeOf(Type listType) {
+        if (listType instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments().length == 1)
+            return parameterized.getActualTypeArguments()[0];
+
+        throw new IllegalArgumentException("Write-ahead log replay needs a parameterized list type, got " + listType);
+    }
+
+    private static String logKey(String key) {
+        return key + LOG_KEY_SUFFIX;
+    }
+}
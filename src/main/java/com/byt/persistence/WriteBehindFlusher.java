@@ -0,0 +1,258 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.StripedLocks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind for whole-collection saves. Instead of serializing the collection on every change,
+// SaveLoadService marks it dirty and returns; a background thread writes each dirty collection
+// once per window, however many changes it got meanwhile. The collection handed in is the live
+// one, and services change its entities in place (links included) under the collection's
+// StripedLocks - so a flush takes every stripe of the collection and writes it while no one can.
+//
+// The background thread waits for the stripes, and so does flush(), which must not be called while
+// holding any of them. A thread marking a change usually holds some, so when it has to write itself
+// it only takes the stripes if they are all free; otherwise the write is left to another thread.
+//
+// Durability is what flush() and close() give: once they return, every change marked before is
+// written. Between them the repository lags behind by up to the window - or, if flushing falls
+// behind or keeps failing, by up to maxLag: a change to a collection dirty for longer than that
+// is written by the changing thread itself.
+public final class WriteBehindFlusher implements AutoCloseable {
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(100);
+
+    // Writes one whole collection, bound by the SaveLoadService the flusher is given to
+    interface CollectionWriter {
+        void write(String key, Object data) throws IOException;
+    }
+
+    public record Stats(int dirtyKeys,
+                        long marks,
+                        long flushes,
+                        long coalescedMarks,
+                        long failures,
+                        Duration currentLag,
+                        Duration maxLag,
+                        Duration lastFlushTime) {}
+
+    // dirty since, the collection to write and how many changes it stands for
+    private record Pending(long since, Object data, long marks) {}
+
+    // repository key -> the stripes its services change it under
+    private static final Map<String, StripedLocks> COLLECTION_LOCKS = new HashMap<>();
+
+    static {
+        for (DataSaveKeys key : DataSaveKeys.values())
+            COLLECTION_LOCKS.put(key.repositoryKey, StripedLocks.of(key));
+    }
+
+    private final long windowNanos;
+    private final long maxLagNanos;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-behind-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CollectionWriter writer;
+    private volatile boolean closed;
+
+    private final LongAdder marks = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder coalescedMarks = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong worstLagNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    public WriteBehindFlusher() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public WriteBehindFlusher(Duration window) {
+        this(window, window.multipliedBy(10));
+    }
+
+    public WriteBehindFlusher(Duration window, Duration maxLag) {
+        if (window == null || window.isNegative() || window.isZero())
+            throw new IllegalArgumentException("Flush window must be positive");
+        if (maxLag == null || maxLag.isNegative() || maxLag.isZero())
+            throw new IllegalArgumentException("Maximum lag must be positive");
+
+        this.windowNanos = window.toNanos();
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    void bind(CollectionWriter writer) {
+        if (this.writer != null)
+            throw new IllegalStateException("Write-behind flusher is already used by another SaveLoadService");
+
+        this.writer = writer;
+    }
+
+    // The collection under key changed, data is what should end up written
+    public void markDirty(String key, Object data) throws IOException {
+        marks.increment();
+
+        if (closed) {
+            pending.merge(key, new Pending(System.nanoTime(), data, 1), WriteBehindFlusher::coalesce);
+            if (!flushKey(key, false))
+                flushLater(key);
+            return;
+        }
+
+        Pending marked = enqueue(key, new Pending(System.nanoTime(), data, 1));
+        if (System.nanoTime() - marked.since() > maxLagNanos)
+            flushKey(key, false); // if another writer is busy with the collection, the background thread gets it
+    }
+
+    // Writes every dirty collection now
+    public void flush() throws IOException {
+        IOException failure = null;
+
+        for (String key : pending.keySet()) {
+            try {
+                flushKey(key, true);
+            } catch (IOException ex) {
+                if (failure == null)
+                    failure = ex;
+                else
+                    failure.addSuppressed(ex);
+            }
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    // Flushes and stops the background thread, later changes are written right away
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            flush();
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        // whatever got marked while the first flush ran
+        flush();
+    }
+
+    public Stats stats() {
+        long now = System.nanoTime();
+        long currentLag = 0;
+        for (Pending dirty : pending.values())
+            currentLag = Math.max(currentLag, now - dirty.since());
+
+        return new Stats(
+                pending.size(),
+                marks.sum(),
+                flushes.sum(),
+                coalescedMarks.sum(),
+                failures.sum(),
+                Duration.ofNanos(currentLag),
+                Duration.ofNanos(Math.max(worstLagNanos.get(), currentLag)),
+                Duration.ofNanos(lastFlushNanos)
+        );
+    }
+
+    // _________________________________________________________
+
+    // Adds to what is pending for key and schedules a flush if the key wasn't dirty yet
+    private Pending enqueue(String key, Pending incoming) {
+        boolean[] fresh = {false};
+        Pending merged = pending.compute(key, (k, current) -> {
+            if (current == null) {
+                fresh[0] = true;
+                return incoming;
+            }
+            return coalesce(current, incoming);
+        });
+
+        if (fresh[0])
+            schedule(key);
+
+        return merged;
+    }
+
+    // the older mark and the newer data win
+    private static Pending coalesce(Pending current, Pending incoming) {
+        boolean newer = incoming.since() >= current.since();
+        return new Pending(
+                Math.min(current.since(), incoming.since()),
+                newer ? incoming.data() : current.data(),
+                current.marks() + incoming.marks());
+    }
+
+    private void schedule(String key) {
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    flushKey(key, true);
+                } catch (IOException | RuntimeException ignored) {
+                    // stays dirty and is retried, see flushKey
+                }
+            }, windowNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            // closing - close() flushes what is left
+        }
+    }
+
+    // After close() there's no background thread, a change that can't be written right away gets a thread of its own
+    private void flushLater(String key) {
+        Thread thread = new Thread(() -> {
+            try {
+                flushKey(key, true);
+            } catch (IOException | RuntimeException ignored) {
+                // stays dirty, the next flush() writes it
+            }
+        }, "write-behind-late-flush");
+        thread.start();
+    }
+
+    // Returns false only if it didn't wait and the collection was busy, the key is still dirty then
+    private boolean flushKey(String key, boolean wait) throws IOException {
+        StripedLocks locks = COLLECTION_LOCKS.get(key);
+        StripedLocks.Held held = locks == null ? null : wait ? locks.lockAll() : locks.tryLockAll();
+        if (locks != null && held == null)
+            return false;
+
+        try {
+            // taken under the locks, so the data written is at least as new as the last change marked
+            Pending taken = pending.remove(key);
+            if (taken == null)
+                return true;
+
+            long start = System.nanoTime();
+            try {
+                writer.write(key, taken.data());
+            } catch (IOException | RuntimeException ex) {
+                failures.increment();
+                if (closed)
+                    pending.merge(key, taken, WriteBehindFlusher::coalesce);
+                else
+                    enqueue(key, taken);
+                throw ex;
+            }
+
+            long end = System.nanoTime();
+            lastFlushNanos = end - start;
+            worstLagNanos.accumulateAndGet(end - taken.since(), Math::max);
+            flushes.increment();
+            coalescedMarks.add(taken.marks() - 1);
+            return true;
+        } finally {
+            if (held != null)
+                held.close();
+        }
+    }
+}
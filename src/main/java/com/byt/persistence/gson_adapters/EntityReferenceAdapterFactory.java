@@ -0,0 +1,124 @@
+package com.byt.persistence.gson_adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Writes an entity in full only where it is the value being saved - an element of the saved
+// collection - and every entity it links to as just its id. The bidirectional links of the model
+// would otherwise nest entities into each other without end, or copy the linked ones into every record.
+//
+// Read back, a link is a stub: an instance of the linked class with nothing but the id set, to be
+// swapped for the real entity by ReferenceResolver once all collections are loaded. Links saved in
+// full by older versions still load, as detached copies.
+public final class EntityReferenceAdapterFactory implements TypeAdapterFactory {
+    // entity class -> name of the field holding its id
+    private final Map<Class<?>, String> idFields;
+    private final Map<Class<?>, Field> resolvedIdFields = new ConcurrentHashMap<>();
+
+    // how deep in entities the current thread is writing or reading, 0 outside of any
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public EntityReferenceAdapterFactory(Map<Class<?>, String> idFields) {
+        this.idFields = Map.copyOf(idFields);
+    }
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        String idField = idFields.get(type.getRawType());
+        if (idField == null)
+            return null;
+
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter writer, T entity) throws IOException {
+                if (entity == null) {
+                    writer.nullValue();
+                    return;
+                }
+
+                int[] current = depth.get();
+                if (current[0] > 0) {
+                    writer.value(idOf(entity));
+                    return;
+                }
+
+                current[0]++;
+                try {
+                    delegate.write(writer, entity);
+                } finally {
+                    current[0]--;
+                }
+            }
+
+            @Override
+            public T read(JsonReader reader) throws IOException {
+                JsonToken token = reader.peek();
+                if (token == JsonToken.NULL) {
+                    reader.nextNull();
+                    return null;
+                }
+
+                if (token == JsonToken.STRING) {
+                    JsonObject stub = new JsonObject();
+                    stub.addProperty(idField, reader.nextString());
+                    return delegate.fromJsonTree(stub);
+                }
+
+                int[] current = depth.get();
+                current[0]++;
+                try {
+                    return delegate.read(reader);
+                } finally {
+                    current[0]--;
+                }
+            }
+        };
+    }
+
+    private String idOf(Object entity) throws IOException {
+        Field field = resolvedIdFields.computeIfAbsent(entity.getClass(), this::findIdField);
+        try {
+            Object id = field.get(entity);
+            return id == null ? null : id.toString();
+        } catch (IllegalAccessException ex) {
+            throw new IOException("Cannot read the id of " + entity.getClass().getSimpleName(), ex);
+        }
+    }
+
+    // the entity may be a subclass of the registered one
+    private Field findIdField(Class<?> entityClass) {
+        for (Class<?> type = entityClass; type != null; type = type.getSuperclass()) {
+            String idField = idFields.get(type);
+            if (idField != null)
+                return findField(entityClass, idField);
+        }
+
+        throw new IllegalArgumentException(entityClass.getName() + " is not a referenced entity");
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> declaring = type; declaring != null; declaring = declaring.getSuperclass()) {
+            try {
+                Field field = declaring.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException ignored) {
+                // declared further up
+            }
+        }
+
+        throw new IllegalArgumentException(type.getName() + " has no field '" + name + "'");
+    }
+}
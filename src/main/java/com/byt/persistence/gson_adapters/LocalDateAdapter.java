@@ -8,25 +8,29 @@ import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.time.LocalDate;
 
+// Written as its epoch day. Dates saved by older versions as {year, month, dayOfMonth} still read.
 public final class LocalDateAdapter extends TypeAdapter<LocalDate> {
 
     @Override
     public void write(JsonWriter writer, LocalDate localDate) throws IOException {
+        if (localDate == null) {
+            writer.nullValue();
+            return;
+        }
 
-        writer.beginObject();
-
-        writer.name("year");
-        writer.value(localDate.getYear());
-        writer.name("month");
-        writer.value(localDate.getMonthValue());
-        writer.name("dayOfMonth");
-        writer.value(localDate.getDayOfMonth());
-
-        writer.endObject();
+        writer.value(localDate.toEpochDay());
     }
 
     @Override
     public LocalDate read(JsonReader reader) throws IOException {
+        JsonToken first = reader.peek();
+        if (first == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (first == JsonToken.NUMBER)
+            return LocalDate.ofEpochDay(reader.nextLong());
+
         int year = 0, month = 0, dayOfMonth = 0;
 
         reader.beginObject();
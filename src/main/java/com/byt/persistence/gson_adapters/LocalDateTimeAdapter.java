@@ -6,35 +6,42 @@ import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
+// Written as [epoch day, nano of day]. Values saved by older versions as an object of the date and
+// time fields still read.
 public final class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
 
     @Override
     public void write(JsonWriter writer, LocalDateTime localDateTime) throws IOException {
+        if (localDateTime == null) {
+            writer.nullValue();
+            return;
+        }
 
-        writer.beginObject();
-
-        writer.name("year");
-        writer.value(localDateTime.getYear());
-        writer.name("month");
-        writer.value(localDateTime.getMonthValue());
-        writer.name("dayOfMonth");
-        writer.value(localDateTime.getDayOfMonth());
-        writer.name("hour");
-        writer.value(localDateTime.getHour());
-        writer.name("minute");
-        writer.value(localDateTime.getMinute());
-        writer.name("second");
-        writer.value(localDateTime.getSecond());
-        writer.name("nanoOfSecond");
-        writer.value(localDateTime.getNano());
-        
-        writer.endObject();
+        writer.beginArray();
+        writer.value(localDateTime.toLocalDate().toEpochDay());
+        writer.value(localDateTime.toLocalTime().toNanoOfDay());
+        writer.endArray();
     }
 
     @Override
     public LocalDateTime read(JsonReader reader) throws IOException {
+        JsonToken first = reader.peek();
+        if (first == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (first == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            LocalDate date = LocalDate.ofEpochDay(reader.nextLong());
+            LocalTime time = LocalTime.ofNanoOfDay(reader.nextLong());
+            reader.endArray();
+            return LocalDateTime.of(date, time);
+        }
+
         int year = 0, month = 0, dayOfMonth = 0, hour = 0, minute = 0, second = 0, nanoOfSecond = 0;
 
         reader.beginObject();
@@ -8,26 +8,28 @@ import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.time.LocalTime;
 
+// Written as its nano of day. Times saved by older versions as {hour, minute, second, nanoOfSecond} still read.
 public final class LocalTimeAdapter extends TypeAdapter<LocalTime> {
     @Override
     public void write(JsonWriter writer, LocalTime localDateTime) throws IOException {
+        if (localDateTime == null) {
+            writer.nullValue();
+            return;
+        }
 
-        writer.beginObject();
-
-        writer.name("hour");
-        writer.value(localDateTime.getHour());
-        writer.name("minute");
-        writer.value(localDateTime.getMinute());
-        writer.name("second");
-        writer.value(localDateTime.getSecond());
-        writer.name("nanoOfSecond");
-        writer.value(localDateTime.getNano());
-
-        writer.endObject();
+        writer.value(localDateTime.toNanoOfDay());
     }
 
     @Override
     public LocalTime read(JsonReader reader) throws IOException {
+        JsonToken first = reader.peek();
+        if (first == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (first == JsonToken.NUMBER)
+            return LocalTime.ofNanoOfDay(reader.nextLong());
+
         int hour = 0, minute = 0, second = 0, nanoOfSecond = 0;
 
         reader.beginObject();
@@ -0,0 +1,46 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.user_system.Admin;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+// The supervision links are transient in the model, only the emails behind them are saved
+final class AdminAdapter extends StaffAdapter<Admin> {
+    private static final VarHandle SUPER_ADMIN_EMAIL = field(Admin.class, "superAdminEmail", String.class);
+    private static final VarHandle SUPERVISED_ADMIN_EMAILS = field(Admin.class, "supervisedAdminEmails", Set.class);
+
+    AdminAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Admin create() {
+        return new Admin();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Admin admin) {
+        super.writeFields(out, admin);
+        out.dateTime("lastLoginTime", admin.getLastLoginTime());
+        out.string("superAdminEmail", admin.getSuperAdminEmail());
+        out.strings("supervisedAdminEmails", (Set<String>) SUPERVISED_ADMIN_EMAILS.get(admin));
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Admin admin) throws IOException {
+        switch (name) {
+            case "lastLoginTime" -> admin.setLastLoginTime(readDateTime(reader));
+            case "superAdminEmail" -> SUPER_ADMIN_EMAIL.set(admin, readString(reader));
+            case "supervisedAdminEmails" -> SUPERVISED_ADMIN_EMAILS.set(admin, readStrings(reader, new HashSet<>()));
+            default -> {
+                return super.readField(reader, name, admin);
+            }
+        }
+        return true;
+    }
+}
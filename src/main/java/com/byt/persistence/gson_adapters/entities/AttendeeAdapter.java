@@ -0,0 +1,34 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.user_system.Attendee;
+import com.byt.enums.user_system.StudyLanguage;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+abstract class AttendeeAdapter<T extends Attendee> extends UserAdapter<T> {
+    private static final VarHandle LANGUAGES_OF_STUDIES = field(Attendee.class, "languagesOfStudies", Set.class);
+
+    AttendeeAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, T attendee) {
+        super.writeFields(out, attendee);
+        out.enumNames("languagesOfStudies", (Set<StudyLanguage>) LANGUAGES_OF_STUDIES.get(attendee));
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, T attendee) throws IOException {
+        if (!name.equals("languagesOfStudies"))
+            return super.readField(reader, name, attendee);
+
+        LANGUAGES_OF_STUDIES.set(attendee, readEnums(reader, StudyLanguage.class, new HashSet<>()));
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+
+final class BuildingAdapter extends EntityAdapter<Building> {
+    private static final VarHandle CLASS_ROOMS = field(Building.class, "classRooms", HashSet.class);
+
+    BuildingAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Building create() {
+        return Building.builder().build();
+    }
+
+    @Override
+    Building stub(String name) {
+        return Building.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Building building) {
+        out.string("name", building.getName());
+        out.string("address", building.getAddress());
+        out.string("description", building.getDescription());
+        out.links("classRooms", (HashSet<ClassRoom>) CLASS_ROOMS.get(building), ClassRoom::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Building building) throws IOException {
+        switch (name) {
+            case "name" -> building.setName(readString(reader));
+            case "address" -> building.setAddress(readString(reader));
+            case "description" -> building.setDescription(readString(reader));
+            case "classRooms" -> CLASS_ROOMS.set(building, readLinks(reader, ClassRoom.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
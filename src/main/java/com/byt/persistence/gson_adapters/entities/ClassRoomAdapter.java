@@ -0,0 +1,54 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Lesson;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+
+final class ClassRoomAdapter extends EntityAdapter<ClassRoom> {
+    private static final VarHandle BUILDING = field(ClassRoom.class, "building", Building.class);
+    private static final VarHandle LESSONS = field(ClassRoom.class, "lessons", HashSet.class);
+
+    ClassRoomAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    ClassRoom create() {
+        return ClassRoom.builder().build();
+    }
+
+    @Override
+    ClassRoom stub(String name) {
+        return ClassRoom.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, ClassRoom classRoom) {
+        out.string("name", classRoom.getName());
+        out.number("floor", classRoom.getFloor());
+        out.number("capacity", classRoom.getCapacity());
+        out.link("building", (Building) BUILDING.get(classRoom), Building::getName);
+        out.links("lessons", (HashSet<Lesson>) LESSONS.get(classRoom), Lesson::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, ClassRoom classRoom) throws IOException {
+        switch (name) {
+            case "name" -> classRoom.setName(readString(reader));
+            case "floor" -> classRoom.setFloor(reader.nextInt());
+            case "capacity" -> classRoom.setCapacity(reader.nextInt());
+            case "building" -> BUILDING.set(classRoom, readLink(reader, Building.class));
+            case "lessons" -> LESSONS.set(classRoom, readLinks(reader, Lesson.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,177 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.persistence.gson_adapters.LocalDateAdapter;
+import com.byt.persistence.gson_adapters.LocalDateTimeAdapter;
+import com.byt.persistence.gson_adapters.LocalTimeAdapter;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Base of the hand-written adapters of the entities. An entity is written field by field in a fixed
+// order into a JsonOutput, and read back with a switch over the field names; names it doesn't know
+// are skipped. Fields the model keeps private without a setter are reached through VarHandles
+// looked up once when the adapter class loads.
+//
+// A link to another entity is written as that entity's id and read back as a stub of it, see
+// ReferenceResolver. Links saved in full by older versions are read with the linked entity's adapter.
+abstract class EntityAdapter<T> extends TypeAdapter<T> {
+    private static final LocalDateAdapter DATES = new LocalDateAdapter();
+    private static final LocalTimeAdapter TIMES = new LocalTimeAdapter();
+    private static final LocalDateTimeAdapter DATE_TIMES = new LocalDateTimeAdapter();
+
+    // enum class -> its constants by name
+    private static final ClassValue<Map<String, Enum<?>>> ENUM_CONSTANTS = new ClassValue<>() {
+        @Override
+        protected Map<String, Enum<?>> computeValue(Class<?> type) {
+            Map<String, Enum<?>> byName = new HashMap<>();
+            for (Object constant : type.getEnumConstants())
+                byName.put(((Enum<?>) constant).name(), (Enum<?>) constant);
+            return byName;
+        }
+    };
+
+    private final EntityAdapters adapters;
+
+    EntityAdapter(EntityAdapters adapters) {
+        this.adapters = adapters;
+    }
+
+    // A new entity with the defaults of the model, the fields read are set on it
+    abstract T create();
+
+    abstract void writeFields(JsonOutput out, T entity);
+
+    // Reads the value of the field into the entity, false if the entity has no such field
+    abstract boolean readField(JsonReader reader, String name, T entity) throws IOException;
+
+    // An entity with nothing but its id, for the links to it
+    T stub(String id) {
+        throw new JsonSyntaxException(getClass().getSimpleName() + " reads no links, got id '" + id + "'");
+    }
+
+    @Override
+    public final void write(JsonWriter writer, T entity) throws IOException {
+        if (entity == null) {
+            writer.nullValue();
+            return;
+        }
+
+        JsonOutput out = new JsonOutput();
+        writeFields(out, entity);
+        writer.jsonValue(out.close());
+    }
+
+    @Override
+    public final T read(JsonReader reader) throws IOException {
+        JsonToken first = reader.peek();
+        if (first == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (first == JsonToken.STRING)
+            return stub(reader.nextString());
+
+        T entity = create();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!readField(reader, reader.nextName(), entity))
+                reader.skipValue();
+        }
+        reader.endObject();
+        return entity;
+    }
+
+    // _________________________________________________________
+
+    static VarHandle field(Class<?> owner, String name, Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).findVarHandle(owner, name, type);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    static String readString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    // Names no constant has any more read as null, the same as Gson's enum adapter
+    static <E extends Enum<E>> E readEnum(JsonReader reader, Class<E> type) throws IOException {
+        String name = readString(reader);
+        return name == null ? null : type.cast(ENUM_CONSTANTS.get(type).get(name));
+    }
+
+    static LocalDate readDate(JsonReader reader) throws IOException {
+        return DATES.read(reader);
+    }
+
+    static LocalTime readTime(JsonReader reader) throws IOException {
+        return TIMES.read(reader);
+    }
+
+    static LocalDateTime readDateTime(JsonReader reader) throws IOException {
+        return DATE_TIMES.read(reader);
+    }
+
+    static <C extends Collection<String>> C readStrings(JsonReader reader, C into) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext())
+            into.add(readString(reader));
+        reader.endArray();
+        return into;
+    }
+
+    static <E extends Enum<E>, C extends Collection<E>> C readEnums(JsonReader reader, Class<E> type, C into)
+            throws IOException
+    {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext())
+            into.add(readEnum(reader, type));
+        reader.endArray();
+        return into;
+    }
+
+    <L> L readLink(JsonReader reader, Class<L> type) throws IOException {
+        return adapters.adapterOf(type).read(reader);
+    }
+
+    <L, C extends Collection<L>> C readLinks(JsonReader reader, Class<L> type, C into) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        EntityAdapter<L> linked = adapters.adapterOf(type);
+        reader.beginArray();
+        while (reader.hasNext())
+            into.add(linked.read(reader));
+        reader.endArray();
+        return into;
+    }
+}
@@ -0,0 +1,66 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.reporting.IssueReport;
+import com.byt.data.scheduling.*;
+import com.byt.data.user_system.Admin;
+import com.byt.data.user_system.FreeListener;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Hand-written adapters for every entity of com.byt.data, in place of Gson's reflective ones.
+// Each adapter knows its fields up front, so reading and writing an entity touches no reflection.
+public final class EntityAdapters implements TypeAdapterFactory {
+    private final Map<Class<?>, EntityAdapter<?>> adapters = new LinkedHashMap<>();
+
+    public EntityAdapters() {
+        // Users
+        adapters.put(Student.class, new StudentAdapter(this));
+        adapters.put(FreeListener.class, new FreeListenerAdapter(this));
+        adapters.put(Teacher.class, new TeacherAdapter(this));
+        adapters.put(Admin.class, new AdminAdapter(this));
+
+        // Facilities
+        adapters.put(Building.class, new BuildingAdapter(this));
+        adapters.put(ClassRoom.class, new ClassRoomAdapter(this));
+        adapters.put(Specialization.class, new SpecializationAdapter(this));
+
+        // Scheduling
+        adapters.put(StudyProgram.class, new StudyProgramAdapter(this));
+        adapters.put(Semester.class, new SemesterAdapter(this));
+        adapters.put(Subject.class, new SubjectAdapter(this));
+        adapters.put(Lesson.class, new LessonAdapter(this));
+        adapters.put(Group.class, new GroupAdapter(this));
+
+        // Reporting
+        adapters.put(IssueReport.class, new IssueReportAdapter(this));
+    }
+
+    public Set<Class<?>> entityClasses() {
+        return Collections.unmodifiableSet(adapters.keySet());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        return (TypeAdapter<T>) adapters.get(type.getRawType());
+    }
+
+    // _________________________________________________________
+
+    @SuppressWarnings("unchecked")
+    <T> EntityAdapter<T> adapterOf(Class<T> type) {
+        EntityAdapter<T> adapter = (EntityAdapter<T>) adapters.get(type);
+        if (adapter == null)
+            throw new IllegalArgumentException("No adapter for " + type.getName());
+        return adapter;
+    }
+}
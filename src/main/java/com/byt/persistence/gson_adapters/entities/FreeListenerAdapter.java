@@ -0,0 +1,43 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Group;
+import com.byt.data.user_system.FreeListener;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+final class FreeListenerAdapter extends AttendeeAdapter<FreeListener> {
+    private static final VarHandle GROUPS = field(FreeListener.class, "groups", Set.class);
+
+    FreeListenerAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    FreeListener create() {
+        return new FreeListener();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, FreeListener freeListener) {
+        super.writeFields(out, freeListener);
+        out.string("notes", freeListener.getNotes());
+        out.links("groups", (Set<Group>) GROUPS.get(freeListener), Group::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, FreeListener freeListener) throws IOException {
+        switch (name) {
+            case "notes" -> freeListener.setNotes(readString(reader));
+            case "groups" -> GROUPS.set(freeListener, readLinks(reader, Group.class, new HashSet<>()));
+            default -> {
+                return super.readField(reader, name, freeListener);
+            }
+        }
+        return true;
+    }
+}
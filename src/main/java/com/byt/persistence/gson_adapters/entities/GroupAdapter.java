@@ -0,0 +1,65 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.user_system.FreeListener;
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyLanguage;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+final class GroupAdapter extends EntityAdapter<Group> {
+    private static final VarHandle STUDENTS = field(Group.class, "students", Set.class);
+    private static final VarHandle LESSONS = field(Group.class, "lessons", Set.class);
+    private static final VarHandle FREE_LISTENERS = field(Group.class, "freeListeners", Set.class);
+
+    GroupAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Group create() {
+        return Group.builder().build();
+    }
+
+    @Override
+    Group stub(String name) {
+        return Group.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Group group) {
+        out.string("name", group.getName());
+        out.enumName("language", group.getLanguage());
+        out.number("maxCapacity", group.getMaxCapacity());
+        out.number("yearOfStudy", group.getYearOfStudy());
+        out.strings("notes", group.getNotes());
+        out.links("students", (Set<Student>) STUDENTS.get(group), Student::getEmail);
+        out.links("lessons", (Set<Lesson>) LESSONS.get(group), Lesson::getName);
+        out.links("freeListeners", (Set<FreeListener>) FREE_LISTENERS.get(group), FreeListener::getEmail);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Group group) throws IOException {
+        switch (name) {
+            case "name" -> group.setName(readString(reader));
+            case "language" -> group.setLanguage(readEnum(reader, StudyLanguage.class));
+            case "maxCapacity" -> group.setMaxCapacity(reader.nextInt());
+            case "yearOfStudy" -> group.setYearOfStudy(reader.nextInt());
+            case "notes" -> group.setNotes(readStrings(reader, new ArrayList<>()));
+            case "students" -> STUDENTS.set(group, readLinks(reader, Student.class, new HashSet<>()));
+            case "lessons" -> LESSONS.set(group, readLinks(reader, Lesson.class, new HashSet<>()));
+            case "freeListeners" -> FREE_LISTENERS.set(group, readLinks(reader, FreeListener.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.reporting.IssueReport;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+final class IssueReportAdapter extends EntityAdapter<IssueReport> {
+    IssueReportAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    IssueReport create() {
+        return new IssueReport();
+    }
+
+    @Override
+    void writeFields(JsonOutput out, IssueReport report) {
+        out.string("email", report.getEmail());
+        out.string("title", report.getTitle());
+        out.string("description", report.getDescription());
+        out.dateTime("createdAt", report.getCreatedAt());
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, IssueReport report) throws IOException {
+        switch (name) {
+            case "email" -> report.setEmail(readString(reader));
+            case "title" -> report.setTitle(readString(reader));
+            case "description" -> report.setDescription(readString(reader));
+            case "createdAt" -> report.setCreatedAt(readDateTime(reader));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
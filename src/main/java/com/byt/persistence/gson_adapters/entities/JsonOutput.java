@@ -0,0 +1,145 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.function.Function;
+
+// The JSON text of one entity, appended straight to a StringBuilder instead of token by token
+// through a JsonWriter. Field names are plain identifiers and go out as they are; strings are
+// escaped the way Gson's default HTML-safe JsonWriter escapes them and dates are written like the
+// adapters of gson_adapters write them, so the text is what the JsonWriter would have produced.
+// Null values are left out, the same as Gson does.
+final class JsonOutput {
+    private static final String[] REPLACEMENTS = new String[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++)
+            REPLACEMENTS[c] = String.format("\\u%04x", c);
+        REPLACEMENTS['"'] = "\\\"";
+        REPLACEMENTS['\\'] = "\\\\";
+        REPLACEMENTS['\t'] = "\\t";
+        REPLACEMENTS['\b'] = "\\b";
+        REPLACEMENTS['\n'] = "\\n";
+        REPLACEMENTS['\r'] = "\\r";
+        REPLACEMENTS['\f'] = "\\f";
+        REPLACEMENTS['<'] = "\\u003c";
+        REPLACEMENTS['>'] = "\\u003e";
+        REPLACEMENTS['&'] = "\\u0026";
+        REPLACEMENTS['='] = "\\u003d";
+        REPLACEMENTS['\''] = "\\u0027";
+    }
+
+    private final StringBuilder text = new StringBuilder(256).append('{');
+    private boolean firstField = true;
+
+    void string(String name, String value) {
+        if (value != null)
+            quoted(name(name), value);
+    }
+
+    void number(String name, long value) {
+        name(name).append(value);
+    }
+
+    void enumName(String name, Enum<?> value) {
+        if (value != null)
+            quoted(name(name), value.name());
+    }
+
+    // LocalDateAdapter
+    void date(String name, LocalDate value) {
+        if (value != null)
+            name(name).append(value.toEpochDay());
+    }
+
+    // LocalTimeAdapter
+    void time(String name, LocalTime value) {
+        if (value != null)
+            name(name).append(value.toNanoOfDay());
+    }
+
+    // LocalDateTimeAdapter
+    void dateTime(String name, LocalDateTime value) {
+        if (value != null) {
+            name(name).append('[').append(value.toLocalDate().toEpochDay())
+                    .append(',').append(value.toLocalTime().toNanoOfDay()).append(']');
+        }
+    }
+
+    void strings(String name, Collection<String> values) {
+        if (values != null)
+            array(name, values, Function.identity());
+    }
+
+    void enumNames(String name, Collection<? extends Enum<?>> values) {
+        if (values != null)
+            array(name, values, Enum::name);
+    }
+
+    <L> void link(String name, L linked, Function<L, String> idOf) {
+        if (linked != null)
+            quoted(name(name), idOf.apply(linked));
+    }
+
+    <L> void links(String name, Collection<L> linked, Function<L, String> idOf) {
+        if (linked != null)
+            array(name, linked, idOf);
+    }
+
+    String close() {
+        return text.append('}').toString();
+    }
+
+    // _________________________________________________________
+
+    private StringBuilder name(String name) {
+        text.append(firstField ? "\"" : ",\"").append(name).append("\":");
+        firstField = false;
+        return text;
+    }
+
+    private <E> void array(String name, Collection<E> elements, Function<? super E, String> asString) {
+        StringBuilder out = name(name).append('[');
+        boolean first = true;
+        for (E element : elements) {
+            if (!first)
+                out.append(',');
+            first = false;
+
+            quoted(out, element == null ? null : asString.apply(element));
+        }
+        out.append(']');
+    }
+
+    private static void quoted(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+
+        out.append('"');
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c < 128) {
+                replacement = REPLACEMENTS[c];
+                if (replacement == null)
+                    continue;
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+
+            out.append(value, last, i).append(replacement);
+            last = i + 1;
+        }
+        out.append(value, last, length).append('"');
+    }
+}
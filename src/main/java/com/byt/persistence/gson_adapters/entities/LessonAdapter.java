@@ -0,0 +1,79 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.*;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+
+final class LessonAdapter extends EntityAdapter<Lesson> {
+    private static final VarHandle SUBJECT = field(Lesson.class, "subject", Subject.class);
+    private static final VarHandle GROUP = field(Lesson.class, "group", Group.class);
+    private static final VarHandle TEACHER = field(Lesson.class, "teacher", Teacher.class);
+    private static final VarHandle CLASS_ROOMS = field(Lesson.class, "classRooms", HashSet.class);
+    private static final VarHandle SEMESTERS = field(Lesson.class, "semesters", HashSet.class);
+
+    LessonAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Lesson create() {
+        return Lesson.builder().build();
+    }
+
+    @Override
+    Lesson stub(String name) {
+        return Lesson.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Lesson lesson) {
+        out.string("name", lesson.getName());
+        out.enumName("type", lesson.getType());
+        out.enumName("mode", lesson.getMode());
+        out.string("note", lesson.getNote());
+        out.enumName("dayOfWeek", lesson.getDayOfWeek());
+        out.time("startTime", lesson.getStartTime());
+        out.time("endTime", lesson.getEndTime());
+        out.enumName("language", lesson.getLanguage());
+        out.enumName("weekPattern", lesson.getWeekPattern());
+        out.link("subject", (Subject) SUBJECT.get(lesson), Subject::getName);
+        out.link("group", (Group) GROUP.get(lesson), Group::getName);
+        out.link("teacher", (Teacher) TEACHER.get(lesson), Teacher::getEmail);
+        out.links("classRooms", (HashSet<ClassRoom>) CLASS_ROOMS.get(lesson), ClassRoom::getName);
+        out.links("semesters", (HashSet<Semester>) SEMESTERS.get(lesson), Semester::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Lesson lesson) throws IOException {
+        switch (name) {
+            case "name" -> lesson.setName(readString(reader));
+            case "type" -> lesson.setType(readEnum(reader, LessonType.class));
+            case "mode" -> lesson.setMode(readEnum(reader, LessonMode.class));
+            case "note" -> lesson.setNote(readString(reader));
+            case "dayOfWeek" -> lesson.setDayOfWeek(readEnum(reader, DayOfWeek.class));
+            case "startTime" -> lesson.setStartTime(readTime(reader));
+            case "endTime" -> lesson.setEndTime(readTime(reader));
+            case "language" -> lesson.setLanguage(readEnum(reader, StudyLanguage.class));
+            case "weekPattern" -> lesson.setWeekPattern(readEnum(reader, WeekPattern.class));
+            case "subject" -> SUBJECT.set(lesson, readLink(reader, Subject.class));
+            case "group" -> GROUP.set(lesson, readLink(reader, Group.class));
+            case "teacher" -> TEACHER.set(lesson, readLink(reader, Teacher.class));
+            case "classRooms" -> CLASS_ROOMS.set(lesson, readLinks(reader, ClassRoom.class, new HashSet<>()));
+            case "semesters" -> SEMESTERS.set(lesson, readLinks(reader, Semester.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
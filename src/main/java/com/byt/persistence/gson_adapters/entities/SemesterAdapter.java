@@ -0,0 +1,53 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+final class SemesterAdapter extends EntityAdapter<Semester> {
+    private static final VarHandle LESSONS = field(Semester.class, "lessons", Set.class);
+
+    SemesterAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Semester create() {
+        return Semester.builder().build();
+    }
+
+    @Override
+    Semester stub(String name) {
+        return Semester.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Semester semester) {
+        out.string("name", semester.getName());
+        out.date("startDate", semester.getStartDate());
+        out.date("endDate", semester.getEndDate());
+        out.number("academicYear", semester.getAcademicYear());
+        out.links("lessons", (Set<Lesson>) LESSONS.get(semester), Lesson::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Semester semester) throws IOException {
+        switch (name) {
+            case "name" -> semester.setName(readString(reader));
+            case "startDate" -> semester.setStartDate(readDate(reader));
+            case "endDate" -> semester.setEndDate(readDate(reader));
+            case "academicYear" -> semester.setAcademicYear(reader.nextInt());
+            case "lessons" -> LESSONS.set(semester, readLinks(reader, Lesson.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Specialization;
+import com.byt.data.scheduling.StudyProgram;
+import com.byt.data.scheduling.Subject;
+import com.byt.data.user_system.Student;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+final class SpecializationAdapter extends EntityAdapter<Specialization> {
+    private static final VarHandle SUBJECTS = field(Specialization.class, "subjects", Set.class);
+    private static final VarHandle STUDY_PROGRAMS = field(Specialization.class, "studyPrograms", Set.class);
+    private static final VarHandle STUDENTS = field(Specialization.class, "students", Set.class);
+
+    SpecializationAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Specialization create() {
+        return Specialization.builder().build();
+    }
+
+    @Override
+    Specialization stub(String name) {
+        return Specialization.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Specialization specialization) {
+        out.string("name", specialization.getName());
+        out.string("description", specialization.getDescription());
+        out.links("subjects", (Set<Subject>) SUBJECTS.get(specialization), Subject::getName);
+        out.links("studyPrograms", (Set<StudyProgram>) STUDY_PROGRAMS.get(specialization), StudyProgram::getName);
+        out.links("students", (Set<Student>) STUDENTS.get(specialization), Student::getEmail);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Specialization specialization) throws IOException {
+        switch (name) {
+            case "name" -> specialization.setName(readString(reader));
+            case "description" -> specialization.setDescription(readString(reader));
+            case "subjects" -> SUBJECTS.set(specialization, readLinks(reader, Subject.class, new HashSet<>()));
+            case "studyPrograms" -> STUDY_PROGRAMS.set(specialization, readLinks(reader, StudyProgram.class, new HashSet<>()));
+            case "students" -> STUDENTS.set(specialization, readLinks(reader, Student.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.user_system.Staff;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+abstract class StaffAdapter<T extends Staff> extends UserAdapter<T> {
+    StaffAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    void writeFields(JsonOutput out, T staff) {
+        super.writeFields(out, staff);
+        out.date("hireDate", staff.getHireDate());
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, T staff) throws IOException {
+        if (!name.equals("hireDate"))
+            return super.readField(reader, name, staff);
+
+        staff.setHireDate(readDate(reader));
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Specialization;
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyStatus;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+final class StudentAdapter extends AttendeeAdapter<Student> {
+    private static final VarHandle SPECIALIZATIONS = field(Student.class, "specializations", Set.class);
+    private static final VarHandle GROUPS = field(Student.class, "groups", Set.class);
+
+    StudentAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Student create() {
+        return new Student();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Student student) {
+        super.writeFields(out, student);
+        out.enumName("studiesStatus", student.getStudiesStatus());
+        out.links("specializations", (Set<Specialization>) SPECIALIZATIONS.get(student), Specialization::getName);
+        out.links("groups", (Set<Group>) GROUPS.get(student), Group::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Student student) throws IOException {
+        switch (name) {
+            case "studiesStatus" -> student.setStudiesStatus(readEnum(reader, StudyStatus.class));
+            case "specializations" -> SPECIALIZATIONS.set(student, readLinks(reader, Specialization.class, new HashSet<>()));
+            case "groups" -> GROUPS.set(student, readLinks(reader, Group.class, new HashSet<>()));
+            default -> {
+                return super.readField(reader, name, student);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Specialization;
+import com.byt.data.scheduling.StudyProgram;
+import com.byt.enums.scheduling.StudyProgramLevel;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+final class StudyProgramAdapter extends EntityAdapter<StudyProgram> {
+    private static final VarHandle SPECIALIZATIONS = field(StudyProgram.class, "specializations", Set.class);
+
+    StudyProgramAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    StudyProgram create() {
+        return StudyProgram.builder().build();
+    }
+
+    @Override
+    StudyProgram stub(String name) {
+        return StudyProgram.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, StudyProgram program) {
+        out.string("name", program.getName());
+        out.enumName("level", program.getLevel());
+        out.links("specializations", (Set<Specialization>) SPECIALIZATIONS.get(program), Specialization::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, StudyProgram program) throws IOException {
+        switch (name) {
+            case "name" -> program.setName(readString(reader));
+            case "level" -> program.setLevel(readEnum(reader, StudyProgramLevel.class));
+            case "specializations" -> SPECIALIZATIONS.set(program, readLinks(reader, Specialization.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Specialization;
+import com.byt.data.scheduling.Subject;
+import com.byt.enums.scheduling.SubjectType;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+final class SubjectAdapter extends EntityAdapter<Subject> {
+    private static final VarHandle LESSONS = field(Subject.class, "lessons", Set.class);
+    private static final VarHandle SPECIALIZATIONS = field(Subject.class, "specializations", Set.class);
+
+    SubjectAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Subject create() {
+        return Subject.builder().build();
+    }
+
+    @Override
+    Subject stub(String name) {
+        return Subject.builder().name(name).build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Subject subject) {
+        out.string("name", subject.getName());
+        out.number("hours", subject.getHours());
+        out.enumNames("types", subject.getTypes());
+        out.links("lessons", (Set<Lesson>) LESSONS.get(subject), Lesson::getName);
+        out.links("specializations", (Set<Specialization>) SPECIALIZATIONS.get(subject), Specialization::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Subject subject) throws IOException {
+        switch (name) {
+            case "name" -> subject.setName(readString(reader));
+            case "hours" -> subject.setHours(reader.nextInt());
+            case "types" -> subject.setTypes(readEnums(reader, SubjectType.class, new ArrayList<>()));
+            case "lessons" -> LESSONS.set(subject, readLinks(reader, Lesson.class, new HashSet<>()));
+            case "specializations" -> SPECIALIZATIONS.set(subject, readLinks(reader, Specialization.class, new HashSet<>()));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.user_system.Teacher;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+
+final class TeacherAdapter extends StaffAdapter<Teacher> {
+    private static final VarHandle LESSONS = field(Teacher.class, "lessons", Set.class);
+
+    TeacherAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    Teacher create() {
+        return new Teacher();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void writeFields(JsonOutput out, Teacher teacher) {
+        super.writeFields(out, teacher);
+        out.string("title", teacher.getTitle());
+        out.string("position", teacher.getPosition());
+        out.links("lessons", (Set<Lesson>) LESSONS.get(teacher), Lesson::getName);
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, Teacher teacher) throws IOException {
+        switch (name) {
+            case "title" -> teacher.setTitle(readString(reader));
+            case "position" -> teacher.setPosition(readString(reader));
+            case "lessons" -> LESSONS.set(teacher, readLinks(reader, Lesson.class, new HashSet<>()));
+            default -> {
+                return super.readField(reader, name, teacher);
+            }
+        }
+        return true;
+    }
+}
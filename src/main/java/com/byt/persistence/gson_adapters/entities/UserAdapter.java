@@ -0,0 +1,46 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.user_system.User;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+// The fields every user has; users are linked to by their email
+abstract class UserAdapter<T extends User> extends EntityAdapter<T> {
+    UserAdapter(EntityAdapters adapters) {
+        super(adapters);
+    }
+
+    @Override
+    T stub(String email) {
+        T user = create();
+        user.setEmail(email);
+        return user;
+    }
+
+    @Override
+    void writeFields(JsonOutput out, T user) {
+        out.string("firstName", user.getFirstName());
+        out.string("lastName", user.getLastName());
+        out.string("familyName", user.getFamilyName());
+        out.date("dateOfBirth", user.getDateOfBirth());
+        out.string("phoneNumber", user.getPhoneNumber());
+        out.string("email", user.getEmail());
+    }
+
+    @Override
+    boolean readField(JsonReader reader, String name, T user) throws IOException {
+        switch (name) {
+            case "firstName" -> user.setFirstName(readString(reader));
+            case "lastName" -> user.setLastName(readString(reader));
+            case "familyName" -> user.setFamilyName(readString(reader));
+            case "dateOfBirth" -> user.setDateOfBirth(readDate(reader));
+            case "phoneNumber" -> user.setPhoneNumber(readString(reader));
+            case "email" -> user.setEmail(readString(reader));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.byt.persistence.util;
+
+import com.byt.data.scheduling.*;
+import com.byt.data.user_system.FreeListener;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+
+import java.util.Map;
+
+// The entities others link to, with the field holding each one's id. Links to them are saved as that
+// id and put back together by ReferenceResolver after loading.
+public final class EntityReferences {
+    public static final Map<Class<?>, String> ID_FIELDS = Map.ofEntries(
+            // Users
+            Map.entry(Student.class, "email"),
+            Map.entry(FreeListener.class, "email"),
+            Map.entry(Teacher.class, "email"),
+
+            // Facilities
+            Map.entry(Building.class, "name"),
+            Map.entry(ClassRoom.class, "name"),
+            Map.entry(Specialization.class, "name"),
+
+            // Scheduling
+            Map.entry(StudyProgram.class, "name"),
+            Map.entry(Semester.class, "name"),
+            Map.entry(Subject.class, "name"),
+            Map.entry(Lesson.class, "name"),
+            Map.entry(Group.class, "name")
+    );
+
+    private EntityReferences() {
+    }
+}
@@ -0,0 +1,124 @@
+package com.byt.services;
+
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.util.DataSaveKeys;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// What the batch operations of CRUDService run in: the whole collection is locked against other
+// writers and its saves are collected, to be written once on commit(). Closing the scope without a
+// commit drops them. Writes of the service itself still go through, its locks are reentrant.
+public final class BatchScope implements AutoCloseable {
+    // prototypes the batches running on the thread validated already, by identity
+    private static final ThreadLocal<Set<Object>> VALIDATED =
+            ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private record Part(StripedLocks.Held held, SaveLoadService.Batch batch) {}
+
+    private final List<Part> parts;
+    private final List<Object> validated = new ArrayList<>();
+    private boolean closed;
+
+    private BatchScope(List<Part> parts) {
+        this.parts = parts;
+    }
+
+    // For services without persistence to batch, every change is saved as it happens
+    public static BatchScope none() {
+        return new BatchScope(List.of());
+    }
+
+    public static BatchScope open(SaveLoadService service, DataSaveKeys collection) {
+        StripedLocks.Held held = StripedLocks.of(collection).lockAll();
+        try {
+            return new BatchScope(List.of(new Part(held, service.openBatch(collection))));
+        } catch (RuntimeException | Error ex) {
+            held.close();
+            throw ex;
+        }
+    }
+
+    // For a service whose changes save other collections too. The scopes are opened in the order
+    // given, which has to follow DataSaveKeys, and committed in the same order
+    @SafeVarargs
+    public static BatchScope of(Supplier<BatchScope>... scopes) {
+        List<BatchScope> opened = new ArrayList<>();
+        try {
+            for (Supplier<BatchScope> scope : scopes)
+                opened.add(scope.get());
+        } catch (RuntimeException | Error ex) {
+            for (BatchScope scope : opened.reversed()) {
+                try {
+                    scope.close();
+                } catch (IOException closeEx) {
+                    ex.addSuppressed(closeEx);
+                }
+            }
+            throw ex;
+        }
+
+        List<Part> parts = new ArrayList<>();
+        for (BatchScope scope : opened)
+            parts.addAll(scope.parts);
+        return new BatchScope(parts);
+    }
+
+    // What validate() passed already, create() and update() skip checking it again
+    public void validated(Collection<?> prototypes) {
+        VALIDATED.get().addAll(prototypes);
+        validated.addAll(prototypes);
+    }
+
+    // The check a service's create() or update() starts with, unless its batch ran it already
+    public static <T> void validateOnce(T prototype, Consumer<T> check) {
+        if (prototype == null || !VALIDATED.get().contains(prototype))
+            check.accept(prototype);
+    }
+
+    // The collected saves are dropped instead of written
+    public void discard() {
+        for (Part part : parts)
+            part.batch().discard();
+    }
+
+    // Writes the collected saves, one collection after the other. If one fails the ones after it
+    // are dropped, the ones before stay written
+    public void commit() throws IOException {
+        for (int i = 0; i < parts.size(); i++) {
+            try {
+                parts.get(i).batch().close();
+            } catch (IOException | RuntimeException ex) {
+                for (Part rest : parts.subList(i + 1, parts.size()))
+                    rest.batch().discard();
+                throw ex;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        VALIDATED.get().removeAll(validated);
+        try {
+            // a no-op for the batches already committed
+            for (Part part : parts) {
+                part.batch().discard();
+                part.batch().close();
+            }
+        } finally {
+            for (Part part : parts.reversed())
+                part.held().close();
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.byt.services;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.Flow;
 
 public interface  CRUDService<TEntity> {
     default void initialize() throws IOException {}
@@ -18,4 +18,182 @@ public interface  CRUDService<TEntity> {
     void delete(String id) throws IllegalArgumentException, IOException;
 
     boolean exists(String id) throws IOException;
+
+    // Read views: copies shared between all callers instead of fresh ones per call, so listing
+    // doesn't allocate a copy of every entity each time. Changing one throws
+    // UnsupportedOperationException (see com.byt.data.ReadOnlyViews), whoever wants to modify an
+    // entity takes it from get()/getAll().
+
+    default List<TEntity> snapshot() throws IOException {
+        return Collections.unmodifiableList(getAll());
+    }
+
+    default Optional<TEntity> view(String id) throws IllegalArgumentException, IOException {
+        return get(id);
+    }
+
+    // Every create/update/delete as it happens, see ChangeFeed
+    default Flow.Publisher<EntityChangeEvent<TEntity>> changes() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not publish changes");
+    }
+
+    // _________________________________________________________
+    // Batches are all or nothing. The prototypes are validated in parallel, once: create() and
+    // update() skip what the batch checked already. Their keys are checked against each other and
+    // the store in one pass before anything changes. If applying or saving still fails, the applied
+    // changes are undone, deleted entities come back with their links to other entities, and the
+    // collection is left saved as it was. Whatever the batch size, the collection is saved once.
+
+    // One step of taking a batch back
+    interface Undo {
+        void run() throws IOException;
+    }
+
+    // The id get/update/delete take for this entity, needed by the batches
+    default String keyOf(TEntity entity) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support batches");
+    }
+
+    // Checks on the prototype alone, without looking at the store. Called from several threads at once
+    default void validate(TEntity prototype) {
+    }
+
+    default BatchScope openBatch() {
+        return BatchScope.none();
+    }
+
+    // Puts the entity under id back once it's deleted. Taken before the delete; services whose
+    // deletes unlink the entity from others override it to link it again
+    default Undo undoDelete(String id) throws IllegalArgumentException, IOException {
+        TEntity original = get(id).orElseThrow(
+                () -> new IllegalArgumentException("Entity with key " + id + " not found"));
+        return () -> {
+            // it was stored already, rules changed since (an age limit, say) mustn't keep it out
+            try (BatchScope scope = BatchScope.none()) {
+                scope.validated(List.of(original));
+                create(original);
+            }
+        };
+    }
+
+    default void createAll(Collection<? extends TEntity> prototypes) throws IllegalArgumentException, IOException {
+        List<TEntity> batch = new ArrayList<>(prototypes);
+        if (batch.stream().anyMatch(Objects::isNull))
+            throw new IllegalArgumentException("Batch must not contain null entities");
+
+        batch.parallelStream().forEach(this::validate);
+
+        try (BatchScope scope = openBatch()) {
+            scope.validated(batch);
+
+            Set<String> keys = new HashSet<>();
+            for (TEntity prototype : batch) {
+                String key = keyOf(prototype);
+                if (!keys.add(key))
+                    throw new IllegalArgumentException("Key " + key + " appears more than once in the batch");
+                if (exists(key))
+                    throw new IllegalArgumentException("Entity with key " + key + " already exists");
+            }
+
+            List<Undo> undos = new ArrayList<>();
+            try {
+                for (TEntity prototype : batch) {
+                    create(prototype);
+                    String key = keyOf(prototype);
+                    undos.add(() -> delete(key));
+                }
+                scope.commit();
+            } catch (RuntimeException | IOException ex) {
+                undo(scope, undos, ex);
+                throw ex;
+            }
+        }
+    }
+
+    // Applied in the map's iteration order
+    default void updateAll(Map<String, ? extends TEntity> updates) throws IllegalArgumentException, IOException {
+        if (updates.entrySet().stream().anyMatch(update -> update.getKey() == null || update.getValue() == null))
+            throw new IllegalArgumentException("Batch must not contain null ids or entities");
+
+        updates.values().parallelStream().forEach(this::validate);
+
+        try (BatchScope scope = openBatch()) {
+            scope.validated(updates.values());
+
+            // what every entity looked like before, to undo with
+            Map<String, TEntity> originals = new LinkedHashMap<>();
+            Set<String> newKeys = new HashSet<>();
+            for (Map.Entry<String, ? extends TEntity> update : updates.entrySet()) {
+                String id = update.getKey();
+                String newKey = keyOf(update.getValue());
+
+                originals.put(id, get(id).orElseThrow(
+                        () -> new IllegalArgumentException("Entity with key " + id + " not found")));
+                if (!newKeys.add(newKey))
+                    throw new IllegalArgumentException("Key " + newKey + " appears more than once in the batch");
+                if (!Objects.equals(newKey, id) && exists(newKey))
+                    throw new IllegalArgumentException("Entity with key " + newKey + " already exists");
+            }
+            // stored already, they go back without validation
+            scope.validated(originals.values());
+
+            List<Undo> undos = new ArrayList<>();
+            try {
+                for (Map.Entry<String, ? extends TEntity> update : updates.entrySet()) {
+                    update(update.getKey(), update.getValue());
+                    String newKey = keyOf(update.getValue());
+                    TEntity original = originals.get(update.getKey());
+                    undos.add(() -> update(newKey, original));
+                }
+                scope.commit();
+            } catch (RuntimeException | IOException ex) {
+                undo(scope, undos, ex);
+                throw ex;
+            }
+        }
+    }
+
+    default void deleteAll(Collection<String> ids) throws IllegalArgumentException, IOException {
+        if (ids.stream().anyMatch(Objects::isNull))
+            throw new IllegalArgumentException("Batch must not contain null ids");
+
+        try (BatchScope scope = openBatch()) {
+            Map<String, Undo> restores = new LinkedHashMap<>();
+            for (String id : ids) {
+                if (restores.put(id, undoDelete(id)) != null)
+                    throw new IllegalArgumentException("Key " + id + " appears more than once in the batch");
+            }
+
+            List<Undo> undos = new ArrayList<>();
+            try {
+                for (Map.Entry<String, Undo> restore : restores.entrySet()) {
+                    delete(restore.getKey());
+                    undos.add(restore.getValue());
+                }
+                scope.commit();
+            } catch (RuntimeException | IOException ex) {
+                undo(scope, undos, ex);
+                throw ex;
+            }
+        }
+    }
+
+    // Takes back what the batch applied, last change first. The saves of the undo are collected in
+    // a batch of their own: dropped while the failed batch is still open around it, written when
+    // the failure was the commit, which may have saved some collections of the batch already
+    private void undo(BatchScope failed, List<Undo> undos, Exception failure) {
+        failed.discard();
+        try (BatchScope scope = openBatch()) {
+            for (Undo undo : undos.reversed()) {
+                try {
+                    undo.run();
+                } catch (RuntimeException | IOException ex) {
+                    failure.addSuppressed(ex);
+                }
+            }
+            scope.commit();
+        } catch (RuntimeException | IOException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package com.byt.services;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Change events of one CRUD service, for consumers keeping their own projection of the collection
+// instead of polling getAll(). Services publish after the change is saved and while they still hold
+// the entity's lock, so the events of one key arrive in the order the writes happened. Events carry
+// copies of the entity, made only while someone is subscribed. A change undone by a failed batch
+// shows up as the change followed by its undo.
+//
+// Delivery is asynchronous through java.util.concurrent.Flow: every subscriber has its own bounded
+// buffer and pulls events with Subscription.request at its own pace. Once a subscriber's buffer is
+// full the service's next write waits for it - back-pressure reaches the writers instead of events
+// getting lost, so onNext must not write through the same service.
+//
+// Only the entity the operation was called for gets an event. Links of other entities that change
+// along with it (a deleted classroom leaving its lessons) don't produce events of their own.
+public final class ChangeFeed<TEntity> implements AutoCloseable {
+    private final Function<TEntity, String> keyOf;
+    private final UnaryOperator<TEntity> copyOf;
+    private final SubmissionPublisher<EntityChangeEvent<TEntity>> publisher;
+
+    public ChangeFeed(Function<TEntity, String> keyOf, UnaryOperator<TEntity> copyOf) {
+        this(keyOf, copyOf, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    public ChangeFeed(Function<TEntity, String> keyOf, UnaryOperator<TEntity> copyOf,
+                      Executor executor, int bufferSize)
+    {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("Buffer size must be positive");
+
+        this.keyOf = keyOf;
+        this.copyOf = copyOf;
+        this.publisher = new SubmissionPublisher<>(executor, bufferSize);
+    }
+
+    // Read-only: subscribing is all consumers can do with it
+    public Flow.Publisher<EntityChangeEvent<TEntity>> publisher() {
+        return publisher::subscribe;
+    }
+
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    // The state before a change, for entities that are about to be modified in place.
+    // null when nobody is subscribed, nobody would see it anyway.
+    public TEntity capture(TEntity entity) {
+        return entity == null || !publisher.hasSubscribers() ? null : copyOf.apply(entity);
+    }
+
+    public void created(TEntity after) {
+        if (publisher.hasSubscribers())
+            publisher.submit(EntityChangeEvent.created(keyOf.apply(after), copyOf.apply(after)));
+    }
+
+    // before is the replaced entity, or what capture() returned for one updated in place
+    public void updated(String previousKey, TEntity before, TEntity after) {
+        if (publisher.hasSubscribers()) {
+            publisher.submit(EntityChangeEvent.updated(previousKey, keyOf.apply(after),
+                    before == null ? null : copyOf.apply(before), copyOf.apply(after)));
+        }
+    }
+
+    public void deleted(String key, TEntity before) {
+        if (publisher.hasSubscribers())
+            publisher.submit(EntityChangeEvent.deleted(key, before == null ? null : copyOf.apply(before)));
+    }
+
+    // Subscribers get onComplete once they have taken what is buffered for them
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
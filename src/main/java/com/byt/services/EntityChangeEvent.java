@@ -0,0 +1,27 @@
+package com.byt.services;
+
+// One create/update/delete done through a CRUD service, as ChangeFeed publishes it.
+// key is the entity's key after the change - for a delete the key it was removed from.
+// previousKey is the key before an update, which differs from key when the update re-keyed the
+// entity, and null for the other operations. before is null for a create, after for a delete.
+public record EntityChangeEvent<TEntity>(Operation operation, String key, String previousKey,
+                                         TEntity before, TEntity after)
+{
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    public static <T> EntityChangeEvent<T> created(String key, T after) {
+        return new EntityChangeEvent<>(Operation.CREATE, key, null, null, after);
+    }
+
+    public static <T> EntityChangeEvent<T> updated(String previousKey, String key, T before, T after) {
+        return new EntityChangeEvent<>(Operation.UPDATE, key, previousKey, before, after);
+    }
+
+    public static <T> EntityChangeEvent<T> deleted(String key, T before) {
+        return new EntityChangeEvent<>(Operation.DELETE, key, null, before, null);
+    }
+}
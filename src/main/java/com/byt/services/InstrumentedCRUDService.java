@@ -0,0 +1,195 @@
+package com.byt.services;
+
+import com.byt.metrics.MetricsRegistry;
+import com.byt.metrics.Recorder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+
+// Times every operation of the service it wraps as crud.<name>.<operation>, failed ones included.
+// Batches are timed as a whole: the creates, updates and deletes they make inside the wrapped
+// service don't pass through here.
+public final class InstrumentedCRUDService<TEntity> implements CRUDService<TEntity> {
+    private final CRUDService<TEntity> service;
+
+    private final Recorder initializeTime;
+    private final Recorder createTime;
+    private final Recorder getTime;
+    private final Recorder getAllTime;
+    private final Recorder updateTime;
+    private final Recorder deleteTime;
+    private final Recorder existsTime;
+    private final Recorder snapshotTime;
+    private final Recorder viewTime;
+    private final Recorder createAllTime;
+    private final Recorder updateAllTime;
+    private final Recorder deleteAllTime;
+
+    // name is what the metrics are called after, e.g. "Student"
+    public InstrumentedCRUDService(CRUDService<TEntity> service, String name, MetricsRegistry metrics) {
+        this.service = service;
+
+        String prefix = "crud." + name + ".";
+        initializeTime = metrics.latency(prefix + "initialize");
+        createTime = metrics.latency(prefix + "create");
+        getTime = metrics.latency(prefix + "get");
+        getAllTime = metrics.latency(prefix + "getAll");
+        updateTime = metrics.latency(prefix + "update");
+        deleteTime = metrics.latency(prefix + "delete");
+        existsTime = metrics.latency(prefix + "exists");
+        snapshotTime = metrics.latency(prefix + "snapshot");
+        viewTime = metrics.latency(prefix + "view");
+        createAllTime = metrics.latency(prefix + "createAll");
+        updateAllTime = metrics.latency(prefix + "updateAll");
+        deleteAllTime = metrics.latency(prefix + "deleteAll");
+    }
+
+    @Override
+    public void initialize() throws IOException {
+        long start = System.nanoTime();
+        try {
+            service.initialize();
+        } finally {
+            initializeTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void create(TEntity prototype) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            service.create(prototype);
+        } finally {
+            createTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<TEntity> get(String id) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            return service.get(id);
+        } finally {
+            getTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<TEntity> getAll() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return service.getAll();
+        } finally {
+            getAllTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void update(String id, TEntity prototype) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            service.update(id, prototype);
+        } finally {
+            updateTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void delete(String id) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            service.delete(id);
+        } finally {
+            deleteTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean exists(String id) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return service.exists(id);
+        } finally {
+            existsTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<TEntity> snapshot() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return service.snapshot();
+        } finally {
+            snapshotTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<TEntity> view(String id) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            return service.view(id);
+        } finally {
+            viewTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Flow.Publisher<EntityChangeEvent<TEntity>> changes() {
+        return service.changes();
+    }
+
+    @Override
+    public String keyOf(TEntity entity) {
+        return service.keyOf(entity);
+    }
+
+    @Override
+    public void validate(TEntity prototype) {
+        service.validate(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return service.openBatch();
+    }
+
+    @Override
+    public Undo undoDelete(String id) throws IllegalArgumentException, IOException {
+        return service.undoDelete(id);
+    }
+
+    @Override
+    public void createAll(Collection<? extends TEntity> prototypes) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            service.createAll(prototypes);
+        } finally {
+            createAllTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void updateAll(Map<String, ? extends TEntity> updates) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            service.updateAll(updates);
+        } finally {
+            updateAllTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) throws IllegalArgumentException, IOException {
+        long start = System.nanoTime();
+        try {
+            service.deleteAll(ids);
+        } finally {
+            deleteAllTime.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.byt.services;
+
+import com.byt.persistence.LazyCollection;
+import com.byt.persistence.util.DataSaveKeys;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Storage the CRUD services sit on: O(1) lookups by the entity's natural key
+// (email, name, ...) while still handing entities out in insertion order.
+//
+// Besides the stored entities it keeps published copies for read views: every entity is copied
+// once and that copy is shared by all snapshot()/view() callers until the entity changes. Writes
+// through the store drop the copy of the affected key, in-place changes have to be reported with touch().
+// A store following a collection's LinkChanges also drops every copy when another service reports
+// having changed entities of that collection in place.
+//
+// Every reader of a published copy gets the same instance, so the copy function has to make one
+// nobody can change: the services pass their entities' readOnly() factories. A plain copy would let
+// one reader's change reach all the others until the next write.
+//
+// Safe to use from several threads: reads never lock and see every completed write, iteration is
+// weakly consistent. Writes to the same key must be serialized by the caller (services use
+// StripedLocks), a re-keying replace is two steps that readers may see one at a time.
+//
+// A store opened over a LazyCollection starts out knowing only the keys: reads of an entity nobody
+// wrote yet go to the collection, which decodes it and keeps it in its bounded cache. Entities
+// written through the store stay resident. Reading a lazy entity that can't be decoded throws
+// UncheckedIOException.
+public final class KeyedStore<TEntity> {
+    private final Function<TEntity, String> keyOf;
+    private final UnaryOperator<TEntity> copyOf;
+    private final LazyCollection<TEntity> backing;
+
+    // every write installs a new entry, so a published copy can never outlive the version it was made from
+    private static final class Entry<T> {
+        final long position;
+        final String key;
+        // null while it only lives in the backing collection
+        final T entity;
+        volatile Published<T> published;
+
+        Entry(long position, String key, T entity) {
+            this.position = position;
+            this.key = key;
+            this.entity = entity;
+        }
+    }
+
+    // the concurrent map takes no null keys, entities without one are kept under this instead
+    private static final String NO_KEY = "\0";
+
+    private final Map<String, Entry<TEntity>> entries = new ConcurrentHashMap<>();
+    // insertion order: positions only grow, a re-keyed entity gets a new one
+    private final NavigableMap<Long, Entry<TEntity>> order = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextPosition = new AtomicLong();
+
+    // links: the LinkChanges version the copies were made at
+    private record Published<T>(T copy, long links) {}
+
+    private record Snapshot<T>(long version, long links, List<T> entities) {}
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot<TEntity> snapshot;
+    // null when no other service changes these entities in place
+    private volatile DataSaveKeys linkedCollection;
+
+    // Without a copy function the read views share the stored entities, only fit for immutable ones
+    public KeyedStore(Function<TEntity, String> keyOf) {
+        this(keyOf, UnaryOperator.identity());
+    }
+
+    public KeyedStore(Function<TEntity, String> keyOf, Collection<? extends TEntity> initialEntities) {
+        this(keyOf, UnaryOperator.identity(), initialEntities);
+    }
+
+    public KeyedStore(Function<TEntity, String> keyOf, UnaryOperator<TEntity> copyOf) {
+        this.keyOf = keyOf;
+        this.copyOf = copyOf;
+        this.backing = null;
+    }
+
+    public KeyedStore(Function<TEntity, String> keyOf, UnaryOperator<TEntity> copyOf,
+                      Collection<? extends TEntity> initialEntities)
+    {
+        this(keyOf, copyOf);
+
+        if (initialEntities != null) {
+            for (TEntity entity : initialEntities)
+                put(entity);
+        }
+    }
+
+    public KeyedStore(Function<TEntity, String> keyOf, UnaryOperator<TEntity> copyOf, LazyCollection<TEntity> backing) {
+        this.keyOf = keyOf;
+        this.copyOf = copyOf;
+        this.backing = backing;
+
+        for (String key : backing.ids()) {
+            Entry<TEntity> entry = new Entry<>(nextPosition.getAndIncrement(), key, null);
+            order.put(entry.position, entry);
+            entries.put(slot(key), entry);
+        }
+    }
+
+    // Read copies are made again whenever LinkChanges reports an in-place change to the collection
+    public KeyedStore<TEntity> followLinkChanges(DataSaveKeys collection) {
+        this.linkedCollection = collection;
+        this.snapshot = null;
+        return this;
+    }
+
+    public String keyOf(TEntity entity) {
+        return keyOf.apply(entity);
+    }
+
+    public boolean contains(String key) {
+        return entries.containsKey(slot(key));
+    }
+
+    public TEntity get(String key) {
+        Entry<TEntity> entry = entries.get(slot(key));
+        return entry == null ? null : entityOf(entry);
+    }
+
+    // Inserts the entity under its own key, replacing whatever was stored there
+    public TEntity put(TEntity entity) {
+        return store(keyOf(entity), entity);
+    }
+
+    // Swaps the entity stored under key for a new version that may carry a different key.
+    // Same key keeps the position, a changed key moves the entity to the end.
+    public TEntity replace(String key, TEntity entity) {
+        String newKey = keyOf(entity);
+
+        if (Objects.equals(key, newKey))
+            return store(key, entity);
+
+        TEntity previous = remove(key);
+        store(newKey, entity);
+        return previous;
+    }
+
+    public TEntity remove(String key) {
+        Entry<TEntity> removed = entries.remove(slot(key));
+        if (removed == null)
+            return null;
+
+        order.remove(removed.position, removed);
+        version.incrementAndGet();
+        return entityOf(removed);
+    }
+
+    // For entities that were modified in place rather than put back into the store
+    public void touch(String key) {
+        TEntity current = get(key);
+        if (current != null)
+            store(key, current);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Keys in insertion order, known without decoding anything
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>(entries.size());
+        for (Entry<TEntity> entry : order.values())
+            keys.add(entry.key);
+        return keys;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    // Read-only live view in insertion order, also what gets handed to SaveLoadService
+    public Collection<TEntity> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<TEntity> iterator() {
+                Iterator<Entry<TEntity>> inOrder = order.values().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return inOrder.hasNext();
+                    }
+
+                    @Override
+                    public TEntity next() {
+                        return entityOf(inOrder.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+
+            // not SIZED: writes may land while a stream walks it, so size() is only a hint
+            @Override
+            public Spliterator<TEntity> spliterator() {
+                return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+            }
+        };
+    }
+
+    // All entities as shared read-only copies, in insertion order. Calls in between writes return
+    // the very same list; after a write only the changed entities get copied again. Over a lazy
+    // collection nothing is kept, holding on to every entity is what it is there to avoid.
+    public List<TEntity> snapshot() {
+        // read the version first: a write racing with the rebuild leaves the result already outdated
+        long current = version.get();
+        long links = links();
+        Snapshot<TEntity> cached = snapshot;
+        if (cached != null && cached.version() == current && cached.links() == links)
+            return cached.entities();
+
+        List<TEntity> copies = new ArrayList<>(entries.size());
+        for (Entry<TEntity> entry : order.values())
+            copies.add(publishedCopy(entry, links));
+
+        List<TEntity> result = Collections.unmodifiableList(copies);
+        if (backing == null)
+            snapshot = new Snapshot<>(current, links, result);
+        return result;
+    }
+
+    // The shared read-only copy of one entity, null if there is none under key
+    public TEntity view(String key) {
+        Entry<TEntity> entry = entries.get(slot(key));
+        return entry == null ? null : publishedCopy(entry, links());
+    }
+
+    private long links() {
+        DataSaveKeys collection = linkedCollection;
+        return collection == null ? 0 : LinkChanges.version(collection);
+    }
+
+    private TEntity publishedCopy(Entry<TEntity> entry, long links) {
+        if (entry.entity == null)
+            return copyOf.apply(entityOf(entry));
+
+        Published<TEntity> published = entry.published;
+        if (published == null || published.links() != links) {
+            // two readers may both copy, either copy is as good as the other
+            published = new Published<>(copyOf.apply(entry.entity), links);
+            entry.published = published;
+        }
+        return published.copy();
+    }
+
+    private TEntity store(String key, TEntity entity) {
+        Entry<TEntity> previous = entries.get(slot(key));
+        Entry<TEntity> entry = new Entry<>(
+                previous == null ? nextPosition.getAndIncrement() : previous.position, key, entity);
+
+        order.put(entry.position, entry);
+        entries.put(slot(key), entry);
+        version.incrementAndGet();
+
+        return previous == null ? null : entityOf(previous);
+    }
+
+    private TEntity entityOf(Entry<TEntity> entry) {
+        if (entry.entity != null)
+            return entry.entity;
+
+        try {
+            return backing.get(entry.key);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String slot(String key) {
+        return key == null ? NO_KEY : key;
+    }
+}
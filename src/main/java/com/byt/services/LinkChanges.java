@@ -0,0 +1,34 @@
+package com.byt.services;
+
+import com.byt.persistence.util.DataSaveKeys;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counts in-place changes to entities made by a service other than the one storing them: a student
+// joining a group changes the group's student set without GroupService knowing. Shared per
+// collection by every service instance, like StripedLocks.
+//
+// The changing service reports the collection here while it still holds the stripes it changed the
+// entities under, and every KeyedStore following that collection makes its read copies again.
+public final class LinkChanges {
+    private static final Map<DataSaveKeys, AtomicLong> VERSIONS = new EnumMap<>(DataSaveKeys.class);
+
+    static {
+        for (DataSaveKeys key : DataSaveKeys.values())
+            VERSIONS.put(key, new AtomicLong());
+    }
+
+    private LinkChanges() {
+    }
+
+    public static void changed(DataSaveKeys... collections) {
+        for (DataSaveKeys collection : collections)
+            VERSIONS.get(collection).incrementAndGet();
+    }
+
+    public static long version(DataSaveKeys collection) {
+        return VERSIONS.get(collection).get();
+    }
+}
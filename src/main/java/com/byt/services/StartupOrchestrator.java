@@ -0,0 +1,150 @@
+package com.byt.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Initializes services concurrently instead of one after another.
+//
+// Every service is registered with the readiness futures of the services it depends on and gets
+// its own readiness future back. Nothing runs before start(); after that a service loads as soon
+// as all of its dependencies are ready, so startup takes as long as the slowest dependency chain
+// rather than the sum of all loads. A failed load fails everything that depends on it.
+//
+// By default every load runs on its own virtual thread - they mostly wait on storage anyway.
+public final class StartupOrchestrator implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Loader {
+        void load() throws IOException;
+    }
+
+    // offset is when the load started, counted from start()
+    public record ServiceTiming(String name, Duration offset, Duration loadTime) {}
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private final Map<String, CompletableFuture<Void>> readiness = new LinkedHashMap<>();
+    private final Map<String, ServiceTiming> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile long startNanos;
+
+    public StartupOrchestrator() {
+        this(Executors.newVirtualThreadPerTaskExecutor(), true);
+    }
+
+    // The executor stays open when the orchestrator is closed
+    public StartupOrchestrator(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    private StartupOrchestrator(ExecutorService executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public synchronized CompletableFuture<Void> registerTask(String name, Loader loader, CompletableFuture<?>... dependencies) {
+        if (name == null || loader == null)
+            throw new IllegalArgumentException("Name and loader must not be null");
+        if (readiness.containsKey(name))
+            throw new IllegalArgumentException("Service '" + name + "' is already registered");
+        if (started.isDone())
+            throw new IllegalStateException("Startup has already begun");
+
+        CompletableFuture<?>[] waitFor = Arrays.copyOf(dependencies, dependencies.length + 1);
+        waitFor[dependencies.length] = started;
+
+        CompletableFuture<Void> ready = CompletableFuture.allOf(waitFor)
+                .thenRunAsync(() -> load(name, loader), executor);
+
+        readiness.put(name, ready);
+        return ready;
+    }
+
+    // Convenience for services: the future completes with the service itself once it's initialized
+    public <S extends CRUDService<?>> CompletableFuture<S> register(String name, S service, CompletableFuture<?>... dependencies) {
+        return registerTask(name, service::initialize, dependencies).thenApply(ignored -> service);
+    }
+
+    public synchronized StartupOrchestrator start() {
+        if (!started.isDone()) {
+            startNanos = System.nanoTime();
+            started.complete(null);
+        }
+        return this;
+    }
+
+    public synchronized CompletableFuture<Void> ready(String name) {
+        CompletableFuture<Void> ready = readiness.get(name);
+        if (ready == null)
+            throw new IllegalArgumentException("Service '" + name + "' is not registered");
+
+        return ready;
+    }
+
+    public synchronized CompletableFuture<Void> allReady() {
+        return CompletableFuture.allOf(readiness.values().toArray(CompletableFuture[]::new));
+    }
+
+    // Starts if needed and blocks until every service is ready, rethrowing the first load failure
+    public void awaitReady() throws IOException {
+        start();
+
+        try {
+            allReady().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for services to load", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException io)
+                throw new IOException(io.getMessage(), io.getCause());
+            if (cause instanceof RuntimeException runtime)
+                throw runtime;
+            throw new IOException("Service failed to load", cause);
+        }
+    }
+
+    // Loads that finished so far, in the order the services were registered
+    public List<ServiceTiming> timings() {
+        List<String> order;
+        synchronized (this) {
+            order = new ArrayList<>(readiness.keySet());
+        }
+
+        List<ServiceTiming> result = new ArrayList<>();
+        for (String name : order) {
+            ServiceTiming timing = timings.get(name);
+            if (timing != null)
+                result.add(timing);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor)
+            executor.shutdown();
+    }
+
+    private void load(String name, Loader loader) {
+        long loadStart = System.nanoTime();
+
+        try {
+            loader.load();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Service '" + name + "' failed to load", ex);
+        } finally {
+            long loadEnd = System.nanoTime();
+            timings.put(name, new ServiceTiming(name,
+                    Duration.ofNanos(loadStart - startNanos),
+                    Duration.ofNanos(loadEnd - loadStart)));
+        }
+    }
+}
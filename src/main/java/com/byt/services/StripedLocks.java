@@ -0,0 +1,118 @@
+package com.byt.services;
+
+import com.byt.persistence.util.DataSaveKeys;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Serializes writes per key without a lock object per key: every key hashes onto one of a fixed
+// number of stripes, so unrelated keys rarely wait for each other and the same key always does.
+//
+// Several keys are locked together by taking their stripes in index order, which keeps two
+// writers from deadlocking on each other. lockAll() takes every stripe, for operations that
+// can't name the keys they will touch up front.
+//
+// There is one set of stripes per entity collection, shared by every service instance, so links
+// between entities of different services (a student's groups, ...) can be locked too. Writers that
+// need several collections take them in DataSaveKeys order.
+public final class StripedLocks {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private static final Map<DataSaveKeys, StripedLocks> SHARED = new EnumMap<>(DataSaveKeys.class);
+
+    static {
+        for (DataSaveKeys key : DataSaveKeys.values())
+            SHARED.put(key, new StripedLocks(DEFAULT_STRIPES));
+    }
+
+    // Released by closing, meant for try-with-resources
+    public interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final ReentrantLock[] stripes;
+
+    public StripedLocks(int stripes) {
+        if (stripes < 1)
+            throw new IllegalArgumentException("Stripe count must be positive");
+
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++)
+            this.stripes[i] = new ReentrantLock();
+    }
+
+    public static StripedLocks of(DataSaveKeys collection) {
+        return SHARED.get(collection);
+    }
+
+    public Held lock(String key) {
+        ReentrantLock stripe = stripes[stripeOf(key)];
+        stripe.lock();
+        return stripe::unlock;
+    }
+
+    // Nulls are skipped, duplicate keys and keys sharing a stripe are fine
+    public Held lock(String... keys) {
+        int[] indexes = new int[keys.length];
+        int count = 0;
+        for (String key : keys) {
+            if (key != null)
+                indexes[count++] = stripeOf(key);
+        }
+
+        int[] ordered = Arrays.stream(indexes, 0, count).sorted().distinct().toArray();
+        return lockStripes(ordered);
+    }
+
+    public Held lockAll() {
+        int[] all = new int[stripes.length];
+        for (int i = 0; i < all.length; i++)
+            all[i] = i;
+
+        return lockStripes(all);
+    }
+
+    // Every stripe or none: null when another thread holds any of them right now. For threads that
+    // may already hold some stripe, lockAll() could deadlock with a writer waiting on that one.
+    public Held tryLockAll() {
+        int[] all = new int[stripes.length];
+        for (int i = 0; i < all.length; i++) {
+            if (!stripes[i].tryLock()) {
+                unlockStripes(all, i);
+                return null;
+            }
+            all[i] = i;
+        }
+
+        return () -> unlockStripes(all, all.length);
+    }
+
+    public int stripeOf(String key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    private Held lockStripes(int[] ordered) {
+        int locked = 0;
+        try {
+            for (int index : ordered) {
+                stripes[index].lock();
+                locked++;
+            }
+        } catch (RuntimeException | Error ex) {
+            unlockStripes(ordered, locked);
+            throw ex;
+        }
+
+        return () -> unlockStripes(ordered, ordered.length);
+    }
+
+    private void unlockStripes(int[] ordered, int count) {
+        for (int i = count - 1; i >= 0; i--)
+            stripes[ordered[i]].unlock();
+    }
+}
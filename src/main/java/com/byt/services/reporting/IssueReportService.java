@@ -1,53 +1,91 @@
 package com.byt.services.reporting;
 
 import com.byt.data.reporting.IssueReport;
+import com.byt.persistence.EntityChange;
+import com.byt.persistence.LazyCollection;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
+import com.byt.services.user_system.EmailIdentityIndex;
 import com.byt.validation.reporting.IssueReportValidator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
 
 public class IssueReportService implements CRUDService<IssueReport> {
 
     private final SaveLoadService service;
-    private List<IssueReport> reports;
+    // keyed by the normalized email|title composite id
+    private KeyedStore<IssueReport> reports;
+    // normalized email -> composite ids of that reporter's reports, for the reverse navigation.
+    // The id sets are never modified, only swapped, so readers can walk them without locking
+    private final Map<String, Set<String>> idsByEmail = new ConcurrentHashMap<>();
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.ISSUE_REPORTS);
+    private final ChangeFeed<IssueReport> changeFeed = new ChangeFeed<>(IssueReportService::idOf, IssueReport::copy);
+    // -1 loads every report up front
+    private final int lazyCacheSize;
 
     private static final Type ISSUE_REPORT_LIST_TYPE = new TypeToken<List<IssueReport>>() {}.getType();
 
-    private record CompositeKey(String email, String title) {}
+    private record CompositeKey(String email, String title) {
+        String id() {
+            return email + "|" + title;
+        }
+    }
 
     public IssueReportService(SaveLoadService service) {
+        this(service, -1);
+    }
+
+    // Most sessions never open the reports: initialize() only reads their ids, which also carry
+    // the reporter emails for the index, and a report is decoded when first asked for. At most
+    // lazyCacheSize of the unchanged ones stay decoded.
+    public IssueReportService(SaveLoadService service, int lazyCacheSize) {
         this.service = service;
-        this.reports = new ArrayList<>();
+        this.reports = new KeyedStore<>(IssueReportService::idOf, IssueReport::readOnly);
+        this.lazyCacheSize = lazyCacheSize;
     }
 
     public IssueReportService(SaveLoadService service, List<IssueReport> reports) {
         this.service = service;
-        this.reports = copyList(reports);
+        this.reports = new KeyedStore<>(IssueReportService::idOf, IssueReport::readOnly, copyList(reports));
+        this.lazyCacheSize = -1;
+        reindex();
     }
 
     @Override
     public void initialize() throws IOException {
+        if (lazyCacheSize >= 0 && service.canLoad(DataSaveKeys.ISSUE_REPORTS)) {
+            LazyCollection<IssueReport> lazyReports = service.loadLazily(
+                    DataSaveKeys.ISSUE_REPORTS, ISSUE_REPORT_LIST_TYPE, IssueReportService::idOf, lazyCacheSize);
+            this.reports = new KeyedStore<>(IssueReportService::idOf, IssueReport::readOnly, lazyReports);
+            reindex();
+            return;
+        }
+
         List<IssueReport> loaded = loadFromDb();
-        this.reports = copyList(loaded);
+        this.reports = new KeyedStore<>(IssueReportService::idOf, IssueReport::readOnly, copyList(loaded));
+        reindex();
     }
 
     // ----- Attribute association "reverse navigation"
     public List<IssueReport> getAllByEmail(String email) {
         IssueReportValidator.validateEmail(email);
-        String n = normalizeEmail(email);
-
         List<IssueReport> result = new ArrayList<>();
-        for (IssueReport r : reports) {
-            if (r.getEmail() != null && normalizeEmail(r.getEmail()).equals(n)) {
+        for (String id : idsByEmail.getOrDefault(normalizeEmail(email), Set.of())) {
+            IssueReport r = reports.get(id);
+            // may have been deleted since the ids were read
+            if (r != null) {
                 result.add(IssueReport.copy(r));
             }
         }
@@ -63,46 +101,86 @@ public class IssueReportService implements CRUDService<IssueReport> {
 
         if (oldN.equals(newN)) return;
 
-        // conflict check: newEmail|title must not already exist
-        for (IssueReport r : reports) {
-            if (r.getEmail() == null || r.getTitle() == null) continue;
+        // re-keys any number of reports, so nothing else may write meanwhile
+        try (StripedLocks.Held held = locks.lockAll()) {
+            Set<String> movedIds = idsByEmail.get(oldN);
+            if (movedIds == null) return;
 
-            if (normalizeEmail(r.getEmail()).equals(oldN)) {
-                String conflictId = compositeId(newEmail, r.getTitle());
-                if (exists(conflictId)) {
+            // conflict check: newEmail|title must not already exist
+            List<IssueReport> toMove = new ArrayList<>(movedIds.size());
+            for (String id : movedIds) {
+                IssueReport r = reports.get(id);
+                if (reports.contains(compositeId(newN, r.getTitle()))) {
                     throw new IllegalStateException(
                             "Email change causes IssueReport key conflict for title: " + r.getTitle()
                     );
                 }
+                toMove.add(r);
             }
-        }
 
-        for (IssueReport r : reports) {
-            if (r.getEmail() != null && normalizeEmail(r.getEmail()).equals(oldN)) {
-                r.setEmail(newEmail);
+            // the email is part of the key, so every moved report is re-keyed
+            List<EntityChange> changes = new ArrayList<>();
+            List<IssueReport> movedReports = new ArrayList<>(toMove.size());
+            for (IssueReport r : toMove) {
+                String oldId = idOf(r);
+                // a new instance, readers may still hold the old one
+                IssueReport moved = IssueReport.copy(r);
+                moved.setEmail(newEmail);
+
+                unindex(r);
+                reports.replace(oldId, moved);
+                index(moved);
+
+                changes.add(EntityChange.deleted(oldId));
+                changes.add(EntityChange.created(idOf(moved), moved));
+                movedReports.add(moved);
             }
-        }
 
-        saveToDb();
+            try {
+                service.saveChanges(DataSaveKeys.ISSUE_REPORTS, changes, reports.values());
+            } catch (RuntimeException | IOException ex) {
+                // not saved, so the reports keep the old email
+                for (int i = 0; i < toMove.size(); i++) {
+                    unindex(movedReports.get(i));
+                    reports.replace(idOf(movedReports.get(i)), toMove.get(i));
+                    index(toMove.get(i));
+                }
+                throw ex;
+            }
+            for (int i = 0; i < toMove.size(); i++)
+                changeFeed.updated(idOf(toMove.get(i)), toMove.get(i), movedReports.get(i));
+        }
     }
 
     // ----- CRUDService
 
     @Override
     public void create(IssueReport prototype) throws IllegalArgumentException, IOException {
-        IssueReportValidator.validatePrototype(prototype);
+        BatchScope.validateOnce(prototype, IssueReportValidator::validatePrototype);
 
         if (prototype.getCreatedAt() == null) {
             prototype.setCreatedAt(LocalDateTime.now());
         }
 
         String id = compositeId(prototype.getEmail(), prototype.getTitle());
-        if (exists(id)) {
-            throw new IllegalArgumentException("IssueReport already exists with key " + id);
-        }
+        try (StripedLocks.Held held = locks.lock(id)) {
+            if (exists(id)) {
+                throw new IllegalArgumentException("IssueReport already exists with key " + id);
+            }
 
-        reports.add(IssueReport.copy(prototype));
-        saveToDb();
+            IssueReport toStore = IssueReport.copy(prototype);
+            reports.put(toStore);
+            index(toStore);
+            try {
+                service.saveCreated(DataSaveKeys.ISSUE_REPORTS, id, toStore, reports.values());
+            } catch (RuntimeException | IOException ex) {
+                // not saved, so not created
+                unindex(toStore);
+                reports.remove(id);
+                throw ex;
+            }
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -115,17 +193,31 @@ public class IssueReportService implements CRUDService<IssueReport> {
             return Optional.empty();
         }
 
-        for (IssueReport r : reports) {
-            if (sameKey(r, key)) {
-                return Optional.of(IssueReport.copy(r));
-            }
-        }
-        return Optional.empty();
+        IssueReport r = reports.get(key.id());
+        return r == null ? Optional.empty() : Optional.of(IssueReport.copy(r));
     }
 
     @Override
     public List<IssueReport> getAll() throws IOException {
-        return copyList(reports);
+        return copyList(reports.values());
+    }
+
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<IssueReport> snapshot() {
+        return reports.snapshot();
+    }
+
+    @Override
+    public Optional<IssueReport> view(String id) {
+        CompositeKey key;
+        try {
+            key = parseCompositeId(id);
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(reports.view(key.id()));
     }
 
     @Override
@@ -140,9 +232,11 @@ public class IssueReportService implements CRUDService<IssueReport> {
 
         CompositeKey key = parseCompositeId(id);
 
-        for (int i = 0; i < reports.size(); i++) {
-            IssueReport current = reports.get(i);
-            if (!sameKey(current, key)) continue;
+        try (StripedLocks.Held held = locks.lock(key.id())) {
+            IssueReport current = reports.get(key.id());
+            if (current == null) {
+                throw new IllegalArgumentException("IssueReport with id " + id + " not found");
+            }
 
             // email + title must stay the same because they form the key
             IssueReport updated = new IssueReport(
@@ -157,12 +251,16 @@ public class IssueReportService implements CRUDService<IssueReport> {
                 updated.setCreatedAt(prototype.getCreatedAt());
             }
 
-            reports.set(i, IssueReport.copy(updated));
-            saveToDb();
-            return;
+            IssueReport toStore = IssueReport.copy(updated);
+            IssueReport replaced = reports.replace(key.id(), toStore);
+            try {
+                service.saveUpdated(DataSaveKeys.ISSUE_REPORTS, key.id(), idOf(toStore), toStore, reports.values());
+            } catch (RuntimeException | IOException ex) {
+                reports.replace(key.id(), replaced);
+                throw ex;
+            }
+            changeFeed.updated(key.id(), replaced, toStore);
         }
-
-        throw new IllegalArgumentException("IssueReport with id " + id + " not found");
     }
 
     @Override
@@ -170,15 +268,23 @@ public class IssueReportService implements CRUDService<IssueReport> {
         IssueReportValidator.validateId(id);
         CompositeKey key = parseCompositeId(id);
 
-        for (int i = 0; i < reports.size(); i++) {
-            if (sameKey(reports.get(i), key)) {
-                reports.remove(i);
-                saveToDb();
-                return;
+        try (StripedLocks.Held held = locks.lock(key.id())) {
+            IssueReport removed = reports.remove(key.id());
+            if (removed == null) {
+                throw new IllegalArgumentException("IssueReport with id " + id + " not found");
+            }
+            unindex(removed);
+
+            try {
+                service.saveDeleted(DataSaveKeys.ISSUE_REPORTS, key.id(), reports.values());
+            } catch (RuntimeException | IOException ex) {
+                // not saved, so not deleted
+                reports.put(removed);
+                index(removed);
+                throw ex;
             }
+            changeFeed.deleted(key.id(), removed);
         }
-
-        throw new IllegalArgumentException("IssueReport with id " + id + " not found");
     }
 
     @Override
@@ -190,10 +296,72 @@ public class IssueReportService implements CRUDService<IssueReport> {
             return false;
         }
 
-        for (IssueReport r : reports) {
-            if (sameKey(r, key)) return true;
+        return reports.contains(key.id());
+    }
+
+    @Override
+    public Flow.Publisher<EntityChangeEvent<IssueReport>> changes() {
+        return changeFeed.publisher();
+    }
+
+    @Override
+    public String keyOf(IssueReport report) {
+        return idOf(report);
+    }
+
+    @Override
+    public void validate(IssueReport prototype) {
+        IssueReportValidator.validatePrototype(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(service, DataSaveKeys.ISSUE_REPORTS);
+    }
+
+    // ----- Email index
+
+    // update() can't change email or title, so only create, delete and email changes touch the index
+    private void index(IssueReport report) {
+        String id = idOf(report);
+        if (id == null) return;
+
+        index(normalizeEmail(report.getEmail()), id);
+    }
+
+    private void index(String normalizedEmail, String id) {
+        idsByEmail.compute(normalizedEmail, (email, ids) -> {
+            Set<String> updated = ids == null ? new LinkedHashSet<>() : new LinkedHashSet<>(ids);
+            updated.add(id);
+            return Collections.unmodifiableSet(updated);
+        });
+    }
+
+    private void unindex(IssueReport report) {
+        String id = idOf(report);
+        if (id == null) return;
+
+        idsByEmail.computeIfPresent(normalizeEmail(report.getEmail()), (email, ids) -> {
+            Set<String> updated = new LinkedHashSet<>(ids);
+            updated.remove(id);
+            return updated.isEmpty() ? null : Collections.unmodifiableSet(updated);
+        });
+    }
+
+    private void reindex() {
+        idsByEmail.clear();
+        if (lazyCacheSize < 0) {
+            for (IssueReport r : reports.values()) {
+                index(r);
+            }
+            return;
+        }
+
+        // the ids start with the normalized email, so no report has to be decoded for the index
+        for (String id : reports.keys()) {
+            if (id != null)
+                index(id.substring(0, id.indexOf('|')), id);
         }
-        return false;
     }
 
     // ----- Key helpers
@@ -202,6 +370,11 @@ public class IssueReportService implements CRUDService<IssueReport> {
         return normalizeEmail(email) + "|" + normalizeTitle(title);
     }
 
+    private static String idOf(IssueReport report) {
+        if (report.getEmail() == null || report.getTitle() == null) return null;
+        return compositeId(report.getEmail(), report.getTitle());
+    }
+
     private static CompositeKey parseCompositeId(String id) {
         IssueReportValidator.validateId(id);
 
@@ -212,17 +385,9 @@ public class IssueReportService implements CRUDService<IssueReport> {
         return new CompositeKey(normalizeEmail(email), normalizeTitle(title));
     }
 
-    private static boolean sameKey(IssueReport r, CompositeKey key) {
-        if (r == null || r.getEmail() == null || r.getTitle() == null) return false;
-
-        String reportEmail = normalizeEmail(r.getEmail());
-        String reportTitle = normalizeTitle(r.getTitle());
-
-        return reportEmail.equals(key.email) && reportTitle.equals(key.title);
-    }
-
+    // the same way the user services tell emails apart
     private static String normalizeEmail(String email) {
-        return email.trim().toLowerCase();
+        return EmailIdentityIndex.normalize(email);
     }
 
     private static String normalizeTitle(String title) {
@@ -234,7 +399,7 @@ public class IssueReportService implements CRUDService<IssueReport> {
             return new ArrayList<>();
         }
 
-        Object loaded = service.load(DataSaveKeys.ISSUE_REPORTS, ISSUE_REPORT_LIST_TYPE);
+        Object loaded = service.loadAll(DataSaveKeys.ISSUE_REPORTS, ISSUE_REPORT_LIST_TYPE, IssueReportService::idOf);
 
         if (loaded instanceof List<?> raw) {
             List<IssueReport> result = new ArrayList<>();
@@ -249,11 +414,7 @@ public class IssueReportService implements CRUDService<IssueReport> {
         return new ArrayList<>();
     }
 
-    private void saveToDb() throws IOException {
-        service.save(DataSaveKeys.ISSUE_REPORTS, reports);
-    }
-
-    private static List<IssueReport> copyList(List<IssueReport> src) {
+    private static List<IssueReport> copyList(Collection<IssueReport> src) {
         List<IssueReport> out = new ArrayList<>();
         if (src == null) return out;
 
@@ -1,22 +1,31 @@
 package com.byt.services.scheduling;
 
 import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class BuildingService implements CRUDService<Building> {
     private final SaveLoadService saveLoadService;
     private final ClassRoomService classRoomService;
-    private  List<Building> buildings;
+    private KeyedStore<Building> buildings;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.BUILDINGS);
+    private final ChangeFeed<Building> changeFeed = new ChangeFeed<>(Building::getName, Building::copy);
 
     public BuildingService(SaveLoadService saveLoadService) {
         this.saveLoadService = saveLoadService;
@@ -42,64 +51,74 @@ public class BuildingService implements CRUDService<Building> {
     @Override
     public List<Building> getAll() {
         if (buildings == null) return null;
-        return  buildings.stream()
+        return buildings.values().stream()
                 .map(Building::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<Building> snapshot() {
+        if (buildings == null) return null;
+
+        return buildings.snapshot();
+    }
+
+    @Override
+    public Optional<Building> view(String name) {
+        if (findOne(name) == null) return Optional.empty();
+
+        return Optional.ofNullable(buildings.view(name));
+    }
+
     @Override
     public void create(Building prototype)
             throws ValidationException, IllegalArgumentException, IOException
     {
-        Validator.validateBuilding(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateBuilding);
 
-        boolean exists = exists(prototype.getName());
-        if(exists) throw new IllegalArgumentException("Building already exists");
+        try (StripedLocks.Held held = locks.lock(prototype.getName())) {
+            boolean exists = exists(prototype.getName());
+            if(exists) throw new IllegalArgumentException("Building already exists");
 
-        buildings.add(Building.copy(prototype));
-        saveAllBuildings(buildings);
+            Building toStore = Building.copy(prototype);
+            buildings.put(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.BUILDINGS, toStore.getName(), toStore, buildings.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
     public void update(String name, Building prototype)
             throws IllegalArgumentException, ValidationException, IOException
     {
-        Validator.validateBuilding(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateBuilding);
 
-        if(!exists(name)) throw new IllegalArgumentException("Building not found");
+        try (StripedLocks.Held held = locks.lock(name, prototype.getName())) {
+            if(!exists(name)) throw new IllegalArgumentException("Building not found");
+            if (!name.equals(prototype.getName()) && buildings.contains(prototype.getName())) throw new IllegalArgumentException("Building already exists");
 
-        List<Building> updatedList = buildings.stream()
-                .map(b -> b.getName().equals(name) ? Building.copy(prototype) : b)
-                .collect(Collectors.toList());
-
-        saveAllBuildings(updatedList);
+            Building toStore = Building.copy(prototype);
+            Building replaced = buildings.replace(name, toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.BUILDINGS, name, toStore.getName(), toStore, buildings.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
     public void delete(String name) throws IllegalArgumentException, IOException {
         Validator.notEmptyArgument(name);
 
-        if(!exists(name)) throw new IllegalArgumentException("Building not found");
+        try (StripedLocks.Held held = locks.lock(name)) {
+            if(!exists(name)) throw new IllegalArgumentException("Building not found");
 
-        int originalSize = buildings.size();
+            for (ClassRoom classRoom : buildings.get(name).getClassRooms()) {
+                classRoomService.delete(classRoom.getName());
+            }
 
-        List<Building> updatedBuildings = buildings.stream()
-                .filter((b) -> {
-                    if(!b.getName().equals(name)) return true;
-
-                    b.getClassRooms().forEach(cr -> {
-                        try {
-                            classRoomService.delete(cr.getName());
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
-                    return false;
-                })
-                .collect(Collectors.toList());
-
-        if (updatedBuildings.size() < originalSize) {
-            saveAllBuildings(updatedBuildings);
+            Building removed = buildings.remove(name);
+            saveLoadService.saveDeleted(DataSaveKeys.BUILDINGS, name, buildings.values());
+            changeFeed.deleted(name, removed);
         }
     }
 
@@ -107,24 +126,60 @@ public class BuildingService implements CRUDService<Building> {
     public boolean exists(String name) {
         if(buildings == null || name == null || name.isEmpty()) return false;
 
-        return buildings.stream()
-                .anyMatch(b -> b.getName()
-                .equals(name));
+        return buildings.contains(name);
     }
 
-    private Building findOne(String name) {
-        if(buildings == null || name == null || name.isEmpty()) return null;
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Building>> changes() {
+        return changeFeed.publisher();
+    }
 
-        return this.buildings.stream()
-                .filter(b -> b.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    @Override
+    public String keyOf(Building building) {
+        return building.getName();
     }
 
-    private void saveAllBuildings(List<Building> buildings) throws IOException {
-        saveLoadService.save(DataSaveKeys.BUILDINGS, buildings);
+    @Override
+    public void validate(Building prototype) {
+        Validator.validateBuilding(prototype);
+    }
 
-        loadBuildings();
+    // Deleting a building deletes its classrooms, so their saves are batched as well
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.of(() -> BatchScope.open(saveLoadService, DataSaveKeys.BUILDINGS),
+                classRoomService::openBatch);
+    }
+
+    // Brings the building back together with the classrooms deleted along with it
+    @Override
+    public Undo undoDelete(String name) throws IllegalArgumentException {
+        Building stored = findOne(name);
+        if (stored == null) throw new IllegalArgumentException("Building not found");
+
+        // the classrooms link back to this very instance, so it's the one put back
+        List<Undo> classRoomUndos = new ArrayList<>();
+        for (ClassRoom classRoom : stored.getClassRooms()) {
+            classRoomUndos.add(classRoomService.undoDelete(classRoom.getName()));
+        }
+        return () -> {
+            try (StripedLocks.Held held = locks.lock(name)) {
+                if (exists(name)) throw new IllegalArgumentException("Building already exists");
+
+                buildings.put(stored);
+                for (Undo undo : classRoomUndos) {
+                    undo.run();
+                }
+                saveLoadService.saveCreated(DataSaveKeys.BUILDINGS, name, stored, buildings.values());
+                changeFeed.created(stored);
+            }
+        };
+    }
+
+    private Building findOne(String name) {
+        if(buildings == null || name == null || name.isEmpty()) return null;
+
+        return buildings.get(name);
     }
 
     private void loadBuildings() throws IOException {
@@ -135,9 +190,10 @@ public class BuildingService implements CRUDService<Building> {
 
         Type type = new TypeToken<List<Building>>(){}.getType();
         List<Building> loadedBuildings =
-                    (List<Building>) saveLoadService.load(DataSaveKeys.BUILDINGS, type);
+                saveLoadService.loadAll(DataSaveKeys.BUILDINGS, type, Building::getName);
 
-            this.buildings = new ArrayList<>(loadedBuildings);
+            this.buildings = new KeyedStore<>(Building::getName, Building::readOnly, loadedBuildings)
+                    .followLinkChanges(DataSaveKeys.BUILDINGS);
     }
 
 }
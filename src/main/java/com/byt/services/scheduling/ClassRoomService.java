@@ -1,21 +1,31 @@
 package com.byt.services.scheduling;
 
 import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Lesson;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.LinkChanges;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class ClassRoomService implements CRUDService<ClassRoom> {
     private final SaveLoadService saveLoadService;
-    private List<ClassRoom> classRooms;
+    private KeyedStore<ClassRoom> classRooms;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.CLASSROOMS);
+    private final ChangeFeed<ClassRoom> changeFeed = new ChangeFeed<>(ClassRoom::getName, ClassRoom::copy);
 
     public ClassRoomService(SaveLoadService saveLoadService) {
         this.saveLoadService = saveLoadService;
@@ -29,12 +39,16 @@ public class ClassRoomService implements CRUDService<ClassRoom> {
 
     @Override
     public void create(ClassRoom prototype) throws IllegalArgumentException, IOException {
-        Validator.validateClassRoom(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateClassRoom);
 
-        if (exists(prototype.getName())) throw new IllegalArgumentException("ClassRoom already exists");
+        try (StripedLocks.Held held = locks.lock(prototype.getName())) {
+            if (exists(prototype.getName())) throw new IllegalArgumentException("ClassRoom already exists");
 
-        classRooms.add(ClassRoom.copy(prototype));
-        saveAllClassRooms(classRooms);
+            ClassRoom toStore = ClassRoom.copy(prototype);
+            classRooms.put(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.CLASSROOMS, toStore.getName(), toStore, classRooms.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -51,24 +65,41 @@ public class ClassRoomService implements CRUDService<ClassRoom> {
     public List<ClassRoom> getAll() {
         if (classRooms == null) return null;
 
-        return classRooms.stream()
+        return classRooms.values().stream()
                 .map(ClassRoom::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<ClassRoom> snapshot() {
+        if (classRooms == null) return null;
+
+        return classRooms.snapshot();
+    }
+
+    @Override
+    public Optional<ClassRoom> view(String name) {
+        if (findOne(name) == null) return Optional.empty();
+
+        return Optional.ofNullable(classRooms.view(name));
+    }
+
     @Override
     public void update(String name, ClassRoom prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateClassRoom(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateClassRoom);
 
-        if (!exists(name)) throw new IllegalArgumentException("ClassRoom not found.");
-
-        List<ClassRoom> updatedList = classRooms.stream()
-                .map(r -> r.getName().equals(name) ? ClassRoom.copy(prototype) : r)
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name, prototype.getName())) {
+            if (!exists(name)) throw new IllegalArgumentException("ClassRoom not found.");
+            if (!name.equals(prototype.getName()) && classRooms.contains(prototype.getName())) throw new IllegalArgumentException("ClassRoom already exists");
 
-        saveAllClassRooms(updatedList);
+            ClassRoom toStore = ClassRoom.copy(prototype);
+            ClassRoom replaced = classRooms.replace(name, toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.CLASSROOMS, name, toStore.getName(), toStore, classRooms.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
@@ -76,48 +107,78 @@ public class ClassRoomService implements CRUDService<ClassRoom> {
             throws IllegalArgumentException, IOException, ValidationException
     {
         Validator.notEmptyArgument(name);
-        if (!exists(name)) throw new IllegalArgumentException("ClassRoom not found.");
-
-        int originalSize = classRooms.size();
-
-        List<ClassRoom> updatedClassRooms = classRooms.stream()
-                .filter(r -> {
-                    if(!r.getName().equals(name)) return true;
-                    r.removeBuilding(r.getBuilding());
-                    r.getLessons().forEach(lesson -> {
-                        lesson.removeClassRoom(r);
-                    });
-                    return false;
-                })
-                .collect(Collectors.toList());
 
-        if (updatedClassRooms.size() < originalSize) {
-            saveAllClassRooms(updatedClassRooms);
+        try (StripedLocks.Held held = locks.lock(name)) {
+            if (!exists(name)) throw new IllegalArgumentException("ClassRoom not found.");
+
+            ClassRoom classRoom = classRooms.remove(name);
+            classRoom.removeBuilding(classRoom.getBuilding());
+            // lessons come after classrooms in DataSaveKeys, so their stripes can be taken here
+            String[] lessonNames = classRoom.getLessons().stream().map(Lesson::getName).toArray(String[]::new);
+            try (StripedLocks.Held links = StripedLocks.of(DataSaveKeys.LESSONS).lock(lessonNames)) {
+                classRoom.getLessons().forEach(lesson -> lesson.removeClassRoom(classRoom));
+                LinkChanges.changed(DataSaveKeys.BUILDINGS, DataSaveKeys.LESSONS);
+            }
+            saveLoadService.saveDeleted(DataSaveKeys.CLASSROOMS, name, classRooms.values());
+            changeFeed.deleted(name, classRoom);
         }
-        loadClassRooms();
     }
 
     @Override
     public boolean exists(String name) {
         if(classRooms == null || name == null || name.isEmpty()) return false;
-        return classRooms.stream()
-                .anyMatch(r -> r.getName()
-                .equals(name));
+        return classRooms.contains(name);
     }
 
-    private ClassRoom findOne(String name) {
-        if(classRooms == null || name == null || name.isEmpty()) return null;
+    @Override
+    public Flow.Publisher<EntityChangeEvent<ClassRoom>> changes() {
+        return changeFeed.publisher();
+    }
 
-        return this.classRooms.stream()
-                .filter(r -> r.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    @Override
+    public String keyOf(ClassRoom classRoom) {
+        return classRoom.getName();
     }
 
-    private void saveAllClassRooms(List<ClassRoom> classRooms) throws IOException {
-        saveLoadService.save(DataSaveKeys.CLASSROOMS, classRooms);
+    @Override
+    public void validate(ClassRoom prototype) {
+        Validator.validateClassRoom(prototype);
+    }
 
-        loadClassRooms();
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(saveLoadService, DataSaveKeys.CLASSROOMS);
+    }
+
+    // Puts the classroom back in its building and on the lessons it was booked for
+    @Override
+    public Undo undoDelete(String name) throws IllegalArgumentException {
+        ClassRoom stored = findOne(name);
+        if (stored == null) throw new IllegalArgumentException("ClassRoom not found.");
+
+        ClassRoom original = ClassRoom.copy(stored);
+        Set<Lesson> lessons = stored.getLessons();
+        return () -> {
+            try (StripedLocks.Held held = locks.lock(name)) {
+                if (exists(name)) throw new IllegalArgumentException("ClassRoom already exists");
+
+                classRooms.put(original);
+                if (original.getBuilding() != null) original.getBuilding().addClassRoom(original);
+                String[] lessonNames = lessons.stream().map(Lesson::getName).toArray(String[]::new);
+                try (StripedLocks.Held links = StripedLocks.of(DataSaveKeys.LESSONS).lock(lessonNames)) {
+                    lessons.forEach(lesson -> lesson.addClassRoom(original));
+                    LinkChanges.changed(DataSaveKeys.BUILDINGS, DataSaveKeys.LESSONS);
+                }
+                saveLoadService.saveCreated(DataSaveKeys.CLASSROOMS, name, original, classRooms.values());
+                changeFeed.created(original);
+            }
+        };
+    }
+
+    private ClassRoom findOne(String name) {
+        if(classRooms == null || name == null || name.isEmpty()) return null;
+
+        return classRooms.get(name);
     }
 
     private void loadClassRooms() throws IOException {
@@ -128,9 +189,10 @@ public class ClassRoomService implements CRUDService<ClassRoom> {
 
         Type type = new TypeToken<List<ClassRoom>>(){}.getType();
         List<ClassRoom> loadedClassRooms =
-                    (List<ClassRoom>) saveLoadService.load(DataSaveKeys.CLASSROOMS, type);
+                saveLoadService.loadAll(DataSaveKeys.CLASSROOMS, type, ClassRoom::getName);
 
-        this.classRooms = new ArrayList<>(loadedClassRooms);
+        this.classRooms = new KeyedStore<>(ClassRoom::getName, ClassRoom::readOnly, loadedClassRooms)
+                .followLinkChanges(DataSaveKeys.CLASSROOMS);
     }
 
 }
@@ -4,18 +4,26 @@ import com.byt.data.scheduling.Group;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class GroupService implements CRUDService<Group> {
     private final SaveLoadService saveLoadService;
-    private List<Group> groups;
+    private KeyedStore<Group> groups;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.GROUPS);
+    private final ChangeFeed<Group> changeFeed = new ChangeFeed<>(Group::getName, Group::copy);
 
     public GroupService(SaveLoadService saveLoadService) {
         this.saveLoadService = saveLoadService;
@@ -30,12 +38,16 @@ public class GroupService implements CRUDService<Group> {
     public void create(Group prototype)
             throws IllegalArgumentException, ValidationException, IOException
     {
-        Validator.validateGroup(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateGroup);
 
-        if (exists(prototype.getName())) throw new IllegalArgumentException("Group already exists");
+        try (StripedLocks.Held held = locks.lock(prototype.getName())) {
+            if (exists(prototype.getName())) throw new IllegalArgumentException("Group already exists");
 
-        groups.add(Group.copy(prototype));
-        saveAllGroups(groups);
+            Group toStore = Group.copy(prototype);
+            groups.put(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.GROUPS, toStore.getName(), toStore, groups.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -51,40 +63,53 @@ public class GroupService implements CRUDService<Group> {
     public List<Group> getAll() {
         if (groups == null) return null;
 
-        return groups.stream()
+        return groups.values().stream()
                 .map(Group::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<Group> snapshot() {
+        if (groups == null) return null;
+
+        return groups.snapshot();
+    }
+
+    @Override
+    public Optional<Group> view(String name) {
+        if (findOne(name) == null) return Optional.empty();
+
+        return Optional.ofNullable(groups.view(name));
+    }
+
     @Override
     public void update(String name, Group prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateGroup(prototype);
-
-        if (!exists(name)) throw new IllegalArgumentException("Group not found");
+        BatchScope.validateOnce(prototype, Validator::validateGroup);
 
-        List<Group> updatedList = groups.stream()
-                .map(g -> g.getName().equals(name) ? Group.copy(prototype) : g)
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name, prototype.getName())) {
+            if (!exists(name)) throw new IllegalArgumentException("Group not found");
+            if (!name.equals(prototype.getName()) && groups.contains(prototype.getName())) throw new IllegalArgumentException("Group already exists");
 
-        saveAllGroups(updatedList);
+            Group toStore = Group.copy(prototype);
+            Group replaced = groups.replace(name, toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.GROUPS, name, toStore.getName(), toStore, groups.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
     public void delete(String name) throws IllegalArgumentException, IOException {
         Validator.notEmptyArgument(name);
 
-        if (!exists(name)) throw new IllegalArgumentException("Group not found");
-
-        int originalSize = groups.size();
-
-        List<Group> updatedGroups = groups.stream()
-                .filter(g -> !g.getName().equals(name))
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name)) {
+            if (!exists(name)) throw new IllegalArgumentException("Group not found");
 
-        if (updatedGroups.size() < originalSize) {
-            saveAllGroups(updatedGroups);
+            Group removed = groups.remove(name);
+            saveLoadService.saveDeleted(DataSaveKeys.GROUPS, name, groups.values());
+            changeFeed.deleted(name, removed);
         }
     }
 
@@ -92,23 +117,33 @@ public class GroupService implements CRUDService<Group> {
     public boolean exists(String name) throws IOException {
         if(groups == null || name == null || name.isEmpty()) return false;
 
-        return groups.stream()
-                .anyMatch(g -> g.getName()
-                .equals(name));
+        return groups.contains(name);
     }
 
-    private Group findOne(String name) {
-        if(groups == null || name == null || name.isEmpty()) return null;
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Group>> changes() {
+        return changeFeed.publisher();
+    }
 
-        return this.groups.stream()
-                .filter(g -> g.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    @Override
+    public String keyOf(Group group) {
+        return group.getName();
     }
 
-    private void saveAllGroups(List<Group> groups) throws IOException {
-        saveLoadService.save(DataSaveKeys.GROUPS, groups);
-        loadGroups();
+    @Override
+    public void validate(Group prototype) {
+        Validator.validateGroup(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(saveLoadService, DataSaveKeys.GROUPS);
+    }
+
+    private Group findOne(String name) {
+        if(groups == null || name == null || name.isEmpty()) return null;
+
+        return groups.get(name);
     }
 
     private void loadGroups()  throws IOException {
@@ -119,8 +154,9 @@ public class GroupService implements CRUDService<Group> {
 
         Type type = new TypeToken<List<Group>>(){}.getType();
         List<Group> loadedGroups =
-                (List<Group>) saveLoadService.load(DataSaveKeys.GROUPS, type);
-        this.groups = new ArrayList<>(loadedGroups);
+                saveLoadService.loadAll(DataSaveKeys.GROUPS, type, Group::getName);
+        this.groups = new KeyedStore<>(Group::getName, Group::readOnly, loadedGroups)
+                .followLinkChanges(DataSaveKeys.GROUPS);
     }
 
 
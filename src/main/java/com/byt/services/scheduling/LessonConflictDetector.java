@@ -0,0 +1,293 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.WeekPattern;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Finds double bookings of teachers, groups and classrooms.
+//
+// Every lesson is indexed once per resource it uses and per semester it runs in, on a
+// timeline keyed by (resource, day, week pattern, semester). A timeline is a TreeMap of
+// bookings by start time, so checking one lesson is a handful of O(log n) lookups instead
+// of a scan over the whole timetable. EVEN and ODD weeks never meet, NORMAL meets both.
+//
+// Resources are identified by their natural keys (teacher email, group/classroom/semester
+// name). A lesson's classrooms and teacher change without the lesson being written again, so
+// rekey() moves the lessons whose keys changed since they were indexed.
+public final class LessonConflictDetector {
+
+    public enum Resource {
+        TEACHER,
+        GROUP,
+        CLASSROOM
+    }
+
+    public record Conflict(String lessonName, String conflictingLessonName,
+                           Resource resource, String resourceId, DayOfWeek dayOfWeek) {
+
+        public String describe() {
+            return "Lesson '" + lessonName + "' overlaps with lesson '" + conflictingLessonName + "' on "
+                    + dayOfWeek + " for " + resource.name().toLowerCase() + " '" + resourceId + "'";
+        }
+    }
+
+    private static final Comparator<Conflict> CONFLICT_ORDER = Comparator
+            .comparing(Conflict::lessonName)
+            .thenComparing(Conflict::conflictingLessonName)
+            .thenComparing(Conflict::resource)
+            .thenComparing(Conflict::resourceId)
+            .thenComparing(Conflict::dayOfWeek);
+
+    // _________________________________________________________
+
+    private record SlotKey(Resource resource, String resourceId, DayOfWeek dayOfWeek,
+                           WeekPattern weekPattern, String semester) {}
+
+    // times are seconds of the day, end is exclusive so back-to-back lessons don't clash
+    private record Booking(String lessonName, int start, int end) {}
+
+    private static final class Timeline {
+        private final TreeMap<Integer, List<Booking>> byStart = new TreeMap<>();
+        // lets a lookup stop walking back once no earlier booking can reach the interval
+        private int longestBooking = 0;
+        private int size = 0;
+
+        void add(Booking booking) {
+            byStart.computeIfAbsent(booking.start(), start -> new ArrayList<>(1)).add(booking);
+            longestBooking = Math.max(longestBooking, booking.end() - booking.start());
+            size++;
+        }
+
+        void remove(Booking booking) {
+            List<Booking> startingTogether = byStart.get(booking.start());
+            if (startingTogether == null || !startingTogether.remove(booking))
+                return;
+
+            if (startingTogether.isEmpty())
+                byStart.remove(booking.start());
+            size--;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void collectOverlaps(int start, int end, String ignoredLessonName, List<Booking> out) {
+            for (Map.Entry<Integer, List<Booking>> entry : byStart.headMap(end, false).descendingMap().entrySet()) {
+                if (entry.getKey() + longestBooking <= start)
+                    break;
+
+                for (Booking booking : entry.getValue()) {
+                    if (booking.end() > start && !booking.lessonName().equals(ignoredLessonName))
+                        out.add(booking);
+                }
+            }
+        }
+    }
+
+    private final Map<SlotKey, Timeline> timelines = new HashMap<>();
+    private final Map<String, IndexedLesson> indexedLessons = new HashMap<>();
+
+    private record IndexedLesson(Booking booking, List<SlotKey> slots) {}
+
+    public LessonConflictDetector() {
+    }
+
+    public LessonConflictDetector(Collection<Lesson> lessons) {
+        for (Lesson lesson : lessons)
+            add(lesson);
+    }
+
+    // Overlaps the lesson would have with what's indexed. Bookings of ignoredLessonName are
+    // skipped, so an update can be checked against everything but the version it replaces.
+    public List<Conflict> findConflicts(Lesson lesson, String ignoredLessonName) {
+        Booking booking = bookingOf(lesson);
+        if (booking == null)
+            return List.of();
+
+        Set<Conflict> conflicts = new LinkedHashSet<>();
+        List<Booking> overlapping = new ArrayList<>();
+
+        for (SlotKey slot : slotsOf(lesson)) {
+            for (WeekPattern pattern : meetingPatterns(slot.weekPattern())) {
+                Timeline timeline = timelines.get(new SlotKey(
+                        slot.resource(), slot.resourceId(), slot.dayOfWeek(), pattern, slot.semester()));
+                if (timeline == null)
+                    continue;
+
+                overlapping.clear();
+                timeline.collectOverlaps(booking.start(), booking.end(), ignoredLessonName, overlapping);
+
+                for (Booking other : overlapping) {
+                    conflicts.add(new Conflict(lesson.getName(), other.lessonName(),
+                            slot.resource(), slot.resourceId(), slot.dayOfWeek()));
+                }
+            }
+        }
+
+        return new ArrayList<>(conflicts);
+    }
+
+    public List<Conflict> findConflicts(Lesson lesson) {
+        return findConflicts(lesson, lesson.getName());
+    }
+
+    public void add(Lesson lesson) {
+        remove(lesson.getName());
+
+        Booking booking = bookingOf(lesson);
+        if (booking == null)
+            return;
+
+        List<SlotKey> slots = slotsOf(lesson);
+        for (SlotKey slot : slots)
+            timelines.computeIfAbsent(slot, key -> new Timeline()).add(booking);
+
+        indexedLessons.put(lesson.getName(), new IndexedLesson(booking, slots));
+    }
+
+    // Files the indexed lessons among the lessons given under the slots their links lead to now.
+    // Lessons whose slots stayed the same aren't touched.
+    public void rekey(Collection<Lesson> lessons) {
+        for (Lesson lesson : lessons) {
+            IndexedLesson indexed = indexedLessons.get(lesson.getName());
+            if (indexed != null && !slotsOf(lesson).equals(indexed.slots()))
+                add(lesson);
+        }
+    }
+
+    public void remove(String lessonName) {
+        IndexedLesson indexed = indexedLessons.remove(lessonName);
+        if (indexed == null)
+            return;
+
+        for (SlotKey slot : indexed.slots()) {
+            Timeline timeline = timelines.get(slot);
+            if (timeline == null)
+                continue;
+
+            timeline.remove(indexed.booking());
+            if (timeline.isEmpty())
+                timelines.remove(slot);
+        }
+    }
+
+    // _________________________________________________________
+
+    // Every conflicting pair in the timetable, each reported once per shared resource.
+    // Lessons are bucketed by (resource, day, semester) and the buckets are swept in parallel.
+    public static List<Conflict> validateTimetable(Collection<Lesson> lessons) {
+        Map<SlotKey, List<Placement>> buckets = lessons.parallelStream()
+                .flatMap(LessonConflictDetector::placementsOf)
+                .collect(Collectors.groupingByConcurrent(Placement::bucket));
+
+        return buckets.values().parallelStream()
+                .flatMap(bucket -> sweep(bucket).stream())
+                .distinct()
+                .sorted(CONFLICT_ORDER)
+                .toList();
+    }
+
+    // bucket keys here leave the week pattern out, patterns are compared per pair instead
+    private record Placement(SlotKey bucket, WeekPattern weekPattern, Booking booking) {}
+
+    private static Stream<Placement> placementsOf(Lesson lesson) {
+        Booking booking = bookingOf(lesson);
+        if (booking == null)
+            return Stream.empty();
+
+        return slotsOf(lesson).stream().map(slot -> new Placement(
+                new SlotKey(slot.resource(), slot.resourceId(), slot.dayOfWeek(), null, slot.semester()),
+                slot.weekPattern(),
+                booking));
+    }
+
+    private static List<Conflict> sweep(List<Placement> bucket) {
+        List<Placement> byStart = new ArrayList<>(bucket);
+        byStart.sort(Comparator.comparingInt(placement -> placement.booking().start()));
+
+        List<Conflict> conflicts = new ArrayList<>();
+        List<Placement> active = new ArrayList<>();
+
+        for (Placement current : byStart) {
+            active.removeIf(placement -> placement.booking().end() <= current.booking().start());
+
+            for (Placement other : active) {
+                String a = current.booking().lessonName();
+                String b = other.booking().lessonName();
+
+                if (a.equals(b) || !meetingPatterns(current.weekPattern()).contains(other.weekPattern()))
+                    continue;
+
+                SlotKey slot = current.bucket();
+                conflicts.add(a.compareTo(b) < 0
+                        ? new Conflict(a, b, slot.resource(), slot.resourceId(), slot.dayOfWeek())
+                        : new Conflict(b, a, slot.resource(), slot.resourceId(), slot.dayOfWeek()));
+            }
+
+            active.add(current);
+        }
+
+        return conflicts;
+    }
+
+    // _________________________________________________________
+
+    private static Booking bookingOf(Lesson lesson) {
+        if (lesson == null || lesson.getName() == null || lesson.getDayOfWeek() == null
+                || lesson.getStartTime() == null || lesson.getEndTime() == null
+                || !lesson.getEndTime().isAfter(lesson.getStartTime())) {
+            return null;
+        }
+
+        return new Booking(lesson.getName(),
+                lesson.getStartTime().toSecondOfDay(),
+                lesson.getEndTime().toSecondOfDay());
+    }
+
+    private static List<SlotKey> slotsOf(Lesson lesson) {
+        List<String> semesters = new ArrayList<>();
+        for (Semester semester : lesson.getSemesters())
+            semesters.add(semester.getName());
+        if (semesters.isEmpty())
+            semesters.add(null); // lessons without a semester only meet each other
+
+        Map<Resource, List<String>> resources = new EnumMap<>(Resource.class);
+        if (lesson.getTeacher() != null)
+            resources.put(Resource.TEACHER, List.of(lesson.getTeacher().getEmail()));
+        if (lesson.getGroup() != null)
+            resources.put(Resource.GROUP, List.of(lesson.getGroup().getName()));
+
+        List<String> classRooms = new ArrayList<>();
+        for (ClassRoom classRoom : lesson.getClassRooms())
+            classRooms.add(classRoom.getName());
+        if (!classRooms.isEmpty())
+            resources.put(Resource.CLASSROOM, classRooms);
+
+        WeekPattern pattern = lesson.getWeekPattern() != null ? lesson.getWeekPattern() : WeekPattern.NORMAL;
+        List<SlotKey> slots = new ArrayList<>();
+
+        resources.forEach((resource, ids) -> {
+            for (String id : ids) {
+                for (String semester : semesters)
+                    slots.add(new SlotKey(resource, id, lesson.getDayOfWeek(), pattern, semester));
+            }
+        });
+
+        return slots;
+    }
+
+    private static List<WeekPattern> meetingPatterns(WeekPattern pattern) {
+        return switch (pattern) {
+            case NORMAL -> List.of(WeekPattern.NORMAL, WeekPattern.EVEN, WeekPattern.ODD);
+            case EVEN -> List.of(WeekPattern.EVEN, WeekPattern.NORMAL);
+            case ODD -> List.of(WeekPattern.ODD, WeekPattern.NORMAL);
+        };
+    }
+}
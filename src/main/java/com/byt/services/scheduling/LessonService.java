@@ -1,21 +1,40 @@
 package com.byt.services.scheduling;
 
 import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.exception.ExceptionCode;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.LinkChanges;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class LessonService implements CRUDService<Lesson> {
     private final SaveLoadService saveLoadService;
-    private List<Lesson> lessons;
+    private KeyedStore<Lesson> lessons;
+    private LessonConflictDetector conflictDetector;
+    // keeps read-only copies of its own, so schedules never hand out stored lessons
+    private TimetableQueryEngine timetable;
+    // the links the timetable and the conflict detector were keyed at: group members change through
+    // StudentService and FreeListenerService, a lesson's classrooms and teacher through ClassRoomService
+    // and TeacherService
+    private volatile LinkVersions keyedAt;
+    // a new lesson is checked against all the others, so writes take the whole collection
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.LESSONS);
+    private final ChangeFeed<Lesson> changeFeed = new ChangeFeed<>(Lesson::getName, Lesson::copy);
 
     public LessonService(SaveLoadService saveLoadService) {
         this.saveLoadService = saveLoadService;
@@ -31,12 +50,20 @@ public class LessonService implements CRUDService<Lesson> {
     public void create(Lesson prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateLesson(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateLesson);
+
+        try (StripedLocks.Held held = locks.lockAll()) {
+            if (exists(prototype.getName())) throw new IllegalArgumentException("Lesson already exists");
 
-        if (exists(prototype.getName())) throw new IllegalArgumentException("Lesson already exists");
+            Lesson toStore = Lesson.copy(prototype);
+            checkConflicts(toStore, toStore.getName());
 
-        lessons.add(Lesson.copy(prototype));
-        saveAllLessons(lessons);
+            lessons.put(toStore);
+            conflictDetector.add(toStore);
+            timetable.add(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.LESSONS, toStore.getName(), toStore, lessons.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -52,24 +79,47 @@ public class LessonService implements CRUDService<Lesson> {
     public List<Lesson> getAll() {
         if (lessons == null) return null;
 
-        return lessons.stream()
+        return lessons.values().stream()
                 .map(Lesson::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<Lesson> snapshot() {
+        if (lessons == null) return null;
+
+        return lessons.snapshot();
+    }
+
+    @Override
+    public Optional<Lesson> view(String name) {
+        if (findOne(name) == null) return Optional.empty();
+
+        return Optional.ofNullable(lessons.view(name));
+    }
+
     @Override
     public void update(String name, Lesson prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateLesson(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateLesson);
 
-        if (!exists(name)) throw new IllegalArgumentException("Lesson not found");
+        try (StripedLocks.Held held = locks.lockAll()) {
+            if (!exists(name)) throw new IllegalArgumentException("Lesson not found");
+            if (!name.equals(prototype.getName()) && lessons.contains(prototype.getName())) throw new IllegalArgumentException("Lesson already exists");
 
-        List<Lesson> updatedList = lessons.stream()
-                .map(l -> l.getName().equals(name) ? Lesson.copy(prototype) : l)
-                .collect(Collectors.toList());
+            Lesson toStore = Lesson.copy(prototype);
+            checkConflicts(toStore, name);
 
-        saveAllLessons(updatedList);
+            Lesson replaced = lessons.replace(name, toStore);
+            conflictDetector.remove(name);
+            conflictDetector.add(toStore);
+            timetable.remove(name);
+            timetable.add(toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.LESSONS, name, toStore.getName(), toStore, lessons.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
@@ -78,26 +128,21 @@ public class LessonService implements CRUDService<Lesson> {
     {
         Validator.notEmptyArgument(name);
 
-        if (!exists(name)) throw new IllegalArgumentException("Lesson not found");
-
-        int originalSize = lessons.size();
-
-        List<Lesson> updatedLessons = lessons.stream()
-                .filter(l -> {
-                    if(l.getName().equals(name)){
-                        l.removeSubject(l.getSubject());
-                        l.removeGroup(l.getGroup());
-                        l.removeTeacher(l.getTeacher());
-                        l.getClassRooms().forEach(l::removeClassRoom);
-                        l.getSemesters().forEach(l::removeSemester);
-                        return false;
-                    }
-                    return true;
-                })
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lockAll()) {
+            if (!exists(name)) throw new IllegalArgumentException("Lesson not found");
 
-        if (updatedLessons.size() < originalSize) {
-            saveAllLessons(updatedLessons);
+            Lesson lesson = lessons.remove(name);
+            conflictDetector.remove(name);
+            timetable.remove(name);
+            lesson.removeSubject(lesson.getSubject());
+            lesson.removeGroup(lesson.getGroup());
+            lesson.removeTeacher(lesson.getTeacher());
+            lesson.getClassRooms().forEach(lesson::removeClassRoom);
+            lesson.getSemesters().forEach(lesson::removeSemester);
+            LinkChanges.changed(DataSaveKeys.TEACHERS, DataSaveKeys.CLASSROOMS, DataSaveKeys.SEMESTERS,
+                    DataSaveKeys.SUBJECTS, DataSaveKeys.GROUPS);
+            saveLoadService.saveDeleted(DataSaveKeys.LESSONS, name, lessons.values());
+            changeFeed.deleted(name, lesson);
         }
     }
 
@@ -105,21 +150,110 @@ public class LessonService implements CRUDService<Lesson> {
     public boolean exists(String name) throws IOException {
         if(this.lessons == null || name == null || name.isEmpty()) return false;
 
-        return lessons.stream().anyMatch(l -> l.getName().equals(name));
+        return lessons.contains(name);
     }
 
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Lesson>> changes() {
+        return changeFeed.publisher();
+    }
 
-    private Lesson findOne(String name) {
-        if(this.lessons == null || name == null || name.isEmpty()) return null;
+    @Override
+    public String keyOf(Lesson lesson) {
+        return lesson.getName();
+    }
+
+    @Override
+    public void validate(Lesson prototype) {
+        Validator.validateLesson(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(saveLoadService, DataSaveKeys.LESSONS);
+    }
+
+    // Puts the lesson back on the subject, group, teacher, classrooms and semesters it had
+    @Override
+    public Undo undoDelete(String name) throws IllegalArgumentException {
+        Lesson stored = findOne(name);
+        if (stored == null) throw new IllegalArgumentException("Lesson not found");
+
+        Lesson original = Lesson.copy(stored);
+        return () -> {
+            try (StripedLocks.Held held = locks.lockAll()) {
+                if (exists(name)) throw new IllegalArgumentException("Lesson already exists");
+
+                lessons.put(original);
+                conflictDetector.add(original);
+                if (original.getSubject() != null) original.getSubject().addLesson(original);
+                if (original.getGroup() != null) original.getGroup().addLesson(original);
+                if (original.getTeacher() != null) original.getTeacher().addLesson(original);
+                original.getClassRooms().forEach(classRoom -> classRoom.addLesson(original));
+                original.getSemesters().forEach(semester -> semester.addLesson(original));
+                LinkChanges.changed(DataSaveKeys.TEACHERS, DataSaveKeys.CLASSROOMS, DataSaveKeys.SEMESTERS,
+                        DataSaveKeys.SUBJECTS, DataSaveKeys.GROUPS);
+                timetable.add(original);
+                saveLoadService.saveCreated(DataSaveKeys.LESSONS, name, original, lessons.values());
+                changeFeed.created(original);
+            }
+        };
+    }
 
-        return this.lessons.stream()
-                .filter(l -> l.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+
+    // Every teacher/group/classroom double booking in the stored timetable
+    public List<LessonConflictDetector.Conflict> validateTimetable() {
+        if (lessons == null) return List.of();
+
+        return LessonConflictDetector.validateTimetable(lessons.values());
     }
 
-    private void saveAllLessons(List<Lesson> lessons) throws IOException {
-        saveLoadService.save(DataSaveKeys.LESSONS, lessons);
+    // Lessons of a teacher, group, classroom or student in one week of the semester, by date and time.
+    // The lessons are read-only copies.
+    public TimetableQueryEngine.WeekSchedule getWeekSchedule(TimetableQueryEngine.Resource resource, String resourceId,
+                                                             Semester semester, int week)
+    {
+        if (timetable == null) throw new IllegalStateException("Lessons are not loaded");
+
+        followLinks();
+        return timetable.weekSchedule(resource, resourceId, semester, week);
+    }
+
+    private record LinkVersions(long groups, long lessons) {
+        static LinkVersions now() {
+            return new LinkVersions(LinkChanges.version(DataSaveKeys.GROUPS), LinkChanges.version(DataSaveKeys.LESSONS));
+        }
+    }
+
+    // Re-keys the timetable and the conflict detector if a group's members or a lesson's links
+    // changed since they were keyed.
+    // The groups are locked too, their members change under their stripes.
+    private void followLinks() {
+        if (LinkVersions.now().equals(keyedAt)) return;
+
+        try (StripedLocks.Held held = locks.lockAll();
+             StripedLocks.Held groups = StripedLocks.of(DataSaveKeys.GROUPS).lockAll()) {
+            LinkVersions now = LinkVersions.now();
+            if (now.equals(keyedAt)) return;
+
+            timetable.rekey(lessons.values());
+            conflictDetector.rekey(lessons.values());
+            keyedAt = now;
+        }
+    }
+
+    private void checkConflicts(Lesson lesson, String replacedLessonName) throws ValidationException {
+        followLinks();
+        List<LessonConflictDetector.Conflict> conflicts = conflictDetector.findConflicts(lesson, replacedLessonName);
+        if (conflicts.isEmpty()) return;
+
+        throw new ValidationException(ExceptionCode.SCHEDULE_CONFLICT, conflicts.getFirst().describe());
+    }
+
+    private Lesson findOne(String name) {
+        if(this.lessons == null || name == null || name.isEmpty()) return null;
+
+        return lessons.get(name);
     }
 
     private void loadLessons() throws IOException {
@@ -130,7 +264,12 @@ public class LessonService implements CRUDService<Lesson> {
 
         Type type = new TypeToken<List<Lesson>>(){}.getType();
 
-        List<Lesson> loadedLessons = (List<Lesson>) saveLoadService.load(DataSaveKeys.LESSONS, type);
-        this.lessons = new ArrayList<>(loadedLessons);
+        List<Lesson> loadedLessons =
+                saveLoadService.loadAll(DataSaveKeys.LESSONS, type, Lesson::getName);
+        this.lessons = new KeyedStore<>(Lesson::getName, Lesson::readOnly, loadedLessons)
+                .followLinkChanges(DataSaveKeys.LESSONS);
+        this.keyedAt = LinkVersions.now();
+        this.conflictDetector = new LessonConflictDetector(lessons.values());
+        this.timetable = new TimetableQueryEngine(lessons.values());
     }
 }
@@ -2,24 +2,42 @@ package com.byt.services.scheduling;
 
 import com.byt.data.scheduling.Semester;
 import com.byt.exception.ValidationException;
+import com.byt.persistence.LazyCollection;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class SemesterService implements CRUDService<Semester> {
     private final SaveLoadService saveLoadService;
-    private List<Semester> semesters;
+    private KeyedStore<Semester> semesters;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.SEMESTERS);
+    private final ChangeFeed<Semester> changeFeed = new ChangeFeed<>(Semester::getName, Semester::copy);
+    // -1 loads every semester up front
+    private final int lazyCacheSize;
 
     public SemesterService(SaveLoadService saveLoadService) {
+        this(saveLoadService, -1);
+    }
+
+    // Past semesters are rarely looked at: initialize() only reads their names and a semester is
+    // decoded when first asked for, keeping at most lazyCacheSize of the unchanged ones decoded
+    public SemesterService(SaveLoadService saveLoadService, int lazyCacheSize) {
         this.saveLoadService = saveLoadService;
         this.semesters = null;
+        this.lazyCacheSize = lazyCacheSize;
     }
 
     @Override
@@ -31,12 +49,16 @@ public class SemesterService implements CRUDService<Semester> {
     public void create(Semester prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateSemester(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateSemester);
 
-        if (exists(prototype.getName())) throw new IllegalArgumentException("Semester already exists");
+        try (StripedLocks.Held held = locks.lock(prototype.getName())) {
+            if (exists(prototype.getName())) throw new IllegalArgumentException("Semester already exists");
 
-        semesters.add(Semester.copy(prototype));
-        saveAllSemesters(semesters);
+            Semester toStore = Semester.copy(prototype);
+            semesters.put(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.SEMESTERS, toStore.getName(), toStore, semesters.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -51,65 +73,87 @@ public class SemesterService implements CRUDService<Semester> {
     @Override
     public List<Semester> getAll() {
         if (semesters == null) return null;
-        return semesters.stream()
+        return semesters.values().stream()
                 .map(Semester::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<Semester> snapshot() {
+        if (semesters == null) return null;
+
+        return semesters.snapshot();
+    }
+
+    @Override
+    public Optional<Semester> view(String name) {
+        if (findOne(name) == null) return Optional.empty();
+
+        return Optional.ofNullable(semesters.view(name));
+    }
+
     @Override
     public void update(String name, Semester prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateSemester(prototype);
-
-        if (!exists(name)) throw new IllegalArgumentException("Semester not found");
+        BatchScope.validateOnce(prototype, Validator::validateSemester);
 
-        List<Semester> updatedList = semesters.stream()
-                .map(s -> s.getName().equals(name) ? Semester.copy(prototype) : s)
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name, prototype.getName())) {
+            if (!exists(name)) throw new IllegalArgumentException("Semester not found");
+            if (!name.equals(prototype.getName()) && semesters.contains(prototype.getName())) throw new IllegalArgumentException("Semester already exists");
 
-        saveAllSemesters(updatedList);
+            Semester toStore = Semester.copy(prototype);
+            Semester replaced = semesters.replace(name, toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.SEMESTERS, name, toStore.getName(), toStore, semesters.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
     public void delete(String name) throws IllegalArgumentException, IOException, IllegalArgumentException {
         Validator.notEmptyArgument(name);
 
-        if (!exists(name)) throw new IllegalArgumentException("Semester not found");
-
-        int originalSize = semesters.size();
-
-        List<Semester> updatedSemesters = semesters.stream()
-                .filter(s -> !s.getName().equals(name))
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name)) {
+            if (!exists(name)) throw new IllegalArgumentException("Semester not found");
 
-        if (updatedSemesters.size() < originalSize) {
-            saveAllSemesters(updatedSemesters);
+            Semester removed = semesters.remove(name);
+            saveLoadService.saveDeleted(DataSaveKeys.SEMESTERS, name, semesters.values());
+            changeFeed.deleted(name, removed);
         }
-        loadSemesters();
     }
 
     @Override
     public boolean exists(String name) throws IOException {
         if(this.semesters == null || name == null || name.isEmpty()) return false;
 
-        return semesters.stream()
-                .anyMatch(s -> s.getName()
-                .equals(name));
+        return semesters.contains(name);
     }
 
-    private Semester findOne(String name) {
-        if(this.semesters == null || name == null || name.isEmpty()) return null;
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Semester>> changes() {
+        return changeFeed.publisher();
+    }
 
-        return this.semesters.stream()
-                .filter(s -> s.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    @Override
+    public String keyOf(Semester semester) {
+        return semester.getName();
     }
 
-    private void saveAllSemesters(List<Semester> semesters) throws IOException {
-        saveLoadService.save(DataSaveKeys.SEMESTERS, semesters);
-        loadSemesters();
+    @Override
+    public void validate(Semester prototype) {
+        Validator.validateSemester(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(saveLoadService, DataSaveKeys.SEMESTERS);
+    }
+
+    private Semester findOne(String name) {
+        if(this.semesters == null || name == null || name.isEmpty()) return null;
+
+        return semesters.get(name);
     }
 
     private void loadSemesters() throws IOException {
@@ -120,10 +164,19 @@ public class SemesterService implements CRUDService<Semester> {
 
         Type type = new TypeToken<List<Semester>>(){}.getType();
 
+        if (lazyCacheSize >= 0) {
+            LazyCollection<Semester> lazySemesters =
+                    saveLoadService.loadLazily(DataSaveKeys.SEMESTERS, type, Semester::getName, lazyCacheSize);
+            this.semesters = new KeyedStore<>(Semester::getName, Semester::readOnly, lazySemesters)
+                    .followLinkChanges(DataSaveKeys.SEMESTERS);
+            return;
+        }
+
         List<Semester> loadedSemesters =
-                (List<Semester>) saveLoadService.load(DataSaveKeys.SEMESTERS, type);
+                saveLoadService.loadAll(DataSaveKeys.SEMESTERS, type, Semester::getName);
 
-        this.semesters = new ArrayList<>(loadedSemesters);
+        this.semesters = new KeyedStore<>(Semester::getName, Semester::readOnly, loadedSemesters)
+                .followLinkChanges(DataSaveKeys.SEMESTERS);
 
     }
 
@@ -4,18 +4,26 @@ import com.byt.data.scheduling.Specialization;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class SpecializationService implements CRUDService<Specialization> {
     private final SaveLoadService saveLoadService;
-    private List<Specialization> specializations;
+    private KeyedStore<Specialization> specializations;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.SPECIALIZATIONS);
+    private final ChangeFeed<Specialization> changeFeed = new ChangeFeed<>(Specialization::getName, Specialization::copy);
 
     public SpecializationService(SaveLoadService saveLoadService) {
         this.saveLoadService = saveLoadService;
@@ -31,12 +39,16 @@ public class SpecializationService implements CRUDService<Specialization> {
     public void create(Specialization prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateSpecialization(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateSpecialization);
 
-        if (exists(prototype.getName())) throw new IllegalArgumentException("Specialization already exists");
+        try (StripedLocks.Held held = locks.lock(prototype.getName())) {
+            if (exists(prototype.getName())) throw new IllegalArgumentException("Specialization already exists");
 
-        specializations.add(Specialization.copy(prototype));
-        saveAllSpecializations(specializations);
+            Specialization toStore = Specialization.copy(prototype);
+            specializations.put(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.SPECIALIZATIONS, toStore.getName(), toStore, specializations.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -53,40 +65,53 @@ public class SpecializationService implements CRUDService<Specialization> {
     public List<Specialization> getAll()  {
         if (specializations == null) return null;
 
-        return specializations.stream()
+        return specializations.values().stream()
                 .map(Specialization::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<Specialization> snapshot() {
+        if (specializations == null) return null;
+
+        return specializations.snapshot();
+    }
+
+    @Override
+    public Optional<Specialization> view(String name) {
+        if (findOne(name) == null) return Optional.empty();
+
+        return Optional.ofNullable(specializations.view(name));
+    }
+
     @Override
     public void update(String name, Specialization prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateSpecialization(prototype);
-
-        if (!exists(name)) throw new IllegalArgumentException("Specialization not found");
+        BatchScope.validateOnce(prototype, Validator::validateSpecialization);
 
-        List<Specialization> updatedList = specializations.stream()
-                .map(s -> s.getName().equals(name) ? Specialization.copy(prototype) : s)
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name, prototype.getName())) {
+            if (!exists(name)) throw new IllegalArgumentException("Specialization not found");
+            if (!name.equals(prototype.getName()) && specializations.contains(prototype.getName())) throw new IllegalArgumentException("Specialization already exists");
 
-        saveAllSpecializations(updatedList);
+            Specialization toStore = Specialization.copy(prototype);
+            Specialization replaced = specializations.replace(name, toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.SPECIALIZATIONS, name, toStore.getName(), toStore, specializations.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
     public void delete(String name) throws IllegalArgumentException, IOException {
         Validator.notEmptyArgument(name);
 
-        if (!exists(name)) throw new IllegalArgumentException("Specialization not found");
-
-        int originalSize = specializations.size();
-
-        List<Specialization> updatedSpecializations = specializations.stream()
-                .filter(s -> !s.getName().equals(name))
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name)) {
+            if (!exists(name)) throw new IllegalArgumentException("Specialization not found");
 
-        if (updatedSpecializations.size() < originalSize) {
-            saveAllSpecializations(updatedSpecializations);
+            Specialization removed = specializations.remove(name);
+            saveLoadService.saveDeleted(DataSaveKeys.SPECIALIZATIONS, name, specializations.values());
+            changeFeed.deleted(name, removed);
         }
     }
 
@@ -94,24 +119,34 @@ public class SpecializationService implements CRUDService<Specialization> {
     public boolean exists(String name)  {
         if(specializations == null|| name == null || name.isEmpty()) return false;
 
-        return specializations.stream().
-                anyMatch(s -> s.getName()
-                .equals(name));
+        return specializations.contains(name);
     }
 
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Specialization>> changes() {
+        return changeFeed.publisher();
+    }
 
-    private Specialization findOne(String name) {
-        if(specializations == null|| name == null || name.isEmpty()) return null;
+    @Override
+    public String keyOf(Specialization specialization) {
+        return specialization.getName();
+    }
 
-        return this.specializations.stream()
-                .filter(s -> s.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    @Override
+    public void validate(Specialization prototype) {
+        Validator.validateSpecialization(prototype);
     }
 
-    private void saveAllSpecializations(List<Specialization> specializations) throws IOException{
-        saveLoadService.save(DataSaveKeys.SPECIALIZATIONS, specializations);
-        loadSpecializations();
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(saveLoadService, DataSaveKeys.SPECIALIZATIONS);
+    }
+
+
+    private Specialization findOne(String name) {
+        if(specializations == null|| name == null || name.isEmpty()) return null;
+
+        return specializations.get(name);
     }
 
     private void loadSpecializations() throws IOException {
@@ -124,9 +159,10 @@ public class SpecializationService implements CRUDService<Specialization> {
         }.getType();
 
         List<Specialization> loadedSpecializations =
-                (List<Specialization>) saveLoadService.load(DataSaveKeys.SPECIALIZATIONS, type);
+                saveLoadService.loadAll(DataSaveKeys.SPECIALIZATIONS, type, Specialization::getName);
 
-        this.specializations = new ArrayList<>(loadedSpecializations);
+        this.specializations = new KeyedStore<>(Specialization::getName, Specialization::readOnly, loadedSpecializations)
+                .followLinkChanges(DataSaveKeys.SPECIALIZATIONS);
 
     }
 }
@@ -4,18 +4,26 @@ import com.byt.data.scheduling.StudyProgram;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class StudyProgramService implements CRUDService<StudyProgram> {
     private final SaveLoadService saveLoadService;
-    private List<StudyProgram> studyPrograms;
+    private KeyedStore<StudyProgram> studyPrograms;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.STUDY_PROGRAMS);
+    private final ChangeFeed<StudyProgram> changeFeed = new ChangeFeed<>(StudyProgram::getName, StudyProgram::copy);
 
     public StudyProgramService(SaveLoadService saveLoadService) {
         this.saveLoadService = saveLoadService;
@@ -32,12 +40,16 @@ public class StudyProgramService implements CRUDService<StudyProgram> {
     public void create(StudyProgram prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateStudyProgram(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateStudyProgram);
 
-        if (exists(prototype.getName())) throw new IllegalArgumentException("StudyProgram already exists");
+        try (StripedLocks.Held held = locks.lock(prototype.getName())) {
+            if (exists(prototype.getName())) throw new IllegalArgumentException("StudyProgram already exists");
 
-        studyPrograms.add(StudyProgram.copy(prototype));
-        saveAllStudyPrograms(studyPrograms);
+            StudyProgram toStore = StudyProgram.copy(prototype);
+            studyPrograms.put(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.STUDY_PROGRAMS, toStore.getName(), toStore, studyPrograms.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -53,40 +65,53 @@ public class StudyProgramService implements CRUDService<StudyProgram> {
     public List<StudyProgram> getAll(){
         if(studyPrograms == null) return null;
 
-        return studyPrograms.stream()
+        return studyPrograms.values().stream()
                 .map(StudyProgram::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<StudyProgram> snapshot() {
+        if (studyPrograms == null) return null;
+
+        return studyPrograms.snapshot();
+    }
+
+    @Override
+    public Optional<StudyProgram> view(String id) {
+        if (findOne(id) == null) return Optional.empty();
+
+        return Optional.ofNullable(studyPrograms.view(id));
+    }
+
     @Override
     public void update(String name, StudyProgram prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateStudyProgram(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateStudyProgram);
 
-        if (!exists(name)) throw new IllegalArgumentException("StudyProgram not found");
-
-        List<StudyProgram> updatedList = studyPrograms.stream()
-                .map(p -> p.getName().equals(name) ? StudyProgram.copy(prototype) : p)
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name, prototype.getName())) {
+            if (!exists(name)) throw new IllegalArgumentException("StudyProgram not found");
+            if (!name.equals(prototype.getName()) && studyPrograms.contains(prototype.getName())) throw new IllegalArgumentException("StudyProgram already exists");
 
-        saveAllStudyPrograms(updatedList);
+            StudyProgram toStore = StudyProgram.copy(prototype);
+            StudyProgram replaced = studyPrograms.replace(name, toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.STUDY_PROGRAMS, name, toStore.getName(), toStore, studyPrograms.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
     public void delete(String name) throws IllegalArgumentException, IOException {
         Validator.notEmptyArgument(name);
 
-        if (!exists(name)) throw new IllegalArgumentException("StudyProgram not found");
-
-        int originalSize = studyPrograms.size();
-
-        List<StudyProgram> updatedPrograms = studyPrograms.stream()
-                .filter(p -> !p.getName().equals(name))
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name)) {
+            if (!exists(name)) throw new IllegalArgumentException("StudyProgram not found");
 
-        if (updatedPrograms.size() < originalSize) {
-            saveAllStudyPrograms(updatedPrograms);
+            StudyProgram removed = studyPrograms.remove(name);
+            saveLoadService.saveDeleted(DataSaveKeys.STUDY_PROGRAMS, name, studyPrograms.values());
+            changeFeed.deleted(name, removed);
         }
     }
 
@@ -94,23 +119,33 @@ public class StudyProgramService implements CRUDService<StudyProgram> {
     public boolean exists(String name) throws IOException {
         if(studyPrograms == null|| name == null || name.isEmpty()) return false;
 
-        return studyPrograms.stream()
-                .anyMatch(p -> p.getName()
-                .equals(name));
+        return studyPrograms.contains(name);
     }
 
-    private StudyProgram findOne(String name) {
-        if(studyPrograms == null|| name == null || name.isEmpty()) return null;
+    @Override
+    public Flow.Publisher<EntityChangeEvent<StudyProgram>> changes() {
+        return changeFeed.publisher();
+    }
 
-        return this.studyPrograms.stream()
-                .filter(p -> p.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    @Override
+    public String keyOf(StudyProgram studyProgram) {
+        return studyProgram.getName();
     }
 
-    private void saveAllStudyPrograms(List<StudyProgram> programs) throws IOException {
-        saveLoadService.save(DataSaveKeys.STUDY_PROGRAMS, programs);
-        loadStudyPrograms();
+    @Override
+    public void validate(StudyProgram prototype) {
+        Validator.validateStudyProgram(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(saveLoadService, DataSaveKeys.STUDY_PROGRAMS);
+    }
+
+    private StudyProgram findOne(String name) {
+        if(studyPrograms == null|| name == null || name.isEmpty()) return null;
+
+        return studyPrograms.get(name);
     }
 
     private void loadStudyPrograms() throws IOException{
@@ -121,9 +156,9 @@ public class StudyProgramService implements CRUDService<StudyProgram> {
 
         Type type = new TypeToken<List<StudyProgram>>(){}.getType();
         List<StudyProgram> loadedPrograms =
-                (List<StudyProgram>) saveLoadService.load(DataSaveKeys.STUDY_PROGRAMS, type);
+                saveLoadService.loadAll(DataSaveKeys.STUDY_PROGRAMS, type, StudyProgram::getName);
 
-        this.studyPrograms = new ArrayList<>(loadedPrograms);
+        this.studyPrograms = new KeyedStore<>(StudyProgram::getName, StudyProgram::readOnly, loadedPrograms);
     }
 
 
@@ -4,18 +4,26 @@ import com.byt.data.scheduling.Subject;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
 import com.byt.validation.scheduling.Validator;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 public class SubjectService implements CRUDService<Subject> {
     private final SaveLoadService saveLoadService;
-    private List<Subject> subjects;
+    private KeyedStore<Subject> subjects;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.SUBJECTS);
+    private final ChangeFeed<Subject> changeFeed = new ChangeFeed<>(Subject::getName, Subject::copy);
 
     public SubjectService(SaveLoadService saveLoadService) {
         this.saveLoadService = saveLoadService;
@@ -31,12 +39,16 @@ public class SubjectService implements CRUDService<Subject> {
     public void create(Subject prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateSubject(prototype);
+        BatchScope.validateOnce(prototype, Validator::validateSubject);
 
-        if (exists(prototype.getName())) throw new IllegalArgumentException("Subject already exists");
+        try (StripedLocks.Held held = locks.lock(prototype.getName())) {
+            if (exists(prototype.getName())) throw new IllegalArgumentException("Subject already exists");
 
-        subjects.add(Subject.copy(prototype));
-        saveAllSubjects(subjects);
+            Subject toStore = Subject.copy(prototype);
+            subjects.put(toStore);
+            saveLoadService.saveCreated(DataSaveKeys.SUBJECTS, toStore.getName(), toStore, subjects.values());
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -52,39 +64,53 @@ public class SubjectService implements CRUDService<Subject> {
     public List<Subject> getAll() throws IOException {
         if (subjects == null) return null;
 
-        return subjects.stream()
+        return subjects.values().stream()
                 .map(Subject::copy)
                 .collect(Collectors.toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
+    @Override
+    public List<Subject> snapshot() {
+        if (subjects == null) return null;
+
+        return subjects.snapshot();
+    }
+
+    @Override
+    public Optional<Subject> view(String id) {
+        if (findOne(id) == null) return Optional.empty();
+
+        return Optional.ofNullable(subjects.view(id));
+    }
+
     @Override
     public void update(String name, Subject prototype)
             throws IllegalArgumentException, IOException, ValidationException
     {
-        Validator.validateSubject(prototype);
-
-        if (!exists(name)) throw new IllegalArgumentException("Subject not found");
+        BatchScope.validateOnce(prototype, Validator::validateSubject);
 
-        List<Subject> updatedList = subjects.stream()
-                .map(s -> s.getName().equals(name) ? Subject.copy(prototype) : s)
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name, prototype.getName())) {
+            if (!exists(name)) throw new IllegalArgumentException("Subject not found");
+            if (!name.equals(prototype.getName()) && subjects.contains(prototype.getName())) throw new IllegalArgumentException("Subject already exists");
 
-        saveAllSubjects(updatedList);
+            Subject toStore = Subject.copy(prototype);
+            Subject replaced = subjects.replace(name, toStore);
+            saveLoadService.saveUpdated(DataSaveKeys.SUBJECTS, name, toStore.getName(), toStore, subjects.values());
+            changeFeed.updated(name, replaced, toStore);
+        }
     }
 
     @Override
     public void delete(String name) throws IllegalArgumentException, IOException {
         Validator.notEmptyArgument(name);
-        if (!exists(name)) throw new IllegalArgumentException("Subject not found");
 
-        int originalSize = subjects.size();
-
-        List<Subject> updatedSubjects = subjects.stream()
-                .filter(s -> !s.getName().equals(name))
-                .collect(Collectors.toList());
+        try (StripedLocks.Held held = locks.lock(name)) {
+            if (!exists(name)) throw new IllegalArgumentException("Subject not found");
 
-        if (updatedSubjects.size() < originalSize) {
-            saveAllSubjects(updatedSubjects);
+            Subject removed = subjects.remove(name);
+            saveLoadService.saveDeleted(DataSaveKeys.SUBJECTS, name, subjects.values());
+            changeFeed.deleted(name, removed);
         }
     }
 
@@ -92,23 +118,33 @@ public class SubjectService implements CRUDService<Subject> {
     public boolean exists(String name) throws IOException {
         if(subjects == null|| name == null || name.isEmpty()) return false;
 
-        return subjects.stream()
-                .anyMatch(s -> s.getName()
-                .equals(name));
+        return subjects.contains(name);
     }
 
-    private Subject findOne(String name) {
-        if(subjects == null|| name == null || name.isEmpty()) return null;
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Subject>> changes() {
+        return changeFeed.publisher();
+    }
 
-        return this.subjects.stream()
-                .filter(s -> s.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    @Override
+    public String keyOf(Subject subject) {
+        return subject.getName();
     }
 
-    private void saveAllSubjects(List<Subject> subjects) throws IOException {
-        saveLoadService.save(DataSaveKeys.SUBJECTS, subjects);
-        loadSubjects();
+    @Override
+    public void validate(Subject prototype) {
+        Validator.validateSubject(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(saveLoadService, DataSaveKeys.SUBJECTS);
+    }
+
+    private Subject findOne(String name) {
+        if(subjects == null|| name == null || name.isEmpty()) return null;
+
+        return subjects.get(name);
     }
 
     private void loadSubjects() throws IOException {
@@ -120,9 +156,10 @@ public class SubjectService implements CRUDService<Subject> {
         Type type = new TypeToken<List<Subject>>(){}.getType();
 
         List<Subject> loadedSubjects =
-                (List<Subject>) saveLoadService.load(DataSaveKeys.SUBJECTS, type);
+                saveLoadService.loadAll(DataSaveKeys.SUBJECTS, type, Subject::getName);
 
-        this.subjects = new ArrayList<>(loadedSubjects);
+        this.subjects = new KeyedStore<>(Subject::getName, Subject::readOnly, loadedSubjects)
+                .followLinkChanges(DataSaveKeys.SUBJECTS);
 
     }
 }
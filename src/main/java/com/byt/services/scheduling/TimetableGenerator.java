@@ -0,0 +1,654 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.scheduling.Subject;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Places lessons for a list of courses into day/time slots and classrooms.
+//
+// Hard constraints: a teacher, a group or a classroom is never used twice at the same time,
+// offline lessons get a classroom big enough for the group, online lessons get none.
+// Biweekly lessons run on EVEN or ODD weeks only, so two of them can share a slot.
+// Soft constraint: a group should stay in one building for the whole day.
+//
+// The solver is min-conflicts local search. Every worker thread runs its own search from a
+// different random seed and publishes its best timetable; the search stops once a worker
+// finds a perfect timetable or stalls on a conflict-free one, or once the time budget runs out.
+// Input entities are never modified - the generated lessons only point at them.
+public final class TimetableGenerator {
+    private static final int HARD_WEIGHT = 1_000;
+    private static final double RANDOM_MOVE_PROBABILITY = 0.05;
+    private static final int STEPS_BETWEEN_PUBLISHES = 256;
+    private static final int STAGNATION_LIMIT = 50_000;
+    private static final int DEFAULT_SEMESTER_WEEKS = 15;
+
+    private static final int NORMAL = 0;
+    private static final int EVEN = 1;
+    private static final int ODD = 2;
+
+    // One subject taught to one group by one teacher. The number of lessons per week
+    // comes from Subject.hours spread over the weeks of the semester.
+    public record Course(Subject subject, Group group, Teacher teacher, LessonType type, LessonMode mode) {}
+
+    public record Progress(long iterations, int hardConflicts, int softPenalty, Duration elapsed) {}
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(Progress progress);
+    }
+
+    public record Result(List<Lesson> lessons, int hardConflicts, int softPenalty, long iterations, Duration elapsed) {
+        public boolean isFeasible() {
+            return hardConflicts == 0;
+        }
+    }
+
+    @Getter
+    @Builder
+    public static final class Settings {
+        @Builder.Default
+        private final List<DayOfWeek> days = List.of(
+                DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+        @Builder.Default
+        private final LocalTime firstLessonStart = LocalTime.of(8, 0);
+        @Builder.Default
+        private final int lessonMinutes = 90;
+        @Builder.Default
+        private final int breakMinutes = 15;
+        @Builder.Default
+        private final int lessonsPerDay = 7;
+        @Builder.Default
+        private final Duration timeBudget = Duration.ofSeconds(10);
+        @Builder.Default
+        private final Duration progressInterval = Duration.ofMillis(200);
+        @Builder.Default
+        private final int workers = Runtime.getRuntime().availableProcessors();
+        @Builder.Default
+        private final long seed = 42L;
+    }
+
+    private final Settings settings;
+
+    public TimetableGenerator() {
+        this(Settings.builder().build());
+    }
+
+    public TimetableGenerator(Settings settings) {
+        if (settings.getDays().isEmpty() || settings.getLessonsPerDay() < 1 || settings.getLessonMinutes() < 1)
+            throw new IllegalArgumentException("Settings must allow at least one lesson slot");
+        if (settings.getWorkers() < 1)
+            throw new IllegalArgumentException("At least one worker is needed");
+
+        long dayMinutes = settings.getFirstLessonStart().toSecondOfDay() / 60
+                + (long) settings.getLessonsPerDay() * (settings.getLessonMinutes() + settings.getBreakMinutes())
+                - settings.getBreakMinutes();
+        if (dayMinutes > 24 * 60)
+            throw new IllegalArgumentException("The last lesson of the day would end after midnight");
+
+        this.settings = settings;
+    }
+
+    public Result generate(Semester semester, List<Course> courses, Collection<ClassRoom> classRooms,
+                           ProgressListener listener)
+    {
+        Problem problem = new Problem(semester, courses, new ArrayList<>(classRooms), settings);
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + settings.getTimeBudget().toNanos();
+
+        BestSolution best = new BestSolution();
+        LongAdder iterations = new LongAdder();
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(settings.getWorkers());
+
+        ExecutorService pool = Executors.newFixedThreadPool(settings.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "timetable-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (int worker = 0; worker < settings.getWorkers(); worker++) {
+                long workerSeed = settings.getSeed() + worker;
+                pool.execute(() -> {
+                    try {
+                        search(problem, new SplittableRandom(workerSeed), deadline, best, iterations, done);
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                        done.set(true); // nothing else to wait for
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+
+            long intervalNanos = Math.max(1, settings.getProgressInterval().toNanos());
+            while (!finished.await(intervalNanos, TimeUnit.NANOSECONDS))
+                report(listener, best, iterations, startNanos);
+        } catch (InterruptedException ex) {
+            done.set(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (failure.get() != null)
+            throw new IllegalStateException("Timetable search failed", failure.get());
+
+        report(listener, best, iterations, startNanos);
+
+        BestSolution.Snapshot solution = best.snapshot();
+        return new Result(
+                problem.toLessons(solution),
+                solution.hard(),
+                solution.soft(),
+                iterations.sum(),
+                Duration.ofNanos(System.nanoTime() - startNanos)
+        );
+    }
+
+    public Result generate(Semester semester, List<Course> courses, Collection<ClassRoom> classRooms) {
+        return generate(semester, courses, classRooms, null);
+    }
+
+    // _________________________________________________________
+
+    private static void search(Problem problem, SplittableRandom random, long deadline, BestSolution best,
+                               LongAdder iterations, AtomicBoolean done)
+    {
+        Search search = new Search(problem, random);
+        search.construct();
+        best.offer(search);
+
+        long bestCost = search.cost();
+        long sinceImprovement = 0;
+
+        while (!done.get() && System.nanoTime() < deadline) {
+            for (int step = 0; step < STEPS_BETWEEN_PUBLISHES; step++) {
+                if (!search.step())
+                    break;
+            }
+            iterations.add(STEPS_BETWEEN_PUBLISHES);
+
+            long cost = search.cost();
+            if (cost < bestCost) {
+                bestCost = cost;
+                sinceImprovement = 0;
+                best.offer(search);
+            } else {
+                sinceImprovement += STEPS_BETWEEN_PUBLISHES;
+            }
+
+            // perfect, or conflict-free and not getting any better - good enough for everyone
+            if (cost == 0 || (search.hard == 0 && sinceImprovement >= STAGNATION_LIMIT))
+                done.set(true);
+        }
+    }
+
+    private static void report(ProgressListener listener, BestSolution best, LongAdder iterations, long startNanos) {
+        if (listener == null)
+            return;
+
+        BestSolution.Snapshot snapshot = best.snapshot();
+        listener.onProgress(new Progress(
+                iterations.sum(),
+                snapshot == null ? -1 : snapshot.hard(),
+                snapshot == null ? -1 : snapshot.soft(),
+                Duration.ofNanos(System.nanoTime() - startNanos)
+        ));
+    }
+
+    // _________________________________________________________
+
+    // Everything about the instance that doesn't change during the search, shared by all workers.
+    // Teachers, groups and classrooms all become "resources" that can be busy in a (slot, week parity) cell.
+    private static final class Problem {
+        final Semester semester;
+        final Settings settings;
+        final List<Course> courses;
+        final List<ClassRoom> rooms;
+
+        final int slotCount;
+        final int dayCount;
+        final int resourceCount;
+        final int groupCount;
+        final int buildingCount;
+
+        final int[] roomResource;
+        final int[] roomBuilding;
+
+        final int sessionCount;
+        final int[] sessionCourse;
+        final boolean[] sessionBiweekly;
+        final int[] sessionTeacher; // resource index, -1 without a teacher
+        final int[] sessionGroupResource;
+        final int[] sessionGroup;
+        final int[][] sessionRooms; // suitable rooms, empty for online lessons
+
+        Problem(Semester semester, List<Course> courses, List<ClassRoom> rooms, Settings settings) {
+            if (semester == null)
+                throw new IllegalArgumentException("Semester must not be null");
+            if (courses == null || courses.isEmpty())
+                throw new IllegalArgumentException("There must be at least one course to schedule");
+
+            this.semester = semester;
+            this.settings = settings;
+            this.courses = List.copyOf(courses);
+            this.rooms = rooms;
+            this.dayCount = settings.getDays().size();
+            this.slotCount = dayCount * settings.getLessonsPerDay();
+
+            // resources: teachers, then groups, then rooms
+            Map<String, Integer> teacherIndex = new HashMap<>();
+            Map<String, Integer> groupIndex = new HashMap<>();
+            for (Course course : courses) {
+                validate(course);
+                if (course.teacher() != null)
+                    teacherIndex.putIfAbsent(course.teacher().getEmail(), teacherIndex.size());
+                groupIndex.putIfAbsent(course.group().getName(), groupIndex.size());
+            }
+
+            int teacherCount = teacherIndex.size();
+            this.groupCount = groupIndex.size();
+            this.resourceCount = teacherCount + groupCount + rooms.size();
+
+            Map<String, Integer> buildingIndex = new HashMap<>();
+            this.roomResource = new int[rooms.size()];
+            this.roomBuilding = new int[rooms.size()];
+            for (int room = 0; room < rooms.size(); room++) {
+                Building building = rooms.get(room).getBuilding();
+                String buildingName = building == null ? null : building.getName();
+
+                roomResource[room] = teacherCount + groupCount + room;
+                roomBuilding[room] = buildingIndex.computeIfAbsent(buildingName, name -> buildingIndex.size());
+            }
+            this.buildingCount = Math.max(1, buildingIndex.size());
+
+            int weeks = semesterWeeks(semester);
+            List<int[]> sessions = new ArrayList<>(); // {course, biweekly}
+            for (int course = 0; course < courses.size(); course++) {
+                int lessons = (int) Math.ceil(courses.get(course).subject().getHours() * 60.0 / settings.getLessonMinutes());
+                // in halves of a weekly lesson: two halves make a NORMAL lesson, a leftover one runs every other week
+                int halves = Math.max(1, (int) Math.round(2.0 * lessons / weeks));
+
+                for (int i = 0; i < halves / 2; i++)
+                    sessions.add(new int[]{course, 0});
+                if (halves % 2 == 1)
+                    sessions.add(new int[]{course, 1});
+            }
+
+            this.sessionCount = sessions.size();
+            this.sessionCourse = new int[sessionCount];
+            this.sessionBiweekly = new boolean[sessionCount];
+            this.sessionTeacher = new int[sessionCount];
+            this.sessionGroupResource = new int[sessionCount];
+            this.sessionGroup = new int[sessionCount];
+            this.sessionRooms = new int[sessionCount][];
+
+            for (int session = 0; session < sessionCount; session++) {
+                Course course = courses.get(sessions.get(session)[0]);
+
+                sessionCourse[session] = sessions.get(session)[0];
+                sessionBiweekly[session] = sessions.get(session)[1] == 1;
+                sessionTeacher[session] = course.teacher() == null ? -1 : teacherIndex.get(course.teacher().getEmail());
+                sessionGroup[session] = groupIndex.get(course.group().getName());
+                sessionGroupResource[session] = teacherCount + sessionGroup[session];
+                sessionRooms[session] = suitableRooms(course);
+            }
+        }
+
+        private void validate(Course course) {
+            if (course == null || course.subject() == null || course.group() == null
+                    || course.type() == null || course.mode() == null) {
+                throw new IllegalArgumentException("Course needs a subject, a group, a lesson type and a mode");
+            }
+            if (course.group().getLanguage() == null)
+                throw new IllegalArgumentException("Group '" + course.group().getName() + "' has no study language");
+        }
+
+        private int[] suitableRooms(Course course) {
+            if (course.mode() == LessonMode.ONLINE)
+                return new int[0];
+
+            int[] suitable = rooms.stream()
+                    .filter(room -> room.getCapacity() >= course.group().getMaxCapacity())
+                    .mapToInt(rooms::indexOf)
+                    .toArray();
+
+            if (suitable.length == 0) {
+                throw new IllegalArgumentException("No classroom fits group '" + course.group().getName()
+                        + "' for " + course.subject().getName());
+            }
+            return suitable;
+        }
+
+        private static int semesterWeeks(Semester semester) {
+            if (semester.getStartDate() == null || semester.getEndDate() == null)
+                return DEFAULT_SEMESTER_WEEKS;
+
+            return (int) Math.max(1, ChronoUnit.WEEKS.between(semester.getStartDate(), semester.getEndDate()));
+        }
+
+        List<Lesson> toLessons(BestSolution.Snapshot solution) {
+            List<Lesson> lessons = new ArrayList<>(sessionCount);
+            Map<String, Integer> usedNames = new HashMap<>();
+
+            for (int session = 0; session < sessionCount; session++) {
+                Course course = courses.get(sessionCourse[session]);
+                int slot = solution.slot()[session];
+                int room = solution.room()[session];
+                int period = slot % settings.getLessonsPerDay();
+
+                LocalTime start = settings.getFirstLessonStart()
+                        .plusMinutes((long) period * (settings.getLessonMinutes() + settings.getBreakMinutes()));
+
+                String baseName = course.group().getName() + " " + course.subject().getName() + " "
+                        + course.type().name().toLowerCase();
+                int number = usedNames.merge(baseName, 1, Integer::sum);
+
+                lessons.add(Lesson.builder()
+                        .name(baseName + " " + number)
+                        .type(course.type())
+                        .mode(course.mode())
+                        .dayOfWeek(settings.getDays().get(slot / settings.getLessonsPerDay()))
+                        .startTime(start)
+                        .endTime(start.plusMinutes(settings.getLessonMinutes()))
+                        .language(course.group().getLanguage())
+                        .weekPattern(switch (solution.pattern()[session]) {
+                            case EVEN -> WeekPattern.EVEN;
+                            case ODD -> WeekPattern.ODD;
+                            default -> WeekPattern.NORMAL;
+                        })
+                        .subject(course.subject())
+                        .group(course.group())
+                        .teacher(course.teacher())
+                        .classRooms(room < 0 ? new HashSet<>() : new HashSet<>(Set.of(rooms.get(room))))
+                        .semesters(new HashSet<>(Set.of(semester)))
+                        .build());
+            }
+
+            return lessons;
+        }
+    }
+
+    // One worker's current timetable plus the counters that make evaluating a move cheap.
+    private static final class Search {
+        final Problem problem;
+        final SplittableRandom random;
+
+        final int[] slot;
+        final int[] room;
+        final int[] pattern;
+
+        // how many lessons use a resource in a (slot, week parity) cell
+        final int[] occupancy;
+        // lessons a group has per day and building, and how many buildings that is
+        final int[] groupDayBuilding;
+        final int[] groupDayBuildings;
+
+        int hard;
+        int soft;
+
+        Search(Problem problem, SplittableRandom random) {
+            this.problem = problem;
+            this.random = random;
+            this.slot = new int[problem.sessionCount];
+            this.room = new int[problem.sessionCount];
+            this.pattern = new int[problem.sessionCount];
+            this.occupancy = new int[problem.resourceCount * problem.slotCount * 2];
+            this.groupDayBuilding = new int[problem.groupCount * problem.dayCount * problem.buildingCount];
+            this.groupDayBuildings = new int[problem.groupCount * problem.dayCount];
+        }
+
+        long cost() {
+            return (long) hard * HARD_WEIGHT + soft;
+        }
+
+        // greedy start: sessions in random order, each one on its cheapest spot
+        void construct() {
+            int[] order = new int[problem.sessionCount];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            for (int session : order)
+                placeBest(session);
+        }
+
+        // one min-conflicts move, false once there is nothing left to improve
+        boolean step() {
+            int session;
+            if (hard > 0) {
+                session = findConflicted();
+            } else if (soft > 0) {
+                session = random.nextInt(problem.sessionCount);
+            } else {
+                return false;
+            }
+
+            unplace(session);
+            if (random.nextDouble() < RANDOM_MOVE_PROBABILITY)
+                placeRandomly(session);
+            else
+                placeBest(session);
+            return true;
+        }
+
+        private int findConflicted() {
+            int start = random.nextInt(problem.sessionCount);
+            for (int offset = 0; offset < problem.sessionCount; offset++) {
+                int session = (start + offset) % problem.sessionCount;
+                if (isConflicted(session))
+                    return session;
+            }
+            return start;
+        }
+
+        private boolean isConflicted(int session) {
+            int[] weeks = weeksOf(pattern[session]);
+            for (int week : weeks) {
+                if (problem.sessionTeacher[session] >= 0 && occupancy[cell(problem.sessionTeacher[session], slot[session], week)] > 1)
+                    return true;
+                if (occupancy[cell(problem.sessionGroupResource[session], slot[session], week)] > 1)
+                    return true;
+                if (room[session] >= 0 && occupancy[cell(problem.roomResource[room[session]], slot[session], week)] > 1)
+                    return true;
+            }
+            return false;
+        }
+
+        private void placeBest(int session) {
+            int[] patterns = problem.sessionBiweekly[session] ? new int[]{EVEN, ODD} : new int[]{NORMAL};
+            int[] rooms = problem.sessionRooms[session];
+
+            long bestCost = Long.MAX_VALUE;
+            int bestSlot = 0, bestRoom = -1, bestPattern = patterns[0];
+            int ties = 0;
+
+            for (int candidateSlot = 0; candidateSlot < problem.slotCount; candidateSlot++) {
+                for (int candidatePattern : patterns) {
+                    long timeCost = (long) HARD_WEIGHT * busyCells(problem.sessionTeacher[session], candidateSlot, candidatePattern)
+                            + (long) HARD_WEIGHT * busyCells(problem.sessionGroupResource[session], candidateSlot, candidatePattern);
+
+                    if (rooms.length == 0) {
+                        if (timeCost < bestCost) {
+                            bestCost = timeCost;
+                            bestSlot = candidateSlot;
+                            bestPattern = candidatePattern;
+                            ties = 1;
+                        } else if (timeCost == bestCost && random.nextInt(++ties) == 0) {
+                            bestSlot = candidateSlot;
+                            bestPattern = candidatePattern;
+                        }
+                        continue;
+                    }
+
+                    if (timeCost > bestCost)
+                        continue;
+
+                    int day = candidateSlot / problem.settings.getLessonsPerDay();
+                    for (int candidateRoom : rooms) {
+                        long cost = timeCost
+                                + (long) HARD_WEIGHT * busyCells(problem.roomResource[candidateRoom], candidateSlot, candidatePattern)
+                                + buildingSwitch(session, day, candidateRoom);
+
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestSlot = candidateSlot;
+                            bestRoom = candidateRoom;
+                            bestPattern = candidatePattern;
+                            ties = 1;
+                        } else if (cost == bestCost && random.nextInt(++ties) == 0) {
+                            bestSlot = candidateSlot;
+                            bestRoom = candidateRoom;
+                            bestPattern = candidatePattern;
+                        }
+                    }
+                }
+            }
+
+            place(session, bestSlot, bestRoom, bestPattern);
+        }
+
+        private void placeRandomly(int session) {
+            int[] rooms = problem.sessionRooms[session];
+            int newPattern = problem.sessionBiweekly[session] ? (random.nextBoolean() ? EVEN : ODD) : NORMAL;
+            int newRoom = rooms.length == 0 ? -1 : rooms[random.nextInt(rooms.length)];
+
+            place(session, random.nextInt(problem.slotCount), newRoom, newPattern);
+        }
+
+        private int busyCells(int resource, int candidateSlot, int candidatePattern) {
+            if (resource < 0)
+                return 0;
+
+            int busy = 0;
+            for (int week : weeksOf(candidatePattern)) {
+                if (occupancy[cell(resource, candidateSlot, week)] > 0)
+                    busy++;
+            }
+            return busy;
+        }
+
+        private int buildingSwitch(int session, int day, int candidateRoom) {
+            int groupDay = problem.sessionGroup[session] * problem.dayCount + day;
+            int building = problem.roomBuilding[candidateRoom];
+
+            return groupDayBuilding[groupDay * problem.buildingCount + building] == 0 && groupDayBuildings[groupDay] > 0 ? 1 : 0;
+        }
+
+        private void place(int session, int newSlot, int newRoom, int newPattern) {
+            slot[session] = newSlot;
+            room[session] = newRoom;
+            pattern[session] = newPattern;
+
+            for (int week : weeksOf(newPattern)) {
+                occupy(problem.sessionTeacher[session], newSlot, week);
+                occupy(problem.sessionGroupResource[session], newSlot, week);
+                if (newRoom >= 0)
+                    occupy(problem.roomResource[newRoom], newSlot, week);
+            }
+
+            if (newRoom >= 0) {
+                int groupDay = problem.sessionGroup[session] * problem.dayCount + newSlot / problem.settings.getLessonsPerDay();
+                if (groupDayBuilding[groupDay * problem.buildingCount + problem.roomBuilding[newRoom]]++ == 0
+                        && groupDayBuildings[groupDay]++ >= 1) {
+                    soft++;
+                }
+            }
+        }
+
+        private void unplace(int session) {
+            for (int week : weeksOf(pattern[session])) {
+                release(problem.sessionTeacher[session], slot[session], week);
+                release(problem.sessionGroupResource[session], slot[session], week);
+                if (room[session] >= 0)
+                    release(problem.roomResource[room[session]], slot[session], week);
+            }
+
+            if (room[session] >= 0) {
+                int groupDay = problem.sessionGroup[session] * problem.dayCount + slot[session] / problem.settings.getLessonsPerDay();
+                if (--groupDayBuilding[groupDay * problem.buildingCount + problem.roomBuilding[room[session]]] == 0
+                        && --groupDayBuildings[groupDay] >= 1) {
+                    soft--;
+                }
+            }
+        }
+
+        private void occupy(int resource, int atSlot, int week) {
+            if (resource >= 0 && occupancy[cell(resource, atSlot, week)]++ >= 1)
+                hard++;
+        }
+
+        private void release(int resource, int atSlot, int week) {
+            if (resource >= 0 && --occupancy[cell(resource, atSlot, week)] >= 1)
+                hard--;
+        }
+
+        private int cell(int resource, int atSlot, int week) {
+            return (resource * problem.slotCount + atSlot) * 2 + week;
+        }
+
+        private static final int[] BOTH_WEEKS = {0, 1};
+        private static final int[] EVEN_WEEKS = {0};
+        private static final int[] ODD_WEEKS = {1};
+
+        private static int[] weeksOf(int lessonPattern) {
+            return switch (lessonPattern) {
+                case EVEN -> EVEN_WEEKS;
+                case ODD -> ODD_WEEKS;
+                default -> BOTH_WEEKS;
+            };
+        }
+    }
+
+    // Best timetable any worker has published so far
+    private static final class BestSolution {
+        record Snapshot(int hard, int soft, int[] slot, int[] room, int[] pattern) {
+            long cost() {
+                return (long) hard * HARD_WEIGHT + soft;
+            }
+        }
+
+        private Snapshot best;
+
+        synchronized void offer(Search search) {
+            if (best != null && best.cost() <= search.cost())
+                return;
+
+            best = new Snapshot(search.hard, search.soft,
+                    search.slot.clone(), search.room.clone(), search.pattern.clone());
+        }
+
+        synchronized Snapshot snapshot() {
+            return best;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Student;
+import com.byt.enums.scheduling.WeekPattern;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Answers "schedule of X in week W of a semester" for teachers, groups, classrooms and students.
+//
+// Every lesson is indexed once per resource it uses and per semester it runs in, on a timeline
+// kept sorted by day and start time. For each timeline the lessons of odd and of even weeks are
+// resolved once and cached, so a week lookup is a hash lookup plus dating the lessons of that week.
+// Adding or removing a lesson only drops the caches of the timelines it is on.
+//
+// Weeks are calendar weeks (Monday to Sunday) counted from 1, week 1 being the one the semester
+// starts in. Odd weeks run ODD lessons, even weeks EVEN ones and NORMAL lessons run every week.
+// Lessons are never dated outside the semester, so the first and last week may be partial.
+//
+// Resources are identified by their natural keys (teacher/student email, group/classroom name),
+// students through the members of the lesson's group. Those belong to the linked entities, which
+// change without the lesson being written again: rekey() looks at every lesson's keys once more
+// and moves the ones that changed, the owner calls it when the links did.
+// The engine keeps a read-only copy of every lesson of its own and hands those out.
+//
+// Safe to share between threads: lookups run in parallel under a read lock, changes wait for them.
+public final class TimetableQueryEngine {
+
+    public enum Resource {
+        TEACHER,
+        GROUP,
+        CLASSROOM,
+        STUDENT
+    }
+
+    public record ScheduledLesson(LocalDate date, Lesson lesson) {}
+
+    public record WeekSchedule(String semester, int week, LocalDate monday, List<ScheduledLesson> lessons) {}
+
+    private static final Comparator<Lesson> TIMELINE_ORDER = Comparator
+            .comparing((Lesson lesson) -> lesson.getDayOfWeek().ordinal())
+            .thenComparing(Lesson::getStartTime)
+            .thenComparing(Lesson::getEndTime)
+            .thenComparing(Lesson::getName);
+
+    // _________________________________________________________
+
+    private record TimelineKey(Resource resource, String resourceId, String semester) {}
+
+    private static final class Timeline {
+        private final List<Lesson> lessons = new ArrayList<>();
+        // lessons of odd and even weeks, null until asked for after a change. Filled by readers,
+        // which may race - either result is the same list
+        private volatile List<Lesson> oddWeeks;
+        private volatile List<Lesson> evenWeeks;
+
+        void add(Lesson lesson) {
+            int at = Collections.binarySearch(lessons, lesson, TIMELINE_ORDER);
+            lessons.add(at < 0 ? -at - 1 : at, lesson);
+            changed();
+        }
+
+        void remove(Lesson lesson) {
+            int at = Collections.binarySearch(lessons, lesson, TIMELINE_ORDER);
+            if (at >= 0)
+                lessons.remove(at);
+            changed();
+        }
+
+        boolean isEmpty() {
+            return lessons.isEmpty();
+        }
+
+        List<Lesson> forWeek(boolean oddWeek) {
+            if (oddWeek) {
+                List<Lesson> result = oddWeeks;
+                if (result == null)
+                    oddWeeks = result = running(WeekPattern.ODD);
+                return result;
+            }
+
+            List<Lesson> result = evenWeeks;
+            if (result == null)
+                evenWeeks = result = running(WeekPattern.EVEN);
+            return result;
+        }
+
+        private List<Lesson> running(WeekPattern weekPattern) {
+            List<Lesson> result = new ArrayList<>(lessons.size());
+            for (Lesson lesson : lessons) {
+                WeekPattern pattern = lesson.getWeekPattern();
+                if (pattern == null || pattern == WeekPattern.NORMAL || pattern == weekPattern)
+                    result.add(lesson);
+            }
+            return result;
+        }
+
+        private void changed() {
+            oddWeeks = null;
+            evenWeeks = null;
+        }
+    }
+
+    private final Map<TimelineKey, Timeline> timelines = new HashMap<>();
+    private final Map<String, IndexedLesson> indexedLessons = new HashMap<>();
+
+    private record IndexedLesson(Lesson lesson, List<TimelineKey> keys) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TimetableQueryEngine() {
+    }
+
+    public TimetableQueryEngine(Collection<Lesson> lessons) {
+        for (Lesson lesson : lessons)
+            add(lesson);
+    }
+
+    // Indexes the lesson, replacing whatever was indexed under its name
+    public void add(Lesson lesson) {
+        if (lesson == null || lesson.getName() == null)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            unindex(lesson.getName());
+            if (lesson.getDayOfWeek() == null || lesson.getStartTime() == null || lesson.getEndTime() == null)
+                return;
+
+            index(Lesson.readOnly(Lesson.copy(lesson)), keysOf(lesson));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Files the indexed lessons among the lessons given under the keys their links lead to now.
+    // Lessons whose keys stayed the same aren't touched.
+    public void rekey(Collection<Lesson> lessons) {
+        lock.writeLock().lock();
+        try {
+            for (Lesson lesson : lessons) {
+                IndexedLesson indexed = indexedLessons.get(lesson.getName());
+                if (indexed == null)
+                    continue;
+
+                List<TimelineKey> keys = keysOf(lesson);
+                if (keys.equals(indexed.keys()))
+                    continue;
+
+                unindex(lesson.getName());
+                index(indexed.lesson(), keys);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String lessonName) {
+        lock.writeLock().lock();
+        try {
+            unindex(lessonName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexedLessons.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Lesson lesson, List<TimelineKey> keys) {
+        for (TimelineKey key : keys)
+            timelines.computeIfAbsent(key, k -> new Timeline()).add(lesson);
+
+        indexedLessons.put(lesson.getName(), new IndexedLesson(lesson, keys));
+    }
+
+    private void unindex(String lessonName) {
+        IndexedLesson indexed = indexedLessons.remove(lessonName);
+        if (indexed == null)
+            return;
+
+        for (TimelineKey key : indexed.keys()) {
+            Timeline timeline = timelines.get(key);
+            if (timeline == null)
+                continue;
+
+            timeline.remove(indexed.lesson());
+            if (timeline.isEmpty())
+                timelines.remove(key);
+        }
+    }
+
+    // _________________________________________________________
+
+    public WeekSchedule weekSchedule(Resource resource, String resourceId, Semester semester, int week) {
+        if (resource == null || resourceId == null)
+            throw new IllegalArgumentException("Resource and resource id must not be null");
+
+        int weeks = weekCount(semester);
+        if (week < 1 || week > weeks)
+            throw new IllegalArgumentException("Week must be between 1 and " + weeks + ", was " + week);
+
+        LocalDate monday = firstMonday(semester).plusWeeks(week - 1);
+        List<Lesson> running;
+
+        lock.readLock().lock();
+        try {
+            Timeline timeline = timelines.get(new TimelineKey(resource, resourceId, semester.getName()));
+            if (timeline == null)
+                return new WeekSchedule(semester.getName(), week, monday, List.of());
+
+            // the cached week lists are never modified, only dropped, so they outlive the lock
+            running = timeline.forWeek(week % 2 == 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // only the first and the last week can stick out of the semester
+        boolean partialWeek = week == 1 || week == weeks;
+
+        List<ScheduledLesson> scheduled = new ArrayList<>(running.size());
+        for (Lesson lesson : running) {
+            LocalDate date = monday.plusDays(lesson.getDayOfWeek().ordinal());
+            if (partialWeek && (date.isBefore(semester.getStartDate()) || date.isAfter(semester.getEndDate())))
+                continue;
+
+            scheduled.add(new ScheduledLesson(date, lesson));
+        }
+
+        return new WeekSchedule(semester.getName(), week, monday, Collections.unmodifiableList(scheduled));
+    }
+
+    // The week the date falls into
+    public WeekSchedule weekSchedule(Resource resource, String resourceId, Semester semester, LocalDate date) {
+        return weekSchedule(resource, resourceId, semester, weekOf(semester, date));
+    }
+
+    public static int weekOf(Semester semester, LocalDate date) {
+        validateSemester(semester);
+        if (date == null)
+            throw new IllegalArgumentException("Date must not be null");
+
+        return (int) Math.floorDiv(ChronoUnit.DAYS.between(firstMonday(semester), date), 7) + 1;
+    }
+
+    public static int weekCount(Semester semester) {
+        return weekOf(semester, semester.getEndDate());
+    }
+
+    // _________________________________________________________
+
+    private static void validateSemester(Semester semester) {
+        if (semester == null || semester.getStartDate() == null || semester.getEndDate() == null)
+            throw new IllegalArgumentException("Semester with start and end dates is required");
+        if (semester.getEndDate().isBefore(semester.getStartDate()))
+            throw new IllegalArgumentException("Semester '" + semester.getName() + "' ends before it starts");
+    }
+
+    private static LocalDate firstMonday(Semester semester) {
+        return semester.getStartDate().with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
+    }
+
+    private static List<TimelineKey> keysOf(Lesson lesson) {
+        Map<Resource, List<String>> resources = new EnumMap<>(Resource.class);
+        if (lesson.getTeacher() != null)
+            resources.put(Resource.TEACHER, List.of(lesson.getTeacher().getEmail()));
+
+        if (lesson.getGroup() != null) {
+            resources.put(Resource.GROUP, List.of(lesson.getGroup().getName()));
+
+            List<String> students = new ArrayList<>();
+            for (Student student : lesson.getGroup().getStudentsView())
+                students.add(student.getEmail());
+            resources.put(Resource.STUDENT, students);
+        }
+
+        List<String> classRooms = new ArrayList<>();
+        for (ClassRoom classRoom : lesson.getClassRoomsView())
+            classRooms.add(classRoom.getName());
+        resources.put(Resource.CLASSROOM, classRooms);
+
+        Set<Semester> semesters = lesson.getSemesters();
+        List<TimelineKey> keys = new ArrayList<>();
+        resources.forEach((resource, ids) -> {
+            for (String id : ids) {
+                if (id == null)
+                    continue;
+
+                for (Semester semester : semesters)
+                    keys.add(new TimelineKey(resource, id, semester.getName()));
+            }
+        });
+
+        return keys;
+    }
+}
@@ -1,9 +1,15 @@
 package com.byt.services.user_system;
 
 import com.byt.data.user_system.Admin;
+import com.byt.persistence.EntityChange;
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.StripedLocks;
 import com.byt.validation.user_system.AdminValidator;
 import com.google.gson.reflect.TypeToken;
 
@@ -13,17 +19,23 @@ import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Flow;
 
 public class AdminService implements CRUDService<Admin> {
 
     private final SaveLoadService service;
-    private List<Admin> admins;
+    private KeyedStore<Admin> admins;
+    // the supervision links can reach any admin, so writes take the whole collection
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.ADMINS);
+    private final ChangeFeed<Admin> changeFeed = new ChangeFeed<>(Admin::getEmail, Admin::copy);
+    // emails shared with the other user services, null keeps them to this one
+    private volatile EmailIdentityIndex identities;
 
     private static final Type ADMIN_LIST_TYPE = new TypeToken<List<Admin>>() {}.getType();
 
     public AdminService(SaveLoadService service, List<Admin> admins) {
         this.service = service;
-        this.admins = admins != null ? new ArrayList<>(admins) : new ArrayList<>();
+        this.admins = new KeyedStore<>(Admin::getEmail, Admin::readOnly, admins);
     }
 
     public AdminService(SaveLoadService service) {
@@ -33,22 +45,33 @@ public class AdminService implements CRUDService<Admin> {
     @Override
     public void initialize() throws IOException {
         List<Admin> loaded = loadFromDb();
-        this.admins = new ArrayList<>(loaded);
+        this.admins = new KeyedStore<>(Admin::getEmail, Admin::readOnly, loaded);
 
-        Map<String, Admin> byEmail = new HashMap<>();
-        for (Admin a : admins) {
-            byEmail.put(a.getEmail(), a);
-        }
-
-        for (Admin a : admins) {
+        for (Admin a : admins.values()) {
             String superEmail = a.getSuperAdminEmail();
             if (superEmail != null) {
-                Admin parent = byEmail.get(superEmail);
+                Admin parent = admins.get(superEmail);
                 if (parent != null) {
                     a.addSuperAdmin(parent);
                 }
             }
         }
+
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            registerIdentities(index);
+    }
+
+    // Admins then can't take an email a student, teacher or free listener has, nor the other way round
+    public void setIdentityIndex(EmailIdentityIndex identities) {
+        EmailIdentityIndex previous = this.identities;
+        if (previous != null)
+            previous.unregister(EmailIdentityIndex.Role.ADMIN);
+
+        this.identities = null;
+        if (identities != null)
+            registerIdentities(identities);
+        this.identities = identities;
     }
 
     public Admin create(String firstName, String lastName, String familyName,
@@ -59,103 +82,87 @@ public class AdminService implements CRUDService<Admin> {
                 dateOfBirth, phoneNumber, email,
                 hireDate, lastLoginTime);
 
-        if (email != null && exists(email)) {
-            throw new IllegalStateException("Admin exists with this email already");
-        }
-
-        if (superAdmin != null) {
-            if (Objects.equals(superAdmin.getEmail(), email)) {
-                throw new IllegalArgumentException("Admin cannot supervise himself");
+        try (StripedLocks.Held held = locks.lockAll()) {
+            if (email != null && exists(email)) {
+                throw new IllegalStateException("Admin exists with this email already");
             }
-            if (!exists(superAdmin)) {
-                throw new IllegalArgumentException("Superadmin with email = " + superAdmin.getEmail() + " does not exist");
-            }
-        }
 
-        Admin storedSuper = null;
-        if (superAdmin != null) {
-            String superEmail = superAdmin.getEmail();
-
-            if (Objects.equals(superEmail, email)) {
-                throw new IllegalArgumentException("Admin cannot supervise himself");
+            if (superAdmin != null) {
+                if (Objects.equals(superAdmin.getEmail(), email)) {
+                    throw new IllegalArgumentException("Admin cannot supervise himself");
+                }
+                if (!exists(superAdmin)) {
+                    throw new IllegalArgumentException("Superadmin with email = " + superAdmin.getEmail() + " does not exist");
+                }
             }
 
-            for (Admin a : admins) {
-                if (Objects.equals(a.getEmail(), superEmail)) {
-                    storedSuper = a;
-                    break;
+            Admin storedSuper = null;
+            if (superAdmin != null) {
+                String superEmail = superAdmin.getEmail();
+
+                if (Objects.equals(superEmail, email)) {
+                    throw new IllegalArgumentException("Admin cannot supervise himself");
                 }
-            }
 
-            if (storedSuper == null) {
-                throw new IllegalArgumentException("Superadmin with email = " + superEmail + " does not exist");
+                storedSuper = admins.get(superEmail);
+
+                if (storedSuper == null) {
+                    throw new IllegalArgumentException("Superadmin with email = " + superEmail + " does not exist");
+                }
             }
-        }
 
-        Admin admin = new Admin(firstName, lastName, familyName,
-                dateOfBirth, phoneNumber, email,
-                hireDate, lastLoginTime, null
-        );
+            Admin admin = new Admin(firstName, lastName, familyName,
+                    dateOfBirth, phoneNumber, email,
+                    hireDate, lastLoginTime, null
+            );
 
-        admins.add(admin); // canonical in storage
+            store(admin, storedSuper); // canonical in storage
+            changeFeed.created(admin);
+            return Admin.copy(admin);
 
-        if (storedSuper != null) {
-            admin.addSuperAdmin(storedSuper);
         }
-
-        saveToDb();
-        return Admin.copy(admin);
-
     }
 
     @Override
     public void create(Admin prototype) throws IllegalArgumentException, IOException {
-        AdminValidator.validateClass(prototype);
+        BatchScope.validateOnce(prototype, AdminValidator::validateClass);
 
-        String email = prototype.getEmail();
-        if (email != null && exists(email)) {
-            throw new IllegalArgumentException("Admin with email = " + email + " already exists");
-        }
-
-        Admin superAdmin = prototype.getSuperAdmin();
-
-        if (superAdmin != null) {
-            if (Objects.equals(superAdmin.getEmail(), email)) {
-                throw new IllegalArgumentException("Admin cannot supervise himself");
+        try (StripedLocks.Held held = locks.lockAll()) {
+            String email = prototype.getEmail();
+            if (email != null && exists(email)) {
+                throw new IllegalArgumentException("Admin with email = " + email + " already exists");
             }
-            if (!exists(superAdmin)) {
-                throw new IllegalArgumentException("Superadmin with email = " + superAdmin.getEmail() + " does not exist");
-            }
-        }
 
-        Admin storedSuper = null;
-        if (superAdmin != null) {
-            String superEmail = superAdmin.getEmail();
+            Admin superAdmin = prototype.getSuperAdmin();
 
-            if (Objects.equals(superEmail, email)) {
-                throw new IllegalArgumentException("Admin cannot supervise himself");
+            if (superAdmin != null) {
+                if (Objects.equals(superAdmin.getEmail(), email)) {
+                    throw new IllegalArgumentException("Admin cannot supervise himself");
+                }
+                if (!exists(superAdmin)) {
+                    throw new IllegalArgumentException("Superadmin with email = " + superAdmin.getEmail() + " does not exist");
+                }
             }
 
-            for (Admin a : admins) {
-                if (Objects.equals(a.getEmail(), superEmail)) {
-                    storedSuper = a;
-                    break;
+            Admin storedSuper = null;
+            if (superAdmin != null) {
+                String superEmail = superAdmin.getEmail();
+
+                if (Objects.equals(superEmail, email)) {
+                    throw new IllegalArgumentException("Admin cannot supervise himself");
                 }
-            }
 
-            if (storedSuper == null) {
-                throw new IllegalArgumentException("Superadmin with email = " + superEmail + " does not exist");
-            }
-        }
+                storedSuper = admins.get(superEmail);
 
-        Admin toStore = Admin.copy(prototype);
-        admins.add(toStore);
+                if (storedSuper == null) {
+                    throw new IllegalArgumentException("Superadmin with email = " + superEmail + " does not exist");
+                }
+            }
 
-        if (storedSuper != null) {
-            toStore.addSuperAdmin(storedSuper);
+            Admin toStore = Admin.copy(prototype);
+            store(toStore, storedSuper);
+            changeFeed.created(toStore);
         }
-
-        saveToDb();
     }
 
     @Override
@@ -164,99 +171,103 @@ public class AdminService implements CRUDService<Admin> {
             throw new IllegalArgumentException("Admin email must not be null or blank");
         }
 
-        for (Admin admin : admins) {
-            if (Objects.equals(admin.getEmail(), email)) {
-                return Optional.of(Admin.copy(admin));
-            }
-        }
-        return Optional.empty();
+        Admin admin = admins.get(email);
+        return admin == null ? Optional.empty() : Optional.of(Admin.copy(admin));
     }
 
     @Override
     public List<Admin> getAll() throws IOException {
-        return copyList(admins);
+        return copyList(admins.values());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
     @Override
-    public void update(String email, Admin prototype) throws IllegalArgumentException, IOException {
+    public List<Admin> snapshot() {
+        return admins.snapshot();
+    }
+
+    @Override
+    public Optional<Admin> view(String email) throws IllegalArgumentException {
         if (email == null || email.isBlank()) {
             throw new IllegalArgumentException("Admin email must not be null or blank");
         }
 
-        AdminValidator.validateClass(prototype);
-
-        int index = -1;
-        for (int i = 0; i < admins.size(); i++) {
-            if (Objects.equals(admins.get(i).getEmail(), email)) {
-                index = i;
-                break;
-            }
-        }
-        if (index == -1) {
-            throw new IllegalArgumentException("Admin with email = " + email + " not found");
-        }
+        return Optional.ofNullable(admins.view(email));
+    }
 
-        String newEmail = prototype.getEmail();
-        if (newEmail != null && !Objects.equals(newEmail, email) && exists(newEmail)) {
-            throw new IllegalArgumentException("Admin with email = " + newEmail + " already exists");
+    @Override
+    public void update(String email, Admin prototype) throws IllegalArgumentException, IOException {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Admin email must not be null or blank");
         }
 
-        Admin superAdmin = prototype.getSuperAdmin();
+        BatchScope.validateOnce(prototype, AdminValidator::validateClass);
 
-        if (superAdmin != null) {
-            if (Objects.equals(superAdmin.getEmail(), newEmail)) {
-                throw new IllegalArgumentException("Admin cannot supervise himself");
+        try (StripedLocks.Held held = locks.lockAll()) {
+            Admin oldStored = admins.get(email);
+            if (oldStored == null) {
+                throw new IllegalArgumentException("Admin with email = " + email + " not found");
             }
-            if (!exists(superAdmin.getEmail())) {
-                throw new IllegalArgumentException("Superadmin with email = " + superAdmin.getEmail() + " does not exist");
-            }
-        }
-
-        Admin oldStored = admins.get(index);
+            // changed in place below
+            Admin before = changeFeed.capture(oldStored);
 
-        Admin oldSuper = oldStored.getSuperAdmin();
-        if (prototype.getSuperAdmin() != null) {
-            if (oldSuper != null) {
-                oldSuper.removeSupervisedAdmin(oldStored);
+            String newEmail = prototype.getEmail();
+            if (newEmail != null && !Objects.equals(newEmail, email) && exists(newEmail)) {
+                throw new IllegalArgumentException("Admin with email = " + newEmail + " already exists");
             }
-        }
 
-        Admin storedSuper = null;
-        if (superAdmin != null) {
-            String superEmail = superAdmin.getEmail();
+            Admin superAdmin = prototype.getSuperAdmin();
 
-            if (Objects.equals(superEmail, newEmail)) {
-                throw new IllegalArgumentException("Admin cannot supervise himself");
+            if (superAdmin != null) {
+                if (Objects.equals(superAdmin.getEmail(), newEmail)) {
+                    throw new IllegalArgumentException("Admin cannot supervise himself");
+                }
+                if (!exists(superAdmin.getEmail())) {
+                    throw new IllegalArgumentException("Superadmin with email = " + superAdmin.getEmail() + " does not exist");
+                }
             }
 
-            for (Admin a : admins) {
-                if (Objects.equals(a.getEmail(), superEmail)) {
-                    storedSuper = a;
-                    break;
+            Admin oldSuper = oldStored.getSuperAdmin();
+            if (prototype.getSuperAdmin() != null) {
+                if (oldSuper != null) {
+                    oldSuper.removeSupervisedAdmin(oldStored);
                 }
+            } else {
+                oldSuper = null; // untouched, nothing to save for it
             }
 
-            if (storedSuper == null) {
-                throw new IllegalArgumentException("Superadmin with email = " + superEmail + " does not exist");
+            Admin storedSuper = null;
+            if (superAdmin != null) {
+                String superEmail = superAdmin.getEmail();
+
+                if (Objects.equals(superEmail, newEmail)) {
+                    throw new IllegalArgumentException("Admin cannot supervise himself");
+                }
+
+                storedSuper = admins.get(superEmail);
+
+                if (storedSuper == null) {
+                    throw new IllegalArgumentException("Superadmin with email = " + superEmail + " does not exist");
+                }
             }
-        }
 
-        Admin stored = admins.get(index);
+            Admin stored = oldStored;
 
-        stored.setFirstName(prototype.getFirstName());
-        stored.setLastName(prototype.getLastName());
-        stored.setFamilyName(prototype.getFamilyName());
-        stored.setDateOfBirth(prototype.getDateOfBirth());
-        stored.setPhoneNumber(prototype.getPhoneNumber());
-        stored.setHireDate(prototype.getHireDate());
-        stored.setLastLoginTime(prototype.getLastLoginTime());
-        admins.set(index, stored);
+            stored.setFirstName(prototype.getFirstName());
+            stored.setLastName(prototype.getLastName());
+            stored.setFamilyName(prototype.getFamilyName());
+            stored.setDateOfBirth(prototype.getDateOfBirth());
+            stored.setPhoneNumber(prototype.getPhoneNumber());
+            stored.setHireDate(prototype.getHireDate());
+            stored.setLastLoginTime(prototype.getLastLoginTime());
 
-        if (storedSuper != null) {
-            stored.addSuperAdmin(storedSuper);
-        }
+            if (storedSuper != null) {
+                stored.addSuperAdmin(storedSuper);
+            }
 
-        saveToDb();
+            saveToDb(updated(stored), updated(oldSuper), updated(storedSuper));
+            changeFeed.updated(email, before, stored);
+        }
     }
 
     @Override
@@ -265,27 +276,39 @@ public class AdminService implements CRUDService<Admin> {
             throw new IllegalArgumentException("Admin email must not be null or blank");
         }
 
-        List<Admin> subordinates = getSubordinates(email);
-        if (!subordinates.isEmpty()) {
-            throw new IllegalStateException(
-                    "You are trying to delete SuperAdmin. Use deleteSuperAdmin(email, newSuperadminEmail)"
-            );
-        }
+        try (StripedLocks.Held held = locks.lockAll()) {
+            List<Admin> subordinates = getSubordinates(email);
+            if (!subordinates.isEmpty()) {
+                throw new IllegalStateException(
+                        "You are trying to delete SuperAdmin. Use deleteSuperAdmin(email, newSuperadminEmail)"
+                );
+            }
 
-        for (int i = 0; i < admins.size(); i++) {
-            if (Objects.equals(admins.get(i).getEmail(), email)) {
-                Admin toDelete = admins.get(i);
+            Admin toDelete = admins.get(email);
+            if (toDelete == null) {
+                throw new IllegalArgumentException("Admin with email = " + email + " not found");
+            }
 
-                Admin oldSuper = toDelete.getSuperAdmin();
+            Admin oldSuper = toDelete.getSuperAdmin();
+            if (oldSuper != null) {
+                oldSuper.removeSupervisedAdmin(toDelete);
+            }
+            admins.remove(email);
+            releaseIdentity(email);
+            try {
+                saveToDb(EntityChange.deleted(email), updated(oldSuper));
+            } catch (RuntimeException | IOException ex) {
+                // not saved, so not deleted: the admin comes back under its superadmin
+                admins.put(toDelete);
+                reclaimIdentity(email, ex);
                 if (oldSuper != null) {
-                    oldSuper.removeSupervisedAdmin(toDelete);
+                    toDelete.addSuperAdmin(oldSuper);
+                    admins.touch(oldSuper.getEmail());
                 }
-                admins.remove(i);
-                saveToDb();
-                return;
+                throw ex;
             }
+            changeFeed.deleted(email, toDelete);
         }
-        throw new IllegalArgumentException("Admin with email = " + email + " not found");
     }
 
     public void deleteSuperAdmin(String email, String newSuperadminEmail) throws IllegalArgumentException, IOException {
@@ -293,69 +316,66 @@ public class AdminService implements CRUDService<Admin> {
             throw new IllegalArgumentException("Admin email must not be null or blank");
         }
 
-        Admin adminToDelete = null;
-        for (Admin a : admins) {
-            if (Objects.equals(a.getEmail(), email)) {
-                adminToDelete = a;
-                break;
+        try (StripedLocks.Held held = locks.lockAll()) {
+            Admin adminToDelete = admins.get(email);
+            if (adminToDelete == null) {
+                throw new IllegalArgumentException("Admin with email = " + email + " not found");
             }
-        }
-        if (adminToDelete == null) {
-            throw new IllegalArgumentException("Admin with email = " + email + " not found");
-        }
 
-        boolean hasSubordinates = false;
-        for (Admin a : admins) {
-            if (a.getSuperAdmin() != null && Objects.equals(a.getSuperAdmin().getEmail(), email)) {
-                hasSubordinates = true;
-                break;
+            List<EntityChange> changes = new ArrayList<>();
+            boolean hasSubordinates = false;
+            for (Admin a : admins.values()) {
+                if (a.getSuperAdmin() != null && Objects.equals(a.getSuperAdmin().getEmail(), email)) {
+                    hasSubordinates = true;
+                    break;
+                }
             }
-        }
 
-        if (hasSubordinates) {
-            if (newSuperadminEmail == null || newSuperadminEmail.isBlank()) {
-                throw new IllegalArgumentException("You must provide new SuperAdmin email");
-            }
-            if (!exists(newSuperadminEmail)) {
-                throw new IllegalArgumentException("Admin with email = " + newSuperadminEmail + " not found");
-            }
-            if (Objects.equals(newSuperadminEmail, email)) {
-                throw new IllegalArgumentException("Admin cannot supervise himself");
-            }
+            if (hasSubordinates) {
+                if (newSuperadminEmail == null || newSuperadminEmail.isBlank()) {
+                    throw new IllegalArgumentException("You must provide new SuperAdmin email");
+                }
+                if (!exists(newSuperadminEmail)) {
+                    throw new IllegalArgumentException("Admin with email = " + newSuperadminEmail + " not found");
+                }
+                if (Objects.equals(newSuperadminEmail, email)) {
+                    throw new IllegalArgumentException("Admin cannot supervise himself");
+                }
 
-            makeSuperAdmin(newSuperadminEmail);
+                makeSuperAdmin(newSuperadminEmail);
 
-            Admin superAdmin = null;
-            for (Admin a : admins) {
-                if (Objects.equals(a.getEmail(), newSuperadminEmail)) {
-                    superAdmin = a;
-                    break;
+                Admin superAdmin = admins.get(newSuperadminEmail);
+                if (superAdmin == null) {
+                    throw new IllegalArgumentException("Admin with email = " + newSuperadminEmail + " not found");
                 }
-            }
-            if (superAdmin == null) {
-                throw new IllegalArgumentException("Admin with email = " + newSuperadminEmail + " not found");
-            }
 
-            List<Admin> toMove = new ArrayList<>();
+                List<Admin> toMove = new ArrayList<>();
 
-            for (Admin a : admins) {
-                if (a.getSuperAdmin() != null && Objects.equals(a.getSuperAdmin().getEmail(), email)) {
-                    toMove.add(a);
+                for (Admin a : admins.values()) {
+                    if (a.getSuperAdmin() != null && Objects.equals(a.getSuperAdmin().getEmail(), email)) {
+                        toMove.add(a);
+                    }
                 }
+
+                for (Admin a : toMove) {
+                    a.addSuperAdmin(superAdmin);
+                    changes.add(updated(a));
+                }
+                changes.add(updated(superAdmin));
             }
 
-            for (Admin a : toMove) {
-                a.addSuperAdmin(superAdmin);
+            Admin parent = adminToDelete.getSuperAdmin();
+            if (parent != null) {
+                parent.removeSupervisedAdmin(adminToDelete);
+                changes.add(updated(parent));
             }
-        }
 
-        Admin parent = adminToDelete.getSuperAdmin();
-        if (parent != null) {
-            parent.removeSupervisedAdmin(adminToDelete);
+            admins.remove(email);
+            releaseIdentity(email);
+            changes.add(EntityChange.deleted(email));
+            saveToDb(changes.toArray(EntityChange[]::new));
+            changeFeed.deleted(email, adminToDelete);
         }
-
-        admins.remove(adminToDelete);
-        saveToDb();
     }
 
     public void makeSuperAdmin(String email) throws IOException {
@@ -363,34 +383,138 @@ public class AdminService implements CRUDService<Admin> {
             throw new IllegalArgumentException("Admin email must not be null or blank");
         }
 
-        for (Admin admin : admins) {
-            if (Objects.equals(admin.getEmail(), email)) {
-                admin.removeSuperAdmin();
-                saveToDb();
-                return;
+        try (StripedLocks.Held held = locks.lockAll()) {
+            Admin admin = admins.get(email);
+            if (admin == null) {
+                throw new IllegalArgumentException("Admin with email = " + email + " not found");
             }
+
+            Admin before = changeFeed.capture(admin);
+            Admin oldSuper = admin.getSuperAdmin();
+            admin.removeSuperAdmin();
+            saveToDb(updated(admin), updated(oldSuper));
+            changeFeed.updated(email, before, admin);
         }
-        throw new IllegalArgumentException("Admin with email = " + email + " not found");
     }
 
     @Override
     public boolean exists(String email) throws IOException {
         if (email == null || email.isBlank()) return false;
-        for (Admin admin : admins) {
-            if (Objects.equals(admin.getEmail(), email)) {
-                return true;
-            }
+        return admins.contains(email);
+    }
+
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Admin>> changes() {
+        return changeFeed.publisher();
+    }
+
+    @Override
+    public String keyOf(Admin admin) {
+        return admin.getEmail();
+    }
+
+    @Override
+    public void validate(Admin prototype) {
+        AdminValidator.validateClass(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(service, DataSaveKeys.ADMINS);
+    }
+
+    // Puts the admin back under the superadmin it had
+    @Override
+    public Undo undoDelete(String email) throws IllegalArgumentException {
+        Admin stored = admins.get(email);
+        if (stored == null) {
+            throw new IllegalArgumentException("Admin with email = " + email + " not found");
         }
-        return false;
+
+        Admin original = Admin.copy(stored);
+        Admin superAdmin = stored.getSuperAdmin();
+        return () -> {
+            try (StripedLocks.Held held = locks.lockAll()) {
+                if (exists(email)) {
+                    throw new IllegalArgumentException("Admin with email = " + email + " already exists");
+                }
+
+                Admin storedSuper = superAdmin == null ? null : admins.get(superAdmin.getEmail());
+                claimIdentity(email);
+                admins.put(original);
+                if (storedSuper != null) {
+                    original.addSuperAdmin(storedSuper);
+                }
+
+                saveToDb(created(original), updated(storedSuper));
+                changeFeed.created(original);
+            }
+        };
     }
 
     public boolean exists(Admin admin) throws IOException {
         return exists(admin.getEmail());
     }
 
+    // _________________________________________________________
+
+    // The identity index follows the store, so these go right next to the store changes
+
+    private void claimIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.claim(EmailIdentityIndex.Role.ADMIN, email);
+    }
+
+    private void releaseIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.release(EmailIdentityIndex.Role.ADMIN, email);
+    }
+
+    // Claims the email and stores the new admin under its superadmin, none of it stays if the save fails
+    private void store(Admin toStore, Admin storedSuper) throws IOException {
+        String email = toStore.getEmail();
+        claimIdentity(email);
+        admins.put(toStore);
+        if (storedSuper != null) {
+            toStore.addSuperAdmin(storedSuper);
+        }
+
+        try {
+            saveToDb(created(toStore), updated(storedSuper));
+        } catch (RuntimeException | IOException ex) {
+            toStore.removeSuperAdmin();
+            if (storedSuper != null) {
+                admins.touch(storedSuper.getEmail());
+            }
+            admins.remove(email);
+            releaseIdentity(email);
+            throw ex;
+        }
+    }
+
+    // Takes the email back for a user whose delete failed. Another user may have taken it meanwhile
+    private void reclaimIdentity(String email, Exception failure) {
+        try {
+            claimIdentity(email);
+        } catch (IllegalArgumentException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    // A stored admin whose email another kind of user owns couldn't be told apart from it
+    private void registerIdentities(EmailIdentityIndex index) {
+        List<String> conflicts = index.register(EmailIdentityIndex.Role.ADMIN, this, admins.keys());
+        if (!conflicts.isEmpty()) {
+            index.unregister(EmailIdentityIndex.Role.ADMIN);
+            throw new IllegalStateException("Emails of admins already used by other users: " + conflicts);
+        }
+    }
+
     private List<Admin> getSubordinates(String superadminEmail) {
         List<Admin> raw = new ArrayList<>();
-        for (Admin admin : admins) {
+        for (Admin admin : admins.values()) {
             if (admin.getSuperAdmin() != null
                     && Objects.equals(admin.getSuperAdmin().getEmail(), superadminEmail)) {
 
@@ -405,7 +529,7 @@ public class AdminService implements CRUDService<Admin> {
             return new ArrayList<>();
         }
 
-        Object loaded = service.load(DataSaveKeys.ADMINS, ADMIN_LIST_TYPE);
+        Object loaded = service.loadAll(DataSaveKeys.ADMINS, ADMIN_LIST_TYPE, Admin::getEmail);
 
         if (loaded instanceof List<?> raw) {
             List<Admin> result = new ArrayList<>();
@@ -420,11 +544,27 @@ public class AdminService implements CRUDService<Admin> {
         return new ArrayList<>();
     }
 
-    private void saveToDb() throws IOException {
-        service.save(DataSaveKeys.ADMINS, admins);
+    // supervision links live on both ends, so one operation may change several admins
+    private void saveToDb(EntityChange... changes) throws IOException {
+        List<EntityChange> nonEmpty = new ArrayList<>();
+        for (EntityChange change : changes) {
+            if (change != null) {
+                nonEmpty.add(change);
+                admins.touch(change.id()); // supervision links are changed in place
+            }
+        }
+        service.saveChanges(DataSaveKeys.ADMINS, nonEmpty, admins.values());
+    }
+
+    private static EntityChange created(Admin admin) {
+        return EntityChange.created(admin.getEmail(), admin);
+    }
+
+    private static EntityChange updated(Admin admin) {
+        return admin == null ? null : EntityChange.updated(admin.getEmail(), admin);
     }
 
-    private static List<Admin> copyList(List<Admin> list) {
+    private static List<Admin> copyList(Collection<Admin> list) {
         List<Admin> out = new ArrayList<>();
         if (list == null) return out;
         for (Admin a : list) {
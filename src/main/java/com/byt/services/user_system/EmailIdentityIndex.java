@@ -0,0 +1,148 @@
+package com.byt.services.user_system;
+
+import com.byt.data.user_system.User;
+import com.byt.services.CRUDService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// One owner per email across every user service. Emails are compared trimmed and in lower case,
+// the way issue reports key them, so "Ann@School.edu " and "ann@school.edu" are one identity.
+//
+// The user services register here and claim an email right before they store an entity under it,
+// which keeps a teacher from taking a student's email. Every claim, release and rename is a
+// single operation on a concurrent map, so lookups never lock. A rename claims the new email
+// before it lets go of the old one: for a moment both lead to the same user, but no one else can
+// take either of them in between.
+public final class EmailIdentityIndex {
+
+    public enum Role {
+        STUDENT, FREE_LISTENER, TEACHER, ADMIN
+    }
+
+    // email is the key the role's service stores the user under, as it was given
+    public record Identity(Role role, String email) {
+    }
+
+    // normalized email -> owner
+    private final ConcurrentMap<String, Identity> identities = new ConcurrentHashMap<>();
+    private final Map<Role, CRUDService<? extends User>> services = new ConcurrentHashMap<>();
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+
+    // The role's emails replace whatever it had registered before, services call this whenever
+    // they (re)load. Emails another role already owns stay with that role and are returned.
+    // An email the role keeps is never free in between, so no other role can take it meanwhile
+    public List<String> register(Role role, CRUDService<? extends User> service, Collection<String> emails) {
+        services.put(role, service);
+
+        Set<Identity> registered = new HashSet<>();
+        List<String> conflicts = new ArrayList<>();
+        for (String email : emails) {
+            if (email == null || email.isBlank())
+                continue;
+
+            Identity identity = new Identity(role, email);
+            Identity owner = identities.compute(normalize(email),
+                    (key, current) -> current == null || current.role() == role ? identity : current);
+            if (owner.equals(identity))
+                registered.add(identity);
+            else
+                conflicts.add(email);
+        }
+
+        // what the role had before and doesn't have now, removed only if nothing changed it since
+        identities.entrySet().removeIf(
+                entry -> entry.getValue().role() == role && !registered.contains(entry.getValue()));
+        return conflicts;
+    }
+
+    public void unregister(Role role) {
+        services.remove(role);
+        identities.values().removeIf(identity -> identity.role() == role);
+    }
+
+    // Claiming an email the role already holds under the same spelling changes nothing
+    public void claim(Role role, String email) throws IllegalArgumentException {
+        Identity identity = new Identity(role, email);
+        Identity owner = identities.putIfAbsent(normalize(email), identity);
+        if (owner != null && !owner.equals(identity))
+            throw taken(email, owner);
+    }
+
+    // Only lets go of what the role holds under exactly this email
+    public void release(Role role, String email) {
+        identities.remove(normalize(email), new Identity(role, email));
+    }
+
+    public void rename(Role role, String oldEmail, String newEmail) throws IllegalArgumentException {
+        Identity old = new Identity(role, oldEmail);
+        Identity renamed = new Identity(role, newEmail);
+        String oldKey = normalize(oldEmail);
+        String newKey = normalize(newEmail);
+
+        // only the spelling changes, the identity stays under the same key
+        if (oldKey.equals(newKey)) {
+            identities.compute(newKey, (key, owner) -> {
+                if (owner != null && !owner.equals(old) && !owner.equals(renamed))
+                    throw taken(newEmail, owner);
+                return renamed;
+            });
+            return;
+        }
+
+        Identity owner = identities.putIfAbsent(newKey, renamed);
+        if (owner != null && !owner.equals(renamed))
+            throw taken(newEmail, owner);
+        identities.remove(oldKey, old);
+    }
+
+    public boolean isTaken(String email) {
+        return email != null && identities.containsKey(normalize(email));
+    }
+
+    // Whether the role can store a user under the email: no one owns it, or the role does under this spelling
+    public boolean isAvailable(Role role, String email) {
+        Identity owner = identities.get(normalize(email));
+        return owner == null || owner.equals(new Identity(role, email));
+    }
+
+    public Optional<Identity> find(String email) {
+        if (email == null || email.isBlank())
+            return Optional.empty();
+        return Optional.ofNullable(identities.get(normalize(email)));
+    }
+
+    // The owner itself, as the shared read-only copy its service hands out
+    public Optional<User> findUser(String email) throws IOException {
+        Optional<Identity> identity = find(email);
+        if (identity.isEmpty())
+            return Optional.empty();
+
+        CRUDService<? extends User> service = services.get(identity.get().role());
+        if (service == null)
+            return Optional.empty();
+        return service.view(identity.get().email()).map(User.class::cast);
+    }
+
+    public int size() {
+        return identities.size();
+    }
+
+    // _________________________________________________________
+
+    private static IllegalArgumentException taken(String email, Identity owner) {
+        return new IllegalArgumentException("Email " + email + " is already used by a "
+                + owner.role().name().toLowerCase().replace('_', ' ') + " (" + owner.email() + ")");
+    }
+}
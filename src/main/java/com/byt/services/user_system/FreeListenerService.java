@@ -5,7 +5,13 @@ import com.byt.validation.user_system.FreeListenerValidator;
 
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.LinkChanges;
+import com.byt.services.StripedLocks;
 import com.byt.data.user_system.FreeListener;
 import com.byt.enums.user_system.StudyLanguage;
 import com.byt.validation.user_system.TeacherValidator;
@@ -15,19 +21,24 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.Flow;
 
 public class FreeListenerService implements CRUDService<FreeListener> {
 
     // comments explaining how everything works are in FreeListener Service
     private final SaveLoadService service;
-    private List<FreeListener> freeListeners;
+    private KeyedStore<FreeListener> freeListeners;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.FREE_LISTENERS);
+    private final ChangeFeed<FreeListener> changeFeed = new ChangeFeed<>(FreeListener::getEmail, FreeListener::copy);
+    // emails shared with the other user services, null keeps them to this one
+    private volatile EmailIdentityIndex identities;
 
     private static final Type FREELISTENER_LIST_TYPE = new TypeToken<List<FreeListener>>() {
     }.getType();
 
     public FreeListenerService(SaveLoadService service, List<FreeListener> freeListeners ) {
         this.service = service;
-        this.freeListeners = freeListeners != null ? new ArrayList<>(freeListeners) : new ArrayList<>();
+        this.freeListeners = new KeyedStore<>(FreeListener::getEmail, FreeListener::readOnly, freeListeners);
 
     }
 
@@ -38,7 +49,23 @@ public class FreeListenerService implements CRUDService<FreeListener> {
     @Override
     public void initialize() throws IOException {
         List<FreeListener> loaded = loadFromDb(); // raw objects from our 'DB'
-        this.freeListeners = new ArrayList<>(loaded);
+        this.freeListeners = new KeyedStore<>(FreeListener::getEmail, FreeListener::readOnly, loaded);
+
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            registerIdentities(index);
+    }
+
+    // Free listeners then can't take an email a student, teacher or admin has, nor the other way round
+    public void setIdentityIndex(EmailIdentityIndex identities) {
+        EmailIdentityIndex previous = this.identities;
+        if (previous != null)
+            previous.unregister(EmailIdentityIndex.Role.FREE_LISTENER);
+
+        this.identities = null;
+        if (identities != null)
+            registerIdentities(identities);
+        this.identities = identities;
     }
 
     // _________________________________________________________
@@ -52,34 +79,38 @@ public class FreeListenerService implements CRUDService<FreeListener> {
                 dateOfBirth, phoneNumber, email,
                 languagesOfStudies, notes);
 
-        FreeListener freeListener = new FreeListener(
-                firstName, lastName, familyName,
-                dateOfBirth, phoneNumber, email,
-                new HashSet<>(languagesOfStudies),
-                notes
-        );
+        try (StripedLocks.Held held = locks.lock(email)) {
+            FreeListener freeListener = new FreeListener(
+                    firstName, lastName, familyName,
+                    dateOfBirth, phoneNumber, email,
+                    new HashSet<>(languagesOfStudies),
+                    notes
+            );
 
-        if (freeListener.getEmail() != null && exists(freeListener.getEmail())) {
-            throw new IllegalStateException("freeListener exists with this email already");
-        }
+            if (freeListener.getEmail() != null && exists(freeListener.getEmail())) {
+                throw new IllegalStateException("freeListener exists with this email already");
+            }
 
-        freeListeners.add(freeListener);
-        saveToDb();
-        return FreeListener.copy(freeListener);
+            store(freeListener);
+            changeFeed.created(freeListener);
+            return FreeListener.copy(freeListener);
+        }
     }
 
     @Override
     public void create(FreeListener prototype) throws IllegalArgumentException, IOException {
 
-        FreeListenerValidator.validateClass(prototype);
+        BatchScope.validateOnce(prototype, FreeListenerValidator::validateClass);
 
-        if (prototype.getEmail() != null && exists(prototype.getEmail())) {
-            throw new IllegalArgumentException("freeListener with email = " + prototype.getEmail() + " already exists");
-        }
+        try (StripedLocks.Held held = locks.lock(prototype.getEmail())) {
+            if (prototype.getEmail() != null && exists(prototype.getEmail())) {
+                throw new IllegalArgumentException("freeListener with email = " + prototype.getEmail() + " already exists");
+            }
 
-        FreeListener toStore = FreeListener.copy(prototype);
-        freeListeners.add(toStore);
-        saveToDb();
+            FreeListener toStore = FreeListener.copy(prototype);
+            store(toStore);
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -88,70 +119,93 @@ public class FreeListenerService implements CRUDService<FreeListener> {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        for (FreeListener freeListener : freeListeners) {
-            if (Objects.equals(freeListener.getEmail(), email)) {
-                return Optional.of(FreeListener.copy(freeListener));
-            }
-        }
-
-        return Optional.empty();
+        FreeListener freeListener = freeListeners.get(email);
+        return freeListener == null
+                ? Optional.empty()
+                : Optional.of(FreeListener.copy(freeListener));
     }
 
     @Override
     public List<FreeListener> getAll() throws IOException {
-        return new ArrayList<>(freeListeners.stream().map(FreeListener::copy).toList());
+        return new ArrayList<>(freeListeners.values().stream().map(FreeListener::copy).toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
     @Override
-    public void update(String email, FreeListener prototype) throws IllegalArgumentException, IOException {
+    public List<FreeListener> snapshot() {
+        return freeListeners.snapshot();
+    }
+
+    @Override
+    public Optional<FreeListener> view(String email) throws IllegalArgumentException {
         if (email == null || email.isBlank()) {
             throw new IllegalArgumentException("email must not be null or blank");
         }
-        FreeListenerValidator.validateClass(prototype);
 
-        // firstly we find the old stored student
-        int index = -1;
-        FreeListener oldStored = null;
+        return Optional.ofNullable(freeListeners.view(email));
+    }
 
-        for (int i = 0; i < freeListeners.size(); i++) {
-            if (Objects.equals(freeListeners.get(i).getEmail(), email)) {
-                index = i;
-                oldStored = freeListeners.get(i);
-                break;
-            }
+    @Override
+    public void update(String email, FreeListener prototype) throws IllegalArgumentException, IOException {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("email must not be null or blank");
         }
+        BatchScope.validateOnce(prototype, FreeListenerValidator::validateClass);
 
-        if (index == -1) {
-            throw new IllegalArgumentException("freeListeners with email=" + email + " not found");
-        }
+        try (StripedLocks.Held held = locks.lock(email, prototype.getEmail())) {
+            // firstly we find the old stored student
+            FreeListener oldStored = freeListeners.get(email);
 
-        // then, we validate email change, in order to avoid possible duplicates
-        String newEmail = prototype.getEmail();
-        if (!Objects.equals(newEmail, email)) {
-            if (newEmail != null && exists(newEmail)) {
-                throw new IllegalArgumentException("freeListeners with email=" + newEmail + " already exists");
+            if (oldStored == null) {
+                throw new IllegalArgumentException("freeListeners with email=" + email + " not found");
             }
-        }
 
-        // then, we collect references (FREELISTENERS - GROUP)
-        Set<Group> oldGroups = oldStored.getGroups();
+            // then, we validate email change, in order to avoid possible duplicates
+            String newEmail = prototype.getEmail();
+            if (!Objects.equals(newEmail, email)) {
+                if (newEmail != null && exists(newEmail)) {
+                    throw new IllegalArgumentException("freeListeners with email=" + newEmail + " already exists");
+                }
+            }
+            renameIdentity(email, newEmail);
 
+            // then, we collect references (FREELISTENERS - GROUP)
+            Set<Group> oldGroups = oldStored.getGroups();
 
-        // theen, we remove connection with old instances from references
-        for (Group l : oldGroups) {
-            l.removeFreeListener(oldStored);
-        }
 
-        // finally, we are creating a new student instance (just a copy)
-        FreeListener newStored = FreeListener.copy(prototype);
+            // the groups are changed on their end too, so they're locked as well
+            try (StripedLocks.Held links = lockGroups(oldGroups)) {
+                // theen, we remove connection with old instances from references
+                for (Group l : oldGroups) {
+                    l.removeFreeListener(oldStored);
+                }
+
+                // finally, we are creating a new student instance (just a copy)
+                FreeListener newStored = FreeListener.copy(prototype);
 
-        // AND ----- attaching new instance to the same reference the old one was attached to
-        freeListeners.set(index, newStored);
+                // AND ----- attaching new instance to the same reference the old one was attached to
+                freeListeners.replace(email, newStored);
 
-        for (Group l : oldGroups) {
-            l.addFreeListener(newStored);
+                for (Group l : oldGroups) {
+                    l.addFreeListener(newStored);
+                }
+                LinkChanges.changed(DataSaveKeys.GROUPS);
+                try {
+                    service.saveUpdated(DataSaveKeys.FREE_LISTENERS, email, newStored.getEmail(), newStored, freeListeners.values());
+                } catch (RuntimeException | IOException ex) {
+                    // not saved, so not updated: the old free listener takes its place, links and email back
+                    for (Group l : oldGroups) {
+                        l.removeFreeListener(newStored);
+                        l.addFreeListener(oldStored);
+                    }
+                    LinkChanges.changed(DataSaveKeys.GROUPS);
+                    freeListeners.replace(newEmail, oldStored);
+                    revertIdentity(newEmail, email, ex);
+                    throw ex;
+                }
+                changeFeed.updated(email, oldStored, newStored);
+            }
         }
-        saveToDb();
     }
 
     @Override
@@ -160,56 +214,175 @@ public class FreeListenerService implements CRUDService<FreeListener> {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        // firstly we find the old stored student
-        int index = -1;
-        FreeListener oldStored = null;
+        try (StripedLocks.Held held = locks.lock(email)) {
+            // firstly we find the old stored student
+            FreeListener oldStored = freeListeners.get(email);
 
-        for (int i = 0; i < freeListeners.size(); i++) {
-            if (Objects.equals(freeListeners.get(i).getEmail(), email)) {
-                index = i;
-                oldStored = freeListeners.get(i);
-                break;
+            if (oldStored == null) {
+                throw new IllegalArgumentException("freeListeners with email=" + email + " not found");
+            }
+
+            // then, we collect references (FREELISTENERS - GROUP)
+            Set<Group> oldGroups = oldStored.getGroups();
+
+
+            try (StripedLocks.Held links = lockGroups(oldGroups)) {
+                // theen, we remove connection with old instances from references
+                for (Group l : oldGroups) {
+                    l.removeFreeListener(oldStored);
+                }
+                LinkChanges.changed(DataSaveKeys.GROUPS);
+
+                freeListeners.remove(email);
+                releaseIdentity(email);
+
+                try {
+                    service.saveDeleted(DataSaveKeys.FREE_LISTENERS, email, freeListeners.values());
+                } catch (RuntimeException | IOException ex) {
+                    // not saved, so not deleted: the free listener comes back with its links and email
+                    freeListeners.put(oldStored);
+                    reclaimIdentity(email, ex);
+                    for (Group l : oldGroups) {
+                        l.addFreeListener(oldStored);
+                    }
+                    LinkChanges.changed(DataSaveKeys.GROUPS);
+                    throw ex;
+                }
+                changeFeed.deleted(email, oldStored);
             }
         }
+    }
 
-        if (index == -1) {
+    @Override
+    public boolean exists(String email) throws IOException {
+        if (email == null || email.isBlank()) {
+            return false;
+        }
+        return freeListeners.contains(email);
+    }
+
+    @Override
+    public Flow.Publisher<EntityChangeEvent<FreeListener>> changes() {
+        return changeFeed.publisher();
+    }
+
+    @Override
+    public String keyOf(FreeListener freeListener) {
+        return freeListener.getEmail();
+    }
+
+    @Override
+    public void validate(FreeListener prototype) {
+        FreeListenerValidator.validateClass(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(service, DataSaveKeys.FREE_LISTENERS);
+    }
+
+    // Brings the free listener back into the groups it was in
+    @Override
+    public Undo undoDelete(String email) throws IllegalArgumentException {
+        FreeListener stored = freeListeners.get(email);
+        if (stored == null) {
             throw new IllegalArgumentException("freeListeners with email=" + email + " not found");
         }
 
-        // then, we collect references (FREELISTENERS - GROUP)
-        Set<Group> oldGroups = oldStored.getGroups();
+        FreeListener original = FreeListener.copy(stored);
+        Set<Group> groups = stored.getGroups();
+        return () -> {
+            try (StripedLocks.Held held = locks.lock(email);
+                 StripedLocks.Held links = lockGroups(groups)) {
+                if (exists(email)) {
+                    throw new IllegalArgumentException("freeListener with email = " + email + " already exists");
+                }
 
+                claimIdentity(email);
+                freeListeners.put(original);
+                for (Group l : groups) {
+                    l.addFreeListener(original);
+                }
+                LinkChanges.changed(DataSaveKeys.GROUPS);
+                service.saveCreated(DataSaveKeys.FREE_LISTENERS, email, original, freeListeners.values());
+                changeFeed.created(original);
+            }
+        };
+    }
 
-        // theen, we remove connection with old instances from references
-        for (Group l : oldGroups) {
-            l.removeFreeListener(oldStored);
+    // _________________________________________________________
+
+    // The identity index follows the store, so these go right next to the store changes
+    // Claims the email and stores the new free listener, neither stays if the save fails
+    private void store(FreeListener toStore) throws IOException {
+        String email = toStore.getEmail();
+        claimIdentity(email);
+        freeListeners.put(toStore);
+        try {
+            service.saveCreated(DataSaveKeys.FREE_LISTENERS, email, toStore, freeListeners.values());
+        } catch (RuntimeException | IOException ex) {
+            freeListeners.remove(email);
+            releaseIdentity(email);
+            throw ex;
         }
+    }
 
-        freeListeners.remove(index);
 
-        saveToDb();
+    private void claimIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.claim(EmailIdentityIndex.Role.FREE_LISTENER, email);
     }
 
-    @Override
-    public boolean exists(String email) throws IOException {
-        if (email == null || email.isBlank()) {
-            return false;
+    private void renameIdentity(String oldEmail, String newEmail) {
+        EmailIdentityIndex index = identities;
+        if (index != null && !Objects.equals(oldEmail, newEmail))
+            index.rename(EmailIdentityIndex.Role.FREE_LISTENER, oldEmail, newEmail);
+    }
+
+    private void releaseIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.release(EmailIdentityIndex.Role.FREE_LISTENER, email);
+    }
+
+    // Takes the email back for a user whose delete failed. Another user may have taken it meanwhile
+    private void reclaimIdentity(String email, Exception failure) {
+        try {
+            claimIdentity(email);
+        } catch (IllegalArgumentException ex) {
+            failure.addSuppressed(ex);
         }
-        for (FreeListener freeListener : freeListeners) {
-            if (Objects.equals(freeListener.getEmail(), email)) {
-                return true;
-            }
+    }
+
+    // Takes back a rename whose change failed. Another user may have taken the old email meanwhile
+    private void revertIdentity(String newEmail, String oldEmail, Exception failure) {
+        try {
+            renameIdentity(newEmail, oldEmail);
+        } catch (IllegalArgumentException ex) {
+            failure.addSuppressed(ex);
         }
-        return false;
     }
 
-    // _________________________________________________________
+    // A stored free listener whose email another kind of user owns couldn't be told apart from it
+    private void registerIdentities(EmailIdentityIndex index) {
+        List<String> conflicts = index.register(EmailIdentityIndex.Role.FREE_LISTENER, this, freeListeners.keys());
+        if (!conflicts.isEmpty()) {
+            index.unregister(EmailIdentityIndex.Role.FREE_LISTENER);
+            throw new IllegalStateException("Emails of free listeners already used by other users: " + conflicts);
+        }
+    }
+
+    private static StripedLocks.Held lockGroups(Set<Group> groups) {
+        return StripedLocks.of(DataSaveKeys.GROUPS).lock(groups.stream().map(Group::getName).toArray(String[]::new));
+    }
+
     private List<FreeListener> loadFromDb() throws IOException {
         if (!service.canLoad(DataSaveKeys.FREE_LISTENERS)) {
             return new ArrayList<>();
         }
 
-        Object loaded = service.load(DataSaveKeys.FREE_LISTENERS, FREELISTENER_LIST_TYPE);
+        Object loaded = service.loadAll(DataSaveKeys.FREE_LISTENERS, FREELISTENER_LIST_TYPE, FreeListener::getEmail);
 
         if (loaded instanceof List<?> raw) {
             List<FreeListener> result = new ArrayList<>();
@@ -224,8 +397,4 @@ public class FreeListenerService implements CRUDService<FreeListener> {
         return new ArrayList<>();
     }
 
-    private void saveToDb() throws IOException {
-        service.save(DataSaveKeys.FREE_LISTENERS, freeListeners);
-    }
-
 }
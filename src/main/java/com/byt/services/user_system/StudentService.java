@@ -11,7 +11,13 @@ import com.byt.services.reporting.IssueReportService;
 
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.LinkChanges;
+import com.byt.services.StripedLocks;
 import com.byt.data.user_system.Student;
 import com.byt.enums.user_system.StudyLanguage;
 import com.byt.enums.user_system.StudyStatus;
@@ -21,21 +27,24 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.Flow;
 
 public class StudentService implements CRUDService<Student> {
     // comments explaining how everything works are in Student Service
     private final SaveLoadService service;
     private final IssueReportService issueReportService;
-    private List<Student> students;
+    private KeyedStore<Student> students;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.STUDENTS);
+    private final ChangeFeed<Student> changeFeed = new ChangeFeed<>(Student::getEmail, Student::copy);
+    // emails shared with the other user services, null keeps them to this one
+    private volatile EmailIdentityIndex identities;
 
     private static final Type STUDENT_LIST_TYPE = new TypeToken<List<Student>>() {
     }.getType();
 
     public StudentService(SaveLoadService service, List<Student> students, IssueReportService issueReportService) {
         this.service = service;
-        this.students = students != null
-                ? new ArrayList<>(students)
-                : new ArrayList<>();
+        this.students = new KeyedStore<>(Student::getEmail, Student::readOnly, students);
         this.issueReportService = issueReportService;
     }
 
@@ -46,7 +55,23 @@ public class StudentService implements CRUDService<Student> {
     @Override
     public void initialize() throws IOException {
         List<Student> loaded = loadFromDb(); // raw objects from our 'DB'
-        this.students = new ArrayList<>(loaded);
+        this.students = new KeyedStore<>(Student::getEmail, Student::readOnly, loaded);
+
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            registerIdentities(index);
+    }
+
+    // Students then can't take an email a teacher, admin or free listener has, nor the other way round
+    public void setIdentityIndex(EmailIdentityIndex identities) {
+        EmailIdentityIndex previous = this.identities;
+        if (previous != null)
+            previous.unregister(EmailIdentityIndex.Role.STUDENT);
+
+        this.identities = null;
+        if (identities != null)
+            registerIdentities(identities);
+        this.identities = identities;
     }
 
     // _________________________________________________________
@@ -67,27 +92,31 @@ public class StudentService implements CRUDService<Student> {
                 studiesStatus
         );
 
-        if (student.getEmail() != null && exists(student.getEmail())) {
-            throw new IllegalStateException("student exists with this email already");
-        }
+        try (StripedLocks.Held held = locks.lock(student.getEmail())) {
+            if (student.getEmail() != null && exists(student.getEmail())) {
+                throw new IllegalStateException("student exists with this email already");
+            }
 
-        students.add(student);
-        saveToDb();
-        return Student.copy(student);
+            store(student);
+            changeFeed.created(student);
+            return Student.copy(student);
+        }
     }
 
     @Override
     public void create(Student prototype) throws IllegalArgumentException, IOException {
 
-        StudentValidator.validateClass(prototype);
+        BatchScope.validateOnce(prototype, StudentValidator::validateClass);
 
-        if (prototype.getEmail() != null && exists(prototype.getEmail())) {
-            throw new IllegalArgumentException("student with email = " + prototype.getEmail() + " already exists");
-        }
+        try (StripedLocks.Held held = locks.lock(prototype.getEmail())) {
+            if (prototype.getEmail() != null && exists(prototype.getEmail())) {
+                throw new IllegalArgumentException("student with email = " + prototype.getEmail() + " already exists");
+            }
 
-        Student toStore = Student.copy(prototype);
-        students.add(toStore);
-        saveToDb();
+            Student toStore = Student.copy(prototype);
+            store(toStore);
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -96,45 +125,41 @@ public class StudentService implements CRUDService<Student> {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        for (Student student : students) {
-            if (Objects.equals(student.getEmail(), email)) {
-                return Optional.of(Student.copy(student));
-            }
-        }
-
-        return Optional.empty();
+        Student student = students.get(email);
+        return student == null
+                ? Optional.empty()
+                : Optional.of(Student.copy(student));
     }
 
     @Override
     public List<Student> getAll() throws IOException {
-        return new ArrayList<>(students.stream().map(Student::copy).toList());
+        return new ArrayList<>(students.values().stream().map(Student::copy).toList());
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
     @Override
-    public void update(String email, Student prototype) throws IllegalArgumentException, IOException {
+    public List<Student> snapshot() {
+        return students.snapshot();
+    }
+
+    @Override
+    public Optional<Student> view(String email) throws IllegalArgumentException {
         if (email == null || email.isBlank()) {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        StudentValidator.validateClass(prototype);
-
-        String oldEmail = email;
-
-        // firstly we find the old stored student
-        int index = -1;
-        Student oldStored = null;
+        return Optional.ofNullable(students.view(email));
+    }
 
-        for (int i = 0; i < students.size(); i++) {
-            if (Objects.equals(students.get(i).getEmail(), email)) {
-                index = i;
-                oldStored = students.get(i);
-                break;
-            }
+    @Override
+    public void update(String email, Student prototype) throws IllegalArgumentException, IOException {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        if (index == -1) {
-            throw new IllegalArgumentException("Student with email=" + email + " not found");
-        }
+        BatchScope.validateOnce(prototype, StudentValidator::validateClass);
+
+        String oldEmail = email;
 
         // then, we validate email change, in order to avoid possible duplicates
         String newEmail = prototype.getEmail();
@@ -142,46 +167,70 @@ public class StudentService implements CRUDService<Student> {
             throw new IllegalArgumentException("new email must not be null or blank");
         }
 
-        if (!Objects.equals(newEmail, email)) {
-            if (exists(newEmail)) {
-                throw new IllegalArgumentException("Student with email=" + newEmail + " already exists");
-            }
+        try (StripedLocks.Held held = locks.lock(oldEmail, newEmail)) {
+            // firstly we find the old stored student
+            Student oldStored = students.get(email);
 
-            students.remove(index);
-            students.add(Student.copy(prototype));
-        } else {
-            students.set(index, Student.copy(prototype));
-        }
+            if (oldStored == null) {
+                throw new IllegalArgumentException("Student with email=" + email + " not found");
+            }
 
-        // then, we collect references (STUDENT - GROUP; STUDENT - SPECIALIZATION)
-        Set<Group> oldGroups = oldStored.getGroups();
-        Set<Specialization> oldSpecs = oldStored.getSpecializations();
+            if (!Objects.equals(newEmail, email) && exists(newEmail)) {
+                throw new IllegalArgumentException("Student with email=" + newEmail + " already exists");
+            }
+            renameIdentity(oldEmail, newEmail);
 
+            // then, we collect references (STUDENT - GROUP; STUDENT - SPECIALIZATION)
+            Set<Group> oldGroups = oldStored.getGroups();
+            Set<Specialization> oldSpecs = oldStored.getSpecializations();
 
-        // theen, we remove connection with old instances from references
-        for (Group g : oldGroups) {
-            g.removeStudent(oldStored);
-        }
-        for (Specialization sp : oldSpecs) {
-            sp.removeStudent(oldStored);
-        }
+            // the linked entities are changed on their end too, so they're locked as well
+            try (StripedLocks.Held links = lockLinks(oldGroups, oldSpecs)) {
+                // theen, we remove connection with old instances from references
+                for (Group g : oldGroups) {
+                    g.removeStudent(oldStored);
+                }
+                for (Specialization sp : oldSpecs) {
+                    sp.removeStudent(oldStored);
+                }
 
-        // finally, we are creating a new student instance (just a copy)
-        Student newStored = Student.copy(prototype);
+                // finally, we are creating a new student instance (just a copy)
+                Student newStored = Student.copy(prototype);
 
-        // AND ----- attaching new instance to the same reference the old one was attached to
-        students.set(index, newStored);
+                // AND ----- attaching new instance to the same reference the old one was attached to
+                // (an email change re-keys it, so it moves to the end of the store)
+                students.replace(oldEmail, newStored);
 
-        for (Group g : oldGroups) {
-            g.addStudent(newStored);
-        }
-        for (Specialization sp : oldSpecs) {
-            sp.addStudent(newStored);
-        }
-        saveToDb();
+                for (Group g : oldGroups) {
+                    g.addStudent(newStored);
+                }
+                for (Specialization sp : oldSpecs) {
+                    sp.addStudent(newStored);
+                }
+                LinkChanges.changed(DataSaveKeys.SPECIALIZATIONS, DataSaveKeys.GROUPS);
+                try {
+                    service.saveUpdated(DataSaveKeys.STUDENTS, oldEmail, newEmail, newStored, students.values());
+                } catch (RuntimeException | IOException ex) {
+                    // not saved, so not updated: the old student takes its place, links and email back
+                    for (Group g : oldGroups) {
+                        g.removeStudent(newStored);
+                        g.addStudent(oldStored);
+                    }
+                    for (Specialization sp : oldSpecs) {
+                        sp.removeStudent(newStored);
+                        sp.addStudent(oldStored);
+                    }
+                    LinkChanges.changed(DataSaveKeys.SPECIALIZATIONS, DataSaveKeys.GROUPS);
+                    students.replace(newEmail, oldStored);
+                    revertIdentity(newEmail, oldEmail, ex);
+                    throw ex;
+                }
+                changeFeed.updated(oldEmail, oldStored, newStored);
+            }
 
-        if (issueReportService != null && !Objects.equals(oldEmail, newEmail)) {
-            issueReportService.updateReporterEmail(oldEmail, newEmail);
+            if (issueReportService != null && !Objects.equals(oldEmail, newEmail)) {
+                issueReportService.updateReporterEmail(oldEmail, newEmail);
+            }
         }
     }
 
@@ -192,61 +241,202 @@ public class StudentService implements CRUDService<Student> {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        // firstly we find the old stored student
-        int index = -1;
-        Student oldStored = null;
+        try (StripedLocks.Held held = locks.lock(email)) {
+            // firstly we find the old stored student
+            Student oldStored = students.get(email);
+
+            if (oldStored == null) {
+                throw new IllegalArgumentException("Student with email=" + email + " not found");
+            }
+
+            // then, we collect references (STUDENT - GROUP; STUDENT - SPECIALIZATION)
+            Set<Group> oldGroups = oldStored.getGroups();
+            Set<Specialization> oldSpecs = oldStored.getSpecializations();
 
-        for (int i = 0; i < students.size(); i++) {
-            if (Objects.equals(students.get(i).getEmail(), email)) {
-                index = i;
-                oldStored = students.get(i);
-                break;
+            try (StripedLocks.Held links = lockLinks(oldGroups, oldSpecs)) {
+                // theen, we remove connection with old instances from references
+                for (Group g : oldGroups) {
+                    g.removeStudent(oldStored);
+                }
+                for (Specialization sp : oldSpecs) {
+                    sp.removeStudent(oldStored);
+                }
+                LinkChanges.changed(DataSaveKeys.SPECIALIZATIONS, DataSaveKeys.GROUPS);
+
+                students.remove(email);
+                releaseIdentity(email);
+
+                try {
+                    service.saveDeleted(DataSaveKeys.STUDENTS, email, students.values());
+                } catch (RuntimeException | IOException ex) {
+                    // not saved, so not deleted: the student comes back with its links and email
+                    students.put(oldStored);
+                    reclaimIdentity(email, ex);
+                    for (Group g : oldGroups) {
+                        g.addStudent(oldStored);
+                    }
+                    for (Specialization sp : oldSpecs) {
+                        sp.addStudent(oldStored);
+                    }
+                    LinkChanges.changed(DataSaveKeys.SPECIALIZATIONS, DataSaveKeys.GROUPS);
+                    throw ex;
+                }
+                changeFeed.deleted(email, oldStored);
             }
         }
+    }
 
-        if (index == -1) {
-            throw new IllegalArgumentException("Student with email=" + email + " not found");
+    @Override
+    public boolean exists(String email) throws IOException {
+        if (email == null || email.isBlank()) {
+            return false;
         }
+        return students.contains(email);
+    }
 
-        // then, we collect references (STUDENT - GROUP; STUDENT - SPECIALIZATION)
-        Set<Group> oldGroups = oldStored.getGroups();
-        Set<Specialization> oldSpecs = oldStored.getSpecializations();
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Student>> changes() {
+        return changeFeed.publisher();
+    }
 
+    @Override
+    public String keyOf(Student student) {
+        return student.getEmail();
+    }
 
-        // theen, we remove connection with old instances from references
-        for (Group g : oldGroups) {
-            g.removeStudent(oldStored);
-        }
-        for (Specialization sp : oldSpecs) {
-            sp.removeStudent(oldStored);
-        }
+    @Override
+    public void validate(Student prototype) {
+        StudentValidator.validateClass(prototype);
+    }
 
-        students.remove(index);
+    // Email changes move the student's issue reports along, so their saves are batched as well
+    @Override
+    public BatchScope openBatch() {
+        if (issueReportService == null)
+            return BatchScope.open(service, DataSaveKeys.STUDENTS);
 
-        saveToDb();
+        return BatchScope.of(() -> BatchScope.open(service, DataSaveKeys.STUDENTS), issueReportService::openBatch);
     }
 
+    // Brings the student back into the groups and specializations it was in
     @Override
-    public boolean exists(String email) throws IOException {
-        if (email == null || email.isBlank()) {
-            return false;
+    public Undo undoDelete(String email) throws IllegalArgumentException {
+        Student stored = students.get(email);
+        if (stored == null) {
+            throw new IllegalArgumentException("Student with email=" + email + " not found");
         }
-        for (Student student : students) {
-            if (Objects.equals(student.getEmail(), email)) {
-                return true;
+
+        Student original = Student.copy(stored);
+        Set<Group> groups = stored.getGroups();
+        Set<Specialization> specs = stored.getSpecializations();
+        return () -> {
+            try (StripedLocks.Held held = locks.lock(email);
+                 StripedLocks.Held links = lockLinks(groups, specs)) {
+                if (exists(email)) {
+                    throw new IllegalArgumentException("student with email = " + email + " already exists");
+                }
+
+                claimIdentity(email);
+                students.put(original);
+                for (Group g : groups) {
+                    g.addStudent(original);
+                }
+                for (Specialization sp : specs) {
+                    sp.addStudent(original);
+                }
+                LinkChanges.changed(DataSaveKeys.SPECIALIZATIONS, DataSaveKeys.GROUPS);
+                service.saveCreated(DataSaveKeys.STUDENTS, email, original, students.values());
+                changeFeed.created(original);
             }
-        }
-        return false;
+        };
     }
 
     // _________________________________________________________
 
+    // The identity index follows the store, so these go right next to the store changes
+    // Claims the email and stores the new student, neither stays if the save fails
+    private void store(Student toStore) throws IOException {
+        String email = toStore.getEmail();
+        claimIdentity(email);
+        students.put(toStore);
+        try {
+            service.saveCreated(DataSaveKeys.STUDENTS, email, toStore, students.values());
+        } catch (RuntimeException | IOException ex) {
+            students.remove(email);
+            releaseIdentity(email);
+            throw ex;
+        }
+    }
+
+
+    private void claimIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.claim(EmailIdentityIndex.Role.STUDENT, email);
+    }
+
+    private void renameIdentity(String oldEmail, String newEmail) {
+        EmailIdentityIndex index = identities;
+        if (index != null && !Objects.equals(oldEmail, newEmail))
+            index.rename(EmailIdentityIndex.Role.STUDENT, oldEmail, newEmail);
+    }
+
+    private void releaseIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.release(EmailIdentityIndex.Role.STUDENT, email);
+    }
+
+    // Takes the email back for a user whose delete failed. Another user may have taken it meanwhile
+    private void reclaimIdentity(String email, Exception failure) {
+        try {
+            claimIdentity(email);
+        } catch (IllegalArgumentException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    // Takes back a rename whose change failed. Another user may have taken the old email meanwhile
+    private void revertIdentity(String newEmail, String oldEmail, Exception failure) {
+        try {
+            renameIdentity(newEmail, oldEmail);
+        } catch (IllegalArgumentException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    // A stored student whose email another kind of user owns couldn't be told apart from it
+    private void registerIdentities(EmailIdentityIndex index) {
+        List<String> conflicts = index.register(EmailIdentityIndex.Role.STUDENT, this, students.keys());
+        if (!conflicts.isEmpty()) {
+            index.unregister(EmailIdentityIndex.Role.STUDENT);
+            throw new IllegalStateException("Emails of students already used by other users: " + conflicts);
+        }
+    }
+
+    // specializations before groups, following DataSaveKeys
+    private static StripedLocks.Held lockLinks(Set<Group> groups, Set<Specialization> specializations) {
+        StripedLocks.Held specs = StripedLocks.of(DataSaveKeys.SPECIALIZATIONS)
+                .lock(specializations.stream().map(Specialization::getName).toArray(String[]::new));
+        try {
+            StripedLocks.Held grps = StripedLocks.of(DataSaveKeys.GROUPS)
+                    .lock(groups.stream().map(Group::getName).toArray(String[]::new));
+            return () -> {
+                grps.close();
+                specs.close();
+            };
+        } catch (RuntimeException | Error ex) {
+            specs.close();
+            throw ex;
+        }
+    }
+
     private List<Student> loadFromDb() throws IOException {
         if (!service.canLoad(DataSaveKeys.STUDENTS)) {
             return new ArrayList<>();
         }
 
-        Object loaded = service.load(DataSaveKeys.STUDENTS, STUDENT_LIST_TYPE);
+        Object loaded = service.loadAll(DataSaveKeys.STUDENTS, STUDENT_LIST_TYPE, Student::getEmail);
 
         if (loaded instanceof List<?> raw) {
             List<Student> result = new ArrayList<>();
@@ -260,9 +450,5 @@ public class StudentService implements CRUDService<Student> {
 
         return new ArrayList<>();
     }
-
-    private void saveToDb() throws IOException {
-        service.save(DataSaveKeys.STUDENTS, students);
-    }
 }
 
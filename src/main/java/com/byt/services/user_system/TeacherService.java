@@ -1,11 +1,18 @@
 package com.byt.services.user_system;
 
+import com.byt.data.scheduling.Lesson;
 import com.byt.data.user_system.FreeListener;
 import com.byt.validation.user_system.TeacherValidator;
 
 import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.BatchScope;
 import com.byt.services.CRUDService;
+import com.byt.services.ChangeFeed;
+import com.byt.services.EntityChangeEvent;
+import com.byt.services.KeyedStore;
+import com.byt.services.LinkChanges;
+import com.byt.services.StripedLocks;
 import com.byt.data.user_system.Teacher;
 import com.google.gson.reflect.TypeToken;
 
@@ -16,20 +23,26 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Flow;
 
 public class TeacherService implements CRUDService<Teacher> {
     // comments explaining how everything works are in Admin Service
     private final SaveLoadService service;
-    private List<Teacher> teachers;
+    private KeyedStore<Teacher> teachers;
+    private final StripedLocks locks = StripedLocks.of(DataSaveKeys.TEACHERS);
+    private final ChangeFeed<Teacher> changeFeed = new ChangeFeed<>(Teacher::getEmail, Teacher::copy);
+    // emails shared with the other user services, null keeps them to this one
+    private volatile EmailIdentityIndex identities;
 
     private static final Type TEACHER_LIST_TYPE = new TypeToken<List<Teacher>>() {
     }.getType();
 
     public TeacherService(SaveLoadService service, List<Teacher> teachers) {
         this.service = service;
-        this.teachers = teachers != null
-                ? new ArrayList<>(teachers.stream().map(Teacher::copy).toList())
-                : new ArrayList<>();
+        this.teachers = new KeyedStore<>(Teacher::getEmail, Teacher::readOnly, teachers != null
+                ? teachers.stream().map(Teacher::copy).toList()
+                : null).followLinkChanges(DataSaveKeys.TEACHERS);
     }
 
     public TeacherService(SaveLoadService service) {
@@ -43,7 +56,24 @@ public class TeacherService implements CRUDService<Teacher> {
         System.out.println("DEBUG TeacherService.initialize(): loaded size = " + loaded.size());
         System.out.println("DEBUG loaded class = " + loaded.getClass());
 
-        this.teachers = new ArrayList<>(loaded.stream().map(Teacher::copy).toList()); // safe deep copies
+        this.teachers = new KeyedStore<>(Teacher::getEmail, Teacher::readOnly, loaded.stream().map(Teacher::copy).toList()) // safe deep copies
+                .followLinkChanges(DataSaveKeys.TEACHERS);
+
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            registerIdentities(index);
+    }
+
+    // Teachers then can't take an email a student, admin or free listener has, nor the other way round
+    public void setIdentityIndex(EmailIdentityIndex identities) {
+        EmailIdentityIndex previous = this.identities;
+        if (previous != null)
+            previous.unregister(EmailIdentityIndex.Role.TEACHER);
+
+        this.identities = null;
+        if (identities != null)
+            registerIdentities(identities);
+        this.identities = identities;
     }
 
     // _________________________________________________________
@@ -58,31 +88,35 @@ public class TeacherService implements CRUDService<Teacher> {
                 hireDate, title, position);
 
 
-        Teacher teacher = new Teacher(firstName, lastName, familyName,
-                dateOfBirth, phoneNumber, email,
-                hireDate, title, position
-        );
-        if (teacher.getEmail() != null && exists(teacher.getEmail())) {
-            throw new IllegalStateException("teacher exists with this email already");
+        try (StripedLocks.Held held = locks.lock(email)) {
+            Teacher teacher = new Teacher(firstName, lastName, familyName,
+                    dateOfBirth, phoneNumber, email,
+                    hireDate, title, position
+            );
+            if (teacher.getEmail() != null && exists(teacher.getEmail())) {
+                throw new IllegalStateException("teacher exists with this email already");
+            }
+            Teacher toStore = Teacher.copy(teacher);
+            store(toStore);
+            changeFeed.created(toStore);
+            return Teacher.copy(toStore);
         }
-        Teacher toStore = Teacher.copy(teacher);
-        teachers.add(toStore);
-        saveToDb();
-        return Teacher.copy(toStore);
     }
 
     @Override
     public void create(Teacher prototype) throws IllegalArgumentException, IOException {
 
-        TeacherValidator.validateClass(prototype);
+        BatchScope.validateOnce(prototype, TeacherValidator::validateClass);
 
-        if (prototype.getEmail() != null && exists(prototype.getEmail())) {
-            throw new IllegalArgumentException("teacher with email = " + prototype.getEmail() + " already exists");
-        }
+        try (StripedLocks.Held held = locks.lock(prototype.getEmail())) {
+            if (prototype.getEmail() != null && exists(prototype.getEmail())) {
+                throw new IllegalArgumentException("teacher with email = " + prototype.getEmail() + " already exists");
+            }
 
-        Teacher toStore = Teacher.copy(prototype);
-        teachers.add(toStore);
-        saveToDb();
+            Teacher toStore = Teacher.copy(prototype);
+            store(toStore);
+            changeFeed.created(toStore);
+        }
     }
 
     @Override
@@ -91,56 +125,68 @@ public class TeacherService implements CRUDService<Teacher> {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        for (Teacher teacher : teachers) {
-            if (Objects.equals(teacher.getEmail(), email)) {
-                return Optional.of(Teacher.copy(teacher));
-            }
-        }
-
-        return Optional.empty();
+        Teacher teacher = teachers.get(email);
+        return teacher == null
+                ? Optional.empty()
+                : Optional.of(Teacher.copy(teacher));
     }
 
     @Override
     public List<Teacher> getAll() throws IOException {
-        return teachers.stream().map(Teacher::copy).toList();
+        return teachers.values().stream().map(Teacher::copy).toList();
     }
 
+    // Shared read-only copies, see CRUDService.snapshot()
     @Override
-    public void update(String email, Teacher prototype) throws IllegalArgumentException, IOException {
+    public List<Teacher> snapshot() {
+        return teachers.snapshot();
+    }
+
+    @Override
+    public Optional<Teacher> view(String email) throws IllegalArgumentException {
         if (email == null || email.isBlank()) {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        TeacherValidator.validateClass(prototype);
+        return Optional.ofNullable(teachers.view(email));
+    }
 
-        int index = -1;
-        for (int i = 0; i < teachers.size(); i++) {
-            if (Objects.equals(teachers.get(i).getEmail(), email)) {
-                index = i;
-                break;
-            }
+    @Override
+    public void update(String email, Teacher prototype) throws IllegalArgumentException, IOException {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        if (index == -1) {
-            throw new IllegalArgumentException("Teacher with email=" + email + " not found");
-        }
+        BatchScope.validateOnce(prototype, TeacherValidator::validateClass);
 
-        String newEmail = prototype.getEmail();
+        try (StripedLocks.Held held = locks.lock(email, prototype.getEmail())) {
+            if (!teachers.contains(email)) {
+                throw new IllegalArgumentException("Teacher with email=" + email + " not found");
+            }
 
-        if (!Objects.equals(newEmail, email)) {
-            if (newEmail != null && exists(newEmail)) {
+            String newEmail = prototype.getEmail();
+
+            if (!Objects.equals(newEmail, email) && newEmail != null && exists(newEmail)) {
                 throw new IllegalArgumentException("Teacher with email=" + newEmail + " already exists");
             }
-            teachers.remove(index);
-
+            // same email keeps the teacher's position, a new one moves it to the end
             Teacher toStore = Teacher.copy(prototype);
-            teachers.add(toStore);
-        } else {
-            Teacher updatedCopy = Teacher.copy(prototype);
-            teachers.set(index, updatedCopy);
+            renameIdentity(email, newEmail);
+            Teacher replaced = teachers.replace(email, toStore);
+            // the lessons move to the new teacher, so they're booked under its email from now on
+            Set<Lesson> lessons = replaced.getLessons();
+            teachLessons(lessons, toStore);
+            try {
+                service.saveUpdated(DataSaveKeys.TEACHERS, email, newEmail, toStore, teachers.values());
+            } catch (RuntimeException | IOException ex) {
+                // not saved, so not updated: the old teacher, its lessons and its email come back
+                teachLessons(lessons, replaced);
+                teachers.replace(newEmail, replaced);
+                revertIdentity(newEmail, email, ex);
+                throw ex;
+            }
+            changeFeed.updated(email, replaced, toStore);
         }
-
-        saveToDb();
     }
 
     @Override
@@ -149,14 +195,23 @@ public class TeacherService implements CRUDService<Teacher> {
             throw new IllegalArgumentException("email must not be null or blank");
         }
 
-        for (int i = 0; i < teachers.size(); i++) {
-            if (Objects.equals(teachers.get(i).getEmail(), email)) {
-                teachers.remove(i);
-                saveToDb();
-                return;
+        try (StripedLocks.Held held = locks.lock(email)) {
+            Teacher removed = teachers.remove(email);
+            if (removed == null) {
+                throw new IllegalArgumentException("Teacher with email=" + email + " not found");
             }
+            releaseIdentity(email);
+
+            try {
+                service.saveDeleted(DataSaveKeys.TEACHERS, email, teachers.values());
+            } catch (RuntimeException | IOException ex) {
+                // not saved, so not deleted
+                teachers.put(removed);
+                reclaimIdentity(email, ex);
+                throw ex;
+            }
+            changeFeed.deleted(email, removed);
         }
-        throw new IllegalArgumentException("Teacher with email=" + email + " not found");
     }
 
     @Override
@@ -164,21 +219,107 @@ public class TeacherService implements CRUDService<Teacher> {
         if (email == null || email.isBlank()) {
             return false;
         }
-        for (Teacher teacher : teachers) {
-            if (Objects.equals(teacher.getEmail(), email)) {
-                return true;
-            }
-        }
-        return false;
+        return teachers.contains(email);
+    }
+
+    @Override
+    public Flow.Publisher<EntityChangeEvent<Teacher>> changes() {
+        return changeFeed.publisher();
+    }
+
+    @Override
+    public String keyOf(Teacher teacher) {
+        return teacher.getEmail();
+    }
+
+    @Override
+    public void validate(Teacher prototype) {
+        TeacherValidator.validateClass(prototype);
+    }
+
+    @Override
+    public BatchScope openBatch() {
+        return BatchScope.open(service, DataSaveKeys.TEACHERS);
     }
     // _________________________________________________________
 
+    // The identity index follows the store, so these go right next to the store changes
+
+    // Claims the email and stores the new teacher, neither stays if the save fails
+    private void store(Teacher toStore) throws IOException {
+        String email = toStore.getEmail();
+        claimIdentity(email);
+        teachers.put(toStore);
+        try {
+            service.saveCreated(DataSaveKeys.TEACHERS, email, toStore, teachers.values());
+        } catch (RuntimeException | IOException ex) {
+            teachers.remove(email);
+            releaseIdentity(email);
+            throw ex;
+        }
+    }
+
+    // Makes the teacher the one of the lessons. Lessons come after teachers in DataSaveKeys, so
+    // their stripes can be taken here
+    private static void teachLessons(Set<Lesson> lessons, Teacher teacher) {
+        String[] lessonNames = lessons.stream().map(Lesson::getName).toArray(String[]::new);
+        try (StripedLocks.Held links = StripedLocks.of(DataSaveKeys.LESSONS).lock(lessonNames)) {
+            lessons.forEach(lesson -> lesson.addTeacher(teacher));
+            LinkChanges.changed(DataSaveKeys.LESSONS);
+        }
+    }
+
+    private void claimIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.claim(EmailIdentityIndex.Role.TEACHER, email);
+    }
+
+    private void renameIdentity(String oldEmail, String newEmail) {
+        EmailIdentityIndex index = identities;
+        if (index != null && !Objects.equals(oldEmail, newEmail))
+            index.rename(EmailIdentityIndex.Role.TEACHER, oldEmail, newEmail);
+    }
+
+    private void releaseIdentity(String email) {
+        EmailIdentityIndex index = identities;
+        if (index != null)
+            index.release(EmailIdentityIndex.Role.TEACHER, email);
+    }
+
+    // Takes the email back for a user whose delete failed. Another user may have taken it meanwhile
+    private void reclaimIdentity(String email, Exception failure) {
+        try {
+            claimIdentity(email);
+        } catch (IllegalArgumentException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    // Takes back a rename whose change failed. Another user may have taken the old email meanwhile
+    private void revertIdentity(String newEmail, String oldEmail, Exception failure) {
+        try {
+            renameIdentity(newEmail, oldEmail);
+        } catch (IllegalArgumentException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    // A stored teacher whose email another kind of user owns couldn't be told apart from it
+    private void registerIdentities(EmailIdentityIndex index) {
+        List<String> conflicts = index.register(EmailIdentityIndex.Role.TEACHER, this, teachers.keys());
+        if (!conflicts.isEmpty()) {
+            index.unregister(EmailIdentityIndex.Role.TEACHER);
+            throw new IllegalStateException("Emails of teachers already used by other users: " + conflicts);
+        }
+    }
+
     private List<Teacher> loadFromDb() throws IOException {
         if (!service.canLoad(DataSaveKeys.TEACHERS)) {
             return new ArrayList<>();
         }
 
-        Object loaded = service.load(DataSaveKeys.TEACHERS, TEACHER_LIST_TYPE);
+        Object loaded = service.loadAll(DataSaveKeys.TEACHERS, TEACHER_LIST_TYPE, Teacher::getEmail);
 
         if (loaded instanceof List<?> raw) {
             List<Teacher> result = new ArrayList<>();
@@ -193,8 +334,4 @@ public class TeacherService implements CRUDService<Teacher> {
         return new ArrayList<>();
     }
 
-    private void saveToDb() throws IOException {
-        service.save(DataSaveKeys.TEACHERS, teachers);
-    }
-
 }
@@ -6,6 +6,9 @@ import com.byt.exception.ValidationException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.function.Predicate;
 
 public final class CollectionValidator {
@@ -13,14 +16,45 @@ public final class CollectionValidator {
     private CollectionValidator() {
     }
 
+    // Up to this many elements, comparing each pair is cheaper than hashing them into a set
+    private static final int PAIRWISE_MAX = 16;
+
     public static void assertHasNoDuplicates(Collection<?> collection) {
-        if (new HashSet<>(collection).size() != collection.size())
-            throw new ValidationException(ExceptionCode.NO_DUPLICATES_VIOLATION, "Duplicate elements found in collection!");
+        if (collection.size() < 2 || collection instanceof Set<?>)
+            return;
+        if (collection instanceof List<?> list && list instanceof RandomAccess && list.size() <= PAIRWISE_MAX) {
+            for (int i = 1; i < list.size(); i++) {
+                for (int j = 0; j < i; j++) {
+                    if (Objects.equals(list.get(i), list.get(j)))
+                        throw duplicates();
+                }
+            }
+            return;
+        }
+
+        Set<Object> seen = HashSet.newHashSet(collection.size());
+        for (Object element : collection) {
+            if (!seen.add(element))
+                throw duplicates();
+        }
     }
 
     public static void assertHasNoDuplicates(Object[] array) {
-        if (new HashSet<>(List.of(array)).size() != array.length)
-            throw new ValidationException(ExceptionCode.NO_DUPLICATES_VIOLATION, "Duplicate elements found in collection!");
+        if (array.length <= PAIRWISE_MAX) {
+            for (int i = 1; i < array.length; i++) {
+                for (int j = 0; j < i; j++) {
+                    if (Objects.equals(array[i], array[j]))
+                        throw duplicates();
+                }
+            }
+            return;
+        }
+
+        Set<Object> seen = HashSet.newHashSet(array.length);
+        for (Object element : array) {
+            if (!seen.add(element))
+                throw duplicates();
+        }
     }
 
     public static <TElement> void assertAllElementsAreValid(Iterable<TElement> collection, Predicate<TElement> validityCondition) {
@@ -36,4 +70,10 @@ public final class CollectionValidator {
                 throw new ValidationException(ExceptionCode.VALIDATION_FAILED, "Invalid element found: " + element.toString());
         }
     }
+
+    // _________________________________________________________
+
+    private static ValidationException duplicates() {
+        return new ValidationException(ExceptionCode.NO_DUPLICATES_VIOLATION, "Duplicate elements found in collection!");
+    }
 }
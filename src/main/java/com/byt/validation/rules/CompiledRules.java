@@ -0,0 +1,101 @@
+package com.byt.validation.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+// The rules of an entity class as one flat array, checked front to back. Stateless, so one
+// instance is shared by every thread. Valid entities go through without allocating anything,
+// violations are built once by their rules and only the exception thrown for them is new.
+public final class CompiledRules<TEntity> {
+    private final Violation nullEntity;
+    private final EntityRule<? super TEntity>[] rules;
+
+    CompiledRules(Violation nullEntity, EntityRule<? super TEntity>[] rules) {
+        this.nullEntity = nullEntity;
+        this.rules = rules;
+    }
+
+    // Stops at the first broken rule, null when there is none
+    public Violation firstViolation(TEntity entity) {
+        if (entity == null)
+            return nullEntity;
+
+        for (EntityRule<? super TEntity> rule : rules) {
+            Violation violation = rule.check(entity);
+            if (violation != null)
+                return violation;
+        }
+        return null;
+    }
+
+    // Every broken rule in one pass, an empty list when there is none
+    public List<Violation> violations(TEntity entity) {
+        if (entity == null)
+            return List.of(nullEntity);
+
+        List<Violation> violations = null;
+        for (EntityRule<? super TEntity> rule : rules) {
+            Violation violation = rule.check(entity);
+            if (violation != null) {
+                if (violations == null)
+                    violations = new ArrayList<>(2);
+                violations.add(violation);
+            }
+        }
+        return violations == null ? List.of() : Collections.unmodifiableList(violations);
+    }
+
+    public boolean isValid(TEntity entity) {
+        return firstViolation(entity) == null;
+    }
+
+    // Throws the first violation, the way the static validators always have
+    public void check(TEntity entity) {
+        Violation violation = firstViolation(entity);
+        if (violation != null)
+            throw violation.toException();
+    }
+
+    // Checks the entities in parallel. The invalid ones by their index, with all their violations
+    public SortedMap<Integer, List<Violation>> validateAll(List<? extends TEntity> entities) {
+        List<Violation>[] violations = validateEach(entities);
+
+        SortedMap<Integer, List<Violation>> invalid = new TreeMap<>();
+        for (int i = 0; i < violations.length; i++) {
+            if (violations[i] != null)
+                invalid.put(i, violations[i]);
+        }
+        return invalid;
+    }
+
+    // Checks the entities in parallel and throws the first violation of the first invalid one
+    public void checkAll(List<? extends TEntity> entities) {
+        for (List<Violation> violations : validateEach(entities)) {
+            if (violations != null)
+                throw violations.getFirst().toException();
+        }
+    }
+
+    // _________________________________________________________
+
+    EntityRule<? super TEntity>[] rules() {
+        return rules;
+    }
+
+    // Valid entities are only run through firstViolation, the rest again for all their violations
+    @SuppressWarnings("unchecked")
+    private List<Violation>[] validateEach(List<? extends TEntity> entities) {
+        Object[] items = entities.toArray();
+        List<Violation>[] violations = new List[items.length];
+        IntStream.range(0, items.length).parallel().forEach(i -> {
+            TEntity entity = (TEntity) items[i];
+            if (firstViolation(entity) != null)
+                violations[i] = violations(entity);
+        });
+        return violations;
+    }
+}
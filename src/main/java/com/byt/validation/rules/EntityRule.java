@@ -0,0 +1,8 @@
+package com.byt.validation.rules;
+
+// Checks a whole entity, for constraints between its fields. Returns null when they hold
+@FunctionalInterface
+public interface EntityRule<TEntity> {
+
+    Violation check(TEntity entity);
+}
@@ -0,0 +1,16 @@
+package com.byt.validation.rules;
+
+// Checks one value, returns the violation or null when the value is fine
+@FunctionalInterface
+public interface FieldRule<TValue> {
+
+    Violation check(TValue value);
+
+    // The first violation of the two, so a field is never reported twice
+    default FieldRule<TValue> and(FieldRule<? super TValue> next) {
+        return value -> {
+            Violation violation = check(value);
+            return violation != null ? violation : next.check(value);
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.byt.validation.rules;
+
+import com.byt.exception.ExceptionCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The constraints of one entity class, in the order they are checked. Compiled once into
+// CompiledRules, which is what gets kept and shared:
+//
+//     CompiledRules<Student> STUDENT = RuleSet.<Student>of("Student")
+//             .include(USER)
+//             .rule(student -> STUDIES_STATUS.check(student.getStudiesStatus()))
+//             .compile();
+public final class RuleSet<TEntity> {
+    private final String entityName;
+    private final List<EntityRule<? super TEntity>> rules = new ArrayList<>();
+
+    private RuleSet(String entityName) {
+        this.entityName = entityName;
+    }
+
+    // entityName names the entity in the violation of a null one
+    public static <TEntity> RuleSet<TEntity> of(String entityName) {
+        return new RuleSet<>(entityName);
+    }
+
+    // The rules of a supertype, checked where they are included. They are copied, not called
+    // through, so the compiled rules stay one flat array
+    @SuppressWarnings("unchecked")
+    public RuleSet<TEntity> include(CompiledRules<? super TEntity> shared) {
+        for (EntityRule<?> rule : shared.rules())
+            rules.add((EntityRule<? super TEntity>) rule);
+        return this;
+    }
+
+    public RuleSet<TEntity> rule(EntityRule<? super TEntity> rule) {
+        rules.add(rule);
+        return this;
+    }
+
+    public CompiledRules<TEntity> compile() {
+        @SuppressWarnings("unchecked")
+        EntityRule<? super TEntity>[] compiled = rules.toArray(EntityRule[]::new);
+        Violation nullEntity = new Violation(entityName, ExceptionCode.NOT_NULL_VIOLATION, entityName + " must not be null");
+        return new CompiledRules<>(nullEntity, compiled);
+    }
+}
@@ -0,0 +1,281 @@
+package com.byt.validation.rules;
+
+import com.byt.exception.ExceptionCode;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+// The building blocks of the rule sets. Every rule makes its violations up front, and the text
+// checks walk the characters themselves instead of trimming and matching a Pattern, so checking
+// a valid value allocates nothing. "Trimmed" means what String.trim() would leave.
+public final class Rules {
+
+    private Rules() {
+    }
+
+    // Throws the violation if there is one, for checking single values in place
+    public static void enforce(Violation violation) {
+        if (violation != null)
+            throw violation.toException();
+    }
+
+    // Null passes, anything else is up to the rule
+    public static <TValue> FieldRule<TValue> optional(FieldRule<TValue> rule) {
+        return value -> value == null ? null : rule.check(value);
+    }
+
+    public static FieldRule<Object> notNull(String field) {
+        return notNull(field, ExceptionCode.NOT_NULL_VIOLATION, null);
+    }
+
+    public static FieldRule<Object> notNull(String field, ExceptionCode code, String message) {
+        Violation violation = new Violation(field, code, message);
+        return value -> value == null ? violation : null;
+    }
+
+    // Null, or nothing left once trimmed
+    public static FieldRule<String> notEmpty(String field) {
+        return notEmpty(field, ExceptionCode.NOT_EMPTY_VIOLATION, null);
+    }
+
+    public static FieldRule<String> notEmpty(String field, ExceptionCode code, String message) {
+        Violation violation = new Violation(field, code, message);
+        return value -> value == null || trimmedLength(value) == 0 ? violation : null;
+    }
+
+    // Null, or whitespace only
+    public static FieldRule<String> notBlank(String field, ExceptionCode code, String message) {
+        Violation violation = new Violation(field, code, message);
+        return value -> value == null || value.isBlank() ? violation : null;
+    }
+
+    public static FieldRule<String> maxTrimmedLength(String field, int max, ExceptionCode code, String message) {
+        Violation violation = new Violation(field, code, message);
+        return value -> trimmedLength(value) > max ? violation : null;
+    }
+
+    public static FieldRule<Collection<?>> notEmptyCollection(String field, ExceptionCode code, String message) {
+        Violation violation = new Violation(field, code, message);
+        return value -> value == null || value.isEmpty() ? violation : null;
+    }
+
+    public static FieldRule<Collection<?>> noNullElements(String field, ExceptionCode code, String message) {
+        Violation violation = new Violation(field, code, message);
+        return value -> value != null && containsNull(value) ? violation : null;
+    }
+
+    // Every element is checked with the rule, the first violation counts
+    public static <TElement> FieldRule<Iterable<? extends TElement>> each(FieldRule<? super TElement> rule) {
+        return values -> {
+            if (values == null)
+                return null;
+
+            for (TElement value : values) {
+                Violation violation = rule.check(value);
+                if (violation != null)
+                    return violation;
+            }
+            return null;
+        };
+    }
+
+    public static <TEntity> EntityRule<TEntity> min(String field, ToIntFunction<? super TEntity> getter, int min) {
+        Violation violation = new Violation(field, ExceptionCode.MIN_VALUE_VIOLATION);
+        return entity -> getter.applyAsInt(entity) < min ? violation : null;
+    }
+
+    public static <TEntity> EntityRule<TEntity> max(String field, ToIntFunction<? super TEntity> getter, int max) {
+        Violation violation = new Violation(field, ExceptionCode.MAX_VALUE_VIOLATION);
+        return entity -> getter.applyAsInt(entity) > max ? violation : null;
+    }
+
+    // Latin letters only, between min and max of them once trimmed
+    public static FieldRule<String> latinName(String field, String label, boolean required, int min, int max) {
+        Violation empty = new Violation(field, ExceptionCode.NOT_EMPTY_VIOLATION, label + " must not be empty");
+        Violation length = new Violation(field, ExceptionCode.VALUE_OUT_OF_RANGE,
+                label + " length must be between " + min + " and " + max);
+        Violation format = new Violation(field, ExceptionCode.INVALID_FORMAT, label + " can contain only latin letters");
+
+        return value -> {
+            if (value == null)
+                return required ? empty : null;
+            if (value.isBlank() && required)
+                return empty;
+
+            int start = trimmedStart(value);
+            int end = trimmedEnd(value);
+            if (end - start < min || end - start > max)
+                return length;
+
+            for (int i = start; i < end; i++) {
+                if (!isLatinLetter(value.charAt(i)))
+                    return format;
+            }
+            return null;
+        };
+    }
+
+    // Only digits, between min and max of them once trimmed
+    public static FieldRule<String> digits(String field, String label, int min, int max) {
+        Violation empty = new Violation(field, ExceptionCode.NOT_EMPTY_VIOLATION, label + " must not be empty");
+        Violation format = new Violation(field, ExceptionCode.INVALID_FORMAT, label + " can contain only digits");
+
+        return value -> {
+            if (value == null || value.isBlank())
+                return empty;
+
+            int start = trimmedStart(value);
+            int end = trimmedEnd(value);
+            if (end - start < min || end - start > max)
+                return format;
+
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9')
+                    return format;
+            }
+            return null;
+        };
+    }
+
+    // local@domain.tld once trimmed: [A-Za-z0-9._]+ @ [A-Za-z0-9.-]+ . [A-Za-z]{2,}
+    public static FieldRule<String> email(String field, String label, int maxLength) {
+        Violation empty = new Violation(field, ExceptionCode.NOT_EMPTY_VIOLATION, label + " must not be empty");
+        Violation tooLong = new Violation(field, ExceptionCode.LENGTH_TOO_LONG, label + " is too long");
+        Violation format = new Violation(field, ExceptionCode.INVALID_FORMAT, "Invalid email address");
+
+        return value -> {
+            if (value == null || value.isBlank())
+                return empty;
+
+            int start = trimmedStart(value);
+            int end = trimmedEnd(value);
+            if (end - start > maxLength)
+                return tooLong;
+            return isEmail(value, start, end) ? null : format;
+        };
+    }
+
+    // In the past, and the person between minAge and maxAge years old
+    public static FieldRule<LocalDate> dateOfBirth(String field, int minAge, int maxAge) {
+        return new DateOfBirthRule(field, minAge, maxAge);
+    }
+
+    public static LocalDate today() {
+        return Today.get();
+    }
+
+    public static int trimmedLength(String value) {
+        return trimmedEnd(value) - trimmedStart(value);
+    }
+
+    // _________________________________________________________
+
+    private static int trimmedStart(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ')
+            start++;
+        return start;
+    }
+
+    private static int trimmedEnd(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ')
+            end--;
+        return Math.max(end, trimmedStart(value));
+    }
+
+    private static boolean isLatinLetter(char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // The top level domain can't hold a dot, so it's whatever follows the last one
+    private static boolean isEmail(String value, int start, int end) {
+        int at = start;
+        while (at < end && value.charAt(at) != '@') {
+            char c = value.charAt(at);
+            if (!isLatinLetter(c) && !isDigit(c) && c != '.' && c != '_')
+                return false;
+            at++;
+        }
+        if (at == start || at == end)
+            return false;
+
+        int lastDot = -1;
+        for (int i = at + 1; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '.')
+                lastDot = i;
+            else if (!isLatinLetter(c) && !isDigit(c) && c != '-')
+                return false;
+        }
+        if (lastDot <= at + 1 || end - lastDot - 1 < 2)
+            return false;
+
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isLatinLetter(value.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    // Set.of and List.of won't even be asked whether they hold null
+    private static boolean containsNull(Collection<?> values) {
+        try {
+            return values.contains(null);
+        } catch (NullPointerException ex) {
+            return false;
+        }
+    }
+
+    // The youngest and oldest allowed dates are worked out once a day, not per check
+    private static final class DateOfBirthRule implements FieldRule<LocalDate> {
+        private final int minAge;
+        private final int maxAge;
+        private final Violation missing;
+        private final Violation notPast;
+        private final Violation tooYoung;
+        private final Violation tooOld;
+        private volatile Bounds bounds;
+
+        private record Bounds(LocalDate today, LocalDate youngest, LocalDate oldest) {
+        }
+
+        private DateOfBirthRule(String field, int minAge, int maxAge) {
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+            this.missing = new Violation(field, ExceptionCode.NOT_NULL_VIOLATION, "Date of birth must not be null");
+            this.notPast = new Violation(field, ExceptionCode.VALUE_OUT_OF_RANGE, "Date of birth must be in past");
+            this.tooYoung = new Violation(field, ExceptionCode.VALUE_OUT_OF_RANGE, "User must be at least " + minAge);
+            this.tooOld = new Violation(field, ExceptionCode.VALUE_OUT_OF_RANGE, "User age must be less than " + maxAge);
+        }
+
+        @Override
+        public Violation check(LocalDate date) {
+            if (date == null)
+                return missing;
+
+            Bounds current = bounds();
+            if (!date.isBefore(current.today))
+                return notPast;
+            if (date.isAfter(current.youngest))
+                return tooYoung;
+            if (date.isBefore(current.oldest))
+                return tooOld;
+            return null;
+        }
+
+        private Bounds bounds() {
+            LocalDate today = Today.get();
+            Bounds current = bounds;
+            if (current == null || !current.today.equals(today))
+                bounds = current = new Bounds(today, today.minusYears(minAge), today.minusYears(maxAge));
+            return current;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.byt.validation.rules;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// LocalDate.now() asks the time zone for the offset on every call. The date changes once a day,
+// so it's kept until the next midnight of the zone it was taken in.
+final class Today {
+    private static volatile Day day = dayOf(System.currentTimeMillis());
+
+    private Today() {
+    }
+
+    static LocalDate get() {
+        Day current = day;
+        long now = System.currentTimeMillis();
+        if (now >= current.end || now < current.start)
+            day = current = dayOf(now);
+        return current.date;
+    }
+
+    // _________________________________________________________
+
+    private record Day(LocalDate date, long start, long end) {
+    }
+
+    private static Day dayOf(long now) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+        return new Day(date,
+                date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+}
@@ -0,0 +1,22 @@
+package com.byt.validation.rules;
+
+import com.byt.exception.ExceptionCode;
+import com.byt.exception.ValidationException;
+
+// One broken constraint. Rules build theirs when they are created and hand out the same one
+// every time, so checking allocates nothing, and failing doesn't either until it's thrown.
+public record Violation(String field, ExceptionCode code, String message) {
+
+    public Violation {
+        if (message == null)
+            message = code.getMessage();
+    }
+
+    public Violation(String field, ExceptionCode code) {
+        this(field, code, null);
+    }
+
+    public ValidationException toException() {
+        return new ValidationException(code, message);
+    }
+}
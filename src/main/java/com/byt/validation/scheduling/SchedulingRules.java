@@ -0,0 +1,93 @@
+package com.byt.validation.scheduling;
+
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.scheduling.Specialization;
+import com.byt.data.scheduling.StudyProgram;
+import com.byt.data.scheduling.Subject;
+import com.byt.validation.rules.CompiledRules;
+import com.byt.validation.rules.FieldRule;
+import com.byt.validation.rules.RuleSet;
+import com.byt.validation.rules.Rules;
+
+// The constraints of every scheduling class, compiled once. The violations carry nothing but
+// their code, like Validator's checks always did. Fields that are ints can't be null and aren't
+// checked for it.
+// Every rule reads its field in a lambda of its own: a getter called from one shared place
+// would be a call the JIT can't inline, once per rule and check.
+public final class SchedulingRules {
+
+    private static final FieldRule<String> NAME = Rules.notEmpty("name");
+    private static final FieldRule<String> DESCRIPTION = Rules.optional(Rules.notEmpty("description"));
+    private static final FieldRule<Object> LANGUAGE = Rules.notNull("language");
+
+    private static final FieldRule<Object> TYPE = Rules.notNull("type");
+    private static final FieldRule<Object> MODE = Rules.notNull("mode");
+    private static final FieldRule<Object> START_TIME = Rules.notNull("startTime");
+    private static final FieldRule<Object> END_TIME = Rules.notNull("endTime");
+    private static final FieldRule<Object> DAY_OF_WEEK = Rules.notNull("dayOfWeek");
+    private static final FieldRule<String> NOTE = Rules.optional(Rules.notEmpty("note"));
+    private static final FieldRule<String> ADDRESS = Rules.notEmpty("address");
+    private static final FieldRule<Iterable<? extends String>> NOTES = Rules.each(Rules.notEmpty("notes"));
+    private static final FieldRule<Object> START_DATE = Rules.notNull("startDate");
+    private static final FieldRule<Object> END_DATE = Rules.notNull("endDate");
+    private static final FieldRule<Object> LEVEL = Rules.notNull("level");
+    private static final FieldRule<Iterable<?>> TYPES = Rules.each(Rules.notNull("types"));
+
+    public static final CompiledRules<Lesson> LESSON = RuleSet.<Lesson>of("Lesson")
+            .rule(lesson -> NAME.check(lesson.getName()))
+            .rule(lesson -> TYPE.check(lesson.getType()))
+            .rule(lesson -> MODE.check(lesson.getMode()))
+            .rule(lesson -> START_TIME.check(lesson.getStartTime()))
+            .rule(lesson -> END_TIME.check(lesson.getEndTime()))
+            .rule(lesson -> LANGUAGE.check(lesson.getLanguage()))
+            .rule(lesson -> DAY_OF_WEEK.check(lesson.getDayOfWeek()))
+            .rule(lesson -> NOTE.check(lesson.getNote()))
+            .compile();
+
+    public static final CompiledRules<Building> BUILDING = RuleSet.<Building>of("Building")
+            .rule(building -> NAME.check(building.getName()))
+            .rule(building -> ADDRESS.check(building.getAddress()))
+            .rule(building -> DESCRIPTION.check(building.getDescription()))
+            .compile();
+
+    public static final CompiledRules<ClassRoom> CLASS_ROOM = RuleSet.<ClassRoom>of("ClassRoom")
+            .rule(classRoom -> NAME.check(classRoom.getName()))
+            .rule(Rules.max("floor", ClassRoom::getFloor, 30))
+            .compile();
+
+    public static final CompiledRules<Group> GROUP = RuleSet.<Group>of("Group")
+            .rule(group -> NAME.check(group.getName()))
+            .rule(Rules.max("maxCapacity", Group::getMaxCapacity, Group.MAX_CAPACITY))
+            .rule(group -> LANGUAGE.check(group.getLanguage()))
+            .rule(group -> NOTES.check(group.getNotes()))
+            .compile();
+
+    public static final CompiledRules<Semester> SEMESTER = RuleSet.<Semester>of("Semester")
+            .rule(semester -> NAME.check(semester.getName()))
+            .rule(semester -> START_DATE.check(semester.getStartDate()))
+            .rule(semester -> END_DATE.check(semester.getEndDate()))
+            .compile();
+
+    public static final CompiledRules<Specialization> SPECIALIZATION = RuleSet.<Specialization>of("Specialization")
+            .rule(specialization -> NAME.check(specialization.getName()))
+            .rule(specialization -> DESCRIPTION.check(specialization.getDescription()))
+            .compile();
+
+    public static final CompiledRules<StudyProgram> STUDY_PROGRAM = RuleSet.<StudyProgram>of("StudyProgram")
+            .rule(program -> NAME.check(program.getName()))
+            .rule(program -> LEVEL.check(program.getLevel()))
+            .compile();
+
+    public static final CompiledRules<Subject> SUBJECT = RuleSet.<Subject>of("Subject")
+            .rule(subject -> NAME.check(subject.getName()))
+            .rule(Rules.min("ects", Subject::getEcts, 1))
+            .rule(subject -> TYPES.check(subject.getTypes()))
+            .compile();
+
+    private SchedulingRules() {
+    }
+}
@@ -6,72 +6,38 @@ import com.byt.exception.ValidationException;
 
 public class Validator {
 
+    // The entity checks run the compiled SchedulingRules, the ones below are for single values
+
     public static void validateLesson(Lesson lesson) {
-        notNull(lesson);
-        notEmpty(lesson.getName());
-        notNull(lesson.getType());
-        notNull(lesson.getMode());
-        notNull(lesson.getStartTime());
-        notNull(lesson.getEndTime());
-        notNull(lesson.getLanguage());
-        notNull(lesson.getDayOfWeek());
-        notEmpty(lesson.getNote(), true);
+        SchedulingRules.LESSON.check(lesson);
     }
 
     public static void validateBuilding(Building building) throws ValidationException {
-        Validator.notNull(building);
-        Validator.notEmpty(building.getName());
-        Validator.notEmpty(building.getAddress());
-        Validator.notEmpty(building.getDescription(), true);
+        SchedulingRules.BUILDING.check(building);
     }
 
     public static void validateClassRoom(ClassRoom classRoom) throws ValidationException {
-        Validator.notNull(classRoom);
-        Validator.notEmpty(classRoom.getName());
-        Validator.notNull(classRoom.getFloor());
-        Validator.checkMax(classRoom.getFloor(), 30);
+        SchedulingRules.CLASS_ROOM.check(classRoom);
     }
 
-
     public static void validateGroup(Group group) throws ValidationException {
-        Validator.notNull(group);
-        Validator.notEmpty(group.getName());
-        Validator.checkMax(group.getMaxCapacity(), Group.MAX_CAPACITY);
-        Validator.notNull(group.getLanguage());
-        Validator.notNull(group.getYearOfStudy());
-        if(group.getNotes() != null){
-            group.getNotes().forEach(Validator::notEmpty);
-        }
+        SchedulingRules.GROUP.check(group);
     }
 
     public static void validateSemester(Semester semester) throws ValidationException {
-        Validator.notNull(semester);
-        Validator.notEmpty(semester.getName());
-        Validator.notNull(semester.getStartDate());
-        Validator.notNull(semester.getEndDate());
-        Validator.notNull(semester.getAcademicYear());
+        SchedulingRules.SEMESTER.check(semester);
     }
 
     public static void validateSpecialization(Specialization specialization) {
-        Validator.notNull(specialization);
-        Validator.notEmpty(specialization.getName());
-        Validator.notEmpty(specialization.getDescription(), true);
+        SchedulingRules.SPECIALIZATION.check(specialization);
     }
 
     public static void validateStudyProgram(StudyProgram program) throws ValidationException {
-        Validator.notNull(program);
-        Validator.notEmpty(program.getName());
-        Validator.notNull(program.getLevel());
+        SchedulingRules.STUDY_PROGRAM.check(program);
     }
 
     public static void validateSubject(Subject subject) {
-        Validator.notNull(subject);
-        Validator.notEmpty(subject.getName());
-        Validator.notNull(subject.getHours());
-        Validator.checkMin(subject.getEcts(), 1);
-
-        if(subject.getTypes() != null)
-            subject.getTypes().forEach(Validator::notNull);
+        SchedulingRules.SUBJECT.check(subject);
     }
 
     public static void notNull(Object object) throws ValidationException {
@@ -8,30 +8,14 @@ import com.byt.exception.ValidationException;
 import java.time.LocalDate;
 import java.util.Set;
 
-import static com.byt.data.user_system.FreeListener.MAX_NOTES_LENGTH;
+import static com.byt.validation.rules.Rules.enforce;
 
 public class FreeListenerValidator {
 
     public FreeListenerValidator() {}
 
     public static void validateFreeListener(FreeListener freeListener) {
-        if (freeListener == null) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_NULL_VIOLATION,
-                    "FreeListener must not be null"
-            );
-        }
-
-        validateFreeListener(
-                freeListener.getFirstName(),
-                freeListener.getLastName(),
-                freeListener.getFamilyName(),
-                freeListener.getDateOfBirth(),
-                freeListener.getPhoneNumber(),
-                freeListener.getEmail(),
-                freeListener.getLanguagesOfStudies(),
-                freeListener.getNotes()
-        );
+        UserRules.FREE_LISTENER.check(freeListener);
     }
 
     public static void validateFreeListener(
@@ -53,40 +37,9 @@ public class FreeListenerValidator {
                 email
         );
 
-        if (languagesOfStudies == null || languagesOfStudies.isEmpty()) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_EMPTY_VIOLATION,
-                    "FreeListener must have at least one study language"
-            );
-        }
-
         // With Set<> duplicates are impossible, but null is still possible
-        for (StudyLanguage sl : languagesOfStudies) {
-            if (sl == null) {
-                throw new ValidationException(
-                        ExceptionCode.NOT_NULL_VIOLATION,
-                        "Study language must not be null"
-                );
-            }
-        }
-
-        if (notes != null) {
-            String trimmed = notes.trim();
-
-            if (trimmed.isEmpty()) {
-                throw new ValidationException(
-                        ExceptionCode.NOT_EMPTY_VIOLATION,
-                        "Notes must not be empty"
-                );
-            }
-
-            if (trimmed.length() > MAX_NOTES_LENGTH) {
-                throw new ValidationException(
-                        ExceptionCode.LENGTH_TOO_LONG,
-                        "Notes are too long"
-                );
-            }
-        }
+        enforce(UserRules.FREE_LISTENER_LANGUAGES.check(languagesOfStudies));
+        enforce(UserRules.NOTES.check(notes));
     }
 
     public static void validateClass(FreeListener prototype) {
@@ -97,15 +50,6 @@ public class FreeListenerValidator {
             );
         }
 
-        validateFreeListener(
-                prototype.getFirstName(),
-                prototype.getLastName(),
-                prototype.getFamilyName(),
-                prototype.getDateOfBirth(),
-                prototype.getPhoneNumber(),
-                prototype.getEmail(),
-                prototype.getLanguagesOfStudies(),
-                prototype.getNotes()
-        );
+        UserRules.FREE_LISTENER.check(prototype);
     }
 }
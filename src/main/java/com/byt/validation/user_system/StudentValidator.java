@@ -9,28 +9,14 @@ import com.byt.exception.ValidationException;
 import java.time.LocalDate;
 import java.util.Set;
 
+import static com.byt.validation.rules.Rules.enforce;
+
 public class StudentValidator {
 
     public StudentValidator() {}
 
     public static void validateStudent(Student student) {
-        if (student == null) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_NULL_VIOLATION,
-                    "Student must not be null"
-            );
-        }
-
-        validateStudent(
-                student.getFirstName(),
-                student.getLastName(),
-                student.getFamilyName(),
-                student.getDateOfBirth(),
-                student.getPhoneNumber(),
-                student.getEmail(),
-                student.getLanguagesOfStudies(),
-                student.getStudiesStatus()
-        );
+        UserRules.STUDENT.check(student);
     }
 
     public static void validateStudent(
@@ -52,28 +38,8 @@ public class StudentValidator {
                 email
         );
 
-        if (languagesOfStudies == null || languagesOfStudies.isEmpty()) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_NULL_VIOLATION,
-                    "Student must have at least one study language"
-            );
-        }
-
-        for (StudyLanguage sl : languagesOfStudies) {
-            if (sl == null) {
-                throw new ValidationException(
-                        ExceptionCode.NOT_NULL_VIOLATION,
-                        "Study language must not be null"
-                );
-            }
-        }
-
-        if (studiesStatus == null) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_NULL_VIOLATION,
-                    "Study status must not be null"
-            );
-        }
+        enforce(UserRules.STUDENT_LANGUAGES.check(languagesOfStudies));
+        enforce(UserRules.STUDIES_STATUS.check(studiesStatus));
     }
 
     public static void validateClass(Student prototype) {
@@ -84,15 +50,6 @@ public class StudentValidator {
             );
         }
 
-        validateStudent(
-                prototype.getFirstName(),
-                prototype.getLastName(),
-                prototype.getFamilyName(),
-                prototype.getDateOfBirth(),
-                prototype.getPhoneNumber(),
-                prototype.getEmail(),
-                prototype.getLanguagesOfStudies(),
-                prototype.getStudiesStatus()
-        );
+        UserRules.STUDENT.check(prototype);
     }
 }
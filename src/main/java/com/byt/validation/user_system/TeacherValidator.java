@@ -6,6 +6,8 @@ import com.byt.exception.ValidationException;
 
 import java.time.LocalDate;
 
+import static com.byt.validation.rules.Rules.enforce;
+
 public class TeacherValidator {
 
     private TeacherValidator() {}
@@ -20,24 +22,7 @@ public class TeacherValidator {
     }
 
     public static void validateTeacher(Teacher teacher) {
-        if (teacher == null) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_NULL_VIOLATION,
-                    "Teacher must not be null"
-            );
-        }
-
-        validateTeacher(
-                teacher.getFirstName(),
-                teacher.getLastName(),
-                teacher.getFamilyName(),
-                teacher.getDateOfBirth(),
-                teacher.getPhoneNumber(),
-                teacher.getEmail(),
-                teacher.getHireDate(),
-                teacher.getTitle(),
-                teacher.getPosition()
-        );
+        UserRules.TEACHER.check(teacher);
     }
 
     public static void validateTeacher(
@@ -60,53 +45,9 @@ public class TeacherValidator {
                 email
         );
 
-        if (hireDate == null) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_NULL_VIOLATION,
-                    "Hire date must not be null"
-            );
-        }
-
-        LocalDate today = LocalDate.now();
-        int minAgeAtHire = 18;
-
-        if (dateOfBirth != null) {
-            LocalDate minHireDateByDob = dateOfBirth.plusYears(minAgeAtHire);
-            if (hireDate.isBefore(minHireDateByDob)) {
-                throw new ValidationException(
-                        ExceptionCode.VALUE_OUT_OF_RANGE,
-                        "Person must be at least " + minAgeAtHire + " years old at hire date"
-                );
-            }
-        }
-
-        if (hireDate.isAfter(today)) {
-            throw new ValidationException(
-                    ExceptionCode.VALUE_OUT_OF_RANGE,
-                    "Hire date must not be in the future"
-            );
-        }
-
-        if (dateOfBirth != null && hireDate.isBefore(dateOfBirth)) {
-            throw new ValidationException(
-                    ExceptionCode.VALUE_OUT_OF_RANGE,
-                    "Hire date cannot be before date of birth"
-            );
-        }
-
-        if (title == null || title.isBlank()) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_EMPTY_VIOLATION,
-                    "Title must not be empty"
-            );
-        }
-
-        if (position == null || position.isBlank()) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_EMPTY_VIOLATION,
-                    "Position must not be empty"
-            );
-        }
+        enforce(UserRules.checkHireDate(hireDate, dateOfBirth));
+        enforce(UserRules.TITLE.check(title));
+        enforce(UserRules.POSITION.check(position));
     }
 
     public static void validateClass(Teacher prototype) {
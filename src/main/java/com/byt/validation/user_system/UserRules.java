@@ -0,0 +1,152 @@
+package com.byt.validation.user_system;
+
+import com.byt.data.user_system.Admin;
+import com.byt.data.user_system.FreeListener;
+import com.byt.data.user_system.Staff;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.data.user_system.User;
+import com.byt.exception.ExceptionCode;
+import com.byt.validation.rules.CompiledRules;
+import com.byt.validation.rules.FieldRule;
+import com.byt.validation.rules.RuleSet;
+import com.byt.validation.rules.Rules;
+import com.byt.validation.rules.Violation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+import static com.byt.data.user_system.FreeListener.MAX_NOTES_LENGTH;
+
+// The constraints of every user class, compiled once. Every user shares the USER rules and every
+// staff member the STAFF ones, the subclasses only add their own. The field rules are public for
+// the validators that get the fields one by one. Each is bound to its getter in a lambda of its
+// own, see SchedulingRules.
+public final class UserRules {
+
+    // I know there are some names and surnames more than 50, but let's be real
+    private static final int NAME_MIN = 1;
+    private static final int NAME_MAX = 50;
+
+    // We are not checking whether domain is valid.
+    private static final int EMAIL_MAX = 254;
+
+    // idk what lengths exist, so just average
+    private static final int PHONE_MIN = 7;
+    private static final int PHONE_MAX = 13;
+
+    private static final int MIN_AGE = 16;
+    private static final int MAX_AGE = 140;
+    private static final int MIN_AGE_AT_HIRE = 18;
+
+    public static final FieldRule<String> FIRST_NAME = Rules.latinName("firstName", "First name", true, NAME_MIN, NAME_MAX);
+    public static final FieldRule<String> LAST_NAME = Rules.latinName("lastName", "Last name", true, NAME_MIN, NAME_MAX);
+    public static final FieldRule<String> FAMILY_NAME = Rules.latinName("familyName", "Family name", false, NAME_MIN, NAME_MAX);
+    public static final FieldRule<LocalDate> DATE_OF_BIRTH = Rules.dateOfBirth("dateOfBirth", MIN_AGE, MAX_AGE);
+    public static final FieldRule<String> PHONE_NUMBER = Rules.digits("phoneNumber", "Phone number", PHONE_MIN, PHONE_MAX);
+    public static final FieldRule<String> EMAIL = Rules.email("email", "Email", EMAIL_MAX);
+
+    public static final FieldRule<Collection<?>> STUDENT_LANGUAGES =
+            Rules.notEmptyCollection("languagesOfStudies", ExceptionCode.NOT_NULL_VIOLATION,
+                            "Student must have at least one study language")
+                    .and(Rules.noNullElements("languagesOfStudies", ExceptionCode.NOT_NULL_VIOLATION,
+                            "Study language must not be null"));
+    public static final FieldRule<Object> STUDIES_STATUS =
+            Rules.notNull("studiesStatus", ExceptionCode.NOT_NULL_VIOLATION, "Study status must not be null");
+
+    public static final FieldRule<Collection<?>> FREE_LISTENER_LANGUAGES =
+            Rules.notEmptyCollection("languagesOfStudies", ExceptionCode.NOT_EMPTY_VIOLATION,
+                            "FreeListener must have at least one study language")
+                    .and(Rules.noNullElements("languagesOfStudies", ExceptionCode.NOT_NULL_VIOLATION,
+                            "Study language must not be null"));
+    public static final FieldRule<String> NOTES = Rules.optional(
+            Rules.notEmpty("notes", ExceptionCode.NOT_EMPTY_VIOLATION, "Notes must not be empty")
+                    .and(Rules.maxTrimmedLength("notes", MAX_NOTES_LENGTH, ExceptionCode.LENGTH_TOO_LONG,
+                            "Notes are too long")));
+
+    public static final FieldRule<String> TITLE =
+            Rules.notBlank("title", ExceptionCode.NOT_EMPTY_VIOLATION, "Title must not be empty");
+    public static final FieldRule<String> POSITION =
+            Rules.notBlank("position", ExceptionCode.NOT_EMPTY_VIOLATION, "Position must not be empty");
+
+    public static final CompiledRules<User> USER = RuleSet.<User>of("User")
+            .rule(user -> FIRST_NAME.check(user.getFirstName()))
+            .rule(user -> LAST_NAME.check(user.getLastName()))
+            .rule(user -> FAMILY_NAME.check(user.getFamilyName()))
+            .rule(user -> DATE_OF_BIRTH.check(user.getDateOfBirth()))
+            .rule(user -> PHONE_NUMBER.check(user.getPhoneNumber()))
+            .rule(user -> EMAIL.check(user.getEmail()))
+            .compile();
+
+    public static final CompiledRules<Staff> STAFF = RuleSet.<Staff>of("Staff")
+            .include(USER)
+            .rule(staff -> checkHireDate(staff.getHireDate(), staff.getDateOfBirth()))
+            .compile();
+
+    public static final CompiledRules<Student> STUDENT = RuleSet.<Student>of("Student")
+            .include(USER)
+            .rule(student -> STUDENT_LANGUAGES.check(student.getLanguagesOfStudies()))
+            .rule(student -> STUDIES_STATUS.check(student.getStudiesStatus()))
+            .compile();
+
+    public static final CompiledRules<FreeListener> FREE_LISTENER = RuleSet.<FreeListener>of("FreeListener")
+            .include(USER)
+            .rule(freeListener -> FREE_LISTENER_LANGUAGES.check(freeListener.getLanguagesOfStudies()))
+            .rule(freeListener -> NOTES.check(freeListener.getNotes()))
+            .compile();
+
+    public static final CompiledRules<Teacher> TEACHER = RuleSet.<Teacher>of("Teacher")
+            .include(STAFF)
+            .rule(teacher -> TITLE.check(teacher.getTitle()))
+            .rule(teacher -> POSITION.check(teacher.getPosition()))
+            .compile();
+
+    public static final CompiledRules<Admin> ADMIN = RuleSet.<Admin>of("Admin")
+            .include(STAFF)
+            .rule(admin -> checkLastLoginTime(admin.getLastLoginTime(), admin.getHireDate()))
+            .compile();
+
+    private UserRules() {
+    }
+
+    // Hired at 18 or older, and not in the future
+    public static Violation checkHireDate(LocalDate hireDate, LocalDate dateOfBirth) {
+        if (hireDate == null)
+            return HIRE_DATE_MISSING;
+        if (dateOfBirth != null && hireDate.isBefore(dateOfBirth.plusYears(MIN_AGE_AT_HIRE)))
+            return HIRED_TOO_YOUNG;
+        if (hireDate.isAfter(Rules.today()))
+            return HIRE_DATE_IN_FUTURE;
+        if (dateOfBirth != null && hireDate.isBefore(dateOfBirth))
+            return HIRED_BEFORE_BIRTH;
+        return null;
+    }
+
+    // Not in the future and not before the hire date, when there has been a login at all
+    public static Violation checkLastLoginTime(LocalDateTime lastLoginTime, LocalDate hireDate) {
+        if (lastLoginTime == null)
+            return null;
+        if (lastLoginTime.isAfter(LocalDateTime.now()))
+            return LOGIN_IN_FUTURE;
+        if (hireDate != null && lastLoginTime.isBefore(hireDate.atStartOfDay(ZoneOffset.UTC).toLocalDateTime()))
+            return LOGIN_BEFORE_HIRE;
+        return null;
+    }
+
+    // _________________________________________________________
+
+    private static final Violation HIRE_DATE_MISSING =
+            new Violation("hireDate", ExceptionCode.NOT_NULL_VIOLATION, "Hire date must not be null");
+    private static final Violation HIRED_TOO_YOUNG = new Violation("hireDate", ExceptionCode.VALUE_OUT_OF_RANGE,
+            "Person must be at least " + MIN_AGE_AT_HIRE + " years old at hire date");
+    private static final Violation HIRE_DATE_IN_FUTURE =
+            new Violation("hireDate", ExceptionCode.VALUE_OUT_OF_RANGE, "Hire date must not be in the future");
+    private static final Violation HIRED_BEFORE_BIRTH =
+            new Violation("hireDate", ExceptionCode.VALUE_OUT_OF_RANGE, "Hire date cannot be before date of birth");
+    private static final Violation LOGIN_IN_FUTURE =
+            new Violation("lastLoginTime", ExceptionCode.VALUE_OUT_OF_RANGE, "Last login time cannot be in the future");
+    private static final Violation LOGIN_BEFORE_HIRE =
+            new Violation("lastLoginTime", ExceptionCode.VALUE_OUT_OF_RANGE, "Last login time cannot be before hire date");
+}
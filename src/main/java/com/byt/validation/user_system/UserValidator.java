@@ -1,40 +1,13 @@
 package com.byt.validation.user_system;
 
 import java.time.LocalDate;
-import java.util.regex.Pattern;
-import com.byt.exception.ValidationException;
-import com.byt.exception.ExceptionCode;
+
+import static com.byt.validation.rules.Rules.enforce;
 
 // General class for validating User.
+// The rules themselves are in UserRules, this checks loose fields against them.
 public final class UserValidator {
 
-    // I know there are some names and surnames more than 50, but let's be real
-    private static final int NAME_MIN = 1;
-    private static final int NAME_MAX = 50;
-
-    // I found this regex Pattern - it's useful to validate strings
-    // All methods for validation here are really easy and simple
-
-    // here I only allow latin alphabet capital and lowercase letters.
-    private static final Pattern NAME_PATTERN =
-            Pattern.compile("^[A-Za-z]+$");
-
-    // pretty simple email validation,
-    // We are not checking whether domain is valid.
-    private static final int EMAIL_MAX = 254;
-    private static final Pattern EMAIL_PATTERN =
-            Pattern.compile("^[A-Za-z0-9._]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-
-    // idk what lengths exist, so just average
-    // we are not doing blanks and "( )"
-    private static final int PHONE_MIN = 7;
-    private static final int PHONE_MAX = 13;
-    private static final Pattern PHONE_PATTERN =
-            Pattern.compile("^[0-9]{7,13}$");
-
-    private static final int MIN_AGE = 16;
-    private static final int MAX_AGE = 140;
-
     private UserValidator() {
     }
 
@@ -56,127 +29,11 @@ public final class UserValidator {
             String phoneNumber,
             String email
     ) {
-        validateName("First name", firstName, true);
-        validateName("Last name", lastName, true);
-        validateName("Family name", familyName, false); // optional
-        validateDateOfBirth(dateOfBirth);
-        validatePhoneNumber(phoneNumber);
-        validateEmail(email);
-    }
-
-    private static void validateName(String fieldName, String value, boolean required) {
-        if (value == null || value.isBlank()) {
-            if (required) {
-                throw new ValidationException(
-                        ExceptionCode.NOT_EMPTY_VIOLATION,
-                        fieldName + " must not be empty"
-                );
-            } else {
-                if(value == null)  return;
-            }
-        }
-
-        String trimmed = value.trim();
-
-        if (trimmed.length() < NAME_MIN || trimmed.length() > NAME_MAX) {
-            throw new ValidationException(
-                    ExceptionCode.VALUE_OUT_OF_RANGE,
-                    fieldName + " length must be between " +
-                            NAME_MIN + " and " + NAME_MAX
-            );
-        }
-
-        if (!NAME_PATTERN.matcher(trimmed).matches()) {
-            throw new ValidationException(
-                    ExceptionCode.INVALID_FORMAT,
-                    fieldName + " can contain only latin letters"
-            );
-        }
-    }
-
-    private static void validateDateOfBirth(LocalDate date) {
-        if (date == null) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_NULL_VIOLATION,
-                    "Date of birth must not be null"
-            );
-        }
-
-        LocalDate today = LocalDate.now();
-
-        if (!date.isBefore(today)) {
-            throw new ValidationException(
-                    ExceptionCode.VALUE_OUT_OF_RANGE,
-                    "Date of birth must be in past"
-            );
-        }
-
-        LocalDate minAllowed = today.minusYears(MIN_AGE);
-        LocalDate maxAllowed = today.minusYears(MAX_AGE);
-
-        if (date.isAfter(minAllowed)) {
-            throw new ValidationException(
-                    ExceptionCode.VALUE_OUT_OF_RANGE,
-                    "User must be at least " + MIN_AGE
-            );
-        }
-        if (date.isBefore(maxAllowed)) {
-            throw new ValidationException(
-                    ExceptionCode.VALUE_OUT_OF_RANGE,
-                    "User age must be less than " + MAX_AGE
-            );
-        }
-    }
-
-    private static void validatePhoneNumber(String phone) {
-        if (phone == null || phone.isBlank()) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_EMPTY_VIOLATION,
-                    "Phone number must not be empty"
-            );
-        }
-
-        String trimmed = phone.trim();
-
-        if (!PHONE_PATTERN.matcher(trimmed).matches()) {
-            throw new ValidationException(
-                    ExceptionCode.INVALID_FORMAT,
-                    "Phone number can contain only digits"
-            );
-        }
-
-        long digitsCount = trimmed.chars().filter(Character::isDigit).count();
-
-        if (digitsCount < PHONE_MIN || digitsCount > PHONE_MAX) {
-            throw new ValidationException(
-                    ExceptionCode.VALUE_OUT_OF_RANGE,
-                    "Phone number must be between " + PHONE_MIN + " and " + PHONE_MAX
-            );
-        }
-    }
-
-    private static void validateEmail(String email) {
-        if (email == null || email.isBlank()) {
-            throw new ValidationException(
-                    ExceptionCode.NOT_EMPTY_VIOLATION,
-                    "Email must not be empty"
-            );
-        }
-
-        String trimmed = email.trim();
-
-        if (trimmed.length() > EMAIL_MAX) {
-            throw new ValidationException(
-                    ExceptionCode.LENGTH_TOO_LONG,
-                    "Email is too long"
-            );
-        }
-
-        if (!EMAIL_PATTERN.matcher(trimmed).matches()) {
-            throw new ValidationException(
-                    ExceptionCode.INVALID_FORMAT,
-                    "Invalid email address"
-            );
-        }
+        enforce(UserRules.FIRST_NAME.check(firstName));
+        enforce(UserRules.LAST_NAME.check(lastName));
+        enforce(UserRules.FAMILY_NAME.check(familyName)); // optional
+        enforce(UserRules.DATE_OF_BIRTH.check(dateOfBirth));
+        enforce(UserRules.PHONE_NUMBER.check(phoneNumber));
+        enforce(UserRules.EMAIL.check(email));
     }
 }
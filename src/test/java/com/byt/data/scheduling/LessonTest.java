@@ -398,4 +398,26 @@ class LessonTest {
         assertTrue(group2.getLessons().contains(lesson));
         assertFalse(group1.getLessons().contains(lesson));
     }
+
+    @Test
+    void readOnlyViewRejectsChangesAndLeadsToReadOnlyLinks() {
+        lesson.addGroup(group1);
+        lesson.addClassRoom(classRoom1);
+        Lesson view = Lesson.readOnly(lesson);
+
+        assertEquals(lesson, view);
+        assertThrows(UnsupportedOperationException.class, () -> view.setStartTime(LocalTime.of(8, 0)));
+        assertThrows(UnsupportedOperationException.class, () -> view.addGroup(group2));
+        assertThrows(UnsupportedOperationException.class, () -> view.getGroup().setName("Changed"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> view.getClassRooms().iterator().next().setCapacity(1));
+        assertEquals("Group A", group1.getName());
+        assertEquals(30, classRoom1.getCapacity());
+
+        // a copy of the view is an ordinary lesson on the real group and classroom
+        Lesson copy = Lesson.copy(view);
+        copy.setNote("Changed");
+        assertSame(group1, copy.getGroup());
+        assertTrue(copy.getClassRooms().stream().anyMatch(classRoom -> classRoom == classRoom1));
+    }
 }
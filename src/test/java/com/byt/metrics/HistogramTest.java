@@ -0,0 +1,89 @@
+package com.byt.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 100; value++)
+            histogram.record(value);
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(1, snapshot.min());
+        assertEquals(100, snapshot.max());
+        assertEquals(50.5, snapshot.mean(), 1e-9);
+        assertEquals(50, snapshot.p50());
+        assertEquals(90, snapshot.p90());
+        assertEquals(99, snapshot.p99());
+        assertEquals(100, snapshot.p999());
+    }
+
+    @Test
+    public void testPercentilesOfLargeValuesAreWithinTheBucketPrecision() {
+        Histogram histogram = new Histogram();
+        long[] values = new Random(7).longs(100_000, 1_000, 50_000_000).sorted().toArray();
+        for (long value : values)
+            histogram.record(value);
+
+        for (double percent : new double[]{10, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percent / 100 * values.length) - 1];
+            long estimate = histogram.percentile(percent);
+
+            assertTrue(estimate >= exact, percent + "%: " + estimate + " < " + exact);
+            assertTrue(estimate <= exact * 1.016, percent + "%: " + estimate + " too far above " + exact);
+        }
+    }
+
+    @Test
+    public void testBucketsCoverEveryValueInOrder() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < Histogram.bucketOf(Long.MAX_VALUE) + 1; bucket++) {
+            long highest = Histogram.highestValueOf(bucket);
+
+            assertEquals(bucket, Histogram.bucketOf(previousHighest + 1));
+            assertEquals(bucket, Histogram.bucketOf(highest));
+            previousHighest = highest;
+        }
+        assertEquals(Long.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    public void testNegativeValuesCountAsZeroAndResetForgetsEverything() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.snapshot().max());
+
+        histogram.reset();
+
+        assertEquals(0, histogram.count());
+        assertEquals(new Histogram.Snapshot(0, 0, 0, 0, 0, 0, 0, 0), histogram.snapshot());
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    public void testConcurrentRecordingLosesNothing() {
+        Histogram histogram = new Histogram();
+
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            for (int i = 0; i < 10_000; i++)
+                histogram.record(i);
+        });
+
+        assertEquals(80_000, histogram.count());
+        assertEquals(80_000, histogram.snapshot().count());
+        assertEquals(9_999, histogram.snapshot().max());
+    }
+
+    @Test
+    public void testRejectsPercentilesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new Histogram().percentile(101));
+    }
+}
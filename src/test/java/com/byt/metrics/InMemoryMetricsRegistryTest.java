@@ -0,0 +1,84 @@
+package com.byt.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryMetricsRegistryTest {
+
+    @Test
+    public void testRecordersOfTheSameNameShareTheirValues() {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+
+        registry.latency("crud.Student.get").record(1_000);
+        registry.latency("crud.Student.get").record(3_000);
+        registry.distribution("payload.written:Users/Students").record(512);
+        registry.gauge("collection:Users/Students").record(10);
+        registry.gauge("collection:Users/Students").record(12);
+
+        assertEquals(2, registry.getLatencies().get("crud.Student.get").count());
+        assertEquals(512, registry.getDistributions().get("payload.written:Users/Students").max());
+        assertEquals(Map.of("collection:Users/Students", 12L), registry.getGauges());
+    }
+
+    @Test
+    public void testDumpListsEveryMetric() {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        registry.latency("saveLoad.load:Users/Students").record(2_500);
+        registry.distribution("payload.read:Users/Students").record(4096);
+        registry.gauge("collection:Users/Students").record(3);
+
+        String dump = registry.dump();
+
+        assertTrue(dump.matches("(?s).*saveLoad\\.load:Users/Students +1 +2\\.5 .*"), dump);
+        assertTrue(dump.matches("(?s).*payload\\.read:Users/Students +1 +4096 .*"), dump);
+        assertTrue(dump.matches("(?s).*collection:Users/Students +3\\n.*"), dump);
+    }
+
+    @Test
+    public void testResetKeepsHandedOutRecordersWorking() {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        Recorder recorder = registry.latency("crud.Student.create");
+        recorder.record(100);
+
+        registry.reset();
+        recorder.record(200);
+
+        assertEquals(1, registry.getLatencies().get("crud.Student.create").count());
+        assertEquals(200, registry.getLatencies().get("crud.Student.create").max());
+    }
+
+    @Test
+    public void testMetricsAreReadableThroughJmx() throws JMException {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        registry.latency("crud.Student.get").record(1_000);
+        registry.gauge("collection:Users/Students").record(7);
+
+        ObjectName name = registry.registerMBean();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            TabularData latencies = (TabularData) server.getAttribute(name, "Latencies");
+            CompositeData row = latencies.get(new Object[]{"crud.Student.get"});
+            CompositeData snapshot = (CompositeData) row.get("value");
+            assertEquals(1L, snapshot.get("count"));
+            assertEquals(1_000L, snapshot.get("max"));
+
+            TabularData gauges = (TabularData) server.getAttribute(name, "Gauges");
+            assertEquals(7L, gauges.get(new Object[]{"collection:Users/Students"}).get("value"));
+
+            assertEquals(registry.dump(), server.invoke(name, "dump", null, null));
+        } finally {
+            registry.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,196 @@
+package com.byt.persistence;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySnapshotSerializerTest {
+    private static final Type LESSON_LIST_TYPE = new TypeToken<List<Lesson>>() {}.getType();
+
+    private final BinarySnapshotSerializer serializer = new BinarySnapshotSerializer();
+
+    private final Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak",
+            LocalDate.of(1980, 1, 1), "123456789", "anna@school.com",
+            LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+
+    private Lesson lesson(int i) {
+        return Lesson.builder()
+                .name("Lesson " + i)
+                .type(LessonType.values()[i % LessonType.values().length])
+                .mode(LessonMode.OFFLINE)
+                .dayOfWeek(DayOfWeek.values()[i % 5])
+                .startTime(LocalTime.of(8 + i % 8, 30))
+                .endTime(LocalTime.of(10 + i % 8, 0))
+                .language(i % 2 == 0 ? StudyLanguage.ENGLISH : StudyLanguage.POLISH)
+                .weekPattern(WeekPattern.EVEN)
+                .group(Group.builder().name("G" + i % 3).maxCapacity(20).language(StudyLanguage.ENGLISH).build())
+                .teacher(teacher)
+                .classRooms(new HashSet<>(Set.of(ClassRoom.builder().name("A10" + i % 4).floor(1).capacity(30).build())))
+                .semesters(new HashSet<>(Set.of(Semester.builder().name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build())))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Lesson> roundTrip(List<Lesson> lessons) throws IOException {
+        return (List<Lesson>) serializer.deserialize(ByteBuffer.wrap(serializer.toBytes(lessons)), LESSON_LIST_TYPE);
+    }
+
+    @Test
+    public void testEntityListRoundTrip() throws IOException {
+        List<Lesson> lessons = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            lessons.add(lesson(i));
+
+        List<Lesson> loaded = roundTrip(lessons);
+
+        assertEquals(lessons, loaded);
+        for (int i = 0; i < lessons.size(); i++) {
+            assertEquals(lessons.get(i).getGroup(), loaded.get(i).getGroup());
+            assertEquals(lessons.get(i).getClassRooms(), loaded.get(i).getClassRooms());
+            assertEquals(lessons.get(i).getSemesters(), loaded.get(i).getSemesters());
+            assertEquals("anna@school.com", loaded.get(i).getTeacher().getEmail());
+            assertEquals(LocalDate.of(2010, 9, 1), loaded.get(i).getTeacher().getHireDate());
+        }
+    }
+
+    @Test
+    public void testNullsSurvive() throws IOException {
+        Lesson sparse = Lesson.builder().name("Sparse").build();
+        List<Lesson> withNull = new ArrayList<>();
+        withNull.add(sparse);
+        withNull.add(null);
+
+        List<Lesson> loaded = roundTrip(withNull);
+
+        assertEquals(withNull, loaded);
+        assertNull(loaded.getFirst().getDayOfWeek());
+        assertNull(serializer.deserialize(ByteBuffer.wrap(serializer.toBytes(null)), LESSON_LIST_TYPE));
+    }
+
+    @Test
+    public void testListIsDecodedLazilyAndOnce() throws IOException {
+        List<Lesson> loaded = roundTrip(List.of(lesson(1), lesson(2)));
+
+        assertFalse(loaded instanceof ArrayList);
+        assertSame(loaded.get(1), loaded.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> loaded.add(lesson(3)));
+    }
+
+    @Test
+    public void testStringsAreStoredOnce() {
+        List<Lesson> same = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Lesson lesson = lesson(i);
+            lesson.setNote("A fairly long note that every lesson shares");
+            same.add(lesson);
+        }
+
+        byte[] bytes = serializer.toBytes(same);
+        String text = new String(bytes, StandardCharsets.ISO_8859_1);
+
+        assertEquals(text.indexOf("every lesson shares"), text.lastIndexOf("every lesson shares"));
+        assertTrue(bytes.length < new JsonDataSerializer().serialize(same).length() / 2);
+    }
+
+    @Test
+    public void testSingleValuesAndText() {
+        LocalDateTime dateTime = LocalDateTime.of(2025, 11, 14, 9, 30, 15);
+
+        assertEquals(dateTime, serializer.deserialize(serializer.serialize(dateTime), LocalDateTime.class));
+        assertEquals("anna@school.com", serializer.deserialize(serializer.serialize("anna@school.com"), String.class));
+        assertEquals(DayOfWeek.FRIDAY, serializer.deserialize(serializer.serialize(DayOfWeek.FRIDAY), DayOfWeek.class));
+        assertFalse(serializer.serialize(lesson(1)).contains("\n"));
+    }
+
+    @Test
+    public void testRejectsGarbage() {
+        assertThrows(IOException.class, () ->
+                serializer.deserialize(ByteBuffer.wrap("[{\"name\":\"x\"}]".getBytes(StandardCharsets.UTF_8)), LESSON_LIST_TYPE));
+    }
+
+    @Test
+    public void testReferenceCyclesAreRejected() {
+        Lesson lesson = lesson(1);
+        lesson.getGroup().addLesson(lesson);
+
+        assertThrows(IllegalArgumentException.class, () -> serializer.toBytes(List.of(lesson)));
+    }
+
+    @Nested
+    public class MappedFilesTest {
+        @TempDir
+        Path savesPath;
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void testSaveAndLoadThroughMappedFiles() throws IOException {
+            SaveLoadService service = new SaveLoadService(serializer, new MappedFileDataRepository(savesPath));
+            List<Lesson> lessons = List.of(lesson(1), lesson(2), lesson(3));
+
+            service.save("Scheduling/Lessons", lessons);
+            List<Lesson> loaded = (List<Lesson>) service.load("Scheduling/Lessons", LESSON_LIST_TYPE);
+
+            // a new save replaces the file, elements not decoded yet still come from the old mapping
+            service.save("Scheduling/Lessons", List.of(lesson(4)));
+
+            assertEquals(lessons, loaded);
+            assertEquals(List.of(lesson(4)), service.load("Scheduling/Lessons", LESSON_LIST_TYPE));
+        }
+
+        @Test
+        public void testFailedSaveKeepsTheSnapshot() throws IOException {
+            SaveLoadService service = new SaveLoadService(serializer, new MappedFileDataRepository(savesPath));
+            service.save("Scheduling/Lessons", List.of(lesson(1), lesson(2)));
+
+            Lesson cyclic = lesson(3);
+            cyclic.getGroup().addLesson(cyclic);
+            assertThrows(IllegalArgumentException.class, () -> service.save("Scheduling/Lessons", List.of(cyclic)));
+
+            assertEquals(List.of(lesson(1), lesson(2)), service.load("Scheduling/Lessons", LESSON_LIST_TYPE));
+            assertFalse(Files.exists(savesPath.resolve("Scheduling/Lessons.bin.tmp")));
+        }
+
+        @Test
+        public void testWriteAheadLogOnMappedFiles() throws IOException {
+            MappedFileDataRepository repository = new MappedFileDataRepository(savesPath);
+            WriteAheadLog log = new WriteAheadLog(serializer, repository);
+            SaveLoadService service = new SaveLoadService(serializer, repository, log);
+
+            service.save(DataSaveKeys.LESSONS, List.of(lesson(1)));
+            service.saveCreated(DataSaveKeys.LESSONS, "Lesson 2", lesson(2), List.of());
+
+            List<Lesson> loaded = service.loadAll(DataSaveKeys.LESSONS, LESSON_LIST_TYPE, Lesson::getName);
+            log.close();
+
+            assertEquals(List.of(lesson(1), lesson(2)), loaded);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.byt.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GzipCodecTest {
+    private static byte[] encode(StorageCodec codec, String value) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream output = codec.encode(encoded)) {
+            output.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return encoded.toByteArray();
+    }
+
+    private static String decode(StorageCodec codec, byte[] encoded) throws IOException {
+        try (InputStream input = codec.decode(new ByteArrayInputStream(encoded))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testIsFoundByName() {
+        StorageCodec codec = StorageCodec.named("gzip");
+
+        assertInstanceOf(GzipCodec.class, codec);
+        assertEquals(".gz", codec.extension());
+        assertThrows(IllegalArgumentException.class, () -> StorageCodec.named("zstd"));
+    }
+
+    @Test
+    public void testConcatenatedStreamsDecodeAsOneValue() throws IOException {
+        GzipCodec codec = new GzipCodec(1);
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        stored.write(encode(codec, "[1,2,"));
+        stored.write(encode(codec, "3]"));
+
+        assertEquals("[1,2,3]", decode(codec, stored.toByteArray()));
+    }
+
+    @Test
+    public void testLevelIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> new GzipCodec(10));
+        assertThrows(IllegalArgumentException.class, () -> new GzipCodec(-2));
+    }
+}
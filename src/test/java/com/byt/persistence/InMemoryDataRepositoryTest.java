@@ -96,4 +96,20 @@ public class InMemoryDataRepositoryTest {
             fail(e);
         }
     }
+
+    @Test
+    public void testWriterOnlyReplacesTheValueOnCommit() throws IOException {
+        DataRepository repository = repositoryWithNumber;
+
+        try (PendingWriter writer = repository.openWriter(TEST_NUMBER_KEY)) {
+            writer.write("[2,");
+        }
+        assertEquals("1", repository.read(TEST_NUMBER_KEY));
+
+        try (PendingWriter writer = repository.openWriter(TEST_NUMBER_KEY)) {
+            writer.write("2");
+            writer.commit();
+        }
+        assertEquals("2", repository.read(TEST_NUMBER_KEY));
+    }
 }
@@ -0,0 +1,74 @@
+package com.byt.persistence;
+
+import com.byt.metrics.InMemoryMetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedDataRepositoryTest {
+    private final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+    private final InMemoryDataRepository stored = new InMemoryDataRepository();
+    private final DataRepository repository = new InstrumentedDataRepository(stored, metrics);
+
+    @Test
+    public void testReadsAndWritesAreTimedAndSizedPerKey() throws IOException {
+        repository.write("Users/Students", "[1,2,3]");
+        repository.write("Users/Students", "[1]");
+        repository.read("Users/Students");
+
+        assertEquals("[1]", stored.read("Users/Students"));
+        assertEquals(2, metrics.getLatencies().get("repository.write:Users/Students").count());
+        assertEquals(1, metrics.getLatencies().get("repository.read:Users/Students").count());
+        assertEquals(7, metrics.getDistributions().get("payload.written:Users/Students").max());
+        assertEquals(3, metrics.getDistributions().get("payload.read:Users/Students").max());
+    }
+
+    @Test
+    public void testStreamsAreMeasuredOnceWhenCommitted() throws IOException {
+        try (PendingWriter writer = repository.openWriter("Scheduling/Lessons")) {
+            writer.write("[\"a\",");
+            writer.write('"');
+            writer.write("b\"]".toCharArray());
+
+            assertNull(metrics.getLatencies().get("repository.write:Scheduling/Lessons"));
+            writer.commit();
+        }
+        try (Reader reader = repository.openReader("Scheduling/Lessons")) {
+            reader.read();
+            reader.transferTo(Writer.nullWriter());
+        }
+
+        assertEquals("[\"a\",\"b\"]", stored.read("Scheduling/Lessons"));
+        assertEquals(1, metrics.getLatencies().get("repository.write:Scheduling/Lessons").count());
+        assertEquals(9, metrics.getDistributions().get("payload.written:Scheduling/Lessons").max());
+        assertEquals(1, metrics.getLatencies().get("repository.read:Scheduling/Lessons").count());
+        assertEquals(9, metrics.getDistributions().get("payload.read:Scheduling/Lessons").max());
+    }
+
+    @Test
+    public void testBinaryValuesAreSizedInBytes() throws IOException {
+        try (PendingOutputStream output = repository.openOutputStream("Scheduling/Lessons")) {
+            output.write(new byte[]{1, 2, 3, 4});
+            output.write(5);
+            output.commit();
+        }
+
+        assertEquals(5, repository.readBuffer("Scheduling/Lessons").remaining());
+        assertEquals(5, metrics.getDistributions().get("payload.written:Scheduling/Lessons").max());
+        assertEquals(5, metrics.getDistributions().get("payload.read:Scheduling/Lessons").max());
+    }
+
+    @Test
+    public void testEveryValueOfWriteAllIsCounted() throws IOException {
+        repository.writeAll(Map.of("Users/Students", "[]", "Users/Teachers", "[1]"));
+
+        assertEquals(1, metrics.getLatencies().get("repository.write:Users/Students").count());
+        assertEquals(1, metrics.getLatencies().get("repository.write:Users/Teachers").count());
+        assertEquals(3, metrics.getDistributions().get("payload.written:Users/Teachers").max());
+    }
+}
@@ -0,0 +1,50 @@
+package com.byt.persistence;
+
+import com.byt.metrics.InMemoryMetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedDataSerializerTest {
+    private final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+
+    @Test
+    public void testEveryCallIsTimed() throws IOException {
+        DataSerializer serializer = InstrumentedDataSerializer.wrap(new JsonDataSerializer(), metrics);
+
+        String json = serializer.serialize(List.of("a"));
+        serializer.serialize(List.of("b"), new StringWriter());
+        serializer.deserialize(json, List.class);
+        serializer.deserialize(new StringReader(json), List.class);
+
+        assertEquals("[\"a\"]", json);
+        assertEquals(2, metrics.getLatencies().get("serializer.serialize").count());
+        assertEquals(2, metrics.getLatencies().get("serializer.deserialize").count());
+    }
+
+    @Test
+    public void testFailedCallsAreTimedToo() {
+        DataSerializer serializer = InstrumentedDataSerializer.wrap(new JsonDataSerializer(), metrics);
+
+        assertThrows(RuntimeException.class, () -> serializer.deserialize("[", Integer.class));
+        assertEquals(1, metrics.getLatencies().get("serializer.deserialize").count());
+    }
+
+    @Test
+    public void testBinarySerializersStayBinary() throws IOException {
+        DataSerializer serializer = InstrumentedDataSerializer.wrap(new BinarySnapshotSerializer(), metrics);
+        assertInstanceOf(BinaryDataSerializer.class, serializer);
+
+        SaveLoadService service = new SaveLoadService(serializer, new InMemoryDataRepository());
+        service.save("Scheduling/Semesters", List.of("Winter"));
+
+        assertEquals(List.of("Winter"), service.load("Scheduling/Semesters", List.class));
+        assertEquals(1, metrics.getLatencies().get("serializer.serialize").count());
+        assertEquals(1, metrics.getLatencies().get("serializer.deserialize").count());
+    }
+}
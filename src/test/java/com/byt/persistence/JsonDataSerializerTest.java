@@ -1,16 +1,23 @@
 package com.byt.persistence;
 
 import org.junit.jupiter.api.Nested;
+import com.google.gson.reflect.TypeToken;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class JsonDataSerializerTest {
     private final JsonDataSerializer serializer = new JsonDataSerializer();
@@ -108,6 +115,44 @@ public class JsonDataSerializerTest {
         }
     }
 
+    @Nested
+    public class StreamingTest {
+        private final Type studentListType = new TypeToken<List<Student>>() {}.getType();
+
+        @Test
+        public void testStreamedCollectionMatchesStringSerialization() throws IOException {
+            List<Student> students = List.of(testStudentArray);
+            StringWriter writer = new StringWriter();
+
+            serializer.serialize(students, writer);
+
+            assertEquals(serializer.serialize(students), writer.toString());
+        }
+
+        @Test
+        public void testStreamedSingleObjectMatchesStringSerialization() throws IOException {
+            StringWriter writer = new StringWriter();
+
+            serializer.serialize(testClassroom, writer);
+
+            assertEquals(serializer.serialize(testClassroom), writer.toString());
+        }
+
+        @Test
+        public void testStreamedListDeserialization() throws IOException {
+            String serializedStudents = serializer.serialize(List.of(testStudentArray));
+
+            Object deserialized = serializer.deserialize(new StringReader(serializedStudents), studentListType);
+
+            assertEquals(List.of(testStudentArray), deserialized);
+        }
+
+        @Test
+        public void testStreamedDeserializationOfEmptyDocument() throws IOException {
+            assertNull(serializer.deserialize(new StringReader(""), studentListType));
+        }
+    }
+
     private record Classroom(int number, Student[] students) {
         @Override
             public boolean equals(Object o) {
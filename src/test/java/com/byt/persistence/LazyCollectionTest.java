@@ -0,0 +1,100 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyCollectionTest {
+    private static final Type ITEM_LIST_TYPE = new TypeToken<List<Item>>() {}.getType();
+    private static final DataSaveKeys TEST_KEY = DataSaveKeys.SEMESTERS;
+
+    private final DataSerializer serializer = new JsonDataSerializer();
+    private final InMemoryDataRepository repository = new InMemoryDataRepository();
+    private final SaveLoadService service = new SaveLoadService(serializer, repository);
+
+    private static List<Item> items(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            items.add(new Item("item" + i, "note, with [brackets] and \"quotes\" " + i, List.of(i, i + 1)));
+        return items;
+    }
+
+    @Test
+    public void testLoadsOnlyIdsUntilAsked() throws IOException {
+        service.save(TEST_KEY, items(10));
+
+        LazyCollection<Item> lazy = service.loadLazily(TEST_KEY, ITEM_LIST_TYPE, Item::id, 4);
+
+        assertEquals(10, lazy.ids().size());
+        assertEquals("item0", lazy.ids().get(0));
+        assertTrue(lazy.contains("item9"));
+        assertEquals(0, lazy.stats().cached());
+
+        assertEquals(items(10).get(7), lazy.get("item7"));
+        assertEquals(items(10).get(7), lazy.get("item7"));
+        assertNull(lazy.get("missing"));
+
+        LazyCollection.Stats stats = lazy.stats();
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.hits());
+    }
+
+    @Test
+    public void testCacheIsBounded() throws IOException {
+        service.save(TEST_KEY, items(10));
+        LazyCollection<Item> lazy = service.loadLazily(TEST_KEY, ITEM_LIST_TYPE, Item::id, 3);
+
+        for (String id : lazy.ids())
+            assertEquals(id, lazy.get(id).id());
+
+        assertEquals(3, lazy.stats().cached());
+        assertEquals(7, lazy.stats().evictions());
+    }
+
+    @Test
+    public void testRewrittenCollectionIsIndexedAgain() throws IOException {
+        List<Item> items = items(5);
+        service.save(TEST_KEY, items);
+        LazyCollection<Item> lazy = service.loadLazily(TEST_KEY, ITEM_LIST_TYPE, Item::id, 0);
+
+        // every element before item4 grows, its old offset points into item1 now
+        items.replaceAll(item -> new Item(item.id(), item.note() + " and a much longer note", item.values()));
+        service.save(TEST_KEY, items);
+
+        assertEquals(items.get(4), lazy.get("item4"));
+    }
+
+    @Test
+    public void testShardedCollectionsLoadLazily() throws IOException {
+        SaveLoadService sharded = new SaveLoadService(serializer, repository, new ShardedLayout(serializer, repository, 4));
+        for (Item item : items(6))
+            sharded.saveCreated(TEST_KEY, item.id(), item, List.of());
+
+        LazyCollection<Item> lazy = sharded.loadLazily(TEST_KEY, ITEM_LIST_TYPE, Item::id, 2);
+
+        assertEquals(6, lazy.ids().size());
+        assertEquals(items(6).get(2), lazy.get("item2"));
+    }
+
+    @Test
+    public void testWriteAheadLogFallsBackToResidentEntities() throws IOException {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(serializer, repository);
+        SaveLoadService logged = new SaveLoadService(serializer, repository, writeAheadLog);
+        logged.saveCreated(TEST_KEY, "a", new Item("a", "n", List.of()), List.of());
+
+        LazyCollection<Item> lazy = logged.loadLazily(TEST_KEY, ITEM_LIST_TYPE, Item::id, 0);
+
+        assertEquals(List.of("a"), lazy.ids());
+        assertEquals(new Item("a", "n", List.of()), lazy.get("a"));
+        writeAheadLog.close();
+    }
+
+    private record Item(String id, String note, List<Integer> values) {}
+}
@@ -0,0 +1,124 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadCacheTest {
+    private static final Type STRING_LIST_TYPE = new TypeToken<List<String>>() {}.getType();
+
+    private final DataSerializer serializer = new JsonDataSerializer();
+    private final CountingRepository repository = new CountingRepository();
+    private final SaveLoadService service = new SaveLoadService(serializer, repository);
+
+    @Test
+    public void testRepeatedLoadsComeFromTheCache() throws IOException {
+        LoadCache cache = new LoadCache(10);
+        service.setLoadCache(cache);
+        service.save(DataSaveKeys.SUBJECTS, List.of("Math"));
+
+        Object first = service.load(DataSaveKeys.SUBJECTS, STRING_LIST_TYPE);
+        Object second = service.load(DataSaveKeys.SUBJECTS, STRING_LIST_TYPE);
+
+        assertSame(first, second);
+        assertEquals(1, repository.reads);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    public void testSavesInvalidateTheirKey() throws IOException {
+        LoadCache cache = new LoadCache(10);
+        service.setLoadCache(cache);
+        service.save(DataSaveKeys.SUBJECTS, List.of("Math"));
+        service.save(DataSaveKeys.BUILDINGS, List.of("A"));
+        service.load(DataSaveKeys.SUBJECTS, STRING_LIST_TYPE);
+        service.load(DataSaveKeys.BUILDINGS, STRING_LIST_TYPE);
+
+        service.saveCreated(DataSaveKeys.SUBJECTS, "Physics", "Physics", List.of("Math", "Physics"));
+
+        assertEquals(List.of("Math", "Physics"), service.load(DataSaveKeys.SUBJECTS, STRING_LIST_TYPE));
+        assertEquals(List.of("A"), service.load(DataSaveKeys.BUILDINGS, STRING_LIST_TYPE));
+        assertEquals(3, repository.reads);
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        LoadCache cache = new LoadCache(2);
+
+        cache.put("a", String.class, "A", cache.version("a"));
+        cache.put("b", String.class, "B", cache.version("b"));
+        cache.get("a", String.class);
+        cache.put("c", String.class, "C", cache.version("c"));
+
+        assertEquals("A", cache.get("a", String.class));
+        assertNull(cache.get("b", String.class));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentEntriesAgainstOneOffs() {
+        LoadCache cache = new LoadCache(2, LoadCache.Policy.TINY_LFU);
+        cache.put("hot1", String.class, "1", cache.version("hot1"));
+        cache.put("hot2", String.class, "2", cache.version("hot2"));
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot1", String.class);
+            cache.get("hot2", String.class);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            String key = "scan" + i;
+            cache.get(key, String.class);
+            cache.put(key, String.class, key, cache.version(key));
+        }
+
+        assertEquals("1", cache.get("hot1", String.class));
+        assertEquals("2", cache.get("hot2", String.class));
+        assertTrue(cache.stats().rejections() > 0);
+    }
+
+    @Test
+    public void testLoadRacingWithASaveDoesNotCacheTheOldValue() {
+        LoadCache cache = new LoadCache(2);
+        long versionBeforeSave = cache.version("a");
+
+        cache.invalidate("a");
+        cache.put("a", String.class, "old", versionBeforeSave);
+
+        assertNull(cache.get("a", String.class));
+        assertThrows(IllegalArgumentException.class, () -> new LoadCache(0));
+    }
+
+    private static final class CountingRepository implements DataRepository {
+        private final InMemoryDataRepository delegate = new InMemoryDataRepository();
+        int reads;
+
+        @Override
+        public String read(String key) throws IOException {
+            reads++;
+            return delegate.read(key);
+        }
+
+        @Override
+        public void write(String key, String serializedData) throws IOException {
+            delegate.write(key, serializedData);
+        }
+
+        @Override
+        public void remove(String key) throws IOException {
+            delegate.remove(key);
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return delegate.exists(key);
+        }
+    }
+}
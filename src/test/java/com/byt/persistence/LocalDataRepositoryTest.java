@@ -0,0 +1,266 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalDataRepositoryTest {
+    private static final String TEST_KEY = "Users/Students";
+
+    @TempDir
+    Path savesPath;
+
+    private Path saveFile(String key) {
+        return savesPath.resolve(key + ".json");
+    }
+
+    private List<Path> temporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(savesPath)) {
+            return files.filter(file -> file.toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        try (reader) {
+            StringWriter buffer = new StringWriter();
+            reader.transferTo(buffer);
+            return buffer.toString();
+        }
+    }
+
+    @Test
+    public void testWriteReplacesTheFileAndLeavesNothingBehind() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath);
+
+        repository.write(TEST_KEY, "[1,2,3]");
+        repository.write(TEST_KEY, "[4]");
+
+        assertEquals("[4]", repository.read(TEST_KEY));
+        assertEquals("[4]", Files.readString(saveFile(TEST_KEY)));
+        assertTrue(temporaryFiles().isEmpty());
+    }
+
+    @Test
+    public void testWriterIsInvisibleUntilCommitted() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath);
+        repository.write(TEST_KEY, "old");
+
+        try (PendingWriter writer = repository.openWriter(TEST_KEY)) {
+            writer.write("new");
+            writer.flush();
+
+            assertEquals("old", repository.read(TEST_KEY));
+            writer.commit();
+        }
+
+        assertEquals("new", readAll(repository.openReader(TEST_KEY)));
+    }
+
+    @Test
+    public void testSerializerFailingHalfwayKeepsTheSavedFile() throws IOException {
+        for (DataRepository repository : List.of(
+                new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS),
+                new LocalDataRepository(savesPath, new GzipCodec(), LocalDataRepository.Option.CHECKSUMS)))
+        {
+            new SaveLoadService(new JsonDataSerializer(), repository).save(TEST_KEY, List.of("a", "b"));
+
+            SaveLoadService failing = new SaveLoadService(new FailingDataSerializer(), repository);
+            assertThrows(IllegalStateException.class, () -> failing.save(TEST_KEY, List.of("c")));
+
+            assertEquals(List.of("a", "b"), new SaveLoadService(new JsonDataSerializer(), repository).load(TEST_KEY, List.class));
+            assertTrue(temporaryFiles().isEmpty());
+        }
+    }
+
+    @Test
+    public void testChecksummedFilesAreVerifiedOnRead() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS);
+        repository.write(TEST_KEY, "[\"zażółć\"]");
+
+        assertTrue(Files.readString(saveFile(TEST_KEY)).startsWith("#fsss crc32c="));
+        assertEquals("[\"zażółć\"]", repository.read(TEST_KEY));
+        assertEquals("[\"zażółć\"]", readAll(repository.openReader(TEST_KEY)));
+
+        byte[] bytes = Files.readAllBytes(saveFile(TEST_KEY));
+        bytes[bytes.length - 2] ^= 1;
+        Files.write(saveFile(TEST_KEY), bytes);
+
+        assertThrows(IOException.class, () -> repository.read(TEST_KEY));
+        assertThrows(IOException.class, () -> repository.openReader(TEST_KEY));
+    }
+
+    @Test
+    public void testTruncatedChecksummedFileIsDetected() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS);
+        repository.write(TEST_KEY, "[1,2,3,4,5,6,7,8,9]");
+
+        byte[] bytes = Files.readAllBytes(saveFile(TEST_KEY));
+        Files.write(saveFile(TEST_KEY), Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThrows(IOException.class, () -> repository.read(TEST_KEY));
+    }
+
+    @Test
+    public void testFilesWithoutHeaderAreStillRead() throws IOException {
+        Files.createDirectories(saveFile(TEST_KEY).getParent());
+        Files.writeString(saveFile(TEST_KEY), "[1]");
+
+        DataRepository repository = new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS);
+
+        assertEquals("[1]", repository.read(TEST_KEY));
+    }
+
+    @Test
+    public void testAppendsGoAfterTheChecksummedPart() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS);
+        repository.write(TEST_KEY, "first\n");
+        repository.append(TEST_KEY, "second\n");
+
+        assertEquals("first\nsecond\n", repository.read(TEST_KEY));
+    }
+
+    @Test
+    public void testRecoveryFallsBackToThePreviousGeneration() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath,
+                LocalDataRepository.Option.CHECKSUMS, LocalDataRepository.Option.RECOVERY);
+        repository.write(TEST_KEY, "[1]");
+        repository.write(TEST_KEY, "[1,2]");
+
+        Files.writeString(saveFile(TEST_KEY), Files.readString(saveFile(TEST_KEY)).replace("[1,2]", "[1,"));
+        assertEquals("[1]", repository.read(TEST_KEY));
+        assertEquals("[1]", readAll(repository.openReader(TEST_KEY)));
+
+        // crashed between moving the current file aside and moving the new one in
+        Files.delete(saveFile(TEST_KEY));
+        assertTrue(repository.exists(TEST_KEY));
+        assertEquals("[1]", repository.read(TEST_KEY));
+
+        repository.remove(TEST_KEY);
+        assertFalse(repository.exists(TEST_KEY));
+    }
+
+    @Test
+    public void testWithoutRecoveryDamageIsReported() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS);
+        repository.write(TEST_KEY, "[1]");
+        repository.write(TEST_KEY, "[1,2]");
+
+        Files.writeString(saveFile(TEST_KEY), Files.readString(saveFile(TEST_KEY)).replace("[1,2]", "[1,"));
+
+        assertThrows(IOException.class, () -> repository.read(TEST_KEY));
+    }
+
+    @Test
+    public void testWriteAllCommitsEveryKey() throws IOException {
+        LocalDataRepository repository = new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS);
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("Users/Students", "[\"s\"]");
+        values.put("Scheduling/Lessons", "[\"l\"]");
+
+        repository.writeAll(values);
+
+        assertEquals("[\"s\"]", repository.read("Users/Students"));
+        assertEquals("[\"l\"]", repository.read("Scheduling/Lessons"));
+        assertFalse(Files.exists(savesPath.resolve("transaction.commit")));
+        assertTrue(temporaryFiles().isEmpty());
+    }
+
+    @Test
+    public void testRecoverFinishesCommittedTransactionAndDropsTheRest() throws IOException {
+        LocalDataRepository repository = new LocalDataRepository(savesPath);
+        repository.write("Users/Students", "old");
+
+        // crashed after the commit point: the transaction file names a finished temporary file
+        Path committed = saveFile("Users/Students").resolveSibling("Students.json.1.tmp");
+        Files.writeString(committed, "new");
+        Files.writeString(savesPath.resolve("transaction.commit"),
+                "Users/Students\t" + savesPath.relativize(committed) + "\n", StandardCharsets.UTF_8);
+
+        Path uncommitted = saveFile("Users/Students").resolveSibling("Students.json.2.tmp");
+        Files.writeString(uncommitted, "half");
+
+        repository.recover();
+
+        assertEquals("new", repository.read("Users/Students"));
+        assertFalse(Files.exists(savesPath.resolve("transaction.commit")));
+        assertTrue(temporaryFiles().isEmpty());
+    }
+
+    @Test
+    public void testSaveAllWritesCollectionsThroughOneTransaction() throws IOException {
+        SaveLoadService service = new SaveLoadService(new JsonDataSerializer(),
+                new LocalDataRepository(savesPath, LocalDataRepository.Option.CHECKSUMS));
+        Map<DataSaveKeys, Object> collections = new LinkedHashMap<>();
+        collections.put(DataSaveKeys.SUBJECTS, List.of("Math", "Physics"));
+        collections.put(DataSaveKeys.BUILDINGS, List.of("A"));
+
+        service.saveAll(collections);
+
+        assertEquals(List.of("Math", "Physics"),
+                service.load(DataSaveKeys.SUBJECTS, new TypeToken<List<String>>() {}.getType()));
+        assertEquals(List.of("A"),
+                service.load(DataSaveKeys.BUILDINGS, new TypeToken<List<String>>() {}.getType()));
+    }
+
+    @Test
+    public void testCompressedValuesRoundTrip() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath, new GzipCodec(), LocalDataRepository.Option.CHECKSUMS);
+        String value = "[" + "{\"name\":\"Student\"},".repeat(1000) + "{}]";
+
+        repository.write(TEST_KEY, value);
+        assertEquals(value, repository.read(TEST_KEY));
+        assertEquals(value, readAll(repository.openReader(TEST_KEY)));
+
+        try (PendingWriter writer = repository.openWriter(TEST_KEY)) {
+            writer.write("[4]");
+            writer.commit();
+        }
+        assertEquals("[4]", repository.read(TEST_KEY));
+        assertFalse(Files.exists(saveFile(TEST_KEY)));
+        assertTrue(Files.exists(savesPath.resolve(TEST_KEY + ".json.gz")));
+    }
+
+    @Test
+    public void testCompressedFilesAreSmallerAndAppendable() throws IOException {
+        DataRepository plain = new LocalDataRepository(savesPath);
+        DataRepository compressed = new LocalDataRepository(savesPath, new GzipCodec());
+        String value = "{\"name\":\"Student\",\"email\":\"student@pja.edu.pl\"}\n".repeat(1000);
+
+        plain.write(TEST_KEY, value);
+        compressed.write(TEST_KEY, value);
+        compressed.append(TEST_KEY, "tail\n");
+
+        assertTrue(Files.size(savesPath.resolve(TEST_KEY + ".json.gz")) * 10 < Files.size(saveFile(TEST_KEY)));
+        assertEquals(value + "tail\n", compressed.read(TEST_KEY));
+        assertEquals(value, plain.read(TEST_KEY));
+    }
+
+    @Test
+    public void testWriteAllCompressesEveryKey() throws IOException {
+        DataRepository repository = new LocalDataRepository(savesPath, new GzipCodec(), LocalDataRepository.Option.CHECKSUMS);
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("Users/Students", "[1]");
+        values.put("Lessons", "[2]");
+
+        repository.writeAll(values);
+
+        assertEquals("[1]", repository.read("Users/Students"));
+        assertEquals("[2]", repository.read("Lessons"));
+        assertTrue(temporaryFiles().isEmpty());
+    }
+}
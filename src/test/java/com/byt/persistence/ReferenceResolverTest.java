@@ -0,0 +1,136 @@
+package com.byt.persistence;
+
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.persistence.util.EntityReferences;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceResolverTest {
+    private static final Type BUILDING_LIST_TYPE = new TypeToken<List<Building>>() {}.getType();
+    private static final Type CLASSROOM_LIST_TYPE = new TypeToken<List<ClassRoom>>() {}.getType();
+    private static final Type GROUP_LIST_TYPE = new TypeToken<List<Group>>() {}.getType();
+    private static final Type STUDENT_LIST_TYPE = new TypeToken<List<Student>>() {}.getType();
+
+    private final InMemoryDataRepository repository = new InMemoryDataRepository();
+    private final SaveLoadService writer = new SaveLoadService(new JsonDataSerializer(), repository);
+
+    private static Group group(String name) {
+        return Group.builder()
+                .name(name)
+                .language(StudyLanguage.ENGLISH)
+                .maxCapacity(20)
+                .yearOfStudy(3)
+                .notes(new ArrayList<>())
+                .lessons(new HashSet<>())
+                .students(new HashSet<>())
+                .build();
+    }
+
+    private static Student student(String email) {
+        return new Student("Anna", "Nowak", null, LocalDate.of(2003, 5, 1), "123456789", email,
+                new HashSet<>(Set.of(StudyLanguage.ENGLISH)), StudyStatus.ACTIVE);
+    }
+
+    private SaveLoadService reader() {
+        SaveLoadService reader = new SaveLoadService(new JsonDataSerializer(), repository);
+        reader.setReferenceResolver(new ReferenceResolver(EntityReferences.ID_FIELDS));
+        return reader;
+    }
+
+    @Test
+    public void testLinksAreSavedAsIds() throws IOException {
+        Building building = Building.builder().name("Main").address("Warsaw").description("Lectures").build();
+        ClassRoom classRoom = ClassRoom.builder().name("A1").floor(1).capacity(30).build();
+        building.addClassRoom(classRoom);
+
+        writer.save(DataSaveKeys.BUILDINGS, List.of(building));
+        writer.save(DataSaveKeys.CLASSROOMS, List.of(classRoom));
+
+        String classRooms = repository.read(DataSaveKeys.CLASSROOMS.repositoryKey);
+        assertTrue(classRooms.contains("\"building\":\"Main\""), classRooms);
+        assertTrue(repository.read(DataSaveKeys.BUILDINGS.repositoryKey).contains("\"classRooms\":[\"A1\"]"));
+    }
+
+    @Test
+    public void testResolvingRestoresSharedInstances() throws IOException {
+        Building building = Building.builder().name("Main").address("Warsaw").description("Lectures").build();
+        ClassRoom first = ClassRoom.builder().name("A1").floor(1).capacity(30).build();
+        ClassRoom second = ClassRoom.builder().name("A2").floor(2).capacity(40).build();
+        building.addClassRoom(first);
+        building.addClassRoom(second);
+        writer.save(DataSaveKeys.BUILDINGS, List.of(building));
+        writer.save(DataSaveKeys.CLASSROOMS, List.of(first, second));
+
+        SaveLoadService reader = reader();
+        List<Building> buildings = reader.loadAll(DataSaveKeys.BUILDINGS, BUILDING_LIST_TYPE, Building::getName);
+        List<ClassRoom> classRooms = reader.loadAll(DataSaveKeys.CLASSROOMS, CLASSROOM_LIST_TYPE, ClassRoom::getName);
+
+        // before resolving the links are stubs
+        assertNotSame(buildings.getFirst(), classRooms.getFirst().getBuilding());
+        assertEquals("Main", classRooms.getFirst().getBuilding().getName());
+
+        ReferenceResolver.Stats stats = reader.resolveReferences();
+
+        Building loaded = buildings.getFirst();
+        for (ClassRoom classRoom : classRooms) {
+            assertSame(loaded, classRoom.getBuilding());
+            assertTrue(loaded.getClassRooms().stream().anyMatch(linked -> linked == classRoom));
+        }
+        assertEquals(new ReferenceResolver.Stats(3, 4, 0), stats);
+        assertEquals(30, loaded.getClassRooms().stream()
+                .filter(classRoom -> classRoom.getName().equals("A1")).findFirst().orElseThrow().getCapacity());
+    }
+
+    @Test
+    public void testHashedLinksStillFindTheirEntitiesAfterResolving() throws IOException {
+        // a student hashes over its groups, so the groups' sets of students must be rehashed
+        Group group = group("G1");
+        Student student = student("anna@school.com");
+        group.addStudent(student);
+        writer.save(DataSaveKeys.GROUPS, List.of(group));
+        writer.save(DataSaveKeys.STUDENTS, List.of(student));
+
+        SaveLoadService reader = reader();
+        List<Group> groups = reader.loadAll(DataSaveKeys.GROUPS, GROUP_LIST_TYPE, Group::getName);
+        List<Student> students = reader.loadAll(DataSaveKeys.STUDENTS, STUDENT_LIST_TYPE, Student::getEmail);
+        reader.resolveReferences();
+
+        Group loadedGroup = groups.getFirst();
+        Student loadedStudent = students.getFirst();
+        assertTrue(loadedGroup.getStudents().contains(loadedStudent));
+        assertTrue(loadedStudent.getGroups().contains(loadedGroup));
+        assertSame(loadedGroup, loadedStudent.getGroups().iterator().next());
+    }
+
+    @Test
+    public void testLinksToEntitiesNotLoadedStayStubs() throws IOException {
+        Building building = Building.builder().name("Main").address("Warsaw").description("Lectures").build();
+        ClassRoom classRoom = ClassRoom.builder().name("A1").floor(1).capacity(30).build();
+        building.addClassRoom(classRoom);
+        writer.save(DataSaveKeys.CLASSROOMS, List.of(classRoom));
+
+        SaveLoadService reader = reader();
+        List<ClassRoom> classRooms = reader.loadAll(DataSaveKeys.CLASSROOMS, CLASSROOM_LIST_TYPE, ClassRoom::getName);
+
+        assertEquals(new ReferenceResolver.Stats(1, 1, 1), reader.resolveReferences());
+        assertEquals("Main", classRooms.getFirst().getBuilding().getName());
+        // everything registered was resolved, the next round starts empty
+        assertEquals(new ReferenceResolver.Stats(0, 0, 0), reader.resolveReferences());
+    }
+}
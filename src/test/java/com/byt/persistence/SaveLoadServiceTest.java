@@ -1,8 +1,13 @@
 package com.byt.persistence;
 
+import com.byt.metrics.InMemoryMetricsRegistry;
+import com.byt.persistence.util.DataSaveKeys;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +86,90 @@ public class SaveLoadServiceTest {
 
         assertTrue(emptyRepository.wasWritingOperationPerformed());
     }
+
+    @Test
+    public void testBatchWritesOnceWhenClosed() throws IOException {
+        List<String> entities = List.of("a", "b", "c");
+
+        try (SaveLoadService.Batch batch = emptyDataService.openBatch(DataSaveKeys.STUDENTS)) {
+            for (String entity : entities)
+                emptyDataService.saveCreated(DataSaveKeys.STUDENTS, entity, entity, entities);
+
+            assertFalse(emptyRepository.wasWritingOperationPerformed());
+        }
+
+        assertEquals(1, emptyRepository.writingOperationCount());
+
+        // closed batches don't hold anything back anymore
+        emptyDataService.saveDeleted(DataSaveKeys.STUDENTS, "a", entities);
+        assertEquals(2, emptyRepository.writingOperationCount());
+    }
+
+    @Test
+    public void testNestedBatchesWriteWithTheOutermost() throws IOException {
+        try (SaveLoadService.Batch outer = emptyDataService.openBatch(DataSaveKeys.STUDENTS)) {
+            try (SaveLoadService.Batch inner = emptyDataService.openBatch(DataSaveKeys.STUDENTS)) {
+                emptyDataService.saveCreated(DataSaveKeys.STUDENTS, "a", "a", List.of("a"));
+            }
+            // other keys are not part of the batch
+            emptyDataService.saveCreated(DataSaveKeys.GROUPS, "g", "g", List.of("g"));
+
+            assertEquals(1, emptyRepository.writingOperationCount());
+        }
+
+        assertEquals(2, emptyRepository.writingOperationCount());
+    }
+
+    @Test
+    public void testDiscardedBatchWritesNothing() throws IOException {
+        try (SaveLoadService.Batch batch = emptyDataService.openBatch(DataSaveKeys.STUDENTS)) {
+            emptyDataService.saveCreated(DataSaveKeys.STUDENTS, "a", "a", List.of("a"));
+            batch.discard();
+        }
+
+        assertFalse(emptyRepository.wasWritingOperationPerformed());
+    }
+
+    @Test
+    public void testSavesAndLoadsAreMeasuredPerKey() throws IOException {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        SaveLoadService service = new SaveLoadService(serializer, new InMemoryDataRepository());
+        service.setMetrics(metrics);
+
+        service.save(DataSaveKeys.STUDENTS, List.of("a", "b"));
+        service.saveCreated(DataSaveKeys.STUDENTS, "c", "c", List.of("a", "b", "c"));
+        service.load(DataSaveKeys.STUDENTS, List.class);
+
+        String key = DataSaveKeys.STUDENTS.repositoryKey;
+        // the per-entity save rewrites the collection through save()
+        assertEquals(2, metrics.getLatencies().get("saveLoad.save:" + key).count());
+        assertEquals(1, metrics.getLatencies().get("saveLoad.saveChanges:" + key).count());
+        assertEquals(1, metrics.getLatencies().get("saveLoad.load:" + key).count());
+        assertEquals(3L, metrics.getGauges().get("collection:" + key));
+    }
+
+    @Test
+    public void testNothingIsMeasuredOnceMetricsAreRemoved() throws IOException {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        emptyDataService.setMetrics(metrics);
+        emptyDataService.save(DataSaveKeys.STUDENTS, List.of("a"));
+
+        emptyDataService.setMetrics(null);
+        emptyDataService.save(DataSaveKeys.STUDENTS, List.of("a"));
+
+        assertEquals(1, metrics.getLatencies().get("saveLoad.save:" + DataSaveKeys.STUDENTS.repositoryKey).count());
+    }
+
+    @Test
+    public void testSerializerFailingHalfwayKeepsTheStoredCollection() throws IOException {
+        DataRepository repository = new InMemoryDataRepository();
+        new SaveLoadService(serializer, repository).save(TEST_KEY, List.of("a", "b"));
+
+        SaveLoadService failing = new SaveLoadService(new FailingDataSerializer(), repository);
+        assertThrows(IllegalStateException.class, () -> failing.save(TEST_KEY, List.of("c")));
+
+        assertEquals(List.of("a", "b"), new SaveLoadService(serializer, repository).load(TEST_KEY, List.class));
+    }
 }
 
 class MockRepositoryWithData implements DataRepository {
@@ -114,10 +203,14 @@ class MockRepositoryWithData implements DataRepository {
 }
 
 class MockEmptyDataRepository implements DataRepository {
-    private boolean wasWritingOperationPerformed = false;
+    private int writingOperations = 0;
 
     public boolean wasWritingOperationPerformed() {
-        return wasWritingOperationPerformed;
+        return writingOperations > 0;
+    }
+
+    public int writingOperationCount() {
+        return writingOperations;
     }
 
     @Override
@@ -127,7 +220,7 @@ class MockEmptyDataRepository implements DataRepository {
 
     @Override
     public void write(String key, String serializedData) throws IOException {
-        wasWritingOperationPerformed = true;
+        writingOperations++;
     }
 
     @Override
@@ -139,4 +232,24 @@ class MockEmptyDataRepository implements DataRepository {
     public boolean exists(String key) {
         return false;
     }
-}
\ No newline at end of file
+}
+
+// Writes the start of a collection and gives up, the way a serializer hitting a bad entity would
+class FailingDataSerializer implements DataSerializer {
+    @Override
+    public String serialize(Object object) {
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public Object deserialize(String serializedObject, Type type) {
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public void serialize(Object object, Writer writer) throws IOException {
+        writer.write("[\"c\",");
+        writer.flush();
+        throw new IllegalStateException("Can't serialize the second element");
+    }
+}
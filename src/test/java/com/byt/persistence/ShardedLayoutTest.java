@@ -0,0 +1,126 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedLayoutTest {
+    private static final Type ITEM_LIST_TYPE = new TypeToken<List<Item>>() {}.getType();
+    private static final DataSaveKeys TEST_KEY = DataSaveKeys.SUBJECTS;
+
+    private final DataSerializer serializer = new JsonDataSerializer();
+    private final RecordingRepository repository = new RecordingRepository();
+    private final ShardedLayout layout = new ShardedLayout(serializer, repository, 8);
+    private final SaveLoadService service = new SaveLoadService(serializer, repository, layout);
+
+    @Test
+    public void testChangesRoundTripThroughShards() throws IOException {
+        assertFalse(service.canLoad(TEST_KEY));
+
+        for (int i = 0; i < 50; i++)
+            service.saveCreated(TEST_KEY, "item" + i, new Item("item" + i, i), List.of());
+        service.saveUpdated(TEST_KEY, "item3", "item3", new Item("item3", 300), List.of());
+        service.saveDeleted(TEST_KEY, "item4", List.of());
+
+        assertTrue(service.canLoad(TEST_KEY));
+        List<Item> loaded = service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id);
+
+        assertEquals(49, loaded.size());
+        assertTrue(loaded.contains(new Item("item3", 300)));
+        assertFalse(loaded.stream().anyMatch(item -> item.id().equals("item4")));
+    }
+
+    @Test
+    public void testChangeRewritesOnlyItsShard() throws IOException {
+        for (int i = 0; i < 50; i++)
+            service.saveCreated(TEST_KEY, "item" + i, new Item("item" + i, i), List.of());
+
+        repository.written.clear();
+        service.saveUpdated(TEST_KEY, "item7", "item7", new Item("item7", 70), List.of());
+
+        assertEquals(1, repository.written.size());
+        assertTrue(repository.written.get(0).startsWith(TEST_KEY.repositoryKey + "/shard-"));
+    }
+
+    @Test
+    public void testKeyChangeMovesEntityBetweenShards() throws IOException {
+        service.saveCreated(TEST_KEY, "a", new Item("a", 1), List.of());
+
+        service.saveUpdated(TEST_KEY, "a", "z", new Item("z", 1), List.of());
+
+        assertEquals(List.of(new Item("z", 1)), service.load(TEST_KEY, ITEM_LIST_TYPE));
+    }
+
+    @Test
+    public void testWholeCollectionSaveNeedsTheIdentityFromLoadAll() throws IOException {
+        List<Item> items = List.of(new Item("a", 1), new Item("b", 2), new Item("c", 3));
+
+        assertThrows(IOException.class, () -> service.save(TEST_KEY, items));
+
+        service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id);
+        service.save(TEST_KEY, items);
+
+        assertEquals(new HashSet<>(items), new HashSet<>(service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id)));
+    }
+
+    @Test
+    public void testExistingCollectionKeepsItsShardCount() throws IOException {
+        for (int i = 0; i < 20; i++)
+            service.saveCreated(TEST_KEY, "item" + i, new Item("item" + i, i), List.of());
+
+        SaveLoadService reopened = new SaveLoadService(serializer, repository, new ShardedLayout(serializer, repository, 3));
+        reopened.saveDeleted(TEST_KEY, "item0", List.of());
+
+        List<Item> loaded = reopened.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id);
+        assertEquals(19, loaded.size());
+        assertEquals("8", repository.read(TEST_KEY.repositoryKey + "/shards"));
+    }
+
+    @Test
+    public void testShardCountMustBeSensible() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedLayout(serializer, repository, 0));
+    }
+
+    private record Item(String id, int value) {}
+
+    private static final class RecordingRepository implements DataRepository {
+        private final InMemoryDataRepository delegate = new InMemoryDataRepository();
+        final List<String> written = new ArrayList<>();
+
+        @Override
+        public String read(String key) throws IOException {
+            return delegate.read(key);
+        }
+
+        @Override
+        public void write(String key, String serializedData) throws IOException {
+            delegate.write(key, serializedData);
+            written.add(key);
+        }
+
+        @Override
+        public void writeAll(Map<String, String> keyToSerializedData) throws IOException {
+            for (Map.Entry<String, String> value : keyToSerializedData.entrySet())
+                write(value.getKey(), value.getValue());
+        }
+
+        @Override
+        public void remove(String key) throws IOException {
+            delegate.remove(key);
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return delegate.exists(key);
+        }
+    }
+}
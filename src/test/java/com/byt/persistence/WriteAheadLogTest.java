@@ -0,0 +1,165 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+    private static final Type ITEM_LIST_TYPE = new TypeToken<List<Item>>() {}.getType();
+    private static final DataSaveKeys TEST_KEY = DataSaveKeys.SUBJECTS;
+    private static final String LOG_KEY = TEST_KEY.repositoryKey + "_log";
+
+    private final DataSerializer serializer = new JsonDataSerializer();
+    private final InMemoryDataRepository repository = new InMemoryDataRepository();
+    private final WriteAheadLog writeAheadLog = new WriteAheadLog(serializer, repository, 100);
+    private final SaveLoadService service = new SaveLoadService(serializer, repository, writeAheadLog);
+
+    @Test
+    public void testReplayAppliesLogOnTopOfSnapshot() throws IOException {
+        service.save(TEST_KEY, List.of(new Item("a", 1), new Item("b", 2)));
+
+        service.saveCreated(TEST_KEY, "c", new Item("c", 3), List.of());
+        service.saveUpdated(TEST_KEY, "a", "a", new Item("a", 10), List.of());
+        service.saveDeleted(TEST_KEY, "b", List.of());
+
+        List<Item> loaded = service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id);
+
+        assertEquals(List.of(new Item("a", 10), new Item("c", 3)), loaded);
+    }
+
+    @Test
+    public void testChangesDoNotRewriteSnapshot() throws IOException {
+        service.save(TEST_KEY, List.of(new Item("a", 1)));
+        String snapshot = repository.read(TEST_KEY.repositoryKey);
+
+        service.saveCreated(TEST_KEY, "b", new Item("b", 2), List.of());
+
+        assertEquals(snapshot, repository.read(TEST_KEY.repositoryKey));
+        assertTrue(repository.exists(LOG_KEY));
+    }
+
+    @Test
+    public void testKeyChangeMovesEntity() throws IOException {
+        service.save(TEST_KEY, List.of(new Item("a", 1)));
+
+        service.saveUpdated(TEST_KEY, "a", "z", new Item("z", 1), List.of());
+
+        List<Item> loaded = service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id);
+        assertEquals(List.of(new Item("z", 1)), loaded);
+    }
+
+    @Test
+    public void testReplayWorksWithoutSnapshot() throws IOException {
+        service.saveCreated(TEST_KEY, "a", new Item("a", 1), List.of());
+
+        assertTrue(service.canLoad(TEST_KEY));
+        assertEquals(List.of(new Item("a", 1)), service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id));
+    }
+
+    @Test
+    public void testTornLastRecordIsIgnored() throws IOException {
+        service.saveCreated(TEST_KEY, "a", new Item("a", 1), List.of());
+        repository.append(LOG_KEY, "CREATE\t\"b\"\t{\"id\":\"b\",\"val");
+
+        assertEquals(List.of(new Item("a", 1)), service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id));
+    }
+
+    @Test
+    public void testAppendAfterTornRecordStartsOnACleanLine() throws IOException {
+        service.saveCreated(TEST_KEY, "a", new Item("a", 1), List.of());
+        repository.append(LOG_KEY, "CREATE\t\"b\"\t{\"id\":\"b\",\"val");
+
+        // what the next run of the application sees after the crash
+        WriteAheadLog restarted = new WriteAheadLog(serializer, repository, 100);
+        SaveLoadService restartedService = new SaveLoadService(serializer, repository, restarted);
+        restartedService.saveCreated(TEST_KEY, "c", new Item("c", 3), List.of());
+        restartedService.saveCreated(TEST_KEY, "d", new Item("d", 4), List.of());
+
+        assertEquals(List.of(new Item("a", 1), new Item("c", 3), new Item("d", 4)),
+                restartedService.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id));
+        restarted.close();
+    }
+
+    @Test
+    public void testCompactionGivesWayToASnapshotSavedMeanwhile() throws IOException {
+        WriteAheadLog[] log = new WriteAheadLog[1];
+        DataSerializer racing = new DataSerializer() {
+            private boolean raced;
+
+            // compaction serializes the merged list without holding the lock, a save and new changes land right then
+            @Override
+            public String serialize(Object object) {
+                if (object instanceof List<?> && !raced) {
+                    raced = true;
+                    try {
+                        log[0].writeSnapshot(TEST_KEY.repositoryKey, List.of(new Item("z", 26)));
+                        log[0].append(TEST_KEY.repositoryKey, EntityChange.created("y", new Item("y", 25)));
+                    } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+                return serializer.serialize(object);
+            }
+
+            @Override
+            public Object deserialize(String serializedObject, Type type) {
+                return serializer.deserialize(serializedObject, type);
+            }
+        };
+        log[0] = new WriteAheadLog(racing, repository, 100);
+        SaveLoadService racingService = new SaveLoadService(racing, repository, log[0]);
+
+        racingService.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id);
+        for (int i = 0; i < 5; i++)
+            racingService.saveCreated(TEST_KEY, "item" + i, new Item("item" + i, i), List.of());
+
+        log[0].compact(TEST_KEY.repositoryKey);
+
+        assertEquals(List.of(new Item("z", 26), new Item("y", 25)),
+                racingService.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id));
+        log[0].close();
+    }
+
+    @Test
+    public void testCompactionFoldsLogIntoSnapshot() throws IOException {
+        service.loadAll(TEST_KEY, ITEM_LIST_TYPE, Item::id);
+
+        List<Item> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Item item = new Item("item" + i, i);
+            expected.add(item);
+            service.saveCreated(TEST_KEY, item.id(), item, List.of());
+        }
+
+        writeAheadLog.compact(TEST_KEY.repositoryKey);
+
+        assertFalse(repository.exists(LOG_KEY));
+        assertEquals(serializer.serialize(expected), repository.read(TEST_KEY.repositoryKey));
+    }
+
+    @Test
+    public void testPlainLoadThrowsOnUnknownPendingLog() throws IOException {
+        service.saveCreated(TEST_KEY, "a", new Item("a", 1), List.of());
+
+        assertThrows(IOException.class, () -> service.load(TEST_KEY, ITEM_LIST_TYPE));
+    }
+
+    @Test
+    public void testSaveReplacesSnapshotAndDropsLog() throws IOException {
+        service.saveCreated(TEST_KEY, "a", new Item("a", 1), List.of());
+
+        service.save(TEST_KEY, List.of(new Item("b", 2)));
+
+        assertFalse(repository.exists(LOG_KEY));
+        assertEquals(List.of(new Item("b", 2)), service.load(TEST_KEY, ITEM_LIST_TYPE));
+    }
+
+    private record Item(String id, int value) {}
+}
@@ -0,0 +1,204 @@
+package com.byt.persistence;
+
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.StripedLocks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindFlusherTest {
+    private static final DataSaveKeys TEST_KEY = DataSaveKeys.SUBJECTS;
+
+    private final DataSerializer serializer = new JsonDataSerializer();
+    private final CountingRepository repository = new CountingRepository();
+    private final List<String> collection = new ArrayList<>();
+
+    private WriteBehindFlusher flusher;
+    private SaveLoadService service;
+
+    private void open(Duration window, Duration maxLag) {
+        flusher = new WriteBehindFlusher(window, maxLag);
+        service = new SaveLoadService(serializer, repository, flusher);
+    }
+
+    private void change(String entity) throws IOException {
+        collection.add(entity);
+        service.saveCreated(TEST_KEY, entity, entity, collection);
+    }
+
+    @AfterEach
+    public void closeFlusher() throws IOException {
+        repository.failing = false;
+        if (flusher != null)
+            flusher.close();
+    }
+
+    @Test
+    public void testChangesAreCoalescedIntoOneWrite() throws IOException {
+        open(Duration.ofHours(1), Duration.ofHours(1));
+
+        for (int i = 0; i < 100; i++)
+            change("item" + i);
+
+        assertEquals(0, repository.writes);
+        assertEquals(1, flusher.stats().dirtyKeys());
+
+        flusher.flush();
+
+        assertEquals(1, repository.writes);
+        assertEquals(serializer.serialize(collection), repository.read(TEST_KEY.repositoryKey));
+
+        WriteBehindFlusher.Stats stats = flusher.stats();
+        assertEquals(100, stats.marks());
+        assertEquals(1, stats.flushes());
+        assertEquals(99, stats.coalescedMarks());
+        assertEquals(0, stats.dirtyKeys());
+    }
+
+    @Test
+    public void testFlushesInTheBackgroundWithinTheWindow() throws Exception {
+        open(Duration.ofMillis(10), Duration.ofSeconds(10));
+
+        change("a");
+        change("b");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (flusher.stats().flushes() == 0 && System.nanoTime() < deadline)
+            Thread.sleep(5);
+
+        assertEquals(serializer.serialize(collection), repository.read(TEST_KEY.repositoryKey));
+        assertTrue(flusher.stats().maxLag().compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    public void testWritersFlushThemselvesPastMaxLag() throws Exception {
+        open(Duration.ofHours(1), Duration.ofMillis(200));
+
+        change("a");
+        Thread.sleep(300);
+        change("b");
+
+        assertEquals(1, repository.writes);
+        assertEquals(0, flusher.stats().dirtyKeys());
+        assertEquals(serializer.serialize(collection), repository.read(TEST_KEY.repositoryKey));
+    }
+
+    @Test
+    public void testFlushWaitsUntilNoServiceChangesTheCollection() throws Exception {
+        open(Duration.ofMillis(10), Duration.ofSeconds(10));
+
+        try (StripedLocks.Held held = StripedLocks.of(TEST_KEY).lock("a")) {
+            change("a");
+            Thread.sleep(100);
+
+            assertEquals(0, repository.writes);
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (flusher.stats().flushes() == 0 && System.nanoTime() < deadline)
+            Thread.sleep(5);
+
+        assertEquals(serializer.serialize(collection), repository.read(TEST_KEY.repositoryKey));
+    }
+
+    @Test
+    public void testWritersPastMaxLagDoNotWaitForABusyCollection() throws Exception {
+        open(Duration.ofHours(1), Duration.ofMillis(50));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread otherWriter = new Thread(() -> {
+            try (StripedLocks.Held held = StripedLocks.of(TEST_KEY).lock("other")) {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        otherWriter.start();
+        locked.await();
+
+        change("a");
+        Thread.sleep(100);
+        change("b");
+
+        assertEquals(0, repository.writes);
+        assertEquals(1, flusher.stats().dirtyKeys());
+
+        release.countDown();
+        otherWriter.join();
+        flusher.flush();
+        assertEquals(serializer.serialize(collection), repository.read(TEST_KEY.repositoryKey));
+    }
+
+    @Test
+    public void testFailedFlushKeepsCollectionDirty() throws IOException {
+        open(Duration.ofHours(1), Duration.ofHours(1));
+        change("a");
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> flusher.flush());
+        assertEquals(1, flusher.stats().failures());
+        assertEquals(1, flusher.stats().dirtyKeys());
+
+        repository.failing = false;
+        flusher.flush();
+        assertEquals(serializer.serialize(collection), repository.read(TEST_KEY.repositoryKey));
+    }
+
+    @Test
+    public void testCloseFlushesAndLaterChangesWriteThrough() throws IOException {
+        open(Duration.ofHours(1), Duration.ofHours(1));
+        change("a");
+
+        flusher.close();
+        assertEquals(1, repository.writes);
+
+        change("b");
+        assertEquals(2, repository.writes);
+        assertEquals(serializer.serialize(collection), repository.read(TEST_KEY.repositoryKey));
+    }
+
+    @Test
+    public void testFlusherServesOneSaveLoadService() {
+        open(Duration.ofHours(1), Duration.ofHours(1));
+
+        assertThrows(IllegalStateException.class, () -> new SaveLoadService(serializer, repository, flusher));
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindFlusher(Duration.ZERO));
+    }
+
+    private static final class CountingRepository implements DataRepository {
+        private final InMemoryDataRepository delegate = new InMemoryDataRepository();
+        volatile int writes;
+        volatile boolean failing;
+
+        @Override
+        public String read(String key) throws IOException {
+            return delegate.read(key);
+        }
+
+        @Override
+        public void write(String key, String serializedData) throws IOException {
+            if (failing)
+                throw new IOException("Disk is gone");
+
+            delegate.write(key, serializedData);
+            writes++;
+        }
+
+        @Override
+        public void remove(String key) throws IOException {
+            delegate.remove(key);
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return delegate.exists(key);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.byt.persistence.gson_adapters.entities;
+
+import com.byt.data.reporting.IssueReport;
+import com.byt.data.scheduling.*;
+import com.byt.data.user_system.Admin;
+import com.byt.data.user_system.FreeListener;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.*;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.util.EntityReferences;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityAdaptersTest {
+    private final JsonDataSerializer compiled = new JsonDataSerializer();
+    private final JsonDataSerializer reflective = JsonDataSerializer.reflective();
+
+    private static List<Object> entities() {
+        Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak", LocalDate.of(1980, 1, 1), "123456789",
+                "anna@school.com", LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+        Semester semester = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31))
+                .academicYear(2025).build();
+        Subject subject = Subject.builder()
+                .name("Databases").hours(60).types(new ArrayList<>(List.of(SubjectType.EXAM_SUBJECT))).build();
+        Group group = Group.builder()
+                .name("G1").language(StudyLanguage.ENGLISH).maxCapacity(20).yearOfStudy(2)
+                .notes(new ArrayList<>(List.of("Morning <only>"))).build();
+        Building building = Building.builder().name("Main").address("Warsaw").description("Lectures").build();
+        ClassRoom classRoom = ClassRoom.builder().name("A1").floor(1).capacity(30).building(building).build();
+        Lesson lesson = Lesson.builder()
+                .name("Databases lecture").type(LessonType.LECTURE).mode(LessonMode.OFFLINE).note("Bring a laptop")
+                .dayOfWeek(DayOfWeek.MONDAY).startTime(LocalTime.of(8, 15)).endTime(LocalTime.of(9, 45, 30, 1200))
+                .language(StudyLanguage.ENGLISH).weekPattern(WeekPattern.NORMAL)
+                .subject(subject).group(group).teacher(teacher)
+                .classRooms(new HashSet<>(Set.of(classRoom))).semesters(new HashSet<>(Set.of(semester)))
+                .build();
+        Student student = new Student("Jan", "Nowak", null, LocalDate.of(2003, 5, 1), "987654321",
+                "jan@school.com", new HashSet<>(Set.of(StudyLanguage.ENGLISH, StudyLanguage.POLISH)), StudyStatus.ACTIVE);
+        FreeListener freeListener = new FreeListener("Ewa", "Lis", null, LocalDate.of(1990, 2, 3), "555666777",
+                "ewa@school.com", new HashSet<>(Set.of(StudyLanguage.POLISH)), "Auditing");
+        Specialization specialization = Specialization.builder().name("Data").description("Data engineering").build();
+        StudyProgram program = StudyProgram.builder().name("Computer Science").level(StudyProgramLevel.MASTER).build();
+        Admin superAdmin = new Admin("Olga", "Adminska", null, LocalDate.of(1975, 3, 3), "111222333",
+                "olga@school.com", LocalDate.of(2000, 1, 1), LocalDateTime.of(2025, 11, 2, 10, 30, 5, 77), null);
+        Admin admin = new Admin("Piotr", "Adminski", null, LocalDate.of(1985, 4, 4), "444555666",
+                "piotr@school.com", LocalDate.of(2015, 1, 1), null, superAdmin);
+        IssueReport report = new IssueReport("jan@school.com", "Broken projector", "Room A1",
+                LocalDateTime.of(2025, 12, 1, 9, 0));
+
+        building.addClassRoom(classRoom);
+        group.addStudent(student);
+        group.addFreeListener(freeListener);
+        specialization.addStudent(student);
+        specialization.addSubject(subject);
+        specialization.addStudyProgram(program);
+
+        return List.of(teacher, semester, subject, group, building, classRoom, lesson, student, freeListener,
+                specialization, program, superAdmin, admin, report);
+    }
+
+    // Arrays compared as sets: link sets are written in iteration order, which stubs don't share with the
+    // entities they stand for, and a set holding an entity whose hash changed since can list it twice
+    private static JsonElement normalized(JsonElement element) {
+        if (element instanceof JsonObject object) {
+            JsonObject result = new JsonObject();
+            object.entrySet().forEach(member -> result.add(member.getKey(), normalized(member.getValue())));
+            return result;
+        }
+        if (element instanceof JsonArray array) {
+            Map<String, JsonElement> elements = new TreeMap<>();
+            array.forEach(item -> elements.put(normalized(item).toString(), normalized(item)));
+
+            JsonArray result = new JsonArray();
+            elements.values().forEach(result::add);
+            return result;
+        }
+        return element;
+    }
+
+    private static JsonElement parsed(String json) {
+        return normalized(JsonParser.parseString(json));
+    }
+
+    @Test
+    public void testEveryLinkedEntityHasAnAdapter() {
+        Set<Class<?>> entityClasses = new EntityAdapters().entityClasses();
+
+        assertTrue(entityClasses.containsAll(EntityReferences.ID_FIELDS.keySet()));
+        assertTrue(entityClasses.containsAll(Set.of(Admin.class, IssueReport.class)));
+    }
+
+    @Test
+    public void testWritesTheSameDocumentsAsTheReflectiveAdapters() {
+        for (Object entity : entities())
+            assertEquals(parsed(reflective.serialize(entity)), parsed(compiled.serialize(entity)),
+                    entity.getClass().getSimpleName());
+    }
+
+    @Test
+    public void testReadsWhatTheReflectiveAdaptersWrite() {
+        for (Object entity : entities()) {
+            String expected = compiled.serialize(entity);
+
+            Object fromReflective = compiled.deserialize(reflective.serialize(entity), entity.getClass());
+            Object roundTripped = compiled.deserialize(expected, entity.getClass());
+
+            assertEquals(parsed(expected), parsed(compiled.serialize(fromReflective)), entity.getClass().getSimpleName());
+            assertEquals(parsed(expected), parsed(compiled.serialize(roundTripped)), entity.getClass().getSimpleName());
+            assertEquals(parsed(expected), parsed(reflective.serialize(roundTripped)), entity.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    public void testStringsAreEscapedLikeJsonWriterEscapesThem() {
+        String text = "quote\" backslash\\ tab\t line\n <b>&='\u2028\u0001 zażółć";
+        IssueReport report = new IssueReport("jan@school.com", text, null, null);
+
+        String json = compiled.serialize(report);
+
+        assertTrue(json.contains("\"title\":" + new Gson().toJson(text)), json);
+        assertFalse(json.contains("description"), json);
+        assertEquals(text, ((IssueReport) compiled.deserialize(json, IssueReport.class)).getTitle());
+    }
+
+    @Test
+    public void testDatesAreWrittenAsEpochNumbersAndOldObjectsStillRead() {
+        String json = compiled.serialize(new IssueReport("jan@school.com", "Title", "Text",
+                LocalDateTime.of(2025, 12, 1, 9, 30)));
+        long epochDay = LocalDate.of(2025, 12, 1).toEpochDay();
+        long nanoOfDay = LocalTime.of(9, 30).toNanoOfDay();
+        assertTrue(json.contains("\"createdAt\":[" + epochDay + "," + nanoOfDay + "]"), json);
+
+        Semester semester = (Semester) compiled.deserialize(
+                "{\"name\":\"Winter\",\"startDate\":{\"year\":2025,\"month\":10,\"dayOfMonth\":1},\"endDate\":"
+                        + LocalDate.of(2026, 1, 31).toEpochDay() + "}", Semester.class);
+        assertEquals(LocalDate.of(2025, 10, 1), semester.getStartDate());
+        assertEquals(LocalDate.of(2026, 1, 31), semester.getEndDate());
+
+        Lesson lesson = (Lesson) compiled.deserialize(
+                "{\"name\":\"L\",\"startTime\":{\"hour\":8,\"minute\":15,\"second\":0,\"nanoOfSecond\":0}}", Lesson.class);
+        assertEquals(LocalTime.of(8, 15), lesson.getStartTime());
+    }
+
+    @Test
+    public void testLinksAreReadAsStubsOrFromOldNestedObjects() {
+        ClassRoom fromId = (ClassRoom) compiled.deserialize("{\"name\":\"A1\",\"building\":\"Main\"}", ClassRoom.class);
+        assertEquals("Main", fromId.getBuilding().getName());
+        assertNull(fromId.getBuilding().getAddress());
+
+        ClassRoom fromNested = (ClassRoom) compiled.deserialize(
+                "{\"name\":\"A1\",\"building\":{\"name\":\"Main\",\"address\":\"Warsaw\",\"classRooms\":[\"A1\"]}}",
+                ClassRoom.class);
+        assertEquals("Warsaw", fromNested.getBuilding().getAddress());
+        assertEquals("A1", fromNested.getBuilding().getClassRooms().iterator().next().getName());
+    }
+
+    @Test
+    public void testUnknownFieldsAndEnumConstantsAreSkipped() {
+        Group group = (Group) compiled.deserialize(
+                "{\"name\":\"G1\",\"language\":\"KLINGON\",\"removedField\":{\"nested\":[1,2]},\"maxCapacity\":20}",
+                Group.class);
+
+        assertEquals("G1", group.getName());
+        assertNull(group.getLanguage());
+        assertEquals(20, group.getMaxCapacity());
+    }
+}
@@ -10,6 +10,10 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.security.Provider;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -26,6 +30,7 @@ public abstract class CRUDServiceTest<TEntity> {
     private final DataRepository oneElementRepository;
 
     private final DataSaveKeys dataRepositoryKey;
+    private final Function<SaveLoadService, CRUDService<TEntity>> constructor;
 
     protected CRUDServiceTest(DataSaveKeys dataKey, Function<SaveLoadService, CRUDService<TEntity>> constructor) {
         List<TEntity> emptyRepositoryContents = new ArrayList<>();
@@ -43,6 +48,7 @@ public abstract class CRUDServiceTest<TEntity> {
         }};
 
         dataRepositoryKey = dataKey;
+        this.constructor = constructor;
         emptyRepository = new InMemoryDataRepository(emptyRepositoryValues);
         oneElementRepository = new InMemoryDataRepository(oneElementRepositoryValues);
 
@@ -204,6 +210,147 @@ public abstract class CRUDServiceTest<TEntity> {
         }
     }
 
+    @Test
+    public void testSnapshotMatchesGetAllAndFollowsDeletes() throws IOException {
+        CRUDService<TEntity> service = serviceWithData;
+
+        List<TEntity> snapshot = service.snapshot();
+        assertEquals(service.getAll(), snapshot);
+        assertEquals(service.get(getSampleObjectId()), service.view(getSampleObjectId()));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(getSampleObject()));
+
+        // copies handed out by get() are still private to the caller
+        alterEntity(service.get(getSampleObjectId()).orElseThrow());
+        assertEquals(snapshot, service.snapshot());
+
+        service.delete(getSampleObjectId());
+        assertTrue(service.snapshot().isEmpty());
+        assertTrue(service.view(getSampleObjectId()).isEmpty());
+    }
+
+    // every reader shares the same view, so no reader may change it
+    @Test
+    public void testReadViewsRejectChanges() throws IOException {
+        TEntity view = serviceWithData.view(getSampleObjectId()).orElseThrow();
+
+        assertThrows(UnsupportedOperationException.class, () -> alterEntity(view));
+        assertThrows(UnsupportedOperationException.class, () -> alterEntity(serviceWithData.snapshot().getFirst()));
+        assertEquals(serviceWithData.get(getSampleObjectId()).orElseThrow(), view);
+    }
+
+    @Test
+    public void testDeletePublishesAChangeEvent() throws IOException, InterruptedException {
+        BlockingQueue<EntityChangeEvent<TEntity>> events = new LinkedBlockingQueue<>();
+        serviceWithData.changes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(EntityChangeEvent<TEntity> event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        serviceWithData.delete(getSampleObjectId());
+
+        EntityChangeEvent<TEntity> event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(EntityChangeEvent.Operation.DELETE, event.operation());
+        assertEquals(getSampleObjectId(), event.key());
+        assertNotNull(event.before());
+        assertNull(event.after());
+    }
+
+    // createAll/updateAll validate their prototypes, so they're tested with the services' own valid data
+
+    @Test
+    public void testDeleteAllSavesTheEmptiedCollection() throws IOException {
+        serviceWithData.deleteAll(List.of(getSampleObjectId()));
+
+        assertFalse(serviceWithData.exists(getSampleObjectId()));
+        assertEquals(emptyRepository.read(dataRepositoryKey.repositoryKey),
+                oneElementRepository.read(dataRepositoryKey.repositoryKey));
+    }
+
+    @Test
+    public void testDeleteAllIsAllOrNothing() throws IOException {
+        String record = oneElementRepository.read(dataRepositoryKey.repositoryKey);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> serviceWithData.deleteAll(List.of(getSampleObjectId(), TEST_OBJECT_ID)));
+        assertThrows(IllegalArgumentException.class,
+                () -> serviceWithData.deleteAll(List.of(getSampleObjectId(), getSampleObjectId())));
+
+        assertTrue(serviceWithData.exists(getSampleObjectId()));
+        assertEquals(record, oneElementRepository.read(dataRepositoryKey.repositoryKey));
+    }
+
+    @Test
+    public void testDeleteAllFailingToSaveIsTakenBack() throws IOException {
+        String record = oneElementRepository.read(dataRepositoryKey.repositoryKey);
+        FailingRepository repository = new FailingRepository(Map.of(dataRepositoryKey.repositoryKey, record));
+        CRUDService<TEntity> service = newService(repository);
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.deleteAll(List.of(getSampleObjectId())));
+        repository.failing = false;
+
+        assertTrue(service.exists(getSampleObjectId()));
+        assertEquals(record, repository.read(dataRepositoryKey.repositoryKey));
+
+        service.deleteAll(List.of(getSampleObjectId()));
+        assertFalse(service.exists(getSampleObjectId()));
+    }
+
+    // A service of the tested kind, initialized from the given repository
+    protected CRUDService<TEntity> newService(DataRepository repository) throws IOException {
+        CRUDService<TEntity> service = constructor.apply(new SaveLoadService(serializer, repository));
+        service.initialize();
+        return service;
+    }
+
+    // Every write fails while failing is set, what was stored before stays
+    protected static final class FailingRepository implements DataRepository {
+        private final InMemoryDataRepository delegate;
+        public volatile boolean failing;
+
+        public FailingRepository(Map<String, String> contents) {
+            this.delegate = new InMemoryDataRepository(contents);
+        }
+
+        @Override
+        public String read(String key) throws IOException {
+            return delegate.read(key);
+        }
+
+        @Override
+        public void write(String key, String serializedData) throws IOException {
+            if (failing)
+                throw new IOException("No space left on device");
+            delegate.write(key, serializedData);
+        }
+
+        @Override
+        public void remove(String key) throws IOException {
+            delegate.remove(key);
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return delegate.exists(key);
+        }
+    }
+
     protected abstract String getSampleObjectId();
     protected abstract TEntity getSampleObject();
     protected abstract void alterEntity(TEntity entity);
@@ -0,0 +1,182 @@
+package com.byt.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedTest {
+    // mutable on purpose, events must not share it with the store
+    private static final class Room {
+        String name;
+        int capacity;
+
+        Room(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+        }
+
+        static Room copy(Room room) {
+            return new Room(room.name, room.capacity);
+        }
+    }
+
+    private static class Collector<T> implements Flow.Subscriber<T> {
+        final BlockingQueue<T> events = new LinkedBlockingQueue<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        T next() throws InterruptedException {
+            T event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event arrived");
+            return event;
+        }
+    }
+
+    @Test
+    public void testEventsCarryKeysAndCopiesInOrder() throws InterruptedException {
+        AtomicInteger copies = new AtomicInteger();
+        try (ChangeFeed<Room> feed = new ChangeFeed<>(room -> room.name, room -> {
+            copies.incrementAndGet();
+            return Room.copy(room);
+        })) {
+            // nobody listens, nothing gets copied
+            feed.created(new Room("A1", 10));
+            assertEquals(0, copies.get());
+
+            Collector<EntityChangeEvent<Room>> collector = new Collector<>();
+            feed.publisher().subscribe(collector);
+
+            Room stored = new Room("A1", 10);
+            feed.created(stored);
+            Room renamed = new Room("A2", 20);
+            feed.updated("A1", stored, renamed);
+            feed.deleted("A2", renamed);
+            stored.capacity = 99;
+
+            EntityChangeEvent<Room> created = collector.next();
+            assertEquals(EntityChangeEvent.Operation.CREATE, created.operation());
+            assertEquals("A1", created.key());
+            assertNotSame(stored, created.after());
+            assertEquals(10, created.after().capacity);
+
+            EntityChangeEvent<Room> updated = collector.next();
+            assertEquals(EntityChangeEvent.Operation.UPDATE, updated.operation());
+            assertEquals("A1", updated.previousKey());
+            assertEquals("A2", updated.key());
+            assertEquals(10, updated.before().capacity);
+            assertEquals(20, updated.after().capacity);
+
+            EntityChangeEvent<Room> deleted = collector.next();
+            assertEquals(EntityChangeEvent.Operation.DELETE, deleted.operation());
+            assertEquals("A2", deleted.key());
+            assertNull(deleted.after());
+        }
+    }
+
+    @Test
+    public void testCaptureOnlyCopiesWhileSubscribed() {
+        try (ChangeFeed<Room> feed = new ChangeFeed<>(room -> room.name, Room::copy)) {
+            Room room = new Room("A1", 10);
+            assertNull(feed.capture(room));
+
+            feed.publisher().subscribe(new Collector<>());
+            Room before = feed.capture(room);
+            room.capacity = 20;
+            assertEquals(10, before.capacity);
+        }
+    }
+
+    @Test
+    public void testFullBufferHoldsBackThePublisher() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ChangeFeed<Room> feed = new ChangeFeed<>(room -> room.name, Room::copy, executor, 1)) {
+            List<EntityChangeEvent<Room>> received = new ArrayList<>();
+            Flow.Subscription[] subscription = new Flow.Subscription[1];
+            CountDownLatch subscribed = new CountDownLatch(1);
+            feed.publisher().subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    subscription[0] = s;
+                    subscribed.countDown();
+                }
+
+                @Override
+                public void onNext(EntityChangeEvent<Room> item) {
+                    synchronized (received) {
+                        received.add(item);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch published = new CountDownLatch(1);
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 5; i++)
+                    feed.created(new Room("R" + i, i));
+                published.countDown();
+            });
+            writer.start();
+
+            // nothing requested yet: the buffer fills and the writer waits
+            assertFalse(published.await(300, TimeUnit.MILLISECONDS));
+
+            subscription[0].request(Long.MAX_VALUE);
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            writer.join();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCloseCompletesSubscribers() throws InterruptedException {
+        Collector<EntityChangeEvent<Room>> collector = new Collector<>();
+        ChangeFeed<Room> feed = new ChangeFeed<>(room -> room.name, Room::copy);
+        feed.publisher().subscribe(collector);
+
+        feed.close();
+
+        assertTrue(collector.completed.await(5, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ChangeFeed<Room>(room -> room.name, Room::copy, Runnable::run, 0));
+    }
+}
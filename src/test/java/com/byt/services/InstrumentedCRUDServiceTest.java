@@ -0,0 +1,84 @@
+package com.byt.services;
+
+import com.byt.data.scheduling.Subject;
+import com.byt.enums.scheduling.SubjectType;
+import com.byt.metrics.InMemoryMetricsRegistry;
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.scheduling.SubjectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The wrapped service has to pass every test of a plain one
+class InstrumentedCRUDServiceTest extends CRUDServiceTest<Subject> {
+    private static final InMemoryMetricsRegistry METRICS = new InMemoryMetricsRegistry();
+
+    protected InstrumentedCRUDServiceTest() {
+        super(DataSaveKeys.SUBJECTS, service -> new InstrumentedCRUDService<>(new SubjectService(service), "Subject", METRICS));
+    }
+
+    @Override
+    protected String getSampleObjectId() {
+        return "Databases";
+    }
+
+    @Override
+    protected Subject getSampleObject() {
+        return Subject.builder()
+                .name("Databases")
+                .hours(60)
+                .types(new ArrayList<>(List.of(SubjectType.EXAM_SUBJECT)))
+                .lessons(new HashSet<>())
+                .build();
+    }
+
+    @Override
+    protected void alterEntity(Subject subject) {
+        subject.setHours(subject.getHours() + 25);
+    }
+
+    @BeforeEach
+    public void resetMetrics() {
+        METRICS.reset();
+    }
+
+    @Test
+    public void testOperationsAreTimedUnderTheServiceName() throws IOException {
+        serviceWithData.get("Databases");
+        serviceWithData.get("Nothing");
+        serviceWithData.exists("Databases");
+        serviceWithData.getAll();
+
+        assertEquals(2, METRICS.getLatencies().get("crud.Subject.get").count());
+        assertEquals(1, METRICS.getLatencies().get("crud.Subject.exists").count());
+        assertEquals(1, METRICS.getLatencies().get("crud.Subject.getAll").count());
+        assertEquals(0, METRICS.getLatencies().get("crud.Subject.create").count());
+    }
+
+    @Test
+    public void testFailedOperationsAreTimedToo() {
+        assertThrows(IllegalArgumentException.class, () -> serviceWithData.create(getSampleObject()));
+
+        assertEquals(1, METRICS.getLatencies().get("crud.Subject.create").count());
+    }
+
+    @Test
+    public void testBatchesAreTimedAsAWhole() throws IOException {
+        Subject first = getSampleObject();
+        first.setName("Algebra");
+        Subject second = getSampleObject();
+        second.setName("Physics");
+
+        emptyService.createAll(List.of(first, second));
+
+        assertEquals(1, METRICS.getLatencies().get("crud.Subject.createAll").count());
+        assertEquals(0, METRICS.getLatencies().get("crud.Subject.create").count());
+        assertTrue(emptyService.exists("Physics"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.byt.services;
+
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.LazyCollection;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.util.DataSaveKeys;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyedStoreTest {
+    private record Item(String key, int value) {}
+
+    private KeyedStore<Item> storeOf(Item... items) {
+        return new KeyedStore<>(Item::key, List.of(items));
+    }
+
+    @Test
+    public void testLooksUpByKey() {
+        KeyedStore<Item> store = storeOf(new Item("a", 1), new Item("b", 2));
+
+        assertTrue(store.contains("b"));
+        assertEquals(new Item("b", 2), store.get("b"));
+        assertNull(store.get("c"));
+        assertFalse(store.contains("c"));
+    }
+
+    @Test
+    public void testKeepsInsertionOrder() {
+        KeyedStore<Item> store = storeOf(new Item("c", 3), new Item("a", 1), new Item("b", 2));
+
+        assertEquals(List.of(new Item("c", 3), new Item("a", 1), new Item("b", 2)), List.copyOf(store.values()));
+    }
+
+    @Test
+    public void testReplaceWithSameKeyKeepsPosition() {
+        KeyedStore<Item> store = storeOf(new Item("a", 1), new Item("b", 2));
+
+        store.replace("a", new Item("a", 10));
+
+        assertEquals(List.of(new Item("a", 10), new Item("b", 2)), List.copyOf(store.values()));
+    }
+
+    @Test
+    public void testReplaceWithNewKeyReKeysEntity() {
+        KeyedStore<Item> store = storeOf(new Item("a", 1), new Item("b", 2));
+
+        Item previous = store.replace("a", new Item("z", 1));
+
+        assertEquals(new Item("a", 1), previous);
+        assertFalse(store.contains("a"));
+        assertEquals(new Item("z", 1), store.get("z"));
+        assertEquals(List.of(new Item("b", 2), new Item("z", 1)), List.copyOf(store.values()));
+    }
+
+    @Test
+    public void testRemove() {
+        KeyedStore<Item> store = storeOf(new Item("a", 1), new Item("b", 2));
+
+        assertEquals(new Item("a", 1), store.remove("a"));
+        assertNull(store.remove("a"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testValuesViewIsReadOnly() {
+        KeyedStore<Item> store = storeOf(new Item("a", 1));
+
+        assertThrows(UnsupportedOperationException.class, () -> store.values().clear());
+    }
+
+    @Test
+    public void testSnapshotIsSharedUntilSomethingChanges() {
+        List<Item> copied = new ArrayList<>();
+        KeyedStore<Item> store = new KeyedStore<>(Item::key, item -> {
+            copied.add(item);
+            return new Item(item.key(), item.value());
+        }, List.of(new Item("a", 1), new Item("b", 2)));
+
+        List<Item> first = store.snapshot();
+
+        assertSame(first, store.snapshot());
+        assertSame(first.get(1), store.view("b"));
+        assertEquals(2, copied.size());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new Item("c", 3)));
+
+        store.replace("a", new Item("a", 10));
+        List<Item> second = store.snapshot();
+
+        assertNotSame(first, second);
+        assertEquals(List.of(new Item("a", 10), new Item("b", 2)), second);
+        assertSame(first.get(1), second.get(1)); // untouched entities aren't copied again
+        assertEquals(3, copied.size());
+    }
+
+    @Test
+    public void testSnapshotFollowsPutRemoveAndTouch() {
+        int[] copies = {0};
+        KeyedStore<Item> store = new KeyedStore<>(Item::key, item -> {
+            copies[0]++;
+            return item;
+        });
+        store.put(new Item("a", 1));
+        store.snapshot();
+
+        store.put(new Item("b", 2));
+        assertEquals(List.of(new Item("a", 1), new Item("b", 2)), store.snapshot());
+
+        store.remove("a");
+        assertEquals(List.of(new Item("b", 2)), store.snapshot());
+        assertNull(store.view("a"));
+
+        store.touch("b");
+        store.snapshot();
+        assertEquals(3, copies[0]);
+    }
+
+    @Test
+    public void testLinkChangesDropTheCopiesOfAFollowingStore() {
+        List<String> links = new ArrayList<>(List.of("x"));
+        KeyedStore<List<String>> store = new KeyedStore<List<String>>(list -> list.getFirst(), ArrayList::new)
+                .followLinkChanges(DataSaveKeys.GROUPS);
+        store.put(links);
+
+        List<List<String>> first = store.snapshot();
+        assertSame(first.getFirst(), store.view("x"));
+
+        // another service changes the stored entity in place
+        links.add("student");
+        LinkChanges.changed(DataSaveKeys.GROUPS);
+
+        assertEquals(List.of(List.of("x", "student")), store.snapshot());
+        assertEquals(List.of("x", "student"), store.view("x"));
+
+        LinkChanges.changed(DataSaveKeys.SUBJECTS);
+        assertSame(store.snapshot(), store.snapshot());
+    }
+
+    @Test
+    public void testChangingASharedCopyDoesNotReachTheStoredEntity() {
+        KeyedStore<List<String>> store = new KeyedStore<>(list -> list.getFirst(), ArrayList::new);
+        store.put(new ArrayList<>(List.of("x")));
+
+        List<String> shared = store.view("x");
+        shared.add("changed");
+
+        // the other readers of the copy see the change, the stored entity doesn't
+        assertSame(shared, store.view("x"));
+        assertEquals(List.of("x"), store.get("x"));
+    }
+
+    @Test
+    public void testLazyStoreDecodesOnlyWhatIsRead() throws IOException {
+        SaveLoadService service = new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository());
+        service.save(DataSaveKeys.SUBJECTS, List.of(new Item("a", 1), new Item("b", 2), new Item("c", 3)));
+        LazyCollection<Item> lazy = service.loadLazily(DataSaveKeys.SUBJECTS,
+                new TypeToken<List<Item>>() {}.getType(), Item::key, 1);
+
+        KeyedStore<Item> store = new KeyedStore<>(Item::key, item -> new Item(item.key(), item.value()), lazy);
+
+        assertTrue(store.contains("b"));
+        assertEquals(List.of("a", "b", "c"), store.keys());
+        assertEquals(0, lazy.stats().misses());
+
+        assertEquals(new Item("b", 2), store.get("b"));
+        assertEquals(new Item("b", 2), store.view("b"));
+        assertEquals(1, lazy.stats().misses());
+
+        store.replace("a", new Item("a", 10));
+        store.remove("c");
+        store.put(new Item("d", 4));
+
+        assertEquals(List.of(new Item("a", 10), new Item("b", 2), new Item("d", 4)), List.copyOf(store.values()));
+        assertEquals(store.snapshot(), List.copyOf(store.values()));
+    }
+}
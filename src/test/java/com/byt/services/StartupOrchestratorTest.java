@@ -0,0 +1,131 @@
+package com.byt.services;
+
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.util.DataSaveKeys;
+import com.byt.services.reporting.IssueReportService;
+import com.byt.services.user_system.StudentService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupOrchestratorTest {
+
+    @Test
+    void testIndependentServicesLoadConcurrently() throws IOException {
+        // each load waits for the other one to begin, which only works if they run side by side
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        StartupOrchestrator.Loader waitForOther = () -> {
+            bothRunning.countDown();
+            try {
+                if (!bothRunning.await(5, TimeUnit.SECONDS))
+                    throw new IOException("Loads ran one after another");
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+        };
+
+        try (StartupOrchestrator startup = new StartupOrchestrator()) {
+            startup.registerTask("first", waitForOther);
+            startup.registerTask("second", waitForOther);
+
+            startup.awaitReady();
+
+            assertEquals(List.of("first", "second"),
+                    startup.timings().stream().map(StartupOrchestrator.ServiceTiming::name).toList());
+        }
+    }
+
+    @Test
+    void testDependentWaitsForDependency() throws IOException {
+        List<String> order = new ArrayList<>();
+
+        try (StartupOrchestrator startup = new StartupOrchestrator()) {
+            CompletableFuture<Void> reports = startup.registerTask("reports", () -> {
+                sleep(50);
+                synchronized (order) { order.add("reports"); }
+            });
+            startup.registerTask("students", () -> {
+                synchronized (order) { order.add("students"); }
+            }, reports);
+
+            startup.awaitReady();
+        }
+
+        assertEquals(List.of("reports", "students"), order);
+    }
+
+    @Test
+    void testNothingLoadsBeforeStart() {
+        AtomicBoolean loaded = new AtomicBoolean(false);
+
+        try (StartupOrchestrator startup = new StartupOrchestrator()) {
+            CompletableFuture<Void> ready = startup.registerTask("lazy", () -> loaded.set(true));
+            sleep(50);
+
+            assertFalse(loaded.get());
+            assertFalse(ready.isDone());
+
+            startup.start();
+            ready.join();
+            assertTrue(loaded.get());
+            assertThrows(IllegalStateException.class, () -> startup.registerTask("late", () -> {}));
+        }
+    }
+
+    @Test
+    void testFailurePropagatesToDependents() {
+        AtomicBoolean dependentRan = new AtomicBoolean(false);
+
+        try (StartupOrchestrator startup = new StartupOrchestrator()) {
+            CompletableFuture<Void> broken = startup.registerTask("broken", () -> {
+                throw new IOException("disk on fire");
+            });
+            CompletableFuture<Void> dependent = startup.registerTask("dependent", () -> dependentRan.set(true), broken);
+
+            IOException thrown = assertThrows(IOException.class, startup::awaitReady);
+
+            assertTrue(thrown.getMessage().contains("broken"));
+            assertTrue(dependent.isCompletedExceptionally());
+            assertFalse(dependentRan.get());
+        }
+    }
+
+    @Test
+    void testRegistersRealServices() throws IOException {
+        SaveLoadService database = new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository());
+        database.save(DataSaveKeys.STUDENTS, List.of());
+        database.save(DataSaveKeys.ISSUE_REPORTS, List.of());
+
+        IssueReportService reportService = new IssueReportService(database);
+        StudentService studentService = new StudentService(database, null, reportService);
+
+        try (StartupOrchestrator startup = new StartupOrchestrator()) {
+            CompletableFuture<IssueReportService> reports = startup.register("reports", reportService);
+            CompletableFuture<StudentService> students = startup.register("students", studentService, reports);
+
+            startup.start();
+
+            assertSame(studentService, students.join());
+            assertTrue(students.join().getAll().isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> startup.ready("teachers"));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
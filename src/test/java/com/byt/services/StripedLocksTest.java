@@ -0,0 +1,114 @@
+package com.byt.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedLocksTest {
+    private final StripedLocks locks = new StripedLocks(8);
+
+    // Runs the task on another thread and reports whether it finished within the timeout
+    private static boolean finishesWhileHeld(Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executor.submit(task);
+            try {
+                future.get(200, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (TimeoutException ex) {
+                return false;
+            } catch (ExecutionException ex) {
+                throw new AssertionError(ex.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String keyOnOtherStripe(String key) {
+        for (int i = 0; ; i++) {
+            if (locks.stripeOf("other" + i) != locks.stripeOf(key))
+                return "other" + i;
+        }
+    }
+
+    @Test
+    public void testSameKeyWaits() throws InterruptedException {
+        try (StripedLocks.Held held = locks.lock("a")) {
+            assertFalse(finishesWhileHeld(() -> locks.lock("a").close()));
+        }
+    }
+
+    @Test
+    public void testOtherStripeDoesNotWait() throws InterruptedException {
+        String other = keyOnOtherStripe("a");
+
+        try (StripedLocks.Held held = locks.lock("a")) {
+            assertTrue(finishesWhileHeld(() -> locks.lock(other).close()));
+        }
+    }
+
+    @Test
+    public void testLockAllWaitsForAnyKey() throws InterruptedException {
+        try (StripedLocks.Held held = locks.lock("a")) {
+            assertFalse(finishesWhileHeld(() -> locks.lockAll().close()));
+        }
+
+        // released again: everything is free
+        assertTrue(finishesWhileHeld(() -> locks.lockAll().close()));
+    }
+
+    @Test
+    public void testTryLockAllGivesUpInsteadOfWaiting() throws InterruptedException {
+        try (StripedLocks.Held held = locks.lock("a")) {
+            assertTrue(finishesWhileHeld(() -> assertNull(locks.tryLockAll())));
+
+            // the stripes this thread holds already don't stand in its way
+            StripedLocks.Held all = locks.tryLockAll();
+            assertNotNull(all);
+            all.close();
+        }
+
+        // nothing was left locked by the failed attempt
+        assertTrue(finishesWhileHeld(() -> locks.lockAll().close()));
+    }
+
+    @Test
+    public void testSeveralKeysSkipNullsAndDuplicates() throws InterruptedException {
+        try (StripedLocks.Held held = locks.lock("a", null, "a", "b")) {
+            assertFalse(finishesWhileHeld(() -> locks.lock("b").close()));
+        }
+
+        assertTrue(finishesWhileHeld(() -> locks.lock("a", "b").close()));
+    }
+
+    @Test
+    public void testOpposingKeyOrdersDoNotDeadlock() throws Exception {
+        String other = keyOnOtherStripe("a");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> forward = executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++)
+                    locks.lock("a", other).close();
+            });
+            Future<?> backward = executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++)
+                    locks.lock(other, "a").close();
+            });
+
+            // a deadlock would time out here
+            forward.get(10, TimeUnit.SECONDS);
+            backward.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStripeCountMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedLocks(0));
+    }
+}
@@ -1,6 +1,9 @@
 package com.byt.services.reporting;
 
 import com.byt.data.reporting.IssueReport;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
 import com.byt.services.CRUDServiceTest;
 import org.junit.jupiter.api.Test;
@@ -8,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -143,4 +147,75 @@ public class IssueReportServiceCRUDTest extends CRUDServiceTest<IssueReport> {
         assertFalse(service.exists(id));
     }
 
+    @Test
+    public void getAllByEmailFindsLoadedReportsIgnoringCase() throws IOException {
+        IssueReportService service = (IssueReportService) serviceWithData;
+
+        List<IssueReport> found = service.getAllByEmail("  SAMPLE@mail.com ");
+
+        assertEquals(List.of(getSampleObject()), found);
+    }
+
+    @Test
+    public void updateReporterEmailConflictLeavesReportsInPlace() throws IOException {
+        IssueReportService service = (IssueReportService) emptyService;
+
+        service.create(new IssueReport("old@mail.com", "Title A", "Desc", LocalDateTime.now()));
+        service.create(new IssueReport("old@mail.com", "Title B", "Desc", LocalDateTime.now()));
+        service.create(new IssueReport("new@mail.com", "Title B", "Desc", LocalDateTime.now()));
+
+        assertThrows(IllegalStateException.class, () -> service.updateReporterEmail("old@mail.com", "new@mail.com"));
+
+        assertEquals(2, service.getAllByEmail("old@mail.com").size());
+        assertEquals(1, service.getAllByEmail("new@mail.com").size());
+
+        // moving onto an address without reports merges nothing and keeps every report reachable
+        service.updateReporterEmail("old@mail.com", "third@mail.com");
+        service.updateReporterEmail("nobody@mail.com", "fourth@mail.com");
+
+        assertTrue(service.getAllByEmail("old@mail.com").isEmpty());
+        assertEquals(2, service.getAllByEmail("third@mail.com").size());
+        assertTrue(service.exists(IssueReportService.compositeId("third@mail.com", "Title A")));
+    }
+
+    @Test
+    public void lazyServiceIndexesEmailsWithoutDecodingReports() throws IOException {
+        SaveLoadService saveLoadService = new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository());
+        IssueReportService eager = new IssueReportService(saveLoadService);
+        eager.create(new IssueReport("a@mail.com", "Title A", "Desc A", LocalDateTime.now()));
+        eager.create(new IssueReport("b@mail.com", "Title B", "Desc B", LocalDateTime.now()));
+        eager.create(new IssueReport("a@mail.com", "Title C", "Desc C", LocalDateTime.now()));
+
+        IssueReportService lazy = new IssueReportService(saveLoadService, 1);
+        lazy.initialize();
+
+        assertTrue(lazy.exists(IssueReportService.compositeId("b@mail.com", "Title B")));
+        assertEquals(List.of("Title A", "Title C"),
+                lazy.getAllByEmail("A@mail.com").stream().map(IssueReport::getTitle).toList());
+
+        lazy.delete(IssueReportService.compositeId("a@mail.com", "Title A"));
+        assertEquals(2, lazy.getAll().size());
+    }
+
+    @Test
+    public void failedSavesLeaveReportsAndTheEmailIndexAsTheyWere() throws IOException {
+        FailingRepository repository = new FailingRepository(Map.of());
+        IssueReportService service = (IssueReportService) newService(repository);
+        IssueReport other = new IssueReport("other@mail.com", "Other", "Desc", LocalDateTime.now());
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.create(other));
+        assertFalse(service.exists(IssueReportService.compositeId("other@mail.com", "Other")));
+        assertEquals(List.of(), service.getAllByEmail("other@mail.com"));
+
+        repository.failing = false;
+        service.create(getSampleObject());
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.delete(getSampleObjectId()));
+        assertThrows(IOException.class, () -> service.updateReporterEmail("sample@mail.com", "new@mail.com"));
+        assertTrue(service.exists(getSampleObjectId()));
+        assertEquals(1, service.getAllByEmail("sample@mail.com").size());
+        assertEquals(List.of(), service.getAllByEmail("new@mail.com"));
+    }
 }
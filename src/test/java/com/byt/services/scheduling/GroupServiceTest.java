@@ -218,4 +218,21 @@ class GroupServiceTest extends CRUDServiceTest<Group> {
         ValidationException ex = assertThrows(ValidationException.class, () -> service.create(group));
         assertEquals(ExceptionCode.MAX_VALUE_VIOLATION, ex.getExceptionCode());
     }
+
+    @Test
+    void testUpdateRejectsRenameToExistingGroup() throws IOException {
+        GroupService service = (GroupService) serviceWithData;
+        Group other = getSampleObject();
+        other.setName("G-2026-Spring");
+        service.create(other);
+
+        Group renamed = getSampleObject();
+        renamed.setName("G-2026-Spring");
+        renamed.setMaxCapacity(10);
+        assertThrows(IllegalArgumentException.class, () -> service.update(getSampleObjectId(), renamed));
+
+        assertEquals(2, service.getAll().size());
+        assertEquals(20, service.get("G-2026-Spring").orElseThrow().getMaxCapacity());
+        assertTrue(service.exists(getSampleObjectId()));
+    }
 }
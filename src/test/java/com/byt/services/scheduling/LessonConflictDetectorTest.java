@@ -0,0 +1,154 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LessonConflictDetectorTest {
+    private final Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak",
+            LocalDate.of(1980, 1, 1), "123456789", "anna@school.com",
+            LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+    private final Group groupA = Group.builder().name("G1").build();
+    private final Group groupB = Group.builder().name("G2").build();
+    private final ClassRoom room = ClassRoom.builder().name("A101").floor(1).build();
+    private final Semester winter = Semester.builder().name("Winter").build();
+    private final Semester summer = Semester.builder().name("Summer").build();
+
+    private Lesson.LessonBuilder lesson(String name, int startHour, int endHour) {
+        return Lesson.builder()
+                .name(name)
+                .type(LessonType.LECTURE)
+                .mode(LessonMode.OFFLINE)
+                .note("")
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(startHour, 0))
+                .endTime(LocalTime.of(endHour, 0))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.NORMAL)
+                .semesters(new HashSet<>(Set.of(winter)));
+    }
+
+    @Test
+    void testDetectsTeacherDoubleBooking() {
+        LessonConflictDetector detector = new LessonConflictDetector(List.of(
+                lesson("Algebra", 10, 12).teacher(teacher).group(groupA).build()));
+
+        List<LessonConflictDetector.Conflict> conflicts =
+                detector.findConflicts(lesson("Physics", 11, 13).teacher(teacher).group(groupB).build());
+
+        assertEquals(1, conflicts.size());
+        assertEquals("Algebra", conflicts.getFirst().conflictingLessonName());
+        assertEquals(LessonConflictDetector.Resource.TEACHER, conflicts.getFirst().resource());
+    }
+
+    @Test
+    void testBackToBackLessonsDoNotConflict() {
+        LessonConflictDetector detector = new LessonConflictDetector(List.of(
+                lesson("Algebra", 10, 12).group(groupA).build()));
+
+        assertTrue(detector.findConflicts(lesson("Physics", 12, 14).group(groupA).build()).isEmpty());
+        assertFalse(detector.findConflicts(lesson("Physics", 8, 11).group(groupA).build()).isEmpty());
+    }
+
+    @Test
+    void testLongEarlierLessonIsFound() {
+        LessonConflictDetector detector = new LessonConflictDetector(List.of(
+                lesson("Workshop", 8, 16).classRooms(new HashSet<>(Set.of(room))).build(),
+                lesson("Short", 9, 10).classRooms(new HashSet<>(Set.of(room))).semesters(new HashSet<>(Set.of(summer))).build()));
+
+        List<LessonConflictDetector.Conflict> conflicts =
+                detector.findConflicts(lesson("Late", 14, 15).classRooms(new HashSet<>(Set.of(room))).build());
+
+        assertEquals(1, conflicts.size());
+        assertEquals("Workshop", conflicts.getFirst().conflictingLessonName());
+    }
+
+    @Test
+    void testWeekPatterns() {
+        LessonConflictDetector detector = new LessonConflictDetector(List.of(
+                lesson("Even", 10, 12).group(groupA).weekPattern(WeekPattern.EVEN).build()));
+
+        assertTrue(detector.findConflicts(
+                lesson("Odd", 10, 12).group(groupA).weekPattern(WeekPattern.ODD).build()).isEmpty());
+        assertFalse(detector.findConflicts(
+                lesson("Every week", 10, 12).group(groupA).weekPattern(WeekPattern.NORMAL).build()).isEmpty());
+    }
+
+    @Test
+    void testDifferentSemestersDoNotConflict() {
+        LessonConflictDetector detector = new LessonConflictDetector(List.of(
+                lesson("Algebra", 10, 12).group(groupA).build()));
+
+        assertTrue(detector.findConflicts(
+                lesson("Physics", 10, 12).group(groupA).semesters(new HashSet<>(Set.of(summer))).build()).isEmpty());
+    }
+
+    @Test
+    void testRemovedAndIgnoredLessonsDoNotConflict() {
+        LessonConflictDetector detector = new LessonConflictDetector(List.of(
+                lesson("Algebra", 10, 12).group(groupA).build()));
+
+        Lesson moved = lesson("Algebra II", 11, 13).group(groupA).build();
+        assertTrue(detector.findConflicts(moved, "Algebra").isEmpty());
+
+        detector.remove("Algebra");
+        assertTrue(detector.findConflicts(moved).isEmpty());
+    }
+
+    // what a classroom delete and a teacher update do to the lessons they're linked to
+    @Test
+    void testRekeyFollowsChangedClassRoomsAndTeachers() {
+        Lesson algebra = lesson("Algebra", 10, 12).note("Lecture").teacher(teacher)
+                .classRooms(new HashSet<>(Set.of(room))).build();
+        LessonConflictDetector detector = new LessonConflictDetector(List.of(algebra));
+        Teacher replacement = Teacher.copy(teacher);
+        replacement.setEmail("ewa@school.com");
+
+        algebra.removeClassRoom(room);
+        algebra.addTeacher(replacement);
+        detector.rekey(List.of(algebra));
+
+        assertTrue(detector.findConflicts(lesson("Physics", 11, 13).classRooms(new HashSet<>(Set.of(room))).build()).isEmpty());
+        assertTrue(detector.findConflicts(lesson("Physics", 11, 13).teacher(teacher).build()).isEmpty());
+
+        List<LessonConflictDetector.Conflict> conflicts =
+                detector.findConflicts(lesson("Physics", 11, 13).teacher(replacement).build());
+        assertEquals(1, conflicts.size());
+        assertEquals("ewa@school.com", conflicts.getFirst().resourceId());
+    }
+
+    @Test
+    void testValidateTimetableReportsEachPairOnce() {
+        List<Lesson> timetable = List.of(
+                lesson("Algebra", 10, 12).teacher(teacher).group(groupA).build(),
+                lesson("Physics", 11, 13).teacher(teacher).group(groupA).build(),
+                lesson("Chemistry", 13, 14).teacher(teacher).group(groupA).build(),
+                lesson("Biology", 11, 13).group(groupB).weekPattern(WeekPattern.ODD).build(),
+                lesson("History", 11, 13).group(groupB).weekPattern(WeekPattern.EVEN).build());
+
+        List<LessonConflictDetector.Conflict> conflicts = LessonConflictDetector.validateTimetable(timetable);
+
+        assertEquals(List.of(
+                new LessonConflictDetector.Conflict("Algebra", "Physics",
+                        LessonConflictDetector.Resource.TEACHER, "anna@school.com", DayOfWeek.MONDAY),
+                new LessonConflictDetector.Conflict("Algebra", "Physics",
+                        LessonConflictDetector.Resource.GROUP, "G1", DayOfWeek.MONDAY)
+        ), conflicts);
+    }
+}
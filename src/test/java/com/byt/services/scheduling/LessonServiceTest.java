@@ -1,19 +1,29 @@
 package com.byt.services.scheduling;
 
+import com.byt.data.scheduling.Group;
 import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Student;
 import com.byt.enums.scheduling.DayOfWeek;
 import com.byt.enums.scheduling.LessonMode;
 import com.byt.enums.scheduling.LessonType;
 import com.byt.enums.scheduling.WeekPattern;
 import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
 import com.byt.exception.ExceptionCode;
 import com.byt.exception.ValidationException;
 import com.byt.persistence.util.DataSaveKeys;
 import com.byt.services.CRUDServiceTest;
+import com.byt.services.LinkChanges;
 import org.junit.jupiter.api.Test;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -242,4 +252,221 @@ class LessonServiceTest extends CRUDServiceTest<Lesson> {
         assertEquals(ExceptionCode.NOT_NULL_VIOLATION, ex.getExceptionCode());
     }
 
+    @Test
+    void testCreateThrowsOnGroupDoubleBooking() throws IOException {
+        LessonService service = (LessonService) emptyService;
+        Group group = Group.builder().name("G1").build();
+
+        service.create(Lesson.builder()
+                .name("Algorithms Lecture")
+                .type(LessonType.LECTURE)
+                .mode(LessonMode.OFFLINE)
+                .note("Lecture")
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(11, 30))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.EVEN)
+                .group(group)
+                .build());
+
+        Lesson overlapping = Lesson.builder()
+                .name("Databases Lecture")
+                .type(LessonType.LECTURE)
+                .mode(LessonMode.OFFLINE)
+                .note("Lecture")
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(11, 0))
+                .endTime(LocalTime.of(12, 30))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.NORMAL)
+                .group(group)
+                .build();
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> service.create(overlapping));
+        assertEquals(ExceptionCode.SCHEDULE_CONFLICT, ex.getExceptionCode());
+        assertFalse(service.exists("Databases Lecture"));
+    }
+
+    // the second lesson only conflicts with the first one of the same batch, which has to be undone
+    @Test
+    void testCreateAllRollsBackOnConflictInsideBatch() throws IOException {
+        LessonService service = (LessonService) emptyService;
+        Group group = Group.builder().name("G1").build();
+
+        List<Lesson> batch = List.of(
+                Lesson.builder()
+                        .name("Algorithms Lecture")
+                        .type(LessonType.LECTURE)
+                        .mode(LessonMode.OFFLINE)
+                        .note("Lecture")
+                        .dayOfWeek(DayOfWeek.MONDAY)
+                        .startTime(LocalTime.of(10, 0))
+                        .endTime(LocalTime.of(11, 30))
+                        .language(StudyLanguage.ENGLISH)
+                        .weekPattern(WeekPattern.NORMAL)
+                        .group(group)
+                        .build(),
+                Lesson.builder()
+                        .name("Databases Lecture")
+                        .type(LessonType.LECTURE)
+                        .mode(LessonMode.OFFLINE)
+                        .note("Lecture")
+                        .dayOfWeek(DayOfWeek.MONDAY)
+                        .startTime(LocalTime.of(11, 0))
+                        .endTime(LocalTime.of(12, 30))
+                        .language(StudyLanguage.ENGLISH)
+                        .weekPattern(WeekPattern.NORMAL)
+                        .group(group)
+                        .build());
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> service.createAll(batch));
+        assertEquals(ExceptionCode.SCHEDULE_CONFLICT, ex.getExceptionCode());
+        assertFalse(service.exists("Algorithms Lecture"));
+        assertFalse(service.exists("Databases Lecture"));
+        assertTrue(service.validateTimetable().isEmpty());
+    }
+
+    // a rename onto another lesson's name would drop that lesson and its place in the conflict index
+    @Test
+    void testUpdateRejectsRenameToExistingLesson() throws IOException {
+        LessonService service = (LessonService) emptyService;
+        Group group = Group.builder().name("G1").build();
+        service.create(lesson("Algorithms Lecture", LocalTime.of(10, 0), group));
+        service.create(lesson("Databases Lecture", LocalTime.of(12, 0), group));
+
+        Lesson renamed = lesson("Algorithms Lecture", LocalTime.of(12, 0), group);
+        assertThrows(IllegalArgumentException.class, () -> service.update("Databases Lecture", renamed));
+
+        assertEquals(2, service.getAll().size());
+        assertEquals(LocalTime.of(10, 0), service.get("Algorithms Lecture").orElseThrow().getStartTime());
+        assertTrue(service.exists("Databases Lecture"));
+
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> service.create(lesson("Networks Lecture", LocalTime.of(10, 30), group)));
+        assertEquals(ExceptionCode.SCHEDULE_CONFLICT, ex.getExceptionCode());
+    }
+
+    @Test
+    void testWeekScheduleFollowsChanges() throws IOException, ValidationException {
+        LessonService service = (LessonService) emptyService;
+        Semester winter = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build();
+        Lesson lesson = Lesson.builder()
+                .name("Databases Lab")
+                .type(LessonType.EXERCISE)
+                .mode(LessonMode.ONLINE)
+                .note("Lab")
+                .dayOfWeek(DayOfWeek.TUESDAY)
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(9, 30))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.NORMAL)
+                .group(Group.builder().name("G1").build())
+                .semesters(new HashSet<>(Set.of(winter)))
+                .build();
+
+        service.create(lesson);
+        List<TimetableQueryEngine.ScheduledLesson> week =
+                service.getWeekSchedule(TimetableQueryEngine.Resource.GROUP, "G1", winter, 2).lessons();
+
+        assertEquals(1, week.size());
+        assertEquals(LocalDate.of(2025, 10, 7), week.getFirst().date());
+
+        lesson.setDayOfWeek(DayOfWeek.FRIDAY);
+        service.update("Databases Lab", lesson);
+        assertEquals(LocalDate.of(2025, 10, 10),
+                service.getWeekSchedule(TimetableQueryEngine.Resource.GROUP, "G1", winter, 2).lessons().getFirst().date());
+
+        service.delete("Databases Lab");
+        assertTrue(service.getWeekSchedule(TimetableQueryEngine.Resource.GROUP, "G1", winter, 2).lessons().isEmpty());
+    }
+
+    // a student joining the group changes neither the lesson nor the group's record in LessonService
+    @Test
+    void testStudentScheduleFollowsGroupMembers() throws IOException, ValidationException {
+        LessonService service = (LessonService) emptyService;
+        Group group = Group.builder().name("G1").maxCapacity(20).language(StudyLanguage.ENGLISH).build();
+        Semester winter = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build();
+        Lesson lesson = Lesson.builder()
+                .name("Databases Lecture")
+                .type(LessonType.LECTURE)
+                .mode(LessonMode.OFFLINE)
+                .note("Lecture")
+                .dayOfWeek(DayOfWeek.TUESDAY)
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(9, 30))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.NORMAL)
+                .group(group)
+                .semesters(new HashSet<>(Set.of(winter)))
+                .build();
+        service.create(lesson);
+        Student student = new Student("Yumi", "Hnatiuk", "Pies", LocalDate.of(2001, 1, 1),
+                "10203040", "yumi@gmail.com", Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+
+        // what StudentService does when the student joins and leaves
+        student.addGroup(group);
+        LinkChanges.changed(DataSaveKeys.GROUPS);
+        assertEquals(1, service.getWeekSchedule(TimetableQueryEngine.Resource.STUDENT, "yumi@gmail.com", winter, 2)
+                .lessons().size());
+
+        group.removeStudent(student);
+        LinkChanges.changed(DataSaveKeys.GROUPS);
+        assertTrue(service.getWeekSchedule(TimetableQueryEngine.Resource.STUDENT, "yumi@gmail.com", winter, 2)
+                .lessons().isEmpty());
+    }
+
+    // the lesson is deleted and unlinked before the save fails, undoing links it again
+    @Test
+    void testDeleteAllFailingToSavePutsTheLessonBackOnItsGroup() throws IOException {
+        FailingRepository repository = new FailingRepository(Map.of(DataSaveKeys.LESSONS.repositoryKey, "[]"));
+        LessonService service = (LessonService) newService(repository);
+        Group group = Group.builder().name("G1").build();
+        Semester winter = Semester.builder()
+                .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2026, 1, 31)).build();
+        Lesson lesson = Lesson.builder()
+                .name("Databases Lab")
+                .type(LessonType.EXERCISE)
+                .mode(LessonMode.ONLINE)
+                .note("Lab")
+                .dayOfWeek(DayOfWeek.TUESDAY)
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(9, 30))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.NORMAL)
+                .group(group)
+                .semesters(new HashSet<>(Set.of(winter)))
+                .build();
+        group.addLesson(lesson);
+        winter.addLesson(lesson);
+        service.create(lesson);
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.deleteAll(List.of("Databases Lab")));
+
+        assertTrue(service.exists("Databases Lab"));
+        assertSame(group, service.get("Databases Lab").orElseThrow().getGroup());
+        assertEquals(Set.of(lesson), group.getLessons());
+        assertEquals(Set.of(lesson), winter.getLessons());
+        assertEquals(1, service.getWeekSchedule(TimetableQueryEngine.Resource.GROUP, "G1", winter, 2).lessons().size());
+    }
+
+    // _________________________________________________________
+
+    private static Lesson lesson(String name, LocalTime start, Group group) {
+        return Lesson.builder()
+                .name(name)
+                .type(LessonType.LECTURE)
+                .mode(LessonMode.OFFLINE)
+                .note("Lecture")
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .startTime(start)
+                .endTime(start.plusMinutes(90))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.NORMAL)
+                .group(group)
+                .build();
+    }
 }
@@ -0,0 +1,193 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.Building;
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.scheduling.Subject;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableGeneratorTest {
+    private final Semester winter = Semester.builder()
+            .name("Winter")
+            .startDate(LocalDate.of(2025, 10, 1))
+            .endDate(LocalDate.of(2026, 1, 14)) // 15 weeks
+            .build();
+    private final Building main = Building.builder().name("Main").build();
+    private final Building annex = Building.builder().name("Annex").build();
+
+    private final TimetableGenerator generator = new TimetableGenerator(TimetableGenerator.Settings.builder()
+            .lessonsPerDay(2)
+            .timeBudget(Duration.ofSeconds(5))
+            .workers(2)
+            .build());
+
+    private Teacher teacher(int i) {
+        return new Teacher("Teacher", "No" + i, "Family",
+                LocalDate.of(1980, 1, 1), "12345678" + i, "teacher" + i + "@school.com",
+                LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+    }
+
+    private Group group(String name, StudyLanguage language) {
+        return Group.builder().name(name).language(language).maxCapacity(15).build();
+    }
+
+    private ClassRoom room(String name, Building building, int capacity) {
+        return ClassRoom.builder().name(name).floor(1).capacity(capacity).building(building).build();
+    }
+
+    private Subject subject(String name, int hours) {
+        return Subject.builder().name(name).hours(hours).build();
+    }
+
+    @Test
+    void testGeneratesConflictFreeTimetable() {
+        List<Teacher> teachers = List.of(teacher(1), teacher(2));
+        List<Group> groups = List.of(group("G1", StudyLanguage.ENGLISH), group("G2", StudyLanguage.POLISH));
+        List<ClassRoom> rooms = List.of(room("A1", main, 20), room("B1", annex, 20));
+
+        List<TimetableGenerator.Course> courses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            courses.add(new TimetableGenerator.Course(subject("Subject " + i, 23), groups.get(i % 2),
+                    teachers.get(i / 2), LessonType.LECTURE, LessonMode.OFFLINE));
+        }
+
+        TimetableGenerator.Result result = generator.generate(winter, courses, rooms);
+
+        assertTrue(result.isFeasible());
+        assertEquals(4, result.lessons().size());
+        assertTrue(LessonConflictDetector.validateTimetable(result.lessons()).isEmpty());
+
+        for (Lesson lesson : result.lessons()) {
+            assertEquals(lesson.getGroup().getLanguage(), lesson.getLanguage());
+            assertEquals(1, lesson.getClassRooms().size());
+            assertTrue(lesson.getSemesters().contains(winter));
+        }
+        // inputs are only referenced, never linked back
+        assertTrue(teachers.getFirst().getLessons().isEmpty());
+        assertTrue(rooms.getFirst().getLessons().isEmpty());
+    }
+
+    @Test
+    void testLeftoverHoursBecomeBiweeklyLessons() {
+        // 34 hours over 15 weeks is 23 lessons, a weekly one plus one every other week
+        TimetableGenerator.Course course = new TimetableGenerator.Course(subject("Maths", 34),
+                group("G1", StudyLanguage.ENGLISH), teacher(1), LessonType.EXERCISE, LessonMode.OFFLINE);
+
+        List<Lesson> lessons = generator.generate(winter, List.of(course), List.of(room("A1", main, 20))).lessons();
+
+        assertEquals(2, lessons.size());
+        assertEquals(1, lessons.stream().filter(lesson -> lesson.getWeekPattern() == WeekPattern.NORMAL).count());
+        assertEquals(1, lessons.stream().filter(lesson -> lesson.getWeekPattern() != WeekPattern.NORMAL).count());
+    }
+
+    @Test
+    void testBiweeklyLessonsShareSlot() {
+        // one slot in the whole week: only an EVEN/ODD pair can fit
+        TimetableGenerator small = new TimetableGenerator(TimetableGenerator.Settings.builder()
+                .days(List.of(DayOfWeek.MONDAY))
+                .lessonsPerDay(1)
+                .timeBudget(Duration.ofSeconds(5))
+                .workers(1)
+                .build());
+        Group group = group("G1", StudyLanguage.ENGLISH);
+
+        TimetableGenerator.Result result = small.generate(winter, List.of(
+                new TimetableGenerator.Course(subject("Maths", 12), group, teacher(1), LessonType.LECTURE, LessonMode.OFFLINE),
+                new TimetableGenerator.Course(subject("Physics", 12), group, teacher(1), LessonType.LECTURE, LessonMode.OFFLINE)
+        ), List.of(room("A1", main, 20)));
+
+        assertTrue(result.isFeasible());
+        assertEquals(
+                List.of(WeekPattern.EVEN, WeekPattern.ODD),
+                result.lessons().stream().map(Lesson::getWeekPattern).sorted().toList());
+    }
+
+    @Test
+    void testOnlineLessonsNeedNoClassroom() {
+        TimetableGenerator.Course course = new TimetableGenerator.Course(subject("Maths", 23),
+                group("G1", StudyLanguage.ENGLISH), teacher(1), LessonType.SEMINAR, LessonMode.ONLINE);
+
+        List<Lesson> lessons = generator.generate(winter, List.of(course), List.of()).lessons();
+
+        assertEquals(1, lessons.size());
+        assertTrue(lessons.getFirst().getClassRooms().isEmpty());
+    }
+
+    @Test
+    void testKeepsGroupInOneBuilding() {
+        Group group = group("G1", StudyLanguage.ENGLISH);
+        List<TimetableGenerator.Course> courses = List.of(
+                new TimetableGenerator.Course(subject("Maths", 23), group, teacher(1), LessonType.LECTURE, LessonMode.OFFLINE),
+                new TimetableGenerator.Course(subject("Physics", 23), group, teacher(2), LessonType.LECTURE, LessonMode.OFFLINE));
+
+        TimetableGenerator oneDay = new TimetableGenerator(TimetableGenerator.Settings.builder()
+                .days(List.of(DayOfWeek.MONDAY))
+                .lessonsPerDay(2)
+                .timeBudget(Duration.ofSeconds(5))
+                .workers(2)
+                .build());
+        TimetableGenerator.Result result = oneDay.generate(winter, courses,
+                List.of(room("A1", main, 20), room("B1", annex, 20)));
+
+        assertTrue(result.isFeasible());
+        assertEquals(0, result.softPenalty());
+        assertEquals(1, result.lessons().stream()
+                .map(lesson -> lesson.getClassRooms().iterator().next().getBuilding().getName())
+                .distinct()
+                .count());
+    }
+
+    @Test
+    void testReportsProgressAndConflictsWhenOverbooked() {
+        TimetableGenerator tiny = new TimetableGenerator(TimetableGenerator.Settings.builder()
+                .days(List.of(DayOfWeek.MONDAY))
+                .lessonsPerDay(1)
+                .timeBudget(Duration.ofMillis(300))
+                .progressInterval(Duration.ofMillis(50))
+                .workers(2)
+                .build());
+        Group group = group("G1", StudyLanguage.ENGLISH);
+        List<TimetableGenerator.Progress> progress = new CopyOnWriteArrayList<>();
+
+        TimetableGenerator.Result result = tiny.generate(winter, List.of(
+                new TimetableGenerator.Course(subject("Maths", 23), group, teacher(1), LessonType.LECTURE, LessonMode.ONLINE),
+                new TimetableGenerator.Course(subject("Physics", 23), group, teacher(2), LessonType.LECTURE, LessonMode.ONLINE)
+        ), List.of(), progress::add);
+
+        assertFalse(result.isFeasible());
+        assertEquals(2, result.hardConflicts()); // the group is double booked on both week parities
+        assertFalse(progress.isEmpty());
+        assertEquals(2, progress.getLast().hardConflicts());
+    }
+
+    @Test
+    void testRejectsInvalidInput() {
+        Group noLanguage = Group.builder().name("G1").maxCapacity(15).build();
+        Group big = group("G2", StudyLanguage.ENGLISH);
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(winter, List.of(), List.of()));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(winter, List.of(
+                new TimetableGenerator.Course(subject("Maths", 23), noLanguage, teacher(1), LessonType.LECTURE, LessonMode.ONLINE)
+        ), List.of()));
+        // the only room is too small for the group
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(winter, List.of(
+                new TimetableGenerator.Course(subject("Maths", 23), big, teacher(1), LessonType.LECTURE, LessonMode.OFFLINE)
+        ), List.of(room("A1", main, 10))));
+    }
+}
@@ -0,0 +1,173 @@
+package com.byt.services.scheduling;
+
+import com.byt.data.scheduling.ClassRoom;
+import com.byt.data.scheduling.Group;
+import com.byt.data.scheduling.Lesson;
+import com.byt.data.scheduling.Semester;
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.services.scheduling.TimetableQueryEngine.Resource;
+import com.byt.services.scheduling.TimetableQueryEngine.ScheduledLesson;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableQueryEngineTest {
+    private final Teacher teacher = new Teacher("Anna", "Kowalska", "Nowak",
+            LocalDate.of(1980, 1, 1), "123456789", "anna@school.com",
+            LocalDate.of(2010, 9, 1), "Dr", "Lecturer");
+    private final Group group = Group.builder().name("G1").maxCapacity(20).language(StudyLanguage.ENGLISH).build();
+    private final ClassRoom room = ClassRoom.builder().name("A101").floor(1).capacity(30).build();
+    // starts on a Wednesday, ends on a Tuesday three weeks later
+    private final Semester winter = Semester.builder()
+            .name("Winter").startDate(LocalDate.of(2025, 10, 1)).endDate(LocalDate.of(2025, 10, 21)).build();
+
+    private Lesson lesson(String name, DayOfWeek day, int startHour, WeekPattern pattern) {
+        return lesson(name, day, startHour, pattern, group);
+    }
+
+    private Lesson lesson(String name, DayOfWeek day, int startHour, WeekPattern pattern, Group group) {
+        return Lesson.builder()
+                .name(name)
+                .type(LessonType.LECTURE)
+                .mode(LessonMode.OFFLINE)
+                .dayOfWeek(day)
+                .startTime(LocalTime.of(startHour, 0))
+                .endTime(LocalTime.of(startHour + 1, 30))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(pattern)
+                .teacher(teacher)
+                .group(group)
+                .classRooms(new HashSet<>(Set.of(room)))
+                .semesters(new HashSet<>(Set.of(winter)))
+                .build();
+    }
+
+    private static List<String> names(TimetableQueryEngine.WeekSchedule schedule) {
+        return schedule.lessons().stream().map(scheduled -> scheduled.lesson().getName()).toList();
+    }
+
+    @Test
+    void testWeekIsSortedAndDated() {
+        TimetableQueryEngine engine = new TimetableQueryEngine(List.of(
+                lesson("Physics", DayOfWeek.THURSDAY, 8, WeekPattern.NORMAL),
+                lesson("Algebra", DayOfWeek.MONDAY, 12, WeekPattern.NORMAL),
+                lesson("Biology", DayOfWeek.MONDAY, 8, WeekPattern.NORMAL)));
+
+        TimetableQueryEngine.WeekSchedule schedule = engine.weekSchedule(Resource.TEACHER, "anna@school.com", winter, 2);
+
+        assertEquals(LocalDate.of(2025, 10, 6), schedule.monday());
+        assertEquals(List.of("Biology", "Algebra", "Physics"), names(schedule));
+        assertEquals(LocalDate.of(2025, 10, 9), schedule.lessons().get(2).date());
+        assertEquals(names(schedule), names(engine.weekSchedule(Resource.CLASSROOM, "A101", winter, 2)));
+        assertEquals(names(schedule), names(engine.weekSchedule(Resource.GROUP, "G1", winter, 2)));
+    }
+
+    @Test
+    void testWeekParityCountsFromSemesterStart() {
+        TimetableQueryEngine engine = new TimetableQueryEngine(List.of(
+                lesson("Odd", DayOfWeek.THURSDAY, 8, WeekPattern.ODD),
+                lesson("Even", DayOfWeek.THURSDAY, 8, WeekPattern.EVEN)));
+
+        assertEquals(List.of("Odd"), names(engine.weekSchedule(Resource.GROUP, "G1", winter, 1)));
+        assertEquals(List.of("Even"), names(engine.weekSchedule(Resource.GROUP, "G1", winter, 2)));
+        assertEquals(List.of("Odd"), names(engine.weekSchedule(Resource.GROUP, "G1", winter, 3)));
+    }
+
+    @Test
+    void testPartialWeeksStayInsideSemester() {
+        TimetableQueryEngine engine = new TimetableQueryEngine(List.of(
+                lesson("Monday", DayOfWeek.MONDAY, 8, WeekPattern.NORMAL),
+                lesson("Friday", DayOfWeek.FRIDAY, 8, WeekPattern.NORMAL)));
+
+        assertEquals(4, TimetableQueryEngine.weekCount(winter));
+        assertEquals(List.of("Friday"), names(engine.weekSchedule(Resource.GROUP, "G1", winter, 1)));
+        assertEquals(List.of("Monday"), names(engine.weekSchedule(Resource.GROUP, "G1", winter, 4)));
+        assertEquals(4, TimetableQueryEngine.weekOf(winter, LocalDate.of(2025, 10, 21)));
+        assertEquals(0, TimetableQueryEngine.weekOf(winter, LocalDate.of(2025, 9, 26)));
+        assertThrows(IllegalArgumentException.class, () -> engine.weekSchedule(Resource.GROUP, "G1", winter, 5));
+    }
+
+    @Test
+    void testStudentsSeeTheirGroupsLessons() {
+        Student student = new Student("Yumi", "Hnatiuk", "Pies", LocalDate.of(2001, 1, 1),
+                "10203040", "yumi@gmail.com", Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+        student.addGroup(group);
+
+        TimetableQueryEngine engine = new TimetableQueryEngine(List.of(lesson("Algebra", DayOfWeek.MONDAY, 8, WeekPattern.NORMAL)));
+
+        ScheduledLesson scheduled = engine.weekSchedule(Resource.STUDENT, "yumi@gmail.com", winter, LocalDate.of(2025, 10, 8))
+                .lessons().getFirst();
+
+        assertEquals("Algebra", scheduled.lesson().getName());
+        assertEquals(LocalDate.of(2025, 10, 6), scheduled.date());
+        assertTrue(engine.weekSchedule(Resource.STUDENT, "other@gmail.com", winter, 2).lessons().isEmpty());
+    }
+
+    @Test
+    void testChangesOnlyAffectTheirTimelines() {
+        TimetableQueryEngine engine = new TimetableQueryEngine(List.of(
+                lesson("Algebra", DayOfWeek.MONDAY, 8, WeekPattern.NORMAL),
+                lesson("Physics", DayOfWeek.TUESDAY, 8, WeekPattern.NORMAL)));
+        engine.weekSchedule(Resource.GROUP, "G1", winter, 2);
+
+        engine.add(lesson("Algebra", DayOfWeek.WEDNESDAY, 10, WeekPattern.NORMAL, Group.builder().name("G2").build()));
+
+        assertEquals(List.of("Physics"), names(engine.weekSchedule(Resource.GROUP, "G1", winter, 2)));
+        assertEquals(List.of("Algebra"), names(engine.weekSchedule(Resource.GROUP, "G2", winter, 2)));
+        assertEquals(List.of("Physics", "Algebra"), names(engine.weekSchedule(Resource.TEACHER, "anna@school.com", winter, 2)));
+
+        engine.remove("Physics");
+
+        assertTrue(engine.weekSchedule(Resource.GROUP, "G1", winter, 2).lessons().isEmpty());
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    void testRekeyFollowsChangedLinks() {
+        Lesson lesson = lesson("Algebra", DayOfWeek.MONDAY, 8, WeekPattern.NORMAL);
+        TimetableQueryEngine engine = new TimetableQueryEngine(List.of(lesson));
+        Student student = new Student("Yumi", "Hnatiuk", "Pies", LocalDate.of(2001, 1, 1),
+                "10203040", "yumi@gmail.com", Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+        Teacher replacement = Teacher.copy(teacher);
+        replacement.setEmail("ewa@school.com");
+
+        student.addGroup(group);
+        lesson.removeClassRoom(room);
+        lesson.addTeacher(replacement);
+        assertTrue(engine.weekSchedule(Resource.STUDENT, "yumi@gmail.com", winter, 2).lessons().isEmpty());
+
+        engine.rekey(List.of(lesson));
+
+        assertEquals(List.of("Algebra"), names(engine.weekSchedule(Resource.STUDENT, "yumi@gmail.com", winter, 2)));
+        assertEquals(List.of("Algebra"), names(engine.weekSchedule(Resource.TEACHER, "ewa@school.com", winter, 2)));
+        assertTrue(engine.weekSchedule(Resource.TEACHER, "anna@school.com", winter, 2).lessons().isEmpty());
+        assertTrue(engine.weekSchedule(Resource.CLASSROOM, "A101", winter, 2).lessons().isEmpty());
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    void testKeepsReadOnlyLessonsOfItsOwn() {
+        Lesson lesson = lesson("Algebra", DayOfWeek.MONDAY, 8, WeekPattern.NORMAL);
+        TimetableQueryEngine engine = new TimetableQueryEngine(List.of(lesson));
+
+        lesson.setStartTime(LocalTime.of(14, 0));
+        Lesson scheduled = engine.weekSchedule(Resource.GROUP, "G1", winter, 2).lessons().getFirst().lesson();
+
+        assertNotSame(lesson, scheduled);
+        assertEquals(LocalTime.of(8, 0), scheduled.getStartTime());
+        assertThrows(UnsupportedOperationException.class, () -> scheduled.setNote("Moved"));
+    }
+}
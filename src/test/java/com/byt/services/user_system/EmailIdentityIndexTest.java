@@ -0,0 +1,167 @@
+package com.byt.services.user_system;
+
+import com.byt.data.user_system.Student;
+import com.byt.data.user_system.Teacher;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.services.user_system.EmailIdentityIndex.Identity;
+import com.byt.services.user_system.EmailIdentityIndex.Role;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailIdentityIndexTest {
+
+    @Test
+    public void claimTakesTheEmailForEveryRoleRegardlessOfCase() {
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        index.claim(Role.STUDENT, "Ann@School.edu");
+
+        assertTrue(index.isTaken(" ann@school.edu "));
+        assertEquals(Optional.of(new Identity(Role.STUDENT, "Ann@School.edu")), index.find("ANN@SCHOOL.EDU"));
+        assertThrows(IllegalArgumentException.class, () -> index.claim(Role.TEACHER, "ann@school.edu"));
+        assertThrows(IllegalArgumentException.class, () -> index.claim(Role.STUDENT, "ann@school.edu"));
+
+        // the same role under the same spelling changes nothing
+        assertDoesNotThrow(() -> index.claim(Role.STUDENT, "Ann@School.edu"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void releaseOnlyLetsTheOwnerGo() {
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        index.claim(Role.TEACHER, "ann@school.edu");
+
+        index.release(Role.STUDENT, "ann@school.edu");
+        assertTrue(index.isTaken("ann@school.edu"));
+
+        index.release(Role.TEACHER, "ann@school.edu");
+        assertFalse(index.isTaken("ann@school.edu"));
+        assertTrue(index.isAvailable(Role.STUDENT, "ann@school.edu"));
+    }
+
+    @Test
+    public void renameMovesTheIdentityToTheNewEmail() {
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        index.claim(Role.STUDENT, "ann@school.edu");
+
+        index.rename(Role.STUDENT, "ann@school.edu", "anna@school.edu");
+        assertFalse(index.isTaken("ann@school.edu"));
+        assertEquals(Optional.of(new Identity(Role.STUDENT, "anna@school.edu")), index.find("anna@school.edu"));
+
+        // only the spelling changes
+        index.rename(Role.STUDENT, "anna@school.edu", "Anna@School.edu");
+        assertEquals(Optional.of(new Identity(Role.STUDENT, "Anna@School.edu")), index.find("anna@school.edu"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void renameToATakenEmailThrowsAndKeepsBoth() {
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        index.claim(Role.STUDENT, "ann@school.edu");
+        index.claim(Role.ADMIN, "bob@school.edu");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> index.rename(Role.STUDENT, "ann@school.edu", "BOB@school.edu"));
+        assertEquals(Optional.of(new Identity(Role.STUDENT, "ann@school.edu")), index.find("ann@school.edu"));
+        assertEquals(Optional.of(new Identity(Role.ADMIN, "bob@school.edu")), index.find("bob@school.edu"));
+    }
+
+    @Test
+    public void registerReplacesTheRoleAndReturnsConflicts() {
+        StudentService students = new StudentService(
+                new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository()));
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        index.claim(Role.TEACHER, "ann@school.edu");
+        index.claim(Role.STUDENT, "old@school.edu");
+
+        List<String> conflicts = index.register(Role.STUDENT, students, List.of("Ann@school.edu", "cid@school.edu"));
+
+        assertEquals(List.of("Ann@school.edu"), conflicts);
+        assertFalse(index.isTaken("old@school.edu"));
+        assertEquals(Role.TEACHER, index.find("ann@school.edu").orElseThrow().role());
+        assertEquals(Role.STUDENT, index.find("cid@school.edu").orElseThrow().role());
+
+        index.unregister(Role.STUDENT);
+        assertFalse(index.isTaken("cid@school.edu"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void servicesShareOneIdentityPerEmail() throws IOException {
+        SaveLoadService saveLoadService = new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository());
+        StudentService students = new StudentService(saveLoadService);
+        TeacherService teachers = new TeacherService(saveLoadService);
+        students.initialize();
+        teachers.initialize();
+
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        students.setIdentityIndex(index);
+        teachers.setIdentityIndex(index);
+
+        students.create(student("ann@school.edu"));
+        assertThrows(IllegalArgumentException.class, () -> teachers.create(teacher("ANN@school.edu")));
+        assertFalse(teachers.exists("ANN@school.edu"));
+        assertEquals("ann@school.edu", index.findUser("Ann@School.edu").orElseThrow().getEmail());
+
+        // renaming lets the old email go
+        students.update("ann@school.edu", student("anna@school.edu"));
+        assertFalse(index.isTaken("ann@school.edu"));
+        teachers.create(teacher("ann@school.edu"));
+        assertEquals(Role.TEACHER, index.find("ann@school.edu").orElseThrow().role());
+
+        students.delete("anna@school.edu");
+        assertFalse(index.isTaken("anna@school.edu"));
+        assertEquals(Optional.empty(), index.findUser("anna@school.edu"));
+    }
+
+    @Test
+    public void registerKeepsTheEmailsTheRoleStillHas() {
+        StudentService students = new StudentService(
+                new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository()));
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        index.claim(Role.STUDENT, "ann@school.edu");
+
+        assertEquals(List.of(), index.register(Role.STUDENT, students, List.of("ann@school.edu")));
+        assertEquals(Optional.of(new Identity(Role.STUDENT, "ann@school.edu")), index.find("ann@school.edu"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void servicesRefuseAnIndexThatGaveTheirEmailsToOthers() throws IOException {
+        SaveLoadService saveLoadService = new SaveLoadService(new JsonDataSerializer(), new InMemoryDataRepository());
+        StudentService students = new StudentService(saveLoadService);
+        students.initialize();
+        students.create(student("ann@school.edu"));
+        students.create(student("bob@school.edu"));
+
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        index.claim(Role.TEACHER, "ann@school.edu");
+
+        assertThrows(IllegalStateException.class, () -> students.setIdentityIndex(index));
+        // nothing of the students stays registered
+        assertFalse(index.isTaken("bob@school.edu"));
+        assertEquals(Role.TEACHER, index.find("ann@school.edu").orElseThrow().role());
+    }
+
+    // _________________________________________________________
+
+    private static Student student(String email) {
+        return new Student("Yumi", "Hnatiuk", "Pies", LocalDate.of(1997, 1, 1), "10203040", email,
+                Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+    }
+
+    private static Teacher teacher(String email) {
+        return new Teacher("Yumi", "Hnatiuk", "Pies", LocalDate.of(1997, 1, 1), "10203040", email,
+                LocalDate.of(2024, 1, 1), "DogTeacher", "Dean");
+    }
+}
@@ -0,0 +1,155 @@
+package com.byt.services.user_system;
+
+import com.byt.data.user_system.Student;
+import com.byt.enums.user_system.StudyLanguage;
+import com.byt.enums.user_system.StudyStatus;
+import com.byt.persistence.InMemoryDataRepository;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
+import com.byt.persistence.WriteAheadLog;
+import com.byt.persistence.util.DataSaveKeys;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many writers and readers on one StudentService at once. Every writer owns its own students and
+// all of them keep updating a few shared ones, so the per-key locking gets contended. Afterwards
+// the service and what got persisted have to agree.
+public class StudentServiceConcurrencyTest {
+    private static final int WRITERS = 8;
+    private static final int READERS = 2;
+    private static final int STUDENTS_PER_WRITER = 40;
+    private static final int SHARED_STUDENTS = 4;
+
+    private final JsonDataSerializer serializer = new JsonDataSerializer();
+    private final InMemoryDataRepository repository = new InMemoryDataRepository();
+
+    private static Student student(String email, int phone) {
+        return new Student("Yumi", "Hnatiuk", "Pies", LocalDate.of(1997, 1, 1),
+                String.valueOf(100_000_000 + phone), email, Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+    }
+
+    private static String sharedEmail(int n) {
+        return "shared" + n + "@mail.com";
+    }
+
+    @Test
+    public void testConcurrentWritesWithFullSaves() throws Exception {
+        SaveLoadService database = new SaveLoadService(serializer, repository);
+
+        runAndVerify(database, () -> new SaveLoadService(serializer, repository));
+    }
+
+    @Test
+    public void testConcurrentWritesWithWriteAheadLog() throws Exception {
+        // a low threshold keeps background compactions running alongside the writers
+        WriteAheadLog log = new WriteAheadLog(serializer, repository, 50);
+        try {
+            SaveLoadService database = new SaveLoadService(serializer, repository, log);
+
+            runAndVerify(database, () -> new SaveLoadService(serializer, repository, log));
+        } finally {
+            log.close();
+        }
+    }
+
+    private void runAndVerify(SaveLoadService database, Callable<SaveLoadService> reopen) throws Exception {
+        List<Student> initial = new ArrayList<>();
+        for (int n = 0; n < SHARED_STUDENTS; n++)
+            initial.add(student(sharedEmail(n), n));
+
+        StudentService service = new StudentService(database, initial, null);
+        database.save(DataSaveKeys.STUDENTS, service.getAll());
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<Set<String>>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> write(service, writer)));
+            }
+            for (int r = 0; r < READERS; r++)
+                readers.add(executor.submit(() -> read(service, writing)));
+
+            Set<String> expected = new HashSet<>();
+            for (int n = 0; n < SHARED_STUDENTS; n++)
+                expected.add(sharedEmail(n));
+            for (Future<Set<String>> writer : writers)
+                expected.addAll(writer.get(60, TimeUnit.SECONDS));
+
+            writing.set(false);
+            for (Future<?> reader : readers)
+                reader.get(60, TimeUnit.SECONDS);
+
+            // the service holds exactly what the writers left behind
+            List<Student> stored = service.getAll();
+            assertEquals(expected, emails(stored));
+            assertEquals(expected.size(), stored.size());
+
+            // and the persisted state matches it entity by entity
+            StudentService reloaded = new StudentService(reopen.call());
+            reloaded.initialize();
+            assertEquals(phonesByEmail(stored), phonesByEmail(reloaded.getAll()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Creates, updates, renames and deletes the writer's own students, touching the shared ones in between
+    private static Set<String> write(StudentService service, int writer) throws Exception {
+        Set<String> alive = new HashSet<>();
+
+        for (int n = 0; n < STUDENTS_PER_WRITER; n++) {
+            String email = "w" + writer + "_" + n + "@mail.com";
+            service.create(student(email, n));
+            service.update(email, student(email, n + 1));
+
+            if (n % 3 == 0) {
+                String renamed = "w" + writer + "_" + n + "_renamed@mail.com";
+                service.update(email, student(renamed, n + 2));
+                email = renamed;
+            }
+
+            if (n % 4 == 0)
+                service.delete(email);
+            else
+                alive.add(email);
+
+            String shared = sharedEmail(n % SHARED_STUDENTS);
+            service.update(shared, student(shared, writer * 1000 + n));
+        }
+
+        return alive;
+    }
+
+    private static Void read(StudentService service, AtomicBoolean writing) throws Exception {
+        while (writing.get()) {
+            List<Student> snapshot = service.snapshot();
+            // one entity per key, whatever writes run meanwhile
+            assertEquals(snapshot.size(), emails(snapshot).size());
+
+            for (Student student : snapshot)
+                service.get(student.getEmail());
+
+            service.getAll();
+        }
+        return null;
+    }
+
+    private static Set<String> emails(Collection<Student> students) {
+        return students.stream().map(Student::getEmail).collect(Collectors.toSet());
+    }
+
+    private static Map<String, String> phonesByEmail(Collection<Student> students) {
+        return students.stream().collect(Collectors.toMap(Student::getEmail, Student::getPhoneNumber));
+    }
+}
@@ -1,5 +1,8 @@
 package com.byt.services.user_system;
 
+import com.byt.data.reporting.IssueReport;
+import com.byt.persistence.JsonDataSerializer;
+import com.byt.persistence.SaveLoadService;
 import com.byt.persistence.util.DataSaveKeys;
 import com.byt.services.CRUDServiceTest;
 import com.byt.data.user_system.Student;
@@ -7,11 +10,13 @@ import com.byt.enums.user_system.StudyLanguage;
 import com.byt.enums.user_system.StudyStatus;
 import com.byt.exception.ValidationException;
 import com.byt.exception.ExceptionCode;
+import com.byt.services.reporting.IssueReportService;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -94,6 +99,100 @@ public class StudentServiceTest extends CRUDServiceTest<Student> {
         assertEquals(StudyStatus.SUSPENDED, updated.getStudiesStatus());
     }
 
+    // email change must not overwrite the student stored after the updated one
+    @Test
+    public void updateStudentEmailKeepsOtherStudents() throws IOException {
+        StudentService service = (StudentService) emptyService;
+        LocalDate dob = LocalDate.now().minusYears(25);
+
+        service.create("Yumi", "Hnatiuk", "Pies", dob, "10203040", "first@gmail.com",
+                Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+        service.create("Ostap", "Hnatiuk", "Pies", dob, "10203041", "second@gmail.com",
+                Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE);
+
+        Student prototype = service.get("first@gmail.com").orElseThrow();
+        prototype.setEmail("renamed@gmail.com");
+        service.update("first@gmail.com", prototype);
+
+        assertFalse(service.exists("first@gmail.com"));
+        assertEquals("Yumi", service.get("renamed@gmail.com").orElseThrow().getFirstName());
+        assertEquals("Ostap", service.get("second@gmail.com").orElseThrow().getFirstName());
+        assertEquals(2, service.getAll().size());
+    }
+
+    @Test
+    public void createAllAndUpdateAllStudents() throws IOException {
+        StudentService service = (StudentService) emptyService;
+        LocalDate dob = LocalDate.now().minusYears(25);
+
+        service.createAll(List.of(
+                new Student("Yumi", "Hnatiuk", "Pies", dob, "10203040", "first@gmail.com",
+                        Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE),
+                new Student("Ostap", "Hnatiuk", "Pies", dob, "10203041", "second@gmail.com",
+                        Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE)));
+
+        Student renamed = service.get("first@gmail.com").orElseThrow();
+        renamed.setEmail("renamed@gmail.com");
+        Student suspended = service.get("second@gmail.com").orElseThrow();
+        suspended.setStudiesStatus(StudyStatus.SUSPENDED);
+
+        Map<String, Student> updates = new LinkedHashMap<>();
+        updates.put("first@gmail.com", renamed);
+        updates.put("second@gmail.com", suspended);
+        service.updateAll(updates);
+
+        assertFalse(service.exists("first@gmail.com"));
+        assertEquals("Yumi", service.get("renamed@gmail.com").orElseThrow().getFirstName());
+        assertEquals(StudyStatus.SUSPENDED, service.get("second@gmail.com").orElseThrow().getStudiesStatus());
+    }
+
+    // the reports follow the email in the same batch, and back when its save fails
+    @Test
+    public void updateAllMovesIssueReportsAlongAllOrNothing() throws IOException {
+        FailingRepository repository = new FailingRepository(Map.of());
+        SaveLoadService saveLoadService = new SaveLoadService(new JsonDataSerializer(), repository);
+        IssueReportService reports = new IssueReportService(saveLoadService, List.of());
+        StudentService service = new StudentService(saveLoadService, List.of(), reports);
+        LocalDate dob = LocalDate.now().minusYears(25);
+
+        service.create(new Student("Yumi", "Hnatiuk", "Pies", dob, "10203040", "first@gmail.com",
+                Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE));
+        reports.create(new IssueReport("first@gmail.com", "Projector", "Broken", LocalDateTime.now()));
+        Student renamed = service.get("first@gmail.com").orElseThrow();
+        renamed.setEmail("renamed@gmail.com");
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.updateAll(Map.of("first@gmail.com", renamed)));
+        repository.failing = false;
+
+        assertTrue(service.exists("first@gmail.com"));
+        assertFalse(service.exists("renamed@gmail.com"));
+        assertEquals(1, reports.getAllByEmail("first@gmail.com").size());
+        assertTrue(reports.getAllByEmail("renamed@gmail.com").isEmpty());
+
+        service.updateAll(Map.of("first@gmail.com", renamed));
+
+        IssueReportService reloaded = new IssueReportService(saveLoadService);
+        reloaded.initialize();
+        assertEquals(1, reloaded.getAllByEmail("renamed@gmail.com").size());
+    }
+
+    @Test
+    public void createAllRejectsWholeBatchOnOneInvalidStudent() {
+        StudentService service = (StudentService) emptyService;
+        LocalDate dob = LocalDate.now().minusYears(25);
+
+        List<Student> batch = List.of(
+                new Student("Yumi", "Hnatiuk", "Pies", dob, "10203040", "first@gmail.com",
+                        Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE),
+                new Student("Ostap", "Hnatiuk", "Pies", dob, "10203041", "not-an-email",
+                        Set.of(StudyLanguage.ENGLISH), StudyStatus.ACTIVE));
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> service.createAll(batch));
+        assertEquals(ExceptionCode.INVALID_FORMAT, ex.getExceptionCode());
+        assertTrue(service.snapshot().isEmpty());
+    }
+
     // firstName contains ukrainian letters
     @Test
     public void createStudentWithNonLatinFirstName() {
@@ -449,4 +548,33 @@ public class StudentServiceTest extends CRUDServiceTest<Student> {
         assertFalse(stored.getLanguagesOfStudies().contains(StudyLanguage.POLISH));
     }
 
+    @Test
+    public void failedSavesGiveTheirEmailsBack() throws IOException {
+        FailingRepository repository = new FailingRepository(Map.of());
+        StudentService service = (StudentService) newService(repository);
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        service.setIdentityIndex(index);
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.create(getSampleObject()));
+        assertFalse(service.exists(SAMPLE_EMAIL));
+        assertFalse(index.isTaken(SAMPLE_EMAIL));
+
+        repository.failing = false;
+        service.create(getSampleObject());
+
+        Student renamed = getSampleObject();
+        renamed.setEmail("anna@gmail.com");
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.update(SAMPLE_EMAIL, renamed));
+        assertTrue(service.exists(SAMPLE_EMAIL));
+        assertFalse(service.exists("anna@gmail.com"));
+        assertEquals(EmailIdentityIndex.Role.STUDENT, index.find(SAMPLE_EMAIL).orElseThrow().role());
+        assertFalse(index.isTaken("anna@gmail.com"));
+
+        assertThrows(IOException.class, () -> service.delete(SAMPLE_EMAIL));
+        assertTrue(service.exists(SAMPLE_EMAIL));
+        assertEquals(EmailIdentityIndex.Role.STUDENT, index.find(SAMPLE_EMAIL).orElseThrow().role());
+    }
+
 }
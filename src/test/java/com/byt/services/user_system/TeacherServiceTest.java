@@ -2,15 +2,24 @@ package com.byt.services.user_system;
 
 import com.byt.persistence.util.DataSaveKeys;
 import com.byt.services.CRUDServiceTest;
+import com.byt.data.scheduling.Lesson;
 import com.byt.data.user_system.Teacher;
+import com.byt.enums.scheduling.DayOfWeek;
+import com.byt.enums.scheduling.LessonMode;
+import com.byt.enums.scheduling.LessonType;
+import com.byt.enums.scheduling.WeekPattern;
+import com.byt.enums.user_system.StudyLanguage;
 import com.byt.exception.ValidationException;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -544,4 +553,47 @@ public class TeacherServiceTest extends CRUDServiceTest<Teacher> {
         assertNotEquals("CHANGED", stored.getFirstName());
         assertEquals("Yumi", stored.getFirstName());
     }
+
+    @Test
+    public void failedDeleteKeepsTheTeacherAndItsEmail() throws IOException {
+        FailingRepository repository = new FailingRepository(Map.of());
+        TeacherService service = (TeacherService) newService(repository);
+        EmailIdentityIndex index = new EmailIdentityIndex();
+        service.setIdentityIndex(index);
+        Teacher teacher = getSampleObject();
+        teacher.setEmail("yumi@school.edu");
+        service.create(teacher);
+
+        repository.failing = true;
+        assertThrows(IOException.class, () -> service.delete("yumi@school.edu"));
+
+        assertTrue(service.exists("yumi@school.edu"));
+        assertEquals(EmailIdentityIndex.Role.TEACHER, index.find("yumi@school.edu").orElseThrow().role());
+    }
+
+    @Test
+    public void updateMovesTheLessonsToTheNewTeacher() throws IOException {
+        TeacherService service = (TeacherService) newService(new FailingRepository(Map.of()));
+        Teacher teacher = getSampleObject();
+        teacher.setEmail("yumi@school.edu");
+        Lesson lesson = Lesson.builder()
+                .name("Algorithms Lecture")
+                .type(LessonType.LECTURE)
+                .mode(LessonMode.OFFLINE)
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(11, 30))
+                .language(StudyLanguage.ENGLISH)
+                .weekPattern(WeekPattern.NORMAL)
+                .build();
+        lesson.addTeacher(teacher);
+        service.create(teacher);
+
+        Teacher renamed = service.get("yumi@school.edu").orElseThrow();
+        renamed.setEmail("hnatiuk@school.edu");
+        service.update("yumi@school.edu", renamed);
+
+        assertEquals("hnatiuk@school.edu", lesson.getTeacher().getEmail());
+        assertEquals(Set.of(lesson), service.get("hnatiuk@school.edu").orElseThrow().getLessons());
+    }
 }
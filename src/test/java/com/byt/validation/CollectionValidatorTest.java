@@ -80,6 +80,31 @@ public class CollectionValidatorTest {
                 });
     }
 
+    @Test
+    public void testNoDuplicatesFindsThemInLargeCollections() {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            list.add(i);
+        Integer[] array = list.toArray(Integer[]::new);
+        Collection<Integer> linked = new LinkedList<>(list);
+
+        assertAll(
+                () -> assertDoesNotThrow(() -> CollectionValidator.assertHasNoDuplicates(list)),
+                () -> assertDoesNotThrow(() -> CollectionValidator.assertHasNoDuplicates(array)),
+                () -> assertDoesNotThrow(() -> CollectionValidator.assertHasNoDuplicates(linked))
+        );
+
+        list.add(42);
+        linked.add(42);
+        Integer[] arrayWithDuplicate = list.toArray(Integer[]::new);
+
+        assertAll(
+                () -> assertThrows(ValidationException.class, () -> CollectionValidator.assertHasNoDuplicates(list)),
+                () -> assertThrows(ValidationException.class, () -> CollectionValidator.assertHasNoDuplicates(arrayWithDuplicate)),
+                () -> assertThrows(ValidationException.class, () -> CollectionValidator.assertHasNoDuplicates(linked))
+        );
+    }
+
     @Test
     public void testAllValidDoesntThrowOnEmptyCollection() {
         List<?> emptyList = new ArrayList<>();
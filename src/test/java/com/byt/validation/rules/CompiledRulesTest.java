@@ -0,0 +1,102 @@
+package com.byt.validation.rules;
+
+import com.byt.exception.ExceptionCode;
+import com.byt.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledRulesTest {
+    private record Named(String name, String description) {
+    }
+
+    private record Sized(String name, String description, int size) {
+    }
+
+    private static final FieldRule<String> NAME = Rules.notEmpty("name");
+    private static final FieldRule<String> DESCRIPTION = Rules.optional(Rules.notEmpty("description"));
+
+    private static final CompiledRules<Named> NAMED = RuleSet.<Named>of("Named")
+            .rule(named -> NAME.check(named.name()))
+            .rule(named -> DESCRIPTION.check(named.description()))
+            .compile();
+
+    @Test
+    public void testValidEntityHasNoViolations() {
+        Named named = new Named("a", null);
+
+        assertAll(
+                () -> assertNull(NAMED.firstViolation(named)),
+                () -> assertTrue(NAMED.violations(named).isEmpty()),
+                () -> assertTrue(NAMED.isValid(named)),
+                () -> assertDoesNotThrow(() -> NAMED.check(named))
+        );
+    }
+
+    @Test
+    public void testAllViolationsAreCollectedInOrder() {
+        Named named = new Named(" ", "");
+
+        List<Violation> violations = NAMED.violations(named);
+
+        assertEquals(List.of("name", "description"), violations.stream().map(Violation::field).toList());
+        assertEquals(violations.getFirst(), NAMED.firstViolation(named));
+    }
+
+    @Test
+    public void testCheckThrowsTheFirstViolation() {
+        ValidationException ex = assertThrows(ValidationException.class, () -> NAMED.check(new Named("a", " ")));
+        assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, ex.getExceptionCode());
+    }
+
+    @Test
+    public void testNullEntityIsAViolation() {
+        ValidationException ex = assertThrows(ValidationException.class, () -> NAMED.check(null));
+
+        assertEquals(ExceptionCode.NOT_NULL_VIOLATION, ex.getExceptionCode());
+        assertEquals("Named must not be null", ex.getMessage());
+        assertEquals(1, NAMED.violations(null).size());
+    }
+
+    @Test
+    public void testIncludedRulesAreCheckedWhereTheyAreIncluded() {
+        CompiledRules<Sized> sized = RuleSet.<Sized>of("Sized")
+                .rule(Rules.min("size", Sized::size, 1))
+                .include(RuleSet.<Sized>of("Shared").rule(entity -> NAME.check(entity.name())).compile())
+                .rule(Rules.max("size", Sized::size, 10))
+                .compile();
+
+        assertAll(
+                () -> assertEquals(3, sized.rules().length),
+                () -> assertEquals(List.of("size", "name"),
+                        sized.violations(new Sized(null, null, 0)).stream().map(Violation::field).toList()),
+                () -> assertEquals(ExceptionCode.MAX_VALUE_VIOLATION, sized.firstViolation(new Sized("a", null, 11)).code())
+        );
+    }
+
+    @Test
+    public void testValidateAllReportsTheInvalidEntitiesByIndex() {
+        List<Named> batch = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            batch.add(i % 1000 == 7 ? new Named("", " ") : new Named("n" + i, null));
+
+        SortedMap<Integer, List<Violation>> invalid = NAMED.validateAll(batch);
+
+        assertEquals(10, invalid.size());
+        assertEquals(7, invalid.firstKey());
+        invalid.values().forEach(violations -> assertEquals(2, violations.size()));
+    }
+
+    @Test
+    public void testCheckAllThrowsForTheFirstInvalidEntity() {
+        List<Named> batch = List.of(new Named("a", null), new Named("b", " "), new Named(null, null));
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> NAMED.checkAll(batch));
+        assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, ex.getExceptionCode());
+        assertDoesNotThrow(() -> NAMED.checkAll(List.of(new Named("a", null))));
+    }
+}
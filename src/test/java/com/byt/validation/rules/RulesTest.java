@@ -0,0 +1,121 @@
+package com.byt.validation.rules;
+
+import com.byt.exception.ExceptionCode;
+import com.byt.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RulesTest {
+    // what UserValidator matched emails with before the rules walked the characters themselves
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9._]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    @Test
+    public void testEmailAcceptsWhatThePatternDid() {
+        FieldRule<String> email = Rules.email("email", "Email", 254);
+        List<String> addresses = List.of(
+                "yumipies@gmail.com", "a.b_c@d-e.f.gh", "  padded@school.edu  ", "a@b.cc", "first.last@sub.domain.org",
+                "a@b.c", "@b.cc", "a@.cc", "a@b..cc", "a@b.c1", "a@b.cc.", "a@@b.cc", "a b@c.dd", "a@b_c.dd",
+                "a@b", "ab.cc", "a@-.cc", "a@b.cc1", "a.@b.cc", "a@b.ccc@d.ee", "ä@b.cc", "a@b.çc");
+
+        for (String address : addresses) {
+            boolean matches = EMAIL_PATTERN.matcher(address.trim()).matches();
+            assertEquals(matches, email.check(address) == null, address);
+        }
+    }
+
+    @Test
+    public void testEmailViolationsKeepTheirCodes() {
+        FieldRule<String> email = Rules.email("email", "Email", 254);
+
+        assertAll(
+                () -> assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, email.check(null).code()),
+                () -> assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, email.check("   ").code()),
+                () -> assertEquals(ExceptionCode.LENGTH_TOO_LONG, email.check("a".repeat(250) + "@b.cc").code()),
+                () -> assertEquals(ExceptionCode.INVALID_FORMAT, email.check("not an email").code())
+        );
+    }
+
+    @Test
+    public void testLatinNameChecksTheTrimmedValue() {
+        FieldRule<String> required = Rules.latinName("firstName", "First name", true, 1, 5);
+        FieldRule<String> optional = Rules.latinName("familyName", "Family name", false, 1, 5);
+
+        assertAll(
+                () -> assertNull(required.check("  Yumi ")),
+                () -> assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, required.check(" ").code()),
+                () -> assertEquals(ExceptionCode.VALUE_OUT_OF_RANGE, required.check("Yumiko").code()),
+                () -> assertEquals(ExceptionCode.INVALID_FORMAT, required.check("Yu mi").code()),
+                () -> assertNull(optional.check(null)),
+                () -> assertEquals(ExceptionCode.VALUE_OUT_OF_RANGE, optional.check(" ").code())
+        );
+    }
+
+    @Test
+    public void testDigitsWantsOnlyDigitsOfTheRightCount() {
+        FieldRule<String> phone = Rules.digits("phoneNumber", "Phone number", 7, 13);
+
+        assertAll(
+                () -> assertNull(phone.check(" 48505505505 ")),
+                () -> assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, phone.check("").code()),
+                () -> assertEquals(ExceptionCode.INVALID_FORMAT, phone.check("123456").code()),
+                () -> assertEquals(ExceptionCode.INVALID_FORMAT, phone.check("12345678901234").code()),
+                () -> assertEquals(ExceptionCode.INVALID_FORMAT, phone.check("+48505505505").code())
+        );
+    }
+
+    @Test
+    public void testDateOfBirthBounds() {
+        FieldRule<LocalDate> dateOfBirth = Rules.dateOfBirth("dateOfBirth", 16, 140);
+        LocalDate today = LocalDate.now();
+
+        assertAll(
+                () -> assertNull(dateOfBirth.check(today.minusYears(25))),
+                () -> assertEquals(ExceptionCode.NOT_NULL_VIOLATION, dateOfBirth.check(null).code()),
+                () -> assertEquals("Date of birth must be in past", dateOfBirth.check(today).message()),
+                () -> assertEquals("User must be at least 16", dateOfBirth.check(today.minusYears(15)).message()),
+                () -> assertEquals("User age must be less than 140", dateOfBirth.check(today.minusYears(141)).message())
+        );
+    }
+
+    @Test
+    public void testNoNullElementsCopesWithCollectionsThatRejectNull() {
+        FieldRule<java.util.Collection<?>> rule =
+                Rules.noNullElements("languages", ExceptionCode.NOT_NULL_VIOLATION, "Language must not be null");
+
+        assertAll(
+                () -> assertNull(rule.check(Set.of("EN", "PL"))),
+                () -> assertNull(rule.check(List.of("EN"))),
+                () -> assertNotNull(rule.check(new HashSet<>(Arrays.asList("EN", null))))
+        );
+    }
+
+    @Test
+    public void testAndReportsOnlyTheFirstViolation() {
+        FieldRule<String> rule = Rules.notEmpty("notes")
+                .and(Rules.maxTrimmedLength("notes", 3, ExceptionCode.LENGTH_TOO_LONG, "Notes are too long"));
+
+        assertAll(
+                () -> assertNull(rule.check(" abc ")),
+                () -> assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, rule.check(null).code()),
+                () -> assertEquals(ExceptionCode.LENGTH_TOO_LONG, rule.check("abcd").code())
+        );
+    }
+
+    @Test
+    public void testEnforceThrowsTheViolation() {
+        Violation violation = new Violation("name", ExceptionCode.NOT_EMPTY_VIOLATION);
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> Rules.enforce(violation));
+        assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION, ex.getExceptionCode());
+        assertEquals(ExceptionCode.NOT_EMPTY_VIOLATION.getMessage(), ex.getMessage());
+        assertDoesNotThrow(() -> Rules.enforce(null));
+    }
+}